@@ -0,0 +1,87 @@
+package com.template.benchmarks;
+
+import com.template.TemplateBuilderApplication;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Boots the backend application context against a private in-memory H2 database.
+ * Each benchmark state gets its own database so trials never see each other's rows.
+ */
+public final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * Starts the application without the web layer.
+     * Command line arguments are used because they take precedence over application.properties.
+     *
+     * @param databaseName The name of the in-memory H2 database.
+     * @return The running application context; close it in the trial tear-down.
+     */
+    public static ConfigurableApplicationContext start(String databaseName) {
+        return start(databaseName, new String[0]);
+    }
+
+    /**
+     * Starts the application without the web layer.
+     *
+     * @param databaseName The name of the in-memory H2 database.
+     * @param extraArgs Additional Spring Boot command line arguments, e.g. pool sizes.
+     * @param initializers Initializers applied before the context is refreshed.
+     * @return The running application context; close it when done.
+     */
+    @SafeVarargs
+    public static ConfigurableApplicationContext start(String databaseName, String[] extraArgs,
+                                                       ApplicationContextInitializer<ConfigurableApplicationContext>... initializers) {
+        List<String> args = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName
+                        + ";DB_CLOSE_DELAY=-1;INIT=RUNSCRIPT FROM 'classpath:schema.sql'",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.template=WARN"));
+        args.addAll(Arrays.asList(extraArgs));
+        return new SpringApplicationBuilder(TemplateBuilderApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .initializers(initializers)
+                .run(args.toArray(new String[0]));
+    }
+
+    /**
+     * Removes all runtime rows (executors and logs) so iterations start from the same table sizes.
+     *
+     * @param context The running application context.
+     */
+    public static void clearRuntimeTables(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM workflow_executors");
+        jdbcTemplate.update("DELETE FROM execution_log");
+        jdbcTemplate.update("DELETE FROM executor_transitions");
+        jdbcTemplate.update("DELETE FROM approval_inbox_entries");
+        jdbcTemplate.update("DELETE FROM approval_role_counters");
+    }
+
+    /**
+     * Removes all workflow definitions, together with their nodes, edges and versions.
+     *
+     * @param context The running application context.
+     */
+    public static void clearDefinitionTables(ConfigurableApplicationContext context) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM edges");
+        jdbcTemplate.update("DELETE FROM nodes");
+        jdbcTemplate.update("DELETE FROM workflows");
+        jdbcTemplate.update("DELETE FROM workflow_definition_versions");
+    }
+}
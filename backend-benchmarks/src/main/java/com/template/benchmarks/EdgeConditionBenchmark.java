@@ -0,0 +1,59 @@
+package com.template.benchmarks;
+
+import com.template.model.EdgeCondition;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures edge condition evaluation against the outputs of a SQL task node:
+ * - compiled: a condition compiled once, as CompiledWorkflow does per definition version
+ * - parsedPerEvaluation: the same condition parsed and compiled for every evaluation
+ *
+ * Conditions range from a single comparison to a combination of comparisons on outputs and
+ * parameters; parameter references are folded into constants when compiling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EdgeConditionBenchmark {
+
+    @Param({
+            "output.rowsAffected > 0",
+            "output.rowsAffected >= params.minRows && output.committed",
+            "(output.durationMillis < 60000 || params.environment == 'dev') && !(output.statements > 10) && output.mode != 'best-effort'"
+    })
+    public String condition;
+
+    private Map<String, String> params;
+    private Map<String, Object> outputs;
+    private EdgeCondition compiled;
+
+    @Setup(Level.Trial)
+    public void compile() {
+        params = Map.of("minRows", "1", "environment", "prod");
+        outputs = new HashMap<>();
+        outputs.put("rowsAffected", 42L);
+        outputs.put("rowsRead", 1_000L);
+        outputs.put("durationMillis", 1_250L);
+        outputs.put("statements", 3);
+        outputs.put("committed", true);
+        outputs.put("mode", "transactional");
+        compiled = EdgeCondition.compile(condition, params);
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.test(params, outputs);
+    }
+
+    @Benchmark
+    public boolean parsedPerEvaluation() {
+        return EdgeCondition.compile(condition, params).test(params, outputs);
+    }
+}
@@ -0,0 +1,127 @@
+package com.template.benchmarks;
+
+import com.template.model.*;
+import com.template.service.WorkflowExecutionService;
+import com.template.service.WorkflowService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures one engine step against embedded H2:
+ * - nodeStep: PENDING node executor -> RUNNING -> executeService -> COMPLETED, outgoing edge lookup and completion check
+ * - edgeStep: PENDING approval edge executor -> WAITING_FOR_APPROVAL
+ * - completionCheck: the per-instance executor scan used to decide whether an instance has finished
+ *
+ * The node and edge workflows are created once per iteration, when the tables have just been cleared.
+ * Each invocation only adds a fresh executor of each as the only executor of a new instance, so the
+ * completion check inside the step always scans the same number of rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EngineStepBenchmark {
+
+    @Param({"4"})
+    public int parametersPerNode;
+
+    @Param({"10", "100", "1000"})
+    public int executorsPerInstance;
+
+    private ConfigurableApplicationContext context;
+    private WorkflowExecutionService engine;
+    private WorkflowService workflowService;
+
+    private Workflow nodeWorkflow;
+    private Workflow edgeWorkflow;
+    private int instance;
+
+    private String nodeExecutorId;
+    private String edgeExecutorId;
+    private String completionServiceId;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("engine-step");
+        engine = context.getBean(WorkflowExecutionService.class);
+        workflowService = context.getBean(WorkflowService.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void createWorkflows() {
+        // Single isolated node: executes, finds no outgoing edges and completes the instance
+        nodeWorkflow = new WorkflowGenerator(WorkflowGenerator.Shape.LINEAR, 1, parametersPerNode).generate();
+        workflowService.createWorkflow(nodeWorkflow);
+        // Two nodes joined by an approval edge: the edge step parks in WAITING_FOR_APPROVAL
+        edgeWorkflow = new WorkflowGenerator(WorkflowGenerator.Shape.APPROVAL_HEAVY, 2, parametersPerNode).generate();
+        workflowService.createWorkflow(edgeWorkflow);
+        seedCompletionRows();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareExecutors() {
+        WorkflowExecutor nodeExecutor = executor(nodeWorkflow.getId(), "bench-node-" + instance, nodeWorkflow.getNodes().get(0).getId(), ExecutorType.NODE);
+        workflowService.saveWorkflowExecutor(nodeExecutor);
+        nodeExecutorId = nodeExecutor.getId();
+
+        WorkflowExecutor edgeExecutor = executor(edgeWorkflow.getId(), "bench-edge-" + instance, edgeWorkflow.getEdges().get(0).getId(), ExecutorType.EDGE);
+        workflowService.saveWorkflowExecutor(edgeExecutor);
+        edgeExecutorId = edgeExecutor.getId();
+        instance++;
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetRows() {
+        BenchmarkContext.clearRuntimeTables(context);
+        BenchmarkContext.clearDefinitionTables(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void nodeStep() {
+        engine.startWorkflowFromExecutor(nodeExecutorId);
+    }
+
+    @Benchmark
+    public void edgeStep() {
+        engine.startWorkflowFromExecutor(edgeExecutorId);
+    }
+
+    @Benchmark
+    public boolean completionCheck() {
+        List<WorkflowExecutor> executors = workflowService.getWorkflowExecutorByServiceId(completionServiceId);
+        return executors.stream().allMatch(e -> e.getStatus().isTerminal());
+    }
+
+    // A finished instance with a fixed number of executors for the completion scan
+    private void seedCompletionRows() {
+        Workflow workflow = new WorkflowGenerator(WorkflowGenerator.Shape.LINEAR, 1, parametersPerNode).generate();
+        workflowService.createWorkflow(workflow);
+        completionServiceId = "bench-" + workflow.getId();
+        for (int i = 0; i < executorsPerInstance; i++) {
+            WorkflowExecutor executor = executor(workflow.getId(), completionServiceId, workflow.getNodes().get(0).getId(), ExecutorType.NODE);
+            executor.setStatus(ExecutionStatus.COMPLETED);
+            workflowService.saveWorkflowExecutor(executor);
+        }
+    }
+
+    private static WorkflowExecutor executor(String workflowId, String serviceId, String childrenId, ExecutorType type) {
+        WorkflowExecutor executor = new WorkflowExecutor();
+        executor.setWorkflowId(workflowId);
+        executor.setServiceId(serviceId);
+        executor.setName("benchmark");
+        executor.setType(type);
+        executor.setChildrenId(childrenId);
+        executor.setStatus(ExecutionStatus.PENDING);
+        return executor;
+    }
+}
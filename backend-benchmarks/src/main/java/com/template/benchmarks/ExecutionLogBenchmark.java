@@ -0,0 +1,65 @@
+package com.template.benchmarks;
+
+import com.template.model.ExecutionStatus;
+import com.template.model.ExecutorType;
+import com.template.model.WorkflowExecutor;
+import com.template.service.WorkflowExecutionLogService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the execution log writes the engine performs several times per step.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutionLogBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private WorkflowExecutionLogService logService;
+    private WorkflowExecutor executor;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("execution-log");
+        logService = context.getBean(WorkflowExecutionLogService.class);
+
+        executor = new WorkflowExecutor();
+        executor.setWorkflowId("benchmark-workflow");
+        executor.setServiceId("benchmark-service");
+        executor.setName("benchmark");
+        executor.setType(ExecutorType.NODE);
+        executor.setChildrenId("benchmark-node");
+        executor.setStatus(ExecutionStatus.RUNNING);
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetRows() {
+        BenchmarkContext.clearRuntimeTables(context);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void logNodeExecutionStarted() {
+        logService.logNodeExecutionStarted(executor);
+    }
+
+    @Benchmark
+    public void logNodeExecutionResult() {
+        logService.logNodeExecutionResult(executor, true);
+    }
+
+    @Benchmark
+    public void logWorkflowCompletionCheck() {
+        logService.logWorkflowCompletionCheck(executor.getWorkflowId(), executor.getServiceId(), false);
+    }
+}
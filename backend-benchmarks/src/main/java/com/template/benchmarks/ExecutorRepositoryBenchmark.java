@@ -0,0 +1,95 @@
+package com.template.benchmarks;
+
+import com.template.dao.WorkflowExecutorRepository;
+import com.template.model.ExecutionStatus;
+import com.template.model.ExecutorType;
+import com.template.model.WorkflowExecutor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the executor persistence paths used on every engine step:
+ * save of a new executor (insert), save of an existing executor (update) and saveAll for a batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExecutorRepositoryBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private WorkflowExecutorRepository executorRepository;
+
+    private WorkflowExecutor existingExecutor;
+    private WorkflowExecutor newExecutor;
+    private List<WorkflowExecutor> newBatch;
+
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkContext.start("executor-repository");
+        executorRepository = context.getBean(WorkflowExecutorRepository.class);
+        seedExistingExecutor();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareExecutors() {
+        newExecutor = executor();
+        newBatch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            newBatch.add(executor());
+        }
+        existingExecutor.setStatus(ExecutionStatus.RUNNING.equals(existingExecutor.getStatus())
+                ? ExecutionStatus.COMPLETED : ExecutionStatus.RUNNING);
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetRows() {
+        BenchmarkContext.clearRuntimeTables(context);
+        seedExistingExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public void saveInsert() {
+        executorRepository.save(newExecutor);
+    }
+
+    @Benchmark
+    public void saveUpdate() {
+        executorRepository.save(existingExecutor);
+    }
+
+    @Benchmark
+    public void saveAll() {
+        executorRepository.saveAll(newBatch);
+    }
+
+    private void seedExistingExecutor() {
+        existingExecutor = executor();
+        executorRepository.save(existingExecutor);
+    }
+
+    private static WorkflowExecutor executor() {
+        WorkflowExecutor executor = new WorkflowExecutor();
+        executor.setWorkflowId("benchmark-workflow");
+        executor.setServiceId("benchmark-service");
+        executor.setName("benchmark");
+        executor.setType(ExecutorType.NODE);
+        executor.setChildrenId("benchmark-node");
+        executor.setStatus(ExecutionStatus.PENDING);
+        return executor;
+    }
+}
@@ -0,0 +1,42 @@
+package com.template.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.model.WorkflowInstanceDetails;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSON serialization of WorkflowInstanceDetails, the payload of details-by-service.
+ * Uses an ObjectMapper configured the same way Spring Boot configures the MVC one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InstanceDetailsSerializationBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int nodeCount;
+
+    @Param({"4"})
+    public int parametersPerNode;
+
+    private ObjectMapper objectMapper;
+    private WorkflowInstanceDetails details;
+
+    @Setup(Level.Trial)
+    public void prepare() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        WorkflowGenerator generator = new WorkflowGenerator(WorkflowGenerator.Shape.LINEAR, nodeCount, parametersPerNode);
+        details = WorkflowGenerator.instanceDetails(generator.generate());
+    }
+
+    @Benchmark
+    public byte[] writeValueAsBytes() throws Exception {
+        return objectMapper.writeValueAsBytes(details);
+    }
+}
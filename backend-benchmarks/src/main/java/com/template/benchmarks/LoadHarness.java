@@ -0,0 +1,320 @@
+package com.template.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.template.dao.WorkflowExecutorRepository;
+import com.template.model.Task;
+import com.template.model.Workflow;
+import com.template.model.WorkflowExecutor;
+import com.template.service.TaskService;
+import com.template.service.WorkflowExecutionService;
+import com.template.service.WorkflowService;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * End-to-end load harness for the workflow engine.
+ *
+ * Seeds synthetic workflows, starts tasks through {@link TaskService#saveAndInitiateWorkflow} at a target rate,
+ * approves waiting edges through the bulk approval path and reports throughput, per-step latency percentiles,
+ * the share of engine time spent in JDBC and heap usage. Everything runs against a private in-memory H2 database.
+ *
+ * Usage (all options optional):
+ * <pre>
+ * java -cp benchmarks.jar com.template.benchmarks.LoadHarness \
+ *     --shape=DIAMOND --nodes=13 --workflows=4 --instances=5000 --rate=500 --concurrency=16 --output=load-result.json
+ * </pre>
+ * Any other --spring.* argument is passed through to the application context.
+ */
+public class LoadHarness {
+
+    private static final String APPROVER = "load-harness";
+    private static final int APPROVAL_CHUNK = 200;
+
+    private final WorkflowGenerator.Shape shape;
+    private final int nodes;
+    private final int workflows;
+    private final int instances;
+    private final int rate;
+    private final int concurrency;
+    private final String output;
+    private final String[] springArgs;
+
+    private final Histogram initiationMicros = new Histogram(TimeUnit.MINUTES.toMicros(10), 3);
+    private final Histogram approvalBatchMicros = new Histogram(TimeUnit.MINUTES.toMicros(10), 3);
+    private final LongAdder busyNanos = new LongAdder();
+    private final LongAdder failedInitiations = new LongAdder();
+    private final AtomicLong approvedExecutors = new AtomicLong();
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final AtomicLong peakHeapBytes = new AtomicLong();
+    private final LongAdder heapSampleTotal = new LongAdder();
+    private final LongAdder heapSampleCount = new LongAdder();
+
+    public LoadHarness(Map<String, String> options, String[] springArgs) {
+        this.shape = WorkflowGenerator.Shape.valueOf(options.getOrDefault("shape", "LINEAR").toUpperCase());
+        this.nodes = Integer.parseInt(options.getOrDefault("nodes", "10"));
+        this.workflows = Integer.parseInt(options.getOrDefault("workflows", "1"));
+        this.instances = Integer.parseInt(options.getOrDefault("instances", "1000"));
+        this.rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        this.output = options.getOrDefault("output", "load-result.json");
+        this.springArgs = springArgs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> springArgs = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--logging.")) {
+                springArgs.add(arg);
+            } else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                throw new IllegalArgumentException("Unrecognized argument: " + arg);
+            }
+        }
+        new LoadHarness(options, springArgs.toArray(new String[0])).run();
+    }
+
+    public void run() throws Exception {
+        // Steps are dispatched inline from after-commit callbacks, and every nested REQUIRES_NEW transaction
+        // holds its own connection until the chain unwinds. A worker therefore needs one connection per step
+        // on its longest path (at most two per node), otherwise the pool starves and initiations time out.
+        List<String> args = new ArrayList<>(Arrays.asList(springArgs));
+        if (args.stream().noneMatch(arg -> arg.startsWith("--spring.datasource.hikari.maximum-pool-size="))) {
+            args.add("--spring.datasource.hikari.maximum-pool-size=" + ((concurrency + 1) * (2 * nodes + 2)));
+        }
+
+        TimedDataSource.reset();
+        try (ConfigurableApplicationContext context = BenchmarkContext.start("load-harness", args.toArray(new String[0]),
+                ctx -> ctx.getBeanFactory().addBeanPostProcessor(new BeanPostProcessor() {
+                    @Override
+                    public Object postProcessAfterInitialization(Object bean, String beanName) {
+                        return bean instanceof DataSource dataSource ? TimedDataSource.wrap(dataSource) : bean;
+                    }
+                }))) {
+
+            TaskService taskService = context.getBean(TaskService.class);
+            WorkflowService workflowService = context.getBean(WorkflowService.class);
+            WorkflowExecutionService engine = context.getBean(WorkflowExecutionService.class);
+            WorkflowExecutorRepository executorRepository = context.getBean(WorkflowExecutorRepository.class);
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+            List<String> workflowIds = seedWorkflows(workflowService);
+            TimedDataSource.reset();
+
+            ScheduledExecutorService heapSampler = Executors.newSingleThreadScheduledExecutor();
+            heapSampler.scheduleAtFixedRate(this::sampleHeap, 0, 100, TimeUnit.MILLISECONDS);
+            long gcCountBefore = gcCount();
+            long gcMillisBefore = gcMillis();
+
+            long startNanos = System.nanoTime();
+            CountDownLatch submitted = new CountDownLatch(instances);
+            ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+            Thread approver = new Thread(() -> approveUntilDone(engine, executorRepository, submitted), "load-approver");
+            approver.start();
+
+            driveAtRate(taskService, workflowIds, workers, submitted);
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.HOURS);
+            approver.join();
+            long wallNanos = System.nanoTime() - startNanos;
+
+            heapSampler.shutdownNow();
+            Map<String, Object> report = report(jdbcTemplate, wallNanos, gcCount() - gcCountBefore, gcMillis() - gcMillisBefore);
+            print(report);
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(new File(output), report);
+            System.out.println("Load result saved to " + output);
+        }
+    }
+
+    private List<String> seedWorkflows(WorkflowService workflowService) {
+        WorkflowGenerator generator = new WorkflowGenerator(shape, nodes, 4);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < workflows; i++) {
+            Workflow workflow = generator.generate();
+            workflowService.createWorkflow(workflow);
+            ids.add(workflow.getId());
+        }
+        return ids;
+    }
+
+    // Open-loop pacing: task i is released at start + i / rate, regardless of how long earlier tasks took
+    private void driveAtRate(TaskService taskService, List<String> workflowIds, ExecutorService workers, CountDownLatch submitted)
+            throws InterruptedException {
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / Math.max(1, rate);
+        long start = System.nanoTime();
+        for (int i = 0; i < instances; i++) {
+            long releaseAt = start + i * intervalNanos;
+            long delay = releaseAt - System.nanoTime();
+            if (delay > 0) {
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+            String workflowId = workflowIds.get(i % workflowIds.size());
+            int index = i;
+            workers.execute(() -> {
+                long begin = System.nanoTime();
+                try {
+                    taskService.saveAndInitiateWorkflow(task(workflowId, index));
+                } catch (RuntimeException e) {
+                    failedInitiations.increment();
+                } finally {
+                    long elapsed = System.nanoTime() - begin;
+                    busyNanos.add(elapsed);
+                    recordMicros(initiationMicros, elapsed);
+                    submitted.countDown();
+                }
+            });
+        }
+    }
+
+    private void approveUntilDone(WorkflowExecutionService engine, WorkflowExecutorRepository executorRepository, CountDownLatch submitted) {
+        try {
+            while (true) {
+                boolean allSubmitted = submitted.getCount() == 0;
+                List<String> waiting = executorRepository.findPendingApprovalEdges().stream()
+                        .map(WorkflowExecutor::getId)
+                        .toList();
+                if (waiting.isEmpty()) {
+                    if (allSubmitted) {
+                        return;
+                    }
+                    TimeUnit.MILLISECONDS.sleep(20);
+                    continue;
+                }
+                for (int from = 0; from < waiting.size(); from += APPROVAL_CHUNK) {
+                    List<String> chunk = waiting.subList(from, Math.min(waiting.size(), from + APPROVAL_CHUNK));
+                    long begin = System.nanoTime();
+                    approvedExecutors.addAndGet(engine.approveAll(chunk, APPROVER, "Approved by load harness"));
+                    long elapsed = System.nanoTime() - begin;
+                    busyNanos.add(elapsed);
+                    recordMicros(approvalBatchMicros, elapsed);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Map<String, Object> report(JdbcTemplate jdbcTemplate, long wallNanos, long gcCount, long gcMillis) {
+        Histogram instanceMicros = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+        Histogram nodeStepMicros = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+        Histogram edgeStepMicros = new Histogram(TimeUnit.HOURS.toMicros(1), 3);
+
+        // Per-step latency is the executor's lifetime, from creation to its last status change
+        jdbcTemplate.query("SELECT type, created_at, updated_at FROM workflow_executors WHERE status IN ('COMPLETED', 'FAILED', 'REJECTED')", rs -> {
+            long micros = micros(rs.getTimestamp("created_at"), rs.getTimestamp("updated_at"));
+            if ("NODE".equals(rs.getString("type"))) {
+                record(nodeStepMicros, micros);
+            } else {
+                record(edgeStepMicros, micros);
+            }
+        });
+
+        // Instance latency is the span between the first executor created and the last one finished
+        jdbcTemplate.query("SELECT MIN(created_at) AS started, MAX(updated_at) AS finished FROM workflow_executors GROUP BY service_id " +
+                "HAVING SUM(CASE WHEN status IN ('COMPLETED', 'FAILED', 'REJECTED') THEN 0 ELSE 1 END) = 0", rs -> {
+            record(instanceMicros, micros(rs.getTimestamp("started"), rs.getTimestamp("finished")));
+        });
+
+        long completed = instanceMicros.getTotalCount();
+        double wallSeconds = wallNanos / 1e9;
+        long dbNanos = TimedDataSource.totalNanos();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("shape", shape.name());
+        report.put("nodesPerWorkflow", nodes);
+        report.put("workflows", workflows);
+        report.put("instancesRequested", instances);
+        report.put("targetRate", rate);
+        report.put("concurrency", concurrency);
+        report.put("instancesCompleted", completed);
+        report.put("failedInitiations", failedInitiations.sum());
+        report.put("approvedExecutors", approvedExecutors.get());
+        report.put("wallSeconds", wallSeconds);
+        report.put("instancesPerSecond", completed / wallSeconds);
+        report.put("initiationLatencyMicros", percentiles(initiationMicros));
+        report.put("approvalBatchLatencyMicros", percentiles(approvalBatchMicros));
+        report.put("instanceLatencyMicros", percentiles(instanceMicros));
+        report.put("nodeStepLatencyMicros", percentiles(nodeStepMicros));
+        report.put("edgeStepLatencyMicros", percentiles(edgeStepMicros));
+        report.put("dbCalls", TimedDataSource.totalCalls());
+        report.put("dbSeconds", dbNanos / 1e9);
+        report.put("dbTimeShare", busyNanos.sum() == 0 ? 0.0 : (double) dbNanos / busyNanos.sum());
+        report.put("peakHeapMb", peakHeapBytes.get() / (1024.0 * 1024.0));
+        report.put("averageHeapMb", heapSampleCount.sum() == 0 ? 0.0 : heapSampleTotal.sum() / (double) heapSampleCount.sum() / (1024.0 * 1024.0));
+        report.put("gcCount", gcCount);
+        report.put("gcMillis", gcMillis);
+        return report;
+    }
+
+    private static Map<String, Object> percentiles(Histogram histogram) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("count", histogram.getTotalCount());
+        values.put("p50", histogram.getValueAtPercentile(50));
+        values.put("p90", histogram.getValueAtPercentile(90));
+        values.put("p99", histogram.getValueAtPercentile(99));
+        values.put("p999", histogram.getValueAtPercentile(99.9));
+        values.put("max", histogram.getMaxValue());
+        return values;
+    }
+
+    private static void print(Map<String, Object> report) {
+        System.out.println("---- Workflow engine load result ----");
+        report.forEach((key, value) -> System.out.printf("%-28s %s%n", key, value));
+    }
+
+    private Task task(String workflowId, int index) {
+        Task task = new Task();
+        task.setReleaseNumber("LOAD-" + shape.name());
+        task.setTitle("Load task " + index);
+        task.setDescription("Generated by the load harness");
+        task.setSqlQuery("SELECT 1");
+        task.setAssignedWorkflow(workflowId);
+        task.setStatus("OPEN");
+        task.setCreatedBy(APPROVER);
+        return task;
+    }
+
+    private void sampleHeap() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        peakHeapBytes.accumulateAndGet(used, Math::max);
+        heapSampleTotal.add(used);
+        heapSampleCount.increment();
+    }
+
+    private static synchronized void recordMicros(Histogram histogram, long nanos) {
+        record(histogram, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static void record(Histogram histogram, long micros) {
+        histogram.recordValue(Math.min(micros, histogram.getHighestTrackableValue()));
+    }
+
+    private static long micros(Timestamp from, Timestamp to) {
+        long nanos = (to.getTime() - from.getTime()) * 1_000_000L + (to.getNanos() % 1_000_000) - (from.getNanos() % 1_000_000);
+        return Math.max(0, TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+}
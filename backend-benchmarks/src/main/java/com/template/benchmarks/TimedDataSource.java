@@ -0,0 +1,91 @@
+package com.template.benchmarks;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Wraps a DataSource and accumulates the wall time spent inside JDBC:
+ * acquiring connections, executing statements and committing/rolling back.
+ * Used by the load harness to report the share of engine time spent in the database.
+ */
+public final class TimedDataSource {
+
+    private static final LongAdder DB_NANOS = new LongAdder();
+    private static final LongAdder DB_CALLS = new LongAdder();
+
+    private TimedDataSource() {
+    }
+
+    /**
+     * @param target The DataSource to instrument.
+     * @return A proxy that records JDBC time for every connection it hands out.
+     */
+    public static DataSource wrap(DataSource target) {
+        return proxy(DataSource.class, target);
+    }
+
+    public static long totalNanos() {
+        return DB_NANOS.sum();
+    }
+
+    public static long totalCalls() {
+        return DB_CALLS.sum();
+    }
+
+    public static void reset() {
+        DB_NANOS.reset();
+        DB_CALLS.reset();
+    }
+
+    private static <T> T proxy(Class<T> type, Object target) {
+        return type.cast(Proxy.newProxyInstance(TimedDataSource.class.getClassLoader(), new Class<?>[]{type},
+                new TimingHandler(target)));
+    }
+
+    private static boolean isTimed(Method method) {
+        String name = method.getName();
+        return name.startsWith("execute") || name.equals("getConnection")
+                || name.equals("commit") || name.equals("rollback");
+    }
+
+    private static final class TimingHandler implements InvocationHandler {
+        private final Object target;
+
+        private TimingHandler(Object target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            long start = isTimed(method) ? System.nanoTime() : 0L;
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (start != 0L) {
+                    DB_NANOS.add(System.nanoTime() - start);
+                    DB_CALLS.increment();
+                }
+            }
+
+            // Keep statements created from wrapped connections instrumented as well
+            if (result instanceof Connection connection && !(result instanceof Proxy)) {
+                return proxy(Connection.class, connection);
+            }
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                @SuppressWarnings("unchecked")
+                Class<Statement> returnType = (Class<Statement>) method.getReturnType();
+                return proxy(returnType, statement);
+            }
+            return result;
+        }
+    }
+}
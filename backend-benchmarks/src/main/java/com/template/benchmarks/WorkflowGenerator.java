@@ -0,0 +1,186 @@
+package com.template.benchmarks;
+
+import com.template.model.*;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Generates synthetic workflow definitions and instance data for benchmarks and load tests.
+ * Every generated id is unique within the JVM, so generated graphs can be saved repeatedly.
+ */
+public final class WorkflowGenerator {
+
+    /**
+     * Supported graph shapes.
+     * LINEAR: n1 -> n2 -> ... -> nN
+     * FAN_OUT: one root with N-1 direct children
+     * DIAMOND: repeated root -> (left, right) -> join blocks
+     * APPROVAL_HEAVY: LINEAR where every edge requires a manual approval
+     */
+    public enum Shape {
+        LINEAR,
+        FAN_OUT,
+        DIAMOND,
+        APPROVAL_HEAVY
+    }
+
+    private static long sequence = 0;
+
+    private final Shape shape;
+    private final int nodeCount;
+    private final int parametersPerNode;
+
+    public WorkflowGenerator(Shape shape, int nodeCount, int parametersPerNode) {
+        if (nodeCount < 1) {
+            throw new IllegalArgumentException("nodeCount must be at least 1");
+        }
+        this.shape = shape;
+        this.nodeCount = nodeCount;
+        this.parametersPerNode = parametersPerNode;
+    }
+
+    /**
+     * Generates a new workflow definition with fresh ids.
+     *
+     * @return A workflow with nodes and edges laid out according to the configured shape.
+     */
+    public Workflow generate() {
+        String prefix = nextPrefix();
+        Workflow workflow = new Workflow();
+        workflow.setId(prefix);
+        workflow.setName("Generated " + shape.name().toLowerCase() + " " + nodeCount);
+        workflow.setDescription("Synthetic workflow generated for benchmarking");
+        workflow.setVersion("1");
+        workflow.setStatus("ACTIVE");
+        workflow.setCreatedBy("benchmark");
+
+        List<Node> nodes = new ArrayList<>(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(node(prefix + "-n" + i, i));
+        }
+
+        List<Edge> edges = new ArrayList<>();
+        switch (shape) {
+            case LINEAR -> linkLinear(prefix, nodes, edges, true);
+            case APPROVAL_HEAVY -> linkLinear(prefix, nodes, edges, false);
+            case FAN_OUT -> {
+                for (int i = 1; i < nodes.size(); i++) {
+                    edges.add(edge(prefix + "-e" + i, nodes.get(0), nodes.get(i), true));
+                }
+            }
+            case DIAMOND -> linkDiamonds(prefix, nodes, edges);
+        }
+
+        workflow.setNodes(nodes);
+        workflow.setEdges(edges);
+        return workflow;
+    }
+
+    /**
+     * Builds instance details for a workflow, with one execution step and one log entry per node and edge.
+     *
+     * @param workflow The workflow definition.
+     * @return A fully populated WorkflowInstanceDetails object.
+     */
+    public static WorkflowInstanceDetails instanceDetails(Workflow workflow) {
+        List<ExecutionStep> steps = new ArrayList<>();
+        List<ExecutionLog> logs = new ArrayList<>();
+        Timestamp now = Timestamp.from(Instant.now());
+        for (Node node : workflow.getNodes()) {
+            steps.add(new ExecutionStep(node.getId(), node.getData().getStageName(), ExecutorType.NODE.name(), ExecutionStatus.COMPLETED.name()));
+            logs.add(log(node.getId(), node.getData().getStageName(), now));
+        }
+        for (Edge edge : workflow.getEdges()) {
+            steps.add(new ExecutionStep(edge.getId(), edge.getData().getApproverRole(), ExecutorType.EDGE.name(), ExecutionStatus.COMPLETED.name()));
+            logs.add(log(edge.getId(), edge.getData().getApproverRole(), now));
+        }
+
+        WorkflowInstanceDetails details = new WorkflowInstanceDetails();
+        details.setWorkflow(workflow);
+        details.setExecutionSteps(steps);
+        details.setExecutionLogs(logs);
+        return details;
+    }
+
+    private void linkLinear(String prefix, List<Node> nodes, List<Edge> edges, boolean autoApprove) {
+        for (int i = 1; i < nodes.size(); i++) {
+            edges.add(edge(prefix + "-e" + i, nodes.get(i - 1), nodes.get(i), autoApprove));
+        }
+    }
+
+    // Blocks of four nodes: root -> left, root -> right, left -> join, right -> join, join -> next root
+    private void linkDiamonds(String prefix, List<Node> nodes, List<Edge> edges) {
+        int edgeIndex = 0;
+        for (int root = 0; root + 3 < nodes.size(); root += 3) {
+            Node left = nodes.get(root + 1);
+            Node right = nodes.get(root + 2);
+            Node join = nodes.get(root + 3);
+            edges.add(edge(prefix + "-e" + edgeIndex++, nodes.get(root), left, true));
+            edges.add(edge(prefix + "-e" + edgeIndex++, nodes.get(root), right, true));
+            edges.add(edge(prefix + "-e" + edgeIndex++, left, join, true));
+            edges.add(edge(prefix + "-e" + edgeIndex++, right, join, true));
+        }
+    }
+
+    private Node node(String id, int index) {
+        Node node = new Node();
+        node.setId(id);
+        node.setType("stageNode");
+        node.setPosition(new Node.Position(index * 250.0, (index % 7) * 120.0));
+        node.setPositionAbsolute(new Node.Position(index * 250.0, (index % 7) * 120.0));
+        node.setWidth(200.0);
+        node.setHeight(80.0);
+
+        Node.Data data = new Node.Data();
+        data.setStageName("Stage " + index);
+        data.setEnvironment(index % 2 == 0 ? "UAT" : "PROD");
+        data.setStatus("PENDING");
+        data.setLabel("Stage " + index);
+        Map<String, String> parameters = new HashMap<>();
+        for (int p = 0; p < parametersPerNode; p++) {
+            parameters.put("param" + p, "value-" + index + "-" + p);
+        }
+        data.setParameters(parameters);
+        node.setData(data);
+        return node;
+    }
+
+    private static Edge edge(String id, Node source, Node target, boolean autoApprove) {
+        Edge edge = new Edge();
+        edge.setId(id);
+        edge.setSource(source.getId());
+        edge.setSourceHandle("bottom");
+        edge.setTarget(target.getId());
+        edge.setTargetHandle("top");
+        edge.setType("approval");
+
+        Edge.Data data = new Edge.Data();
+        data.setRequiresApproval(!autoApprove);
+        data.setAutoApprove(autoApprove);
+        data.setApproverRole(autoApprove ? "system" : "release-manager");
+        data.setStatus("PENDING");
+        data.setApprovalTimeout("1");
+        edge.setData(data);
+        return edge;
+    }
+
+    private static ExecutionLog log(String stepId, String stepName, Timestamp timestamp) {
+        ExecutionLog log = new ExecutionLog();
+        log.setId(UUID.randomUUID().toString());
+        log.setTimestamp(timestamp);
+        log.setStepId(stepId);
+        log.setStepName(stepName);
+        log.setLevel(ExecutionLog.Level.INFO.name());
+        log.setMessage("Node execution succeeded");
+        log.setDetails("Executor completed step " + stepId + ".");
+        log.setPerformedBy("system");
+        log.setServiceId("benchmark");
+        return log;
+    }
+
+    private static synchronized String nextPrefix() {
+        return "wf" + Long.toString(++sequence, 36) + "-" + Long.toString(System.nanoTime(), 36);
+    }
+}
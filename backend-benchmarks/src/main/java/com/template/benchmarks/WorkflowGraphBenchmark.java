@@ -0,0 +1,139 @@
+package com.template.benchmarks;
+
+import com.template.model.*;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures graph lookups on large generated DIAMOND workflows, one probed node per invocation:
+ * - successorsListScan / successorsCsr: the nodes after a node, by scanning the edge and node lists
+ *   with equalsIgnoreCase, and through the CSR adjacency of WorkflowGraph
+ * - joinListScan / joinCsr: the duplicate guard of triggering a node, which only joins (nodes with several incoming
+ *   edges) run, by counting the edges into the node in the edge list and from the in-degree of WorkflowGraph; the
+ *   executors of a join are then looked up in a map by node ID, standing in for the indexed query the engine runs
+ * - completionListScan / completionStatuses: whether an instance has finished, by checking the status of each
+ *   executor, and by building its InstanceStatuses, as every completion check now does to count steps rather than executors
+ *
+ * All edges of the instance have finished except the last one; probed nodes are visited in a shuffled order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorkflowGraphBenchmark {
+
+    @Param({"1000", "10000", "50000"})
+    public int nodeCount;
+
+    private List<Node> nodes;
+    private List<Edge> edges;
+    private List<WorkflowExecutor> executors;
+    private Map<String, List<WorkflowExecutor>> executorsByNode;
+    private WorkflowGraph graph;
+    private String[] probes;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Workflow workflow = new WorkflowGenerator(WorkflowGenerator.Shape.DIAMOND, nodeCount, 4).generate();
+        nodes = workflow.getNodes();
+        edges = workflow.getEdges();
+        WorkflowTopology topology = WorkflowTopology.analyze(nodes, edges);
+        graph = new CompiledWorkflow("benchmark", workflow, topology).getGraph();
+
+        executors = new ArrayList<>(nodes.size() + edges.size());
+        for (Node node : nodes) {
+            executors.add(executor(node.getId(), ExecutorType.NODE, ExecutionStatus.COMPLETED));
+        }
+        for (int i = 0; i < edges.size(); i++) {
+            ExecutionStatus status = i == edges.size() - 1 ? ExecutionStatus.WAITING_FOR_APPROVAL : ExecutionStatus.COMPLETED;
+            executors.add(executor(edges.get(i).getId(), ExecutorType.EDGE, status));
+        }
+
+        executorsByNode = new HashMap<>();
+        for (WorkflowExecutor executor : executors) {
+            if (executor.getType() == ExecutorType.NODE) {
+                executorsByNode.computeIfAbsent(executor.getChildrenId(), id -> new ArrayList<>()).add(executor);
+            }
+        }
+
+        probes = nodes.stream().map(Node::getId).toArray(String[]::new);
+        Collections.shuffle(Arrays.asList(probes), new Random(42));
+    }
+
+    private String nextProbe() {
+        String probe = probes[cursor];
+        cursor = (cursor + 1) % probes.length;
+        return probe;
+    }
+
+    @Benchmark
+    public void successorsListScan(Blackhole blackhole) {
+        String nodeId = nextProbe();
+        for (Edge edge : edges) {
+            if (edge.getSource().equalsIgnoreCase(nodeId)) {
+                for (Node node : nodes) {
+                    if (node.getId().equalsIgnoreCase(edge.getTarget())) {
+                        blackhole.consume(node);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void successorsCsr(Blackhole blackhole) {
+        int node = graph.nodeIndex(nextProbe());
+        for (int k = 0; k < graph.outDegree(node); k++) {
+            blackhole.consume(graph.node(graph.target(graph.outgoingEdge(node, k))));
+        }
+    }
+
+    @Benchmark
+    public boolean joinListScan() {
+        String nodeId = nextProbe();
+        int inDegree = 0;
+        for (Edge edge : edges) {
+            if (edge.getTarget().equalsIgnoreCase(nodeId)) {
+                inDegree++;
+            }
+        }
+        return inDegree > 1 && hasActiveExecutor(nodeId);
+    }
+
+    @Benchmark
+    public boolean joinCsr() {
+        String nodeId = nextProbe();
+        return graph.inDegree(graph.nodeIndex(nodeId)) > 1 && hasActiveExecutor(nodeId);
+    }
+
+    private boolean hasActiveExecutor(String nodeId) {
+        return executorsByNode.getOrDefault(nodeId, List.of()).stream().anyMatch(executor -> !executor.getStatus().isTerminal());
+    }
+
+    @Benchmark
+    public boolean completionListScan() {
+        return executors.stream().allMatch(executor -> executor.getStatus().isTerminal());
+    }
+
+    @Benchmark
+    public boolean completionStatuses() {
+        return InstanceStatuses.of(graph, executors).isFinished();
+    }
+
+    private static WorkflowExecutor executor(String childrenId, ExecutorType type, ExecutionStatus status) {
+        WorkflowExecutor executor = new WorkflowExecutor();
+        executor.setId(UUID.randomUUID().toString());
+        executor.setServiceId("benchmark");
+        executor.setChildrenId(childrenId);
+        executor.setType(type);
+        executor.setStatus(status);
+        return executor;
+    }
+}
@@ -0,0 +1,78 @@
+package com.template.benchmarks;
+
+import com.template.dao.WorkflowRepository;
+import com.template.model.Workflow;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading and saving complete workflow definitions (header, nodes and edges)
+ * for graphs between 10 and 10,000 nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WorkflowRepositoryBenchmark {
+
+    @Param({"10", "100", "1000", "10000"})
+    public int nodeCount;
+
+    @Param({"LINEAR", "DIAMOND"})
+    public WorkflowGenerator.Shape shape;
+
+    @Param({"4"})
+    public int parametersPerNode;
+
+    private ConfigurableApplicationContext context;
+    private WorkflowRepository workflowRepository;
+    private WorkflowGenerator generator;
+
+    private String storedWorkflowId;
+    private Workflow workflowToSave;
+
+    @Setup(Level.Trial)
+    public void startContext() throws Exception {
+        context = BenchmarkContext.start("workflow-repository");
+        workflowRepository = context.getBean(WorkflowRepository.class);
+        generator = new WorkflowGenerator(shape, nodeCount, parametersPerNode);
+        seedStoredWorkflow();
+    }
+
+    @Setup(Level.Invocation)
+    public void prepareWorkflow() {
+        // Fresh ids on every invocation because node and edge ids are primary keys
+        workflowToSave = generator.generate();
+    }
+
+    @TearDown(Level.Iteration)
+    public void resetRows() throws Exception {
+        BenchmarkContext.clearDefinitionTables(context);
+        seedStoredWorkflow();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+
+    @Benchmark
+    public Workflow findById() {
+        return workflowRepository.findById(storedWorkflowId);
+    }
+
+    @Benchmark
+    public void save() throws Exception {
+        workflowRepository.save(workflowToSave);
+    }
+
+    private void seedStoredWorkflow() throws Exception {
+        Workflow stored = generator.generate();
+        workflowRepository.save(stored);
+        storedWorkflowId = stored.getId();
+    }
+}
@@ -0,0 +1,20 @@
+package com.template.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Enables Spring's cache abstraction.
+ * The Caffeine caches themselves are configured with the spring.cache.* properties,
+ * which also registers their hit/miss metrics (cache.gets) with the actuator.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    /** Functionality by ID, in front of FunctionalityRepository.findById. */
+    public static final String FUNCTIONALITIES = "functionalities";
+
+    /** Workflow mapping by workflow ID, in front of WorkflowMappingRepository.findByWorkflowId. */
+    public static final String WORKFLOW_MAPPINGS = "workflowMappings";
+}
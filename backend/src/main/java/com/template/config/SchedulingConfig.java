@@ -0,0 +1,12 @@
+package com.template.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled maintenance jobs, such as the garbage collection of workflow definition versions.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,43 @@
+package com.template.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.tracing.InMemorySpanExporter;
+import com.template.tracing.NdjsonFileSpanExporter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Local span exporters for the workflow engine.
+ * Every SpanExporter bean is picked up by Spring Boot's OpenTelemetry auto-configuration,
+ * so other exporters (e.g. OTLP) can be plugged in by adding their dependency.
+ * Sampling is controlled by management.tracing.sampling.probability.
+ */
+@Configuration
+public class TracingConfig {
+
+    /**
+     * Keeps recent spans in memory; they are served by /api/traces.
+     * Enabled with workflow.tracing.exporter=memory (the default).
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workflow.tracing.exporter", havingValue = "memory", matchIfMissing = true)
+    public InMemorySpanExporter inMemorySpanExporter(@Value("${workflow.tracing.memory.capacity:10000}") int capacity) {
+        return new InMemorySpanExporter(capacity);
+    }
+
+    /**
+     * Appends spans as NDJSON to workflow.tracing.file.path.
+     * Enabled with workflow.tracing.exporter=file.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "workflow.tracing.exporter", havingValue = "file")
+    public NdjsonFileSpanExporter ndjsonFileSpanExporter(@Value("${workflow.tracing.file.path:./data/traces.ndjson}") String path,
+                                                         ObjectMapper objectMapper) throws IOException {
+        return new NdjsonFileSpanExporter(Path.of(path), objectMapper);
+    }
+}
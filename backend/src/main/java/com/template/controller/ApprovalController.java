@@ -0,0 +1,69 @@
+package com.template.controller;
+
+import com.template.model.ApprovalInbox;
+import com.template.service.WorkflowService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+/**
+ * REST Controller for the approval inboxes of approver roles.
+ * The system-wide listing of all pending approvals stays at /api/workflow-executors/pending-approvals for administrators.
+ */
+@RestController
+@RequestMapping("/api/approvals")
+@CrossOrigin(origins = "http://localhost:5173")
+@Tag(name = "Approval API", description = "API for the approvals waiting for an approver role")
+public class ApprovalController {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final WorkflowService workflowService;
+
+    @Autowired
+    public ApprovalController(WorkflowService workflowService) {
+        this.workflowService = workflowService;
+    }
+
+    /**
+     * Retrieves one page of the approvals waiting for a role, longest waiting first.
+     * @param role The approver role.
+     * @param cursor The nextCursor of the previous page; omitted for the first page.
+     * @param limit The page size, at most 200.
+     * @return The page with an OK status, or BAD_REQUEST for an invalid cursor or limit.
+     */
+    @GetMapping("/inbox")
+    @Operation(summary = "Get the approvals waiting for an approver role")
+    public ResponseEntity<?> getInbox(
+            @Parameter(description = "Approver role", required = true) @RequestParam String role,
+            @Parameter(description = "Cursor of the next page, as returned by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, at most 200") @RequestParam(defaultValue = "50") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return new ResponseEntity<>("limit must be between 1 and " + MAX_PAGE_SIZE, HttpStatus.BAD_REQUEST);
+        }
+        try {
+            ApprovalInbox inbox = workflowService.getApprovalInbox(role, cursor, limit);
+            return new ResponseEntity<>(inbox, HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Retrieves the number of approvals waiting for a role, e.g. for a badge.
+     * @param role The approver role.
+     * @return The role and its pending count with an OK status.
+     */
+    @GetMapping("/inbox/count")
+    @Operation(summary = "Get the number of approvals waiting for an approver role")
+    public ResponseEntity<Map<String, Object>> getInboxCount(
+            @Parameter(description = "Approver role", required = true) @RequestParam String role) {
+        return new ResponseEntity<>(Map.of("role", role, "pending", workflowService.getPendingApprovalCount(role)), HttpStatus.OK);
+    }
+}
@@ -0,0 +1,43 @@
+package com.template.controller;
+
+import com.template.model.ReleaseProgress;
+import com.template.service.ReleaseProgressService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST Controller for release-level views over the tasks of a release.
+ */
+@RestController
+@RequestMapping("/api/releases")
+@CrossOrigin(origins = "http://localhost:5173")
+@Tag(name = "Release API", description = "API for monitoring the progress of releases")
+public class ReleaseController {
+
+    private final ReleaseProgressService releaseProgressService;
+
+    @Autowired
+    public ReleaseController(ReleaseProgressService releaseProgressService) {
+        this.releaseProgressService = releaseProgressService;
+    }
+
+    /**
+     * Retrieves the progress of all tasks of a release: task and instance counts per status,
+     * pending approvals per approver role and the slowest stages.
+     * @param releaseNumber The release number of the tasks.
+     * @return The progress with an OK status, or NOT_FOUND if the release has no tasks.
+     */
+    @GetMapping("/{releaseNumber}/progress")
+    @Operation(summary = "Get the progress of all tasks of a release")
+    public ResponseEntity<ReleaseProgress> getProgress(
+            @Parameter(description = "Release number of the tasks", required = true) @PathVariable String releaseNumber) {
+        return releaseProgressService.getProgress(releaseNumber)
+                .map(progress -> new ResponseEntity<>(progress, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+}
@@ -1,15 +1,24 @@
 package com.template.controller;
 
 import com.template.model.Task;
+import com.template.model.TaskImportJob;
+import com.template.model.WorkflowInitiationRequest;
+import com.template.service.IdempotencyKeyException;
+import com.template.service.IdempotencyService;
+import com.template.service.TaskImportService;
 import com.template.service.TaskService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.net.URI;
 import java.util.List;
 
 /**
@@ -23,22 +32,113 @@ import java.util.List;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskImportService taskImportService;
+    private final IdempotencyService idempotencyService;
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, TaskImportService taskImportService, IdempotencyService idempotencyService) {
         this.taskService = taskService;
+        this.taskImportService = taskImportService;
+        this.idempotencyService = idempotencyService;
     }
 
     /**
-     * Creates a new Task.
+     * Creates a new Task. Its SQL is validated and explained on the target database first.
+     * With async=true the workflow is initiated in the background and the response is ACCEPTED, with the Location
+     * of the initiation status. With an Idempotency-Key, retries of the request return the original response
+     * instead of creating another task.
+     * @param async Whether to initiate the assigned workflow in the background.
+     * @param idempotencyKey Optional key identifying the request across retries.
      * @param task The task object to save.
-     * @return The saved task with a CREATED status.
+     * @return The saved task, including its SQL risk analysis, with a CREATED (or ACCEPTED) status, or BAD_REQUEST if the SQL is invalid.
+     *         CONFLICT if the request with the same key is still running, UNPROCESSABLE_ENTITY if the key was used for another task.
      */
     @PostMapping
     @Operation(summary = "Create a new custom task")
-    public ResponseEntity<Task> createTask(@RequestBody Task task) {
-        Task savedTask = taskService.saveAndInitiateWorkflow(task);
-        return new ResponseEntity<>(savedTask, HttpStatus.CREATED);
+    public ResponseEntity<?> createTask(
+            @Parameter(description = "Initiate the assigned workflow in the background and return 202 Accepted")
+            @RequestParam(defaultValue = "false") boolean async,
+            @Parameter(description = "Key that makes retries of the request return the original response")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody Task task) {
+        // Without a workflow there is nothing to wait for, so the task is created synchronously either way
+        boolean accepted = async && TaskService.hasAssignedWorkflow(task);
+        HttpStatus status = accepted ? HttpStatus.ACCEPTED : HttpStatus.CREATED;
+        try {
+            if (idempotencyKey == null) {
+                Task savedTask = accepted ? taskService.saveAndRequestInitiation(task) : taskService.saveAndInitiateWorkflow(task);
+                ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+                if (accepted) {
+                    response.location(URI.create(initiationLocation(savedTask)));
+                }
+                return response.body(savedTask);
+            }
+            IdempotencyService.Response response = accepted
+                    ? idempotencyService.execute("POST /api/tasks?async", idempotencyKey, task, status.value(),
+                            () -> taskService.saveAndRequestInitiation(task), savedTask -> initiationLocation((Task) savedTask))
+                    : idempotencyService.execute("POST /api/tasks", idempotencyKey, task, status.value(),
+                            () -> taskService.saveAndInitiateWorkflowAtomically(task), null);
+            ResponseEntity.BodyBuilder builder = ResponseEntity.status(response.status())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header("Idempotent-Replayed", String.valueOf(response.replayed()));
+            if (response.location() != null) {
+                builder.location(URI.create(response.location()));
+            }
+            return builder.body(response.body());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        } catch (IdempotencyKeyException e) {
+            HttpStatus conflict = e.getReason() == IdempotencyKeyException.Reason.IN_PROGRESS
+                    ? HttpStatus.CONFLICT : HttpStatus.UNPROCESSABLE_ENTITY;
+            return new ResponseEntity<>(e.getMessage(), conflict);
+        }
+    }
+
+    /**
+     * Retrieves the status of the background workflow initiation of a task created with async=true.
+     * @param id The ID of the task.
+     * @return The initiation request with an OK status, or NOT_FOUND if the task has none.
+     */
+    @GetMapping("/{id}/initiation")
+    @Operation(summary = "Get the workflow initiation status of a custom task")
+    public ResponseEntity<WorkflowInitiationRequest> getInitiation(@Parameter(description = "ID of the task", required = true) @PathVariable String id) {
+        return taskService.findInitiationRequest(id)
+                .map(request -> new ResponseEntity<>(request, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Creates tasks in bulk from a CSV (with a header row) or NDJSON body, streamed row by row.
+     * Invalid rows are rejected individually; the workflows of the created tasks are initiated in the background.
+     * @param request The request whose body holds the tasks.
+     * @return The import job with an ACCEPTED status and its Location, or BAD_REQUEST for an unsupported format.
+     */
+    @PostMapping(value = "/bulk", consumes = {"text/csv", "application/x-ndjson"})
+    @Operation(summary = "Create custom tasks in bulk from CSV or NDJSON")
+    public ResponseEntity<?> importTasks(HttpServletRequest request) throws IOException {
+        String format;
+        try {
+            format = TaskImportService.formatOf(request.getContentType());
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        TaskImportJob job = taskImportService.importTasks(request.getInputStream(), format);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/tasks/bulk/" + job.getId()))
+                .body(job);
+    }
+
+    /**
+     * Retrieves the progress of a bulk import.
+     * @param jobId The ID of the import job.
+     * @return The job with an OK status, or NOT_FOUND if it does not exist or has expired.
+     */
+    @GetMapping("/bulk/{jobId}")
+    @Operation(summary = "Get the progress of a bulk task import")
+    public ResponseEntity<TaskImportJob> getImportJob(@Parameter(description = "ID of the import job", required = true) @PathVariable String jobId) {
+        return taskImportService.getJob(jobId)
+                .map(job -> new ResponseEntity<>(job, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
     }
 
     /**
@@ -69,14 +169,18 @@ public class TaskController {
      * Updates an existing Task record.
      * @param id The ID of the task to update.
      * @param task The updated task object.
-     * @return The updated task with an OK status, or NOT_FOUND if not found.
+     * @return The updated task with an OK status, NOT_FOUND if not found, or BAD_REQUEST if the SQL is invalid.
      */
     @PutMapping("/{id}")
     @Operation(summary = "Update an existing custom task")
-    public ResponseEntity<Task> updateTask(@Parameter(description = "ID of the task to update", required = true) @PathVariable String id, @RequestBody Task task) {
-        return taskService.update(id, task)
-                .map(updatedTask -> new ResponseEntity<>(updatedTask, HttpStatus.OK))
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<?> updateTask(@Parameter(description = "ID of the task to update", required = true) @PathVariable String id, @RequestBody Task task) {
+        try {
+            return taskService.update(id, task)
+                    .<ResponseEntity<?>>map(updatedTask -> new ResponseEntity<>(updatedTask, HttpStatus.OK))
+                    .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
     }
 
     /**
@@ -90,4 +194,8 @@ public class TaskController {
         boolean isDeleted = taskService.deleteById(id);
         return isDeleted ? new ResponseEntity<>(HttpStatus.NO_CONTENT) : new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
+
+    private static String initiationLocation(Task task) {
+        return "/api/tasks/" + task.getId() + "/initiation";
+    }
 }
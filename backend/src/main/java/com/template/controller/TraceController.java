@@ -0,0 +1,64 @@
+package com.template.controller;
+
+import com.template.model.SpanRecord;
+import com.template.tracing.InMemorySpanExporter;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * REST Controller for the spans kept by the in-memory trace exporter.
+ * Only available when workflow.tracing.exporter=memory.
+ */
+@RestController
+@RequestMapping("/api/traces")
+@CrossOrigin(origins = "http://localhost:5173")
+@Tag(name = "Trace API", description = "API for inspecting recent workflow engine traces")
+public class TraceController {
+
+    private final ObjectProvider<InMemorySpanExporter> spanExporter;
+
+    @Autowired
+    public TraceController(ObjectProvider<InMemorySpanExporter> spanExporter) {
+        this.spanExporter = spanExporter;
+    }
+
+    /**
+     * Retrieves recent spans, optionally filtered by trace or by workflow instance.
+     *
+     * @param traceId Return only the spans of this trace.
+     * @param serviceId Return only the traces that touched this workflow instance.
+     * @param limit The maximum number of spans when no filter is given.
+     * @return The matching spans, 400 if the limit is less than 1, or 404 if the in-memory exporter is not enabled.
+     */
+    @GetMapping
+    @Operation(summary = "Get recent spans from the in-memory trace exporter")
+    public ResponseEntity<?> getSpans(
+            @Parameter(description = "Trace ID") @RequestParam(required = false) String traceId,
+            @Parameter(description = "Service ID of a workflow instance") @RequestParam(required = false) String serviceId,
+            @Parameter(description = "Maximum number of recent spans") @RequestParam(defaultValue = "500") int limit) {
+        InMemorySpanExporter exporter = spanExporter.getIfAvailable();
+        if (exporter == null) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (limit < 1) {
+            return new ResponseEntity<>("limit must be at least 1", HttpStatus.BAD_REQUEST);
+        }
+        List<SpanRecord> spans;
+        if (traceId != null) {
+            spans = exporter.findByTraceId(traceId);
+        } else if (serviceId != null) {
+            spans = exporter.findByServiceId(serviceId);
+        } else {
+            spans = exporter.findRecent(limit);
+        }
+        return new ResponseEntity<>(spans, HttpStatus.OK);
+    }
+}
@@ -1,11 +1,23 @@
 package com.template.controller;
 
 
+import com.template.model.StepDurationStats;
 import com.template.model.Workflow;
+import com.template.model.WorkflowGraphDiff;
+import com.template.model.WorkflowTopology;
+import com.template.model.WorkflowView;
+import com.template.service.WorkflowJsonCache;
 import com.template.service.WorkflowService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -13,7 +25,9 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 @CrossOrigin(origins = "http://localhost:5173")
 @RestController
@@ -40,14 +54,42 @@ public class WorkflowController {
 
     @Operation(
             summary = "Get workflow by ID",
-            description = "Retrieve a specific workflow by its unique ID."
+            description = "Retrieve a specific workflow by its unique ID. The view selects the returned fields: " +
+                    "designer (everything, default), execution (no layout) or summary (no nodes and edges)."
     )
-    @GetMapping("/{id}")
-    public ResponseEntity<Workflow> getById(
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getById(
             @Parameter(description = "ID of the workflow to retrieve", required = true)
-            @PathVariable String id) {
-        Workflow wf = service.getWorkflowById(id);
-        return wf != null ? ResponseEntity.ok(wf) : ResponseEntity.notFound().build();
+            @PathVariable String id,
+            @Parameter(description = "designer, execution or summary")
+            @RequestParam(required = false) String view,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request) {
+        WorkflowView workflowView;
+        try {
+            workflowView = WorkflowView.fromParam(view, WorkflowView.DESIGNER);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(e.getMessage());
+        }
+        Optional<WorkflowJsonCache.Entry> cached = service.getWorkflowJson(id, workflowView);
+        if (cached.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        WorkflowJsonCache.Entry entry = cached.get();
+        boolean gzip = entry.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? entry.gzipEtag() : entry.etag();
+        // Sets ETag and answers 304 Not Modified when If-None-Match matches
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(entry.gzip());
+        }
+        return response.body(entry.json());
     }
 
     @Operation(
@@ -62,7 +104,11 @@ public class WorkflowController {
                     content = @Content(schema = @Schema(implementation = Workflow.class))
             )
             @RequestBody Workflow workflow) {
-        service.createWorkflow(workflow);
+        try {
+            service.createWorkflow(workflow);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
         return ResponseEntity.ok("Workflow saved successfully");
     }
 
@@ -79,6 +125,40 @@ public class WorkflowController {
         return ResponseEntity.ok("Workflow updated");
     }
 
+    @Operation(
+            summary = "Update the graph of a workflow",
+            description = "Replace the nodes and edges of a workflow. Only nodes and edges that were added, changed or removed are written; the others keep their rows."
+    )
+    @PutMapping("/{id}/graph")
+    public ResponseEntity<?> updateGraph(
+            @Parameter(description = "ID of the workflow to update", required = true)
+            @PathVariable String id,
+            @RequestBody Workflow graph) {
+        try {
+            WorkflowGraphDiff diff = service.updateWorkflowGraph(id, graph);
+            return ResponseEntity.ok(diff);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.notFound().build();
+        } catch (DuplicateKeyException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body("A node or edge ID is already used by another workflow");
+        }
+    }
+
+    @Operation(
+            summary = "Get the topology of a workflow",
+            description = "Returns the topological order, the level of each node and the critical path of the workflow's current version, computed when the graph was saved."
+    )
+    @GetMapping("/{id}/topology")
+    public ResponseEntity<WorkflowTopology> getTopology(
+            @Parameter(description = "ID of the workflow", required = true)
+            @PathVariable String id) {
+        return service.getWorkflowTopology(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
     @Operation(
             summary = "Delete a workflow",
             description = "Remove a workflow and all its related nodes and edges by ID."
@@ -90,4 +170,26 @@ public class WorkflowController {
         service.deleteWorkflow(id);
         return ResponseEntity.ok("Deleted workflow with ID: " + id);
     }
+
+    @Operation(
+            summary = "Get step duration percentiles",
+            description = "Returns p50/p95/p99 queue, run and approval durations per step for phases that started in the given range (default: the last 30 days)."
+    )
+    @GetMapping("/{id}/step-durations")
+    public ResponseEntity<?> getStepDurations(
+            @Parameter(description = "ID of the workflow", required = true)
+            @PathVariable String id,
+            @Parameter(description = "Inclusive start of the range (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Exclusive end of the range (ISO date-time)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minusDays(30);
+        try {
+            List<StepDurationStats> stats = service.getStepDurations(id, start, end);
+            return ResponseEntity.ok(stats);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 }
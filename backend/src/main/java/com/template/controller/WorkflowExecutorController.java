@@ -1,14 +1,18 @@
 package com.template.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.template.model.*;
+import com.template.service.InstanceContextService;
 import com.template.service.WorkflowExecutionService;
 import com.template.service.WorkflowService;
 import com.template.service.WorkflowServiceFactory;
+import com.template.service.WorkflowViewWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -29,10 +33,17 @@ public class WorkflowExecutorController {
 
     private final WorkflowServiceFactory workflowServiceFactory;
 
+    private final InstanceContextService instanceContextService;
+
+    private final WorkflowViewWriter viewWriter;
+
     @Autowired
-    public WorkflowExecutorController(WorkflowService workflowService, WorkflowExecutionService workflowExecutionService, WorkflowServiceFactory workflowServiceFactory) {
+    public WorkflowExecutorController(WorkflowService workflowService, WorkflowExecutionService workflowExecutionService, WorkflowServiceFactory workflowServiceFactory,
+                                      InstanceContextService instanceContextService, WorkflowViewWriter viewWriter) {
         this.workflowService = workflowService;
         this.workflowServiceFactory = workflowServiceFactory;
+        this.instanceContextService = instanceContextService;
+        this.viewWriter = viewWriter;
     }
 
     /**
@@ -52,28 +63,75 @@ public class WorkflowExecutorController {
         return new ResponseEntity<>(executors, HttpStatus.OK);
     }
 
+    /**
+     * Retrieves the variables of a service instance: the fields of its task and the outputs of its nodes.
+     *
+     * @param serviceId The ID of the service instance.
+     * @return The instance's context, including writes not stored yet, or 404 if it has none.
+     */
+    @GetMapping("/services/{serviceId}/context")
+    @Operation(summary = "Get the variables of a service instance")
+    public ResponseEntity<InstanceContext> getInstanceContext(
+            @Parameter(description = "ID of the service instance", required = true) @PathVariable String serviceId) {
+        return instanceContextService.getContext(serviceId)
+                .map(context -> new ResponseEntity<>(context, HttpStatus.OK))
+                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * Retrieves the sub-workflow instances a service instance started, with their status.
+     * The executors of a sub-workflow instance are listed under its own service ID.
+     *
+     * @param serviceId The ID of the service instance.
+     * @return The links of the sub-workflow instances, oldest first.
+     */
+    @GetMapping("/services/{serviceId}/sub-workflows")
+    @Operation(summary = "Get the sub-workflow instances of a service instance")
+    public ResponseEntity<List<InstanceLink>> getSubWorkflowInstances(
+            @Parameter(description = "ID of the service instance", required = true) @PathVariable String serviceId) {
+        return new ResponseEntity<>(workflowService.getSubWorkflowInstances(serviceId), HttpStatus.OK);
+    }
+
     /**
      * API 2: Retrieves the complete workflow definition and all its execution steps for a service instance.
      *
      * @param serviceId The ID of the service instance.
-     * @return A DTO containing the workflow definition and execution details.
+     * @param view The workflow fields to return: designer, execution or summary.
+     * @return A DTO containing the workflow definition and execution details, or 400 for an unknown view.
      */
     @GetMapping("/details-by-service/{serviceId}")
     @Operation(summary = "Get a complete workflow instance with all its execution details")
-    public ResponseEntity<WorkflowInstanceDetails> getWorkflowDetailsByServiceId(
-            @Parameter(description = "ID of the service instance", required = true) @PathVariable String serviceId) {
-        Optional<WorkflowInstanceDetails> details = workflowService.getWorkflowInstanceDetails(serviceId);
-        return details
-                .map(d -> new ResponseEntity<>(d, HttpStatus.OK))
-                .orElse(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    public ResponseEntity<?> getWorkflowDetailsByServiceId(
+            @Parameter(description = "ID of the service instance", required = true) @PathVariable String serviceId,
+            @Parameter(description = "Workflow fields to return: designer (default), execution or summary") @RequestParam(required = false) String view) {
+        WorkflowView workflowView;
+        try {
+            workflowView = WorkflowView.fromParam(view, WorkflowView.DESIGNER);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+        Optional<WorkflowInstanceDetails> details = workflowService.getWorkflowInstanceDetails(serviceId, workflowView);
+        if (details.isEmpty()) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+        if (workflowView == WorkflowView.DESIGNER) {
+            return new ResponseEntity<>(details.get(), HttpStatus.OK);
+        }
+        try {
+            // Fields the view did not load are omitted rather than sent as null
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(viewWriter.write(details.get(), workflowView));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize workflow instance " + serviceId, e);
+        }
     }
 
     /**
      * API 3: Approves a specific waiting workflow executor.
      *
      * @param executorId The ID of the executor to approve.
-     * @param request A DTO containing the approver and comments.
-     * @return A success message or an error if the executor is not found or cannot be approved.
+     * @param request A DTO containing the approver, the role they approve for and comments.
+     * @return A success message, 202 if the edge still waits for the approvals of others, 409 if the
+     *         approver already voted, or an error if the role does not match the edge.
      */
     @PostMapping("/{executorId}/approve")
     @Operation(summary = "Approve a workflow executor waiting for approval")
@@ -82,8 +140,57 @@ public class WorkflowExecutorController {
             @RequestBody ApprovalRequest request) {
         try {
             WorkflowExecutionService service = workflowServiceFactory.get(request.getType());
-            service.approve(executorId, request.getApprovedBy(), request.getComments());
-            return new ResponseEntity<>("Executor " + executorId + " approved successfully.", HttpStatus.OK);
+            ApprovalOutcome outcome = service.approve(executorId, request.getApprovedBy(), request.getRole(), request.getComments());
+            return switch (outcome) {
+                case VOTE_RECORDED -> new ResponseEntity<>("Approval of executor " + executorId + " recorded; waiting for the remaining required approvals.", HttpStatus.ACCEPTED);
+                case DUPLICATE_VOTE -> new ResponseEntity<>(request.getApprovedBy() + " already voted on executor " + executorId + ".", HttpStatus.CONFLICT);
+                default -> new ResponseEntity<>("Executor " + executorId + " approved successfully.", HttpStatus.OK);
+            };
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * Cancels the running execution of a node executor, e.g. a long SQL task.
+     * The executor fails with the cancellation as its error.
+     *
+     * @param executorId The ID of the node executor.
+     * @param type The workflow service type, e.g. "task".
+     * @return 202 if the execution was asked to stop, 404 if it is not running.
+     */
+    @PostMapping("/{executorId}/cancel")
+    @Operation(summary = "Cancel the running execution of a node executor")
+    public ResponseEntity<String> cancelExecution(
+            @Parameter(description = "ID of the executor to cancel", required = true) @PathVariable String executorId,
+            @Parameter(description = "Workflow service type") @RequestParam(defaultValue = "task") String type) {
+        try {
+            WorkflowExecutionService service = workflowServiceFactory.get(type);
+            if (!service.cancelExecution(executorId)) {
+                return new ResponseEntity<>("Executor " + executorId + " is not running a cancellable execution.", HttpStatus.NOT_FOUND);
+            }
+            return new ResponseEntity<>("Cancellation of executor " + executorId + " requested.", HttpStatus.ACCEPTED);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    /**
+     * API 3: Approves a batch of waiting workflow executors in a single transaction.
+     *
+     * @param request A DTO containing the executor IDs, the approver and comments.
+     * @return The number of executors that were approved, or an error if no executor IDs are given or the type is unknown.
+     */
+    @PostMapping("/approve-bulk")
+    @Operation(summary = "Approve many workflow executors waiting for approval")
+    public ResponseEntity<String> approveExecutors(@RequestBody BulkApprovalRequest request) {
+        if (request.getExecutorIds() == null || request.getExecutorIds().isEmpty() || request.getExecutorIds().contains(null)) {
+            return new ResponseEntity<>("executorIds must list at least one executor ID", HttpStatus.BAD_REQUEST);
+        }
+        try {
+            WorkflowExecutionService service = workflowServiceFactory.get(request.getType());
+            int approved = service.approveAll(request.getExecutorIds(), request.getApprovedBy(), request.getRole(), request.getComments());
+            return new ResponseEntity<>(approved + " of " + request.getExecutorIds().size() + " executors approved successfully.", HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
@@ -93,8 +200,8 @@ public class WorkflowExecutorController {
      * API 3: Rejects a specific waiting workflow executor.
      *
      * @param executorId The ID of the executor to reject.
-     * @param request A DTO containing the rejector and comments.
-     * @return A success message or an error if the executor is not found or cannot be rejected.
+     * @param request A DTO containing the rejector, the role they reject for and comments.
+     * @return A success message, 409 if the rejector already voted, or an error if the role does not match the edge.
      */
     @PostMapping("/{executorId}/reject")
     @Operation(summary = "Reject a workflow executor waiting for approval")
@@ -103,7 +210,9 @@ public class WorkflowExecutorController {
             @RequestBody ApprovalRequest request) {
         try {
             WorkflowExecutionService service = workflowServiceFactory.get(request.getType());
-            service.reject(executorId, request.getApprovedBy(), request.getComments());
+            if (service.reject(executorId, request.getApprovedBy(), request.getRole(), request.getComments()) == ApprovalOutcome.DUPLICATE_VOTE) {
+                return new ResponseEntity<>(request.getApprovedBy() + " already voted on executor " + executorId + ".", HttpStatus.CONFLICT);
+            }
             return new ResponseEntity<>("Executor " + executorId + " rejected successfully.", HttpStatus.OK);
         } catch (IllegalArgumentException e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
@@ -111,12 +220,41 @@ public class WorkflowExecutorController {
     }
 
     /**
-     * API 4: Retrieves all executors that are waiting for approval.
+     * Retrieves the approvals and rejections cast on an edge executor.
+     *
+     * @param executorId The ID of the edge executor.
+     * @return The votes in the order they were cast.
+     */
+    @GetMapping("/{executorId}/votes")
+    @Operation(summary = "Get the approval votes of a workflow executor")
+    public ResponseEntity<List<ApprovalVote>> getApprovalVotes(
+            @Parameter(description = "ID of the edge executor", required = true) @PathVariable String executorId) {
+        return new ResponseEntity<>(workflowService.getApprovalVotes(executorId), HttpStatus.OK);
+    }
+
+    /**
+     * Retrieves the progress of a map node execution.
+     *
+     * @param executorId The ID of the map node's executor.
+     * @return The item counts, or 404 if the executor has not started map items.
+     */
+    @GetMapping("/{executorId}/map")
+    @Operation(summary = "Get the item progress of a map node executor")
+    public ResponseEntity<MapExecution> getMapExecution(
+            @Parameter(description = "ID of the map node executor", required = true) @PathVariable String executorId) {
+        return workflowService.getMapExecution(executorId)
+                .map(execution -> new ResponseEntity<>(execution, HttpStatus.OK))
+                .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * API 4: Retrieves all executors that are waiting for approval, for all roles.
+     * This is the administrators' view; approvers use the paginated inbox of their role at /api/approvals/inbox.
      *
      * @return A list of DTOs containing detailed information for each pending approval.
      */
     @GetMapping("/pending-approvals")
-    @Operation(summary = "Get a list of all pending approval tasks")
+    @Operation(summary = "Get a list of all pending approval tasks (admin)", description = "Lists the pending approvals of all roles. Approvers should use GET /api/approvals/inbox?role=.")
     public ResponseEntity<List<PendingApprovalDetails>> getPendingApprovals() {
         List<PendingApprovalDetails> pendingApprovals = workflowService.getPendingApprovalDetails();
         return new ResponseEntity<>(pendingApprovals, HttpStatus.OK);
@@ -0,0 +1,78 @@
+package com.template.dao;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pending approval counts per approver role, kept in the 'approval_role_counters' table.
+ * The counts are adjusted in the transactions that move edges into or out of WAITING_FOR_APPROVAL,
+ * so reading the count of a role is a primary key lookup.
+ */
+@Repository
+public class ApprovalCounterRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ApprovalCounterRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Adds deltas to the counts of roles in a single JDBC batch.
+     *
+     * @param deltas The change of the pending count per approver role.
+     */
+    public void adjust(Map<String, Long> deltas) {
+        List<Map.Entry<String, Long>> changes = new ArrayList<>();
+        deltas.forEach((role, delta) -> {
+            if (delta != 0) {
+                changes.add(Map.entry(role, delta));
+            }
+        });
+        if (changes.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Long> change : changes) {
+            createIfAbsent(change.getKey());
+        }
+        jdbcTemplate.batchUpdate("UPDATE approval_role_counters SET pending = pending + ? WHERE approver_role = ?",
+                changes, changes.size(), (ps, change) -> {
+                    ps.setLong(1, change.getValue());
+                    ps.setString(2, change.getKey());
+                });
+    }
+
+    /**
+     * @param approverRole The approver role.
+     * @return The number of edges waiting for approval by the role.
+     */
+    public long findPending(String approverRole) {
+        List<Long> counts = jdbcTemplate.queryForList(
+                "SELECT pending FROM approval_role_counters WHERE approver_role = ?", Long.class, approverRole);
+        return counts.isEmpty() ? 0 : counts.get(0);
+    }
+
+    /**
+     * Recomputes all counts from the inbox entries, correcting any drift, e.g. from executors deleted with their workflow.
+     */
+    public void rebuild() {
+        jdbcTemplate.update("DELETE FROM approval_role_counters");
+        jdbcTemplate.update("INSERT INTO approval_role_counters (approver_role, pending) " +
+                "SELECT approver_role, COUNT(*) FROM approval_inbox_entries GROUP BY approver_role");
+    }
+
+    // Rows are created with a zero count first, so the increments never race on an insert
+    private void createIfAbsent(String approverRole) {
+        try {
+            jdbcTemplate.update("INSERT INTO approval_role_counters (approver_role, pending) " +
+                    "SELECT ?, 0 WHERE NOT EXISTS (SELECT 1 FROM approval_role_counters WHERE approver_role = ?)", approverRole, approverRole);
+        } catch (DuplicateKeyException e) {
+            // Another transaction created the row concurrently
+        }
+    }
+}
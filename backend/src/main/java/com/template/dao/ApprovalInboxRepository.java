@@ -0,0 +1,108 @@
+package com.template.dao;
+
+import com.template.model.ExecutionStatus;
+import com.template.model.ExecutorType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Approver inboxes, kept in the 'approval_inbox_entries' table: one row per role that still owes
+ * approvals on an edge waiting for approval. An edge that needs votes of several roles is listed
+ * in the inbox of each of them until that role's votes are in.
+ */
+@Repository
+public class ApprovalInboxRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ApprovalInboxRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @param assignedApprover The assigned approver of an edge: one role, or the roles of a quorum separated by commas.
+     * @return The roles the edge waits for.
+     */
+    public static List<String> roles(String assignedApprover) {
+        return Arrays.stream(assignedApprover.split(",")).map(String::trim).filter(role -> !role.isEmpty()).distinct().toList();
+    }
+
+    /**
+     * Lists a waiting edge in the inboxes of roles in a single JDBC batch.
+     *
+     * @param executorId The ID of the edge executor.
+     * @param roles The roles that owe approvals.
+     * @param waitingSince When the edge started waiting; equal to the executor's updated_at, so inbox cursors stay valid.
+     */
+    public void insertAll(String executorId, List<String> roles, LocalDateTime waitingSince) {
+        Timestamp since = Timestamp.valueOf(waitingSince);
+        jdbcTemplate.batchUpdate("INSERT INTO approval_inbox_entries (executor_id, approver_role, waiting_since) VALUES (?, ?, ?)",
+                roles, roles.size(), (ps, role) -> {
+                    ps.setString(1, executorId);
+                    ps.setString(2, role);
+                    ps.setTimestamp(3, since);
+                });
+    }
+
+    /**
+     * @param executorId The ID of the edge executor.
+     * @return The roles the edge is still listed for.
+     */
+    public List<String> findRoles(String executorId) {
+        return jdbcTemplate.queryForList("SELECT approver_role FROM approval_inbox_entries WHERE executor_id = ?", String.class, executorId);
+    }
+
+    /**
+     * Removes an edge from the inbox of one role.
+     *
+     * @param executorId The ID of the edge executor.
+     * @param role The role.
+     * @return True if the edge was listed for the role.
+     */
+    public boolean delete(String executorId, String role) {
+        return jdbcTemplate.update("DELETE FROM approval_inbox_entries WHERE executor_id = ? AND approver_role = ?", executorId, role) > 0;
+    }
+
+    /**
+     * Removes an edge from all inboxes.
+     *
+     * @param executorId The ID of the edge executor.
+     */
+    public void deleteAll(String executorId) {
+        jdbcTemplate.update("DELETE FROM approval_inbox_entries WHERE executor_id = ?", executorId);
+    }
+
+    /**
+     * Lists the waiting edges that are in no inbox, e.g. those that started waiting before inbox entries were kept,
+     * for each of their roles.
+     *
+     * @return The number of edges listed.
+     */
+    public int insertUnlisted() {
+        List<Object[]> unlisted = jdbcTemplate.query("SELECT e.id, e.assigned_approver, e.updated_at FROM workflow_executors e " +
+                        "WHERE e.status = ? AND e.type = ? AND e.assigned_approver IS NOT NULL " +
+                        "AND NOT EXISTS (SELECT 1 FROM approval_inbox_entries i WHERE i.executor_id = e.id)",
+                (rs, rowNum) -> new Object[]{rs.getString("id"), rs.getString("assigned_approver"), rs.getTimestamp("updated_at").toLocalDateTime()},
+                ExecutionStatus.WAITING_FOR_APPROVAL.name(), ExecutorType.EDGE.name());
+        for (Object[] edge : unlisted) {
+            insertAll((String) edge[0], roles((String) edge[1]), (LocalDateTime) edge[2]);
+        }
+        return unlisted.size();
+    }
+
+    /**
+     * Removes the entries of edges that no longer wait for approval, e.g. executors deleted with their workflow.
+     *
+     * @return The number of removed entries.
+     */
+    public int deleteStale() {
+        return jdbcTemplate.update("DELETE FROM approval_inbox_entries i WHERE NOT EXISTS (SELECT 1 FROM workflow_executors e " +
+                        "WHERE e.id = i.executor_id AND e.status = ? AND e.type = ?)",
+                ExecutionStatus.WAITING_FOR_APPROVAL.name(), ExecutorType.EDGE.name());
+    }
+}
@@ -0,0 +1,74 @@
+package com.template.dao;
+
+import com.template.model.ApprovalVote;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Repository
+public class ApprovalVoteRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ApprovalVoteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Records a vote. The primary key on (executor_id, approver) allows one vote per approver and executor.
+     *
+     * @param vote The vote.
+     * @return True if the vote was recorded, false if the approver already voted on the executor.
+     */
+    public boolean insert(ApprovalVote vote) {
+        String sql = "INSERT INTO approval_votes (executor_id, approver, approver_role, decision, comments, voted_at) VALUES (?, ?, ?, ?, ?, ?)";
+        try {
+            jdbcTemplate.update(sql, vote.getExecutorId(), vote.getApprover(), vote.getApproverRole(), vote.getDecision().name(),
+                    vote.getComments(), Timestamp.valueOf(vote.getVotedAt()));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Counts the approvals of an executor per approver role.
+     *
+     * @param executorId The ID of the edge executor.
+     * @return The number of APPROVE votes keyed by role.
+     */
+    public Map<String, Long> countApprovalsByRole(String executorId) {
+        String sql = "SELECT approver_role, COUNT(*) FROM approval_votes WHERE executor_id = ? AND decision = ? GROUP BY approver_role";
+        Map<String, Long> counts = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            counts.put(rs.getString(1), rs.getLong(2));
+        }, executorId, ApprovalVote.Decision.APPROVE.name());
+        return counts;
+    }
+
+    public List<ApprovalVote> findByExecutorId(String executorId) {
+        String sql = "SELECT * FROM approval_votes WHERE executor_id = ? ORDER BY voted_at, approver";
+        return jdbcTemplate.query(sql, new ApprovalVoteRowMapper(), executorId);
+    }
+
+    private static class ApprovalVoteRowMapper implements RowMapper<ApprovalVote> {
+        @Override
+        public ApprovalVote mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new ApprovalVote(
+                    rs.getString("executor_id"),
+                    rs.getString("approver"),
+                    rs.getString("approver_role"),
+                    ApprovalVote.Decision.valueOf(rs.getString("decision")),
+                    rs.getString("comments"),
+                    rs.getTimestamp("voted_at").toLocalDateTime());
+        }
+    }
+}
@@ -42,6 +42,31 @@ public class ExecutionLogRepository {
         );
     }
 
+    /**
+     * Inserts new ExecutionLog records in a single JDBC batch.
+     *
+     * @param logs The ExecutionLog objects to be inserted.
+     */
+    public void createAll(List<ExecutionLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO execution_log (id, timestamp, step_id, step_name, level, message, details, performed_by, executor_id, service_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, logs, logs.size(), (ps, log) -> {
+            log.setId(UUID.randomUUID().toString());
+            ps.setString(1, log.getId());
+            ps.setTimestamp(2, log.getTimestamp());
+            ps.setString(3, log.getStepId());
+            ps.setString(4, log.getStepName());
+            ps.setString(5, log.getLevel());
+            ps.setString(6, log.getMessage());
+            ps.setString(7, log.getDetails());
+            ps.setString(8, log.getPerformedBy());
+            ps.setString(9, log.getExecutorId());
+            ps.setString(10, log.getServiceId());
+        });
+    }
+
     /**
      * Finds an ExecutionLog record by its unique ID.
      *
@@ -0,0 +1,122 @@
+package com.template.dao;
+
+import com.template.model.ExecutionStatus;
+import com.template.model.ExecutorTransition;
+import com.template.model.ExecutorType;
+import com.template.model.StepDurationStats;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class ExecutorTransitionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ExecutorTransitionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Appends transitions in a single JDBC batch.
+     *
+     * @param transitions The transitions to insert.
+     */
+    public void saveAll(List<ExecutorTransition> transitions) {
+        if (transitions.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO executor_transitions (executor_id, workflow_id, service_id, children_id, executor_type, " +
+                "from_status, to_status, transitioned_at, actor) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, transitions, transitions.size(), (ps, t) -> {
+            ps.setString(1, t.getExecutorId());
+            ps.setString(2, t.getWorkflowId());
+            ps.setString(3, t.getServiceId());
+            ps.setString(4, t.getChildrenId());
+            ps.setString(5, t.getExecutorType() == null ? null : t.getExecutorType().name());
+            ps.setString(6, t.getFromStatus() == null ? null : t.getFromStatus().name());
+            ps.setString(7, t.getToStatus().name());
+            ps.setTimestamp(8, Timestamp.valueOf(t.getTransitionedAt()));
+            ps.setString(9, t.getActor());
+        });
+    }
+
+    /**
+     * Retrieves all transitions of one workflow instance in the order they happened.
+     *
+     * @param serviceId The service ID of the instance.
+     * @return The transitions of all executors of the instance.
+     */
+    public List<ExecutorTransition> findByServiceId(String serviceId) {
+        String sql = "SELECT * FROM executor_transitions WHERE service_id = ? ORDER BY transitioned_at, id";
+        return jdbcTemplate.query(sql, new ExecutorTransitionRowMapper(), serviceId);
+    }
+
+    /**
+     * Computes p50/p95/p99 durations per workflow step and phase.
+     * The time an executor spends in a status ends with its next transition, so queue time is the
+     * time spent PENDING, run time the time spent RUNNING and approval time the time spent
+     * WAITING_FOR_APPROVAL. Only phases that started within [from, to) and have ended are counted.
+     *
+     * @param workflowId The ID of the workflow definition.
+     * @param from Inclusive start of the range.
+     * @param to Exclusive end of the range.
+     * @return One row per step and phase.
+     */
+    public List<StepDurationStats> findStepDurations(String workflowId, LocalDateTime from, LocalDateTime to) {
+        // Transitions before 'from' can neither start a counted phase nor end one, so they are not read
+        String sql = "SELECT children_id, executor_type, phase, COUNT(*) AS samples, " +
+                "PERCENTILE_CONT(0.5) WITHIN GROUP (ORDER BY duration_ms) AS p50, " +
+                "PERCENTILE_CONT(0.95) WITHIN GROUP (ORDER BY duration_ms) AS p95, " +
+                "PERCENTILE_CONT(0.99) WITHIN GROUP (ORDER BY duration_ms) AS p99 " +
+                "FROM (" +
+                "  SELECT children_id, executor_type, to_status, transitioned_at, " +
+                "    CASE to_status WHEN ? THEN 'queue' WHEN ? THEN 'run' ELSE 'approval' END AS phase, " +
+                "    DATEDIFF(MILLISECOND, transitioned_at, " +
+                "      LEAD(transitioned_at) OVER (PARTITION BY executor_id ORDER BY transitioned_at, id)) AS duration_ms " +
+                "  FROM executor_transitions " +
+                "  WHERE workflow_id = ? AND transitioned_at >= ?" +
+                ") t " +
+                "WHERE duration_ms IS NOT NULL AND transitioned_at < ? AND to_status IN (?, ?, ?) " +
+                "GROUP BY children_id, executor_type, phase " +
+                "ORDER BY children_id, phase";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> new StepDurationStats(
+                        rs.getString("children_id"),
+                        rs.getString("executor_type"),
+                        rs.getString("phase"),
+                        rs.getLong("samples"),
+                        rs.getDouble("p50"),
+                        rs.getDouble("p95"),
+                        rs.getDouble("p99")),
+                ExecutionStatus.PENDING.name(), ExecutionStatus.RUNNING.name(),
+                workflowId, Timestamp.valueOf(from),
+                Timestamp.valueOf(to),
+                ExecutionStatus.PENDING.name(), ExecutionStatus.RUNNING.name(), ExecutionStatus.WAITING_FOR_APPROVAL.name());
+    }
+
+    private static class ExecutorTransitionRowMapper implements RowMapper<ExecutorTransition> {
+        @Override
+        public ExecutorTransition mapRow(ResultSet rs, int rowNum) throws SQLException {
+            ExecutorTransition transition = new ExecutorTransition();
+            transition.setId(rs.getLong("id"));
+            transition.setExecutorId(rs.getString("executor_id"));
+            transition.setWorkflowId(rs.getString("workflow_id"));
+            transition.setServiceId(rs.getString("service_id"));
+            transition.setChildrenId(rs.getString("children_id"));
+            String executorType = rs.getString("executor_type");
+            transition.setExecutorType(executorType == null ? null : ExecutorType.valueOf(executorType));
+            String fromStatus = rs.getString("from_status");
+            transition.setFromStatus(fromStatus == null ? null : ExecutionStatus.valueOf(fromStatus));
+            transition.setToStatus(ExecutionStatus.valueOf(rs.getString("to_status")));
+            transition.setTransitionedAt(rs.getTimestamp("transitioned_at").toLocalDateTime());
+            transition.setActor(rs.getString("actor"));
+            return transition;
+        }
+    }
+}
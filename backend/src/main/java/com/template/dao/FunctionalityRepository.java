@@ -1,7 +1,10 @@
 package com.template.dao;
 
+import com.template.config.CacheConfig;
 import com.template.model.Functionality;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
@@ -38,9 +41,11 @@ public class FunctionalityRepository {
 
     /**
      * Finds a Functionality by its ID.
+     * Results, including misses, are cached; FunctionalityService evicts them on every write.
      * @param id The ID of the functionality to find.
      * @return An Optional containing the found Functionality, or empty if not found.
      */
+    @Cacheable(cacheNames = CacheConfig.FUNCTIONALITIES, key = "#id")
     public Optional<Functionality> findById(Long id) {
         String sql = "SELECT id, name, type FROM functionalities WHERE id = ?";
         try {
@@ -48,8 +53,8 @@ public class FunctionalityRepository {
                     new BeanPropertyRowMapper<>(Functionality.class),
                     id);
             return Optional.ofNullable(functionality);
-        } catch (Exception e) {
-            // Log the exception if needed
+        } catch (EmptyResultDataAccessException e) {
+            // Only a missing row is cached as a miss; database errors propagate and are not cached
             return Optional.empty();
         }
     }
@@ -0,0 +1,118 @@
+package com.template.dao;
+
+import com.template.model.IdempotencyRecord;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class IdempotencyKeyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public IdempotencyKeyRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Claims a key by inserting it without a response. The primary key makes the claim atomic,
+     * so of concurrent requests with the same key exactly one succeeds.
+     *
+     * @param scope The operation the key belongs to.
+     * @param key The idempotency key.
+     * @param requestHash The fingerprint of the request.
+     * @param claimToken Identifies this claim, so a request whose claim was taken over cannot change the key anymore.
+     * @param expiresAt When an unfinished claim may be taken over.
+     * @return True if the key was claimed, false if it already exists.
+     */
+    public boolean claim(String scope, String key, String requestHash, String claimToken, LocalDateTime expiresAt) {
+        String sql = "INSERT INTO idempotency_keys (scope, idem_key, request_hash, claim_token, created_at, expires_at) VALUES (?, ?, ?, ?, ?, ?)";
+        try {
+            jdbcTemplate.update(sql, scope, key, requestHash, claimToken, Timestamp.valueOf(LocalDateTime.now()), Timestamp.valueOf(expiresAt));
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    public Optional<IdempotencyRecord> find(String scope, String key) {
+        String sql = "SELECT * FROM idempotency_keys WHERE scope = ? AND idem_key = ?";
+        List<IdempotencyRecord> records = jdbcTemplate.query(sql, new IdempotencyRecordRowMapper(), scope, key);
+        return records.stream().findFirst();
+    }
+
+    /**
+     * Extends the lease of an unfinished claim, while its request is still running.
+     *
+     * @return The number of updated rows, 0 if the claim is gone or was taken over.
+     */
+    public int renew(String scope, String key, String claimToken, LocalDateTime expiresAt) {
+        String sql = "UPDATE idempotency_keys SET expires_at = ? " +
+                "WHERE scope = ? AND idem_key = ? AND claim_token = ? AND response_status IS NULL";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(expiresAt), scope, key, claimToken);
+    }
+
+    /**
+     * Stores the response of the request that claimed a key.
+     *
+     * @return The number of updated rows, 0 if the claim is gone or was taken over.
+     */
+    public int complete(String scope, String key, String claimToken, int responseStatus, String responseBody, String responseLocation,
+                        LocalDateTime expiresAt) {
+        String sql = "UPDATE idempotency_keys SET response_status = ?, response_body = ?, response_location = ?, expires_at = ? " +
+                "WHERE scope = ? AND idem_key = ? AND claim_token = ? AND response_status IS NULL";
+        return jdbcTemplate.update(sql, responseStatus, responseBody, responseLocation, Timestamp.valueOf(expiresAt), scope, key, claimToken);
+    }
+
+    /**
+     * Deletes an unfinished claim, e.g. of a request that failed, so the key can be used again.
+     *
+     * @return The number of deleted rows, 0 if the claim is gone or was taken over.
+     */
+    public int release(String scope, String key, String claimToken) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE scope = ? AND idem_key = ? AND claim_token = ? AND response_status IS NULL",
+                scope, key, claimToken);
+    }
+
+    /**
+     * Deletes a key only if it has expired, so an expired key can be claimed again.
+     *
+     * @return The number of deleted rows.
+     */
+    public int deleteIfExpired(String scope, String key, LocalDateTime now) {
+        String sql = "DELETE FROM idempotency_keys WHERE scope = ? AND idem_key = ? AND expires_at <= ?";
+        return jdbcTemplate.update(sql, scope, key, Timestamp.valueOf(now));
+    }
+
+    /**
+     * @return The number of expired keys that were deleted.
+     */
+    public int deleteExpired(LocalDateTime now) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at <= ?", Timestamp.valueOf(now));
+    }
+
+    private static class IdempotencyRecordRowMapper implements RowMapper<IdempotencyRecord> {
+        @Override
+        public IdempotencyRecord mapRow(ResultSet rs, int rowNum) throws SQLException {
+            int status = rs.getInt("response_status");
+            Integer responseStatus = rs.wasNull() ? null : status;
+            return new IdempotencyRecord(
+                    rs.getString("scope"),
+                    rs.getString("idem_key"),
+                    rs.getString("request_hash"),
+                    responseStatus,
+                    rs.getString("response_body"),
+                    rs.getString("response_location"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getTimestamp("expires_at").toLocalDateTime());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.template.dao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.model.InstanceContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+public class InstanceContextRepository {
+
+    private static final TypeReference<Map<String, Map<String, Object>>> VARIABLES_TYPE = new TypeReference<>() {};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public InstanceContextRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<InstanceContext> findByServiceId(String serviceId) {
+        String sql = "SELECT service_id, variables, version, updated_at FROM workflow_instance_contexts WHERE service_id = ?";
+        List<InstanceContext> contexts = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            try {
+                return new InstanceContext(rs.getString("service_id"), objectMapper.readValue(rs.getString("variables"), VARIABLES_TYPE),
+                        rs.getLong("version"), rs.getTimestamp("updated_at").toLocalDateTime());
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Failed to deserialize the variables of instance " + rs.getString("service_id"), e);
+            }
+        }, serviceId);
+        return contexts.stream().findFirst();
+    }
+
+    /**
+     * Inserts new contexts with one batch statement, skipping instances that already have one.
+     *
+     * @param contexts The contexts, with version 1.
+     * @return Per context, 1 if it was inserted and 0 if the instance already had a context.
+     */
+    public int[] insertAllIfAbsent(List<InstanceContext> contexts) {
+        String sql = "INSERT INTO workflow_instance_contexts (service_id, variables, version, updated_at) " +
+                "SELECT ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM workflow_instance_contexts WHERE service_id = ?)";
+        List<Object[]> args = new ArrayList<>(contexts.size());
+        for (InstanceContext context : contexts) {
+            args.add(new Object[]{context.getServiceId(), toJson(context), context.getVersion(),
+                    Timestamp.valueOf(context.getUpdatedAt()), context.getServiceId()});
+        }
+        return jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /**
+     * Replaces the variables of existing contexts with one batch statement. A context is only
+     * written if the stored version is the one before its own, i.e. nobody else wrote it meanwhile.
+     *
+     * @param contexts The contexts, with their incremented version.
+     * @return Per context, 1 if it was written and 0 if its stored version has moved on.
+     */
+    public int[] updateAll(List<InstanceContext> contexts) {
+        String sql = "UPDATE workflow_instance_contexts SET variables = ?, version = ?, updated_at = ? WHERE service_id = ? AND version = ?";
+        List<Object[]> args = new ArrayList<>(contexts.size());
+        for (InstanceContext context : contexts) {
+            args.add(new Object[]{toJson(context), context.getVersion(), Timestamp.valueOf(context.getUpdatedAt()),
+                    context.getServiceId(), context.getVersion() - 1});
+        }
+        return jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    private String toJson(InstanceContext context) {
+        try {
+            return objectMapper.writeValueAsString(context.getVariables());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize the variables of instance " + context.getServiceId(), e);
+        }
+    }
+}
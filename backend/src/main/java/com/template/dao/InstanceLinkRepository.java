@@ -0,0 +1,84 @@
+package com.template.dao;
+
+import com.template.model.ExecutionStatus;
+import com.template.model.InstanceLink;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class InstanceLinkRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InstanceLinkRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Links a sub-workflow instance that is just starting to its parent.
+     *
+     * @param link The link, with status RUNNING.
+     */
+    public void insert(InstanceLink link) {
+        String sql = "INSERT INTO workflow_instance_links (service_id, workflow_id, parent_service_id, parent_executor_id, root_service_id, " +
+                "depth, status, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.update(sql, link.getServiceId(), link.getWorkflowId(), link.getParentServiceId(), link.getParentExecutorId(),
+                link.getRootServiceId(), link.getDepth(), link.getStatus().name(),
+                Timestamp.valueOf(link.getCreatedAt()), Timestamp.valueOf(link.getUpdatedAt()));
+    }
+
+    /**
+     * Sets the final status of a running sub-workflow instance. Only the first call for an instance
+     * changes the row, so an instance ends once even if it is reported as ended more than once.
+     *
+     * @param serviceId The service ID of the sub-workflow instance.
+     * @param status COMPLETED or FAILED.
+     * @return True if the instance was running and is now ended, false otherwise.
+     */
+    public boolean finish(String serviceId, ExecutionStatus status) {
+        String sql = "UPDATE workflow_instance_links SET status = ?, updated_at = ? WHERE service_id = ? AND status = ?";
+        return jdbcTemplate.update(sql, status.name(), Timestamp.valueOf(LocalDateTime.now()), serviceId, ExecutionStatus.RUNNING.name()) == 1;
+    }
+
+    /**
+     * @param serviceId The service ID of an instance.
+     * @return The link to its parent, or empty if the instance is not a sub-workflow instance.
+     */
+    public Optional<InstanceLink> findByServiceId(String serviceId) {
+        String sql = "SELECT * FROM workflow_instance_links WHERE service_id = ?";
+        return jdbcTemplate.query(sql, new InstanceLinkRowMapper(), serviceId).stream().findFirst();
+    }
+
+    /**
+     * @param parentServiceId The service ID of an instance.
+     * @return The sub-workflow instances it started, oldest first.
+     */
+    public List<InstanceLink> findByParentServiceId(String parentServiceId) {
+        String sql = "SELECT * FROM workflow_instance_links WHERE parent_service_id = ? ORDER BY created_at, service_id";
+        return jdbcTemplate.query(sql, new InstanceLinkRowMapper(), parentServiceId);
+    }
+
+    private static class InstanceLinkRowMapper implements RowMapper<InstanceLink> {
+        @Override
+        public InstanceLink mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new InstanceLink(
+                    rs.getString("service_id"),
+                    rs.getString("workflow_id"),
+                    rs.getString("parent_service_id"),
+                    rs.getString("parent_executor_id"),
+                    rs.getString("root_service_id"),
+                    rs.getInt("depth"),
+                    ExecutionStatus.valueOf(rs.getString("status")),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getTimestamp("updated_at").toLocalDateTime());
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.template.dao;
+
+import com.template.model.MapExecution;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class MapExecutionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MapExecutionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts the progress row of a map node execution that is just starting.
+     *
+     * @param execution The map execution, with no items finished yet.
+     */
+    public void insert(MapExecution execution) {
+        String sql = "INSERT INTO map_executions (executor_id, service_id, total_items, max_parallelism, completed_items, failed_items, " +
+                "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.update(sql, execution.getExecutorId(), execution.getServiceId(), execution.getTotalItems(), execution.getMaxParallelism(),
+                execution.getCompletedItems(), execution.getFailedItems(),
+                Timestamp.valueOf(execution.getCreatedAt()), Timestamp.valueOf(execution.getUpdatedAt()));
+    }
+
+    /**
+     * Counts a finished item and reads the counters back. The update locks the row until the end of
+     * the transaction, so items finishing at the same time are counted one after the other, and each
+     * sees the counts including its own.
+     *
+     * @param executorId The ID of the map node's executor.
+     * @param success Whether the item completed.
+     * @return The map execution after counting the item, or empty if it does not exist.
+     */
+    public Optional<MapExecution> countFinishedItem(String executorId, boolean success) {
+        String sql = "UPDATE map_executions SET completed_items = completed_items + ?, failed_items = failed_items + ?, updated_at = ? " +
+                "WHERE executor_id = ?";
+        if (jdbcTemplate.update(sql, success ? 1 : 0, success ? 0 : 1, Timestamp.valueOf(LocalDateTime.now()), executorId) == 0) {
+            return Optional.empty();
+        }
+        return findByExecutorId(executorId);
+    }
+
+    /**
+     * @param executorId The ID of the map node's executor.
+     * @return The map execution, or empty if it does not exist.
+     */
+    public Optional<MapExecution> findByExecutorId(String executorId) {
+        List<MapExecution> executions = jdbcTemplate.query("SELECT * FROM map_executions WHERE executor_id = ?", new MapExecutionRowMapper(), executorId);
+        return executions.stream().findFirst();
+    }
+
+    private static class MapExecutionRowMapper implements RowMapper<MapExecution> {
+        @Override
+        public MapExecution mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new MapExecution(
+                    rs.getString("executor_id"),
+                    rs.getString("service_id"),
+                    rs.getInt("total_items"),
+                    rs.getInt("max_parallelism"),
+                    rs.getInt("completed_items"),
+                    rs.getInt("failed_items"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getTimestamp("updated_at").toLocalDateTime());
+        }
+    }
+}
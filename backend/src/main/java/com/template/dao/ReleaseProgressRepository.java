@@ -0,0 +1,98 @@
+package com.template.dao;
+
+import com.template.model.ExecutionStatus;
+import com.template.model.ExecutorType;
+import com.template.model.ReleaseProgress;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public class ReleaseProgressRepository {
+
+    // Duration of an executor so far: until its last update once terminal, until now otherwise
+    private static final String EXECUTOR_DURATION = "DATEDIFF(MILLISECOND, e.created_at, " +
+            "CASE WHEN e.status IN (?, ?, ?) THEN e.updated_at ELSE CURRENT_TIMESTAMP END)";
+
+    // One UNION ALL query, so the release is read in a single round trip; 'section' tells the parts apart
+    private static final String PROGRESS_SQL =
+            "SELECT 'TASK_STATUS' AS section, status AS k1, CAST(NULL AS VARCHAR) AS k2, CAST(NULL AS VARCHAR) AS k3, " +
+            "  COUNT(*) AS n, CAST(NULL AS BIGINT) AS avg_ms, CAST(NULL AS BIGINT) AS max_ms " +
+            "FROM tasks WHERE release_number = ? GROUP BY status " +
+            "UNION ALL " +
+            "SELECT 'INSTANCE_STATUS', instance_status, NULL, NULL, COUNT(*), NULL, NULL FROM (" +
+            "  SELECT CASE WHEN COUNT(e.id) = 0 THEN 'NOT_STARTED' " +
+            "    WHEN COUNT(CASE WHEN e.status IN (?, ?) THEN 1 END) > 0 THEN 'FAILED' " +
+            "    WHEN COUNT(CASE WHEN e.status = ? THEN 1 END) > 0 THEN 'WAITING_FOR_APPROVAL' " +
+            "    WHEN COUNT(CASE WHEN e.status <> ? THEN 1 END) = 0 THEN 'COMPLETED' " +
+            "    ELSE 'RUNNING' END AS instance_status " +
+            "  FROM tasks t LEFT JOIN workflow_executors e ON e.service_id = t.id " +
+            "  WHERE t.release_number = ? AND t.assigned_workflow <> '' " +
+            "  GROUP BY t.id" +
+            ") i GROUP BY instance_status " +
+            "UNION ALL " +
+            "SELECT 'PENDING_APPROVALS', i.approver_role, NULL, NULL, COUNT(*), NULL, " +
+            "  DATEDIFF(MILLISECOND, MIN(i.waiting_since), CURRENT_TIMESTAMP) " +
+            "FROM tasks t JOIN workflow_executors e ON e.service_id = t.id JOIN approval_inbox_entries i ON i.executor_id = e.id " +
+            "WHERE t.release_number = ? AND e.type = ? AND e.status = ? " +
+            "GROUP BY i.approver_role " +
+            "UNION ALL " +
+            "SELECT * FROM (" +
+            "  SELECT 'SLOWEST_STAGE', e.workflow_id, e.children_id, MAX(COALESCE(n.label, n.stage_name)), COUNT(*), " +
+            "    CAST(AVG(" + EXECUTOR_DURATION + ") AS BIGINT), MAX(" + EXECUTOR_DURATION + ") " +
+            "  FROM tasks t JOIN workflow_executors e ON e.service_id = t.id LEFT JOIN nodes n ON n.id = e.children_id " +
+            "  WHERE t.release_number = ? AND e.type = ? " +
+            "  GROUP BY e.workflow_id, e.children_id " +
+            "  ORDER BY 7 DESC LIMIT ?" +
+            ") s";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReleaseProgressRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Aggregates the progress of a release in the database.
+     * An instance is FAILED if any of its executors failed or was rejected, WAITING_FOR_APPROVAL if
+     * any edge waits for approval, COMPLETED if all its executors completed and RUNNING otherwise.
+     *
+     * @param releaseNumber The release number of the tasks.
+     * @param slowestStages The maximum number of stages to return, slowest (by maximum duration) first.
+     * @return The progress; a release without tasks has zero tasks.
+     */
+    public ReleaseProgress findProgress(String releaseNumber, int slowestStages) {
+        String completed = ExecutionStatus.COMPLETED.name();
+        String failed = ExecutionStatus.FAILED.name();
+        String rejected = ExecutionStatus.REJECTED.name();
+        String waiting = ExecutionStatus.WAITING_FOR_APPROVAL.name();
+
+        ReleaseProgress progress = new ReleaseProgress();
+        progress.setReleaseNumber(releaseNumber);
+        jdbcTemplate.query(PROGRESS_SQL, rs -> {
+            String k1 = rs.getString("k1");
+            long n = rs.getLong("n");
+            switch (rs.getString("section")) {
+                case "TASK_STATUS" -> {
+                    progress.getTaskStatuses().put(k1, n);
+                    progress.setTasks(progress.getTasks() + n);
+                }
+                case "INSTANCE_STATUS" -> progress.getInstanceStatuses().put(k1, n);
+                case "PENDING_APPROVALS" -> progress.getPendingApprovals().add(
+                        new ReleaseProgress.RoleApprovals(k1, n, rs.getLong("max_ms")));
+                default -> progress.getSlowestStages().add(new ReleaseProgress.StageDuration(
+                        k1, rs.getString("k2"), rs.getString("k3"), n, rs.getLong("avg_ms"), rs.getLong("max_ms")));
+            }
+        },
+                releaseNumber,
+                failed, rejected, waiting, completed, releaseNumber,
+                releaseNumber, ExecutorType.EDGE.name(), waiting,
+                completed, failed, rejected, completed, failed, rejected, releaseNumber, ExecutorType.NODE.name(), slowestStages);
+        // UNION ALL keeps no order across its parts
+        progress.getSlowestStages().sort((a, b) -> Long.compare(b.getMaxMillis(), a.getMaxMillis()));
+        progress.getPendingApprovals().sort((a, b) -> Long.compare(b.getPending(), a.getPending()));
+        progress.setComputedAt(LocalDateTime.now());
+        return progress;
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import java.sql.Timestamp;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -31,8 +32,8 @@ public class TaskRepository {
      * @return The number of rows affected.
      */
     public int save(Task task) {
-        String sql = "INSERT INTO tasks (id, release_number, title, description, sql_query, assigned_workflow, status, created_by, created_at, updated_at) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO tasks (id, release_number, title, description, sql_query, assigned_workflow, status, created_by, created_at, updated_at, sql_risk, sql_analysis) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         task.setId(UUID.randomUUID().toString());
         return jdbcTemplate.update(sql,
                 task.getId(),
@@ -44,7 +45,36 @@ public class TaskRepository {
                 task.getStatus(),
                 task.getCreatedBy(),
                 task.getCreatedAt(),
-                task.getUpdatedAt());
+                task.getUpdatedAt(),
+                task.getSqlRisk(),
+                task.getSqlAnalysis());
+    }
+
+    /**
+     * Inserts new Tasks in a single JDBC batch, generating their IDs.
+     * @param tasks The Task objects to save.
+     */
+    public void saveAll(List<Task> tasks) {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO tasks (id, release_number, title, description, sql_query, assigned_workflow, status, created_by, created_at, updated_at, sql_risk, sql_analysis) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        tasks.forEach(task -> task.setId(UUID.randomUUID().toString()));
+        jdbcTemplate.batchUpdate(sql, tasks, tasks.size(), (ps, task) -> {
+            ps.setString(1, task.getId());
+            ps.setString(2, task.getReleaseNumber());
+            ps.setString(3, task.getTitle());
+            ps.setString(4, task.getDescription());
+            ps.setString(5, task.getSqlQuery());
+            ps.setString(6, task.getAssignedWorkflow());
+            ps.setString(7, task.getStatus());
+            ps.setString(8, task.getCreatedBy());
+            ps.setTimestamp(9, Timestamp.valueOf(task.getCreatedAt()));
+            ps.setTimestamp(10, Timestamp.valueOf(task.getUpdatedAt()));
+            ps.setString(11, task.getSqlRisk());
+            ps.setString(12, task.getSqlAnalysis());
+        });
     }
 
     /**
@@ -53,7 +83,7 @@ public class TaskRepository {
      * @return An Optional containing the found Task, or empty if not found.
      */
     public Optional<Task> findById(String id) {
-        String sql = "SELECT id, release_number, title, description, sql_query, assigned_workflow, status, created_by, created_at, updated_at FROM tasks WHERE id = ?";
+        String sql = "SELECT id, release_number, title, description, sql_query, assigned_workflow, status, created_by, created_at, updated_at, sql_risk, sql_analysis FROM tasks WHERE id = ?";
         try {
             Task task = jdbcTemplate.queryForObject(
                     sql,
@@ -71,7 +101,7 @@ public class TaskRepository {
      * @return A list of all Task objects.
      */
     public List<Task> findAll() {
-        String sql = "SELECT id, release_number, title, description, sql_query, assigned_workflow, status, created_by, created_at, updated_at FROM tasks";
+        String sql = "SELECT id, release_number, title, description, sql_query, assigned_workflow, status, created_by, created_at, updated_at, sql_risk, sql_analysis FROM tasks";
         return jdbcTemplate.query(sql, new BeanPropertyRowMapper<>(Task.class));
     }
 
@@ -81,7 +111,7 @@ public class TaskRepository {
      * @return The number of rows affected.
      */
     public int update(Task task) {
-        String sql = "UPDATE tasks SET release_number = ?, title = ?, description = ?, sql_query = ?, assigned_workflow = ?, status = ?, updated_at = ? WHERE id = ?";
+        String sql = "UPDATE tasks SET release_number = ?, title = ?, description = ?, sql_query = ?, assigned_workflow = ?, status = ?, updated_at = ?, sql_risk = ?, sql_analysis = ? WHERE id = ?";
         return jdbcTemplate.update(sql,
                 task.getReleaseNumber(),
                 task.getTitle(),
@@ -90,6 +120,8 @@ public class TaskRepository {
                 task.getAssignedWorkflow(),
                 task.getStatus(),
                 task.getUpdatedAt(),
+                task.getSqlRisk(),
+                task.getSqlAnalysis(),
                 task.getId());
     }
 
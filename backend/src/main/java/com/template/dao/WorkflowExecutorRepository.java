@@ -10,6 +10,9 @@ import org.springframework.stereotype.Repository;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Repository
@@ -48,8 +51,8 @@ public class WorkflowExecutorRepository {
     private void insert(WorkflowExecutor executor) {
         jdbcTemplate.update(
                 "INSERT INTO workflow_executors (id, workflow_id, service_id, type, children_id, status, error_code, error_message, " +
-                        "error_stack_trace, approved_by, approval_comments, assigned_approver, approval_deadline, created_at, updated_at) " +
-                        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                        "error_stack_trace, approved_by, approval_comments, assigned_approver, approval_deadline, created_at, updated_at, definition_hash, " +
+                        "parent_id, item_index, item_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
                 executor.getId(),
                 executor.getWorkflowId(),
                 executor.getServiceId(),
@@ -64,7 +67,11 @@ public class WorkflowExecutorRepository {
                 executor.getAssignedApprover(),
                 executor.getApprovalDeadline() != null ? Timestamp.valueOf(executor.getApprovalDeadline()) : null,
                 Timestamp.valueOf(executor.getCreatedAt()),
-                Timestamp.valueOf(executor.getUpdatedAt())
+                Timestamp.valueOf(executor.getUpdatedAt()),
+                executor.getDefinitionHash(),
+                executor.getParentId(),
+                executor.getItemIndex(),
+                executor.getItem()
         );
     }
 
@@ -94,6 +101,42 @@ public class WorkflowExecutorRepository {
         );
     }
 
+    /**
+     * Inserts new WorkflowExecutors in a single JDBC batch.
+     * Unlike saveAll, it does not check for existing rows, so it is only for executors just created.
+     * @param executors The new executors.
+     */
+    public void insertAll(List<WorkflowExecutor> executors) {
+        if (executors.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO workflow_executors (id, workflow_id, service_id, type, children_id, status, error_code, error_message, " +
+                        "error_stack_trace, approved_by, approval_comments, assigned_approver, approval_deadline, created_at, updated_at, definition_hash, " +
+                        "parent_id, item_index, item_value) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                executors, executors.size(), (ps, executor) -> {
+                    ps.setString(1, executor.getId());
+                    ps.setString(2, executor.getWorkflowId());
+                    ps.setString(3, executor.getServiceId());
+                    ps.setString(4, executor.getType().name());
+                    ps.setString(5, executor.getChildrenId());
+                    ps.setString(6, executor.getStatus().name());
+                    ps.setString(7, executor.getErrorCode());
+                    ps.setString(8, executor.getErrorMessage());
+                    ps.setString(9, executor.getErrorStackTrace());
+                    ps.setString(10, executor.getApprovedBy());
+                    ps.setString(11, executor.getApprovalComments());
+                    ps.setString(12, executor.getAssignedApprover());
+                    ps.setTimestamp(13, executor.getApprovalDeadline() != null ? Timestamp.valueOf(executor.getApprovalDeadline()) : null);
+                    ps.setTimestamp(14, Timestamp.valueOf(executor.getCreatedAt()));
+                    ps.setTimestamp(15, Timestamp.valueOf(executor.getUpdatedAt()));
+                    ps.setString(16, executor.getDefinitionHash());
+                    ps.setString(17, executor.getParentId());
+                    ps.setObject(18, executor.getItemIndex(), Types.INTEGER);
+                    ps.setString(19, executor.getItem());
+                });
+    }
+
     /**
      * Saves a list of WorkflowExecutor objects.
      * This method can be used for bulk insertions or updates.
@@ -119,7 +162,7 @@ public class WorkflowExecutorRepository {
      */
     public WorkflowExecutor findById(String id) {
         String sql = "SELECT * FROM workflow_executors WHERE id = ?";
-        return jdbcTemplate.queryForObject(sql, new WorkflowExecutorRowMapper(), id);
+        return jdbcTemplate.query(sql, new WorkflowExecutorRowMapper(), id).stream().findFirst().orElse(null);
     }
 
     /**
@@ -154,6 +197,17 @@ public class WorkflowExecutorRepository {
         return jdbcTemplate.query(sql, new WorkflowExecutorRowMapper(), workflowId, childrenId);
     }
 
+    /**
+     * Finds all WorkflowExecutor objects for a given service instance and child (node or edge) ID.
+     * @param serviceId The ID of the service instance.
+     * @param childrenId The ID of the child (node or edge).
+     * @return A list of matching WorkflowExecutor objects.
+     */
+    public List<WorkflowExecutor> findByServiceIdAndChildrenId(String serviceId, String childrenId) {
+        String sql = "SELECT * FROM workflow_executors WHERE service_id = ? AND children_id = ?";
+        return jdbcTemplate.query(sql, new WorkflowExecutorRowMapper(), serviceId, childrenId);
+    }
+
     /**
      * Deletes a WorkflowExecutor by its unique identifier.
      * @param id The ID of the executor to delete.
@@ -163,6 +217,18 @@ public class WorkflowExecutorRepository {
         jdbcTemplate.update(sql, id);
     }
 
+    /**
+     * Locks an edge executor that is waiting for approval until the end of the transaction, with an
+     * update that leaves the row unchanged. Concurrent approvals and rejections of the executor queue
+     * on the lock and see each other's committed votes and status.
+     * @param id The ID of the executor.
+     * @return True if the executor is an edge waiting for approval, false otherwise.
+     */
+    public boolean lockWaitingForApproval(String id) {
+        String sql = "UPDATE workflow_executors SET status = status WHERE id = ? AND type = ? AND status = ?";
+        return jdbcTemplate.update(sql, id, ExecutorType.EDGE.name(), ExecutionStatus.WAITING_FOR_APPROVAL.name()) == 1;
+    }
+
     /**
      * Finds all executors that are edges and are in a pending approval state.
      * This method is useful for building a list of items that require a user's action.
@@ -173,6 +239,41 @@ public class WorkflowExecutorRepository {
         return jdbcTemplate.query(sql, new WorkflowExecutorRowMapper(), ExecutorType.EDGE.name(), ExecutionStatus.WAITING_FOR_APPROVAL.name());
     }
 
+    /**
+     * Counts the edge executors that are waiting for approval.
+     * @return The number of pending approvals.
+     */
+    public long countPendingApprovalEdges() {
+        String sql = "SELECT COUNT(*) FROM workflow_executors WHERE type = ? AND status = ?";
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, ExecutorType.EDGE.name(), ExecutionStatus.WAITING_FOR_APPROVAL.name());
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Finds the edge executors waiting for approval by one approver role, oldest first, starting
+     * after a keyset position. Served by the inbox entries of the role through
+     * idx_approval_inbox_entries_role without sorting; an edge waiting for several roles is listed
+     * for each role until that role's approvals are in.
+     * @param approverRole The role assigned to approve the edges.
+     * @param afterUpdatedAt The updated_at of the last executor of the previous page, or null for the first page.
+     * @param afterId The ID of the last executor of the previous page.
+     * @param limit The maximum number of executors.
+     * @return The executors ordered by the time they started waiting, which is their updated_at, and ID.
+     */
+    public List<WorkflowExecutor> findPendingApprovalEdges(String approverRole, LocalDateTime afterUpdatedAt, String afterId, int limit) {
+        String sql = "SELECT e.* FROM approval_inbox_entries i JOIN workflow_executors e ON e.id = i.executor_id " +
+                "WHERE i.approver_role = ? AND e.status = ? AND e.type = ? " +
+                (afterUpdatedAt == null ? "" : "AND (i.waiting_since > ? OR (i.waiting_since = ? AND i.executor_id > ?)) ") +
+                "ORDER BY i.waiting_since, i.executor_id LIMIT ?";
+        List<Object> args = new ArrayList<>(List.of(approverRole, ExecutionStatus.WAITING_FOR_APPROVAL.name(), ExecutorType.EDGE.name()));
+        if (afterUpdatedAt != null) {
+            Timestamp after = Timestamp.valueOf(afterUpdatedAt);
+            args.addAll(List.of(after, after, afterId));
+        }
+        args.add(limit);
+        return jdbcTemplate.query(sql, new WorkflowExecutorRowMapper(), args.toArray());
+    }
+
     /**
      * Inner class to map a ResultSet row to a WorkflowExecutor object.
      * This handles the conversion of database columns to the appropriate Java types.
@@ -193,6 +294,10 @@ public class WorkflowExecutorRepository {
             executor.setApprovedBy(rs.getString("approved_by"));
             executor.setApprovalComments(rs.getString("approval_comments"));
             executor.setAssignedApprover(rs.getString("assigned_approver"));
+            executor.setDefinitionHash(rs.getString("definition_hash"));
+            executor.setParentId(rs.getString("parent_id"));
+            executor.setItemIndex(rs.getObject("item_index", Integer.class));
+            executor.setItem(rs.getString("item_value"));
 
             Timestamp approvalDeadline = rs.getTimestamp("approval_deadline");
             if (approvalDeadline != null) {
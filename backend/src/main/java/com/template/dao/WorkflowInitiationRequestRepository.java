@@ -0,0 +1,128 @@
+package com.template.dao;
+
+import com.template.model.WorkflowInitiationRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public class WorkflowInitiationRequestRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkflowInitiationRequestRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Inserts a pending request.
+     *
+     * @param request The request to save.
+     */
+    public void save(WorkflowInitiationRequest request) {
+        String sql = "INSERT INTO workflow_initiation_requests (task_id, workflow_id, name, status, attempts, error, created_at, updated_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.update(sql, request.getTaskId(), request.getWorkflowId(), request.getName(), request.getStatus().name(),
+                request.getAttempts(), request.getError(),
+                Timestamp.valueOf(request.getCreatedAt()), Timestamp.valueOf(request.getUpdatedAt()));
+    }
+
+    public Optional<WorkflowInitiationRequest> findByTaskId(String taskId) {
+        List<WorkflowInitiationRequest> requests = jdbcTemplate.query(
+                "SELECT * FROM workflow_initiation_requests WHERE task_id = ?", new WorkflowInitiationRequestRowMapper(), taskId);
+        return requests.stream().findFirst();
+    }
+
+    /**
+     * Claims up to limit of the oldest pending requests by moving them to RUNNING. The update is
+     * conditional on the request still being pending, so concurrent drainers never claim the same request.
+     *
+     * @param limit The maximum number of requests to claim.
+     * @return The claimed requests, oldest first, with their attempts already incremented.
+     */
+    public List<WorkflowInitiationRequest> claimPending(int limit) {
+        List<WorkflowInitiationRequest> candidates = jdbcTemplate.query(
+                "SELECT * FROM workflow_initiation_requests WHERE status = ? ORDER BY created_at LIMIT ?",
+                new WorkflowInitiationRequestRowMapper(), WorkflowInitiationRequest.Status.PENDING.name(), limit);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        String sql = "UPDATE workflow_initiation_requests SET status = ?, attempts = attempts + 1, updated_at = ? " +
+                "WHERE task_id = ? AND status = ?";
+        int[][] counts = jdbcTemplate.batchUpdate(sql, candidates, candidates.size(), (ps, request) -> {
+            ps.setString(1, WorkflowInitiationRequest.Status.RUNNING.name());
+            ps.setTimestamp(2, Timestamp.valueOf(now));
+            ps.setString(3, request.getTaskId());
+            ps.setString(4, WorkflowInitiationRequest.Status.PENDING.name());
+        });
+        List<WorkflowInitiationRequest> claimed = new ArrayList<>(candidates.size());
+        for (int i = 0; i < candidates.size(); i++) {
+            if (counts[0][i] > 0) {
+                WorkflowInitiationRequest request = candidates.get(i);
+                request.setStatus(WorkflowInitiationRequest.Status.RUNNING);
+                request.setAttempts(request.getAttempts() + 1);
+                request.setUpdatedAt(now);
+                claimed.add(request);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Moves requests to a new status in a single JDBC batch.
+     *
+     * @param taskIds The task IDs of the requests.
+     * @param status The new status.
+     * @param error The error to record, or null.
+     */
+    public void updateStatus(List<String> taskIds, WorkflowInitiationRequest.Status status, String error) {
+        if (taskIds.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = "UPDATE workflow_initiation_requests SET status = ?, error = ?, updated_at = ? WHERE task_id = ?";
+        jdbcTemplate.batchUpdate(sql, taskIds, taskIds.size(), (ps, taskId) -> {
+            ps.setString(1, status.name());
+            ps.setString(2, error);
+            ps.setTimestamp(3, now);
+            ps.setString(4, taskId);
+        });
+    }
+
+    /**
+     * Returns requests that have been RUNNING since before a point in time, e.g. because the
+     * process that claimed them died, to the pending queue.
+     *
+     * @param claimedBefore Requests claimed before this time are released.
+     * @return The number of released requests.
+     */
+    public int releaseStale(LocalDateTime claimedBefore) {
+        String sql = "UPDATE workflow_initiation_requests SET status = ? WHERE status = ? AND updated_at < ?";
+        return jdbcTemplate.update(sql, WorkflowInitiationRequest.Status.PENDING.name(),
+                WorkflowInitiationRequest.Status.RUNNING.name(), Timestamp.valueOf(claimedBefore));
+    }
+
+    private static class WorkflowInitiationRequestRowMapper implements RowMapper<WorkflowInitiationRequest> {
+        @Override
+        public WorkflowInitiationRequest mapRow(ResultSet rs, int rowNum) throws SQLException {
+            return new WorkflowInitiationRequest(
+                    rs.getString("task_id"),
+                    rs.getString("workflow_id"),
+                    rs.getString("name"),
+                    WorkflowInitiationRequest.Status.valueOf(rs.getString("status")),
+                    rs.getInt("attempts"),
+                    rs.getString("error"),
+                    rs.getTimestamp("created_at").toLocalDateTime(),
+                    rs.getTimestamp("updated_at").toLocalDateTime());
+        }
+    }
+}
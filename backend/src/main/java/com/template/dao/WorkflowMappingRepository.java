@@ -1,7 +1,9 @@
 package com.template.dao;
 
+import com.template.config.CacheConfig;
 import com.template.model.WorkflowMapping;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.jdbc.core.BeanPropertyRowMapper;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -71,10 +73,12 @@ public class WorkflowMappingRepository {
     }
 
     /**
-     * Finds a WorkflowMapping by its ID.
-     * @param workflowId The ID of the mapping to find.
+     * Finds the WorkflowMapping of a workflow.
+     * Results, including misses, are cached; WorkflowMappingService evicts them on every write.
+     * @param workflowId The ID of the workflow.
      * @return An Optional containing the found WorkflowMapping, or empty if not found.
      */
+    @Cacheable(cacheNames = CacheConfig.WORKFLOW_MAPPINGS, key = "#workflowId")
     public Optional<WorkflowMapping> findByWorkflowId(String workflowId) {
         String sql = "SELECT id, workflow_id, functionality_id, functionality_name, functionality_type, created_at FROM workflow_mappings WHERE workflow_id = ?";
         try {
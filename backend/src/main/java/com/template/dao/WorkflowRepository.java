@@ -6,6 +6,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.template.model.Edge;
 import com.template.model.Node;
 import com.template.model.Workflow;
+import com.template.model.WorkflowGraphDiff;
+import com.template.model.WorkflowView;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.RowMapper;
@@ -22,6 +24,18 @@ public class WorkflowRepository {
     private final JdbcTemplate jdbcTemplate;
     private final ObjectMapper objectMapper;
 
+    // Columns of the nodes table besides id and workflow_id, in binding order
+    private static final String[] NODE_COLUMNS = {"type", "position_x", "position_y", "width", "height", "selected", "dragging",
+            "stage_name", "environment", "parameters", "status", "label", "position_abs_x", "position_abs_y"};
+    private static final int[] NODE_TYPES = {Types.VARCHAR, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE, Types.DOUBLE, Types.BOOLEAN, Types.BOOLEAN,
+            Types.VARCHAR, Types.VARCHAR, Types.CLOB, Types.VARCHAR, Types.VARCHAR, Types.DOUBLE, Types.DOUBLE};
+
+    // Columns of the edges table besides id and workflow_id, in binding order
+    private static final String[] EDGE_COLUMNS = {"source", "source_handle", "target", "target_handle", "type",
+            "requires_approval", "approver_role", "status", "approval_timeout", "auto_approve", "required_approvals", "condition_expr"};
+    private static final int[] EDGE_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.BOOLEAN, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN, Types.VARCHAR, Types.VARCHAR};
+
     public WorkflowRepository(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
         this.jdbcTemplate = jdbcTemplate;
         this.objectMapper = objectMapper;
@@ -56,82 +70,247 @@ public class WorkflowRepository {
 
         // Use a batch update for inserting all nodes at once
         if (workflow.getNodes() != null && !workflow.getNodes().isEmpty()) {
-            String nodeSql = "INSERT INTO nodes (id, workflow_id, type, position_x, position_y, width, height, selected, dragging, stage_name, environment, parameters, status, label, position_abs_x, position_abs_y) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            List<Node> nodesToInsert = workflow.getNodes();
-            jdbcTemplate.batchUpdate(nodeSql, new BatchPreparedStatementSetter() {
-                @Override
-                public void setValues(PreparedStatement ps, int i) throws SQLException {
-                    Node node = nodesToInsert.get(i);
-                    String parametersJson;
-                    try {
-                        parametersJson = objectMapper.writeValueAsString(node.getData().getParameters());
-                    } catch (JsonProcessingException e) {
-                        throw new SQLException("Failed to serialize node parameters to JSON", e);
-                    }
-                    ps.setString(1, node.getId());
-                    ps.setString(2, workflow.getId());
-                    ps.setString(3, node.getType());
-                    ps.setDouble(4, node.getPosition().getX());
-                    ps.setDouble(5, node.getPosition().getY());
-                    ps.setDouble(6, node.getWidth());
-                    ps.setDouble(7, node.getHeight());
-                    ps.setBoolean(8, node.isSelected());
-                    ps.setBoolean(9, node.isDragging());
-                    ps.setString(10, node.getData().getStageName());
-                    ps.setString(11, node.getData().getEnvironment());
-                    ps.setString(12, parametersJson);
-                    ps.setString(13, node.getData().getStatus());
-                    ps.setString(14, node.getData().getLabel());
-                    if(Objects.nonNull(node.getPositionAbsolute()) && Objects.nonNull(node.getPositionAbsolute().getX())) {
-                        ps.setDouble(15, node.getPositionAbsolute().getX());
-                    }else {
-                        ps.setNull(15, Types.DOUBLE);
-                    }
-                    if(Objects.nonNull(node.getPositionAbsolute()) && Objects.nonNull(node.getPositionAbsolute().getY())) {
-                        ps.setDouble(16, node.getPositionAbsolute().getY());
-                    }else {
-                        ps.setNull(16, Types.DOUBLE);
-                    }
+            insertNodes(workflow.getId(), workflow.getNodes());
+        }
 
+        // Use a batch update for inserting all edges at once
+        if (workflow.getEdges() != null && !workflow.getEdges().isEmpty()) {
+            insertEdges(workflow.getId(), workflow.getEdges());
+        }
+    }
 
-                }
+    /**
+     * Replaces the nodes and edges of a workflow by applying only the difference to the stored graph.
+     * Nodes and edges are matched by ID: new IDs are inserted, IDs whose columns changed are updated
+     * in place and missing IDs are deleted, each with one batch statement. Unchanged rows are not
+     * touched, so their identity (and the executors referring to them) is preserved. The workflow
+     * row is locked for the duration of the transaction and its updated_at is bumped.
+     *
+     * @param id The ID of the workflow.
+     * @param nodes The complete new set of nodes.
+     * @param edges The complete new set of edges.
+     * @return The number of inserted, updated and deleted nodes and edges.
+     * @throws JsonProcessingException if a node's parameters cannot be serialized.
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the workflow does not exist.
+     */
+    @Transactional
+    public WorkflowGraphDiff updateGraph(String id, List<Node> nodes, List<Edge> edges) throws JsonProcessingException {
+        lock(id);
 
-                @Override
-                public int getBatchSize() {
-                    return nodesToInsert.size();
-                }
-            });
+        Map<String, Object[]> storedNodes = findColumnValues("nodes", NODE_COLUMNS, NODE_TYPES, id);
+        Map<String, Object[]> storedEdges = findColumnValues("edges", EDGE_COLUMNS, EDGE_TYPES, id);
+
+        List<Node> nodeInserts = new ArrayList<>();
+        List<Node> nodeUpdates = new ArrayList<>();
+        for (Node node : nodes) {
+            Object[] stored = storedNodes.remove(node.getId());
+            if (stored == null) {
+                nodeInserts.add(node);
+            } else if (!Arrays.equals(stored, nodeValues(node))) {
+                nodeUpdates.add(node);
+            }
         }
+        List<Edge> edgeInserts = new ArrayList<>();
+        List<Edge> edgeUpdates = new ArrayList<>();
+        for (Edge edge : edges) {
+            Object[] stored = storedEdges.remove(edge.getId());
+            if (stored == null) {
+                edgeInserts.add(edge);
+            } else if (!Arrays.equals(stored, edgeValues(edge))) {
+                edgeUpdates.add(edge);
+            }
+        }
+        // Whatever is left in the stored maps is no longer part of the graph
+        List<String> nodeDeletes = new ArrayList<>(storedNodes.keySet());
+        List<String> edgeDeletes = new ArrayList<>(storedEdges.keySet());
 
-        // Use a batch update for inserting all edges at once
-        if (workflow.getEdges() != null && !workflow.getEdges().isEmpty()) {
-            String edgeSql = "INSERT INTO edges (id, workflow_id, source, source_handle, target, target_handle, type, requires_approval, approver_role, status, approval_timeout, auto_approve) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
-            List<Edge> edgesToInsert = workflow.getEdges();
-            jdbcTemplate.batchUpdate(edgeSql, new BatchPreparedStatementSetter() {
-                @Override
-                public void setValues(PreparedStatement ps, int i) throws SQLException {
-                    Edge edge = edgesToInsert.get(i);
-                    Edge.Data data = edge.getData();
-                    ps.setString(1, edge.getId());
-                    ps.setString(2, workflow.getId());
-                    ps.setString(3, edge.getSource());
-                    ps.setString(4, edge.getSourceHandle());
-                    ps.setString(5, edge.getTarget());
-                    ps.setString(6, edge.getTargetHandle());
-                    ps.setString(7, edge.getType());
-                    ps.setBoolean(8, data.isRequiresApproval());
-                    ps.setString(9, data.getApproverRole());
-                    ps.setString(10, data.getStatus());
-                    ps.setLong(11, 1);
-                    ps.setBoolean(12, data.isAutoApprove());
-                }
+        deleteByIds("edges", id, edgeDeletes);
+        deleteByIds("nodes", id, nodeDeletes);
+        insertNodes(id, nodeInserts);
+        updateNodes(id, nodeUpdates);
+        insertEdges(id, edgeInserts);
+        updateEdges(id, edgeUpdates);
 
-                @Override
-                public int getBatchSize() {
-                    return edgesToInsert.size();
-                }
-            });
+        jdbcTemplate.update("UPDATE workflows SET updated_at = ? WHERE id = ?", Timestamp.from(Instant.now()), id);
+        return new WorkflowGraphDiff(nodeInserts.size(), nodeUpdates.size(), nodeDeletes.size(),
+                edgeInserts.size(), edgeUpdates.size(), edgeDeletes.size());
+    }
+
+    private Object[] nodeValues(Node node) throws JsonProcessingException {
+        Node.Position position = node.getPosition();
+        Node.Position positionAbs = node.getPositionAbsolute();
+        Node.Data data = node.getData();
+        return new Object[]{
+                node.getType(),
+                position == null ? null : position.getX(),
+                position == null ? null : position.getY(),
+                node.getWidth(),
+                node.getHeight(),
+                node.getSelected(),
+                node.getDragging(),
+                data == null ? null : data.getStageName(),
+                data == null ? null : data.getEnvironment(),
+                objectMapper.writeValueAsString(data == null ? null : data.getParameters()),
+                data == null ? null : data.getStatus(),
+                data == null ? null : data.getLabel(),
+                positionAbs == null ? null : positionAbs.getX(),
+                positionAbs == null ? null : positionAbs.getY()
+        };
+    }
+
+    private Object[] edgeValues(Edge edge) throws JsonProcessingException {
+        Edge.Data data = edge.getData();
+        Map<String, Integer> requiredApprovals = data == null ? null : data.getRequiredApprovals();
+        return new Object[]{
+                edge.getSource(),
+                edge.getSourceHandle(),
+                edge.getTarget(),
+                edge.getTargetHandle(),
+                edge.getType(),
+                data != null && data.isRequiresApproval(),
+                data == null ? null : data.getApproverRole(),
+                data == null ? null : data.getStatus(),
+                "1", // approval_timeout is not configurable yet
+                data != null && data.isAutoApprove(),
+                // Sorted, so that an unchanged quorum compares equal to the stored one
+                requiredApprovals == null || requiredApprovals.isEmpty() ? null : objectMapper.writeValueAsString(new TreeMap<>(requiredApprovals)),
+                data == null ? null : data.getCondition()
+        };
+    }
+
+    private Object[] edgeValuesOf(Edge edge) throws SQLException {
+        try {
+            return edgeValues(edge);
+        } catch (JsonProcessingException e) {
+            throw new SQLException("Failed to serialize the required approvals of edge " + edge.getId(), e);
+        }
+    }
+
+    // Binds values to consecutive parameters starting at 'offset'
+    private static void bind(PreparedStatement ps, int offset, Object[] values, int[] types) throws SQLException {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                ps.setNull(offset + i, types[i]);
+            } else {
+                ps.setObject(offset + i, values[i], types[i]);
+            }
+        }
+    }
+
+    // Reads the non-key columns of every row of a workflow, keyed by row ID, in the same form as nodeValues/edgeValues
+    private Map<String, Object[]> findColumnValues(String table, String[] columns, int[] types, String workflowId) {
+        String sql = "SELECT id, " + String.join(", ", columns) + " FROM " + table + " WHERE workflow_id = ?";
+        Map<String, Object[]> rows = new HashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            Object[] values = new Object[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                values[i] = switch (types[i]) {
+                    case Types.DOUBLE -> rs.getObject(i + 2, Double.class);
+                    case Types.BOOLEAN -> rs.getObject(i + 2, Boolean.class);
+                    default -> rs.getString(i + 2);
+                };
+            }
+            rows.put(rs.getString(1), values);
+        }, workflowId);
+        return rows;
+    }
+
+    private void insertNodes(String workflowId, List<Node> nodes) throws JsonProcessingException {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO nodes (id, workflow_id, " + String.join(", ", NODE_COLUMNS) + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        List<Object[]> values = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            values.add(nodeValues(node));
         }
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, nodes.get(i).getId());
+                ps.setString(2, workflowId);
+                bind(ps, 3, values.get(i), NODE_TYPES);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return nodes.size();
+            }
+        });
+    }
+
+    private void updateNodes(String workflowId, List<Node> nodes) throws JsonProcessingException {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE nodes SET " + String.join(" = ?, ", NODE_COLUMNS) + " = ? WHERE id = ? AND workflow_id = ?";
+        List<Object[]> values = new ArrayList<>(nodes.size());
+        for (Node node : nodes) {
+            values.add(nodeValues(node));
+        }
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bind(ps, 1, values.get(i), NODE_TYPES);
+                ps.setString(NODE_COLUMNS.length + 1, nodes.get(i).getId());
+                ps.setString(NODE_COLUMNS.length + 2, workflowId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return nodes.size();
+            }
+        });
+    }
+
+    private void insertEdges(String workflowId, List<Edge> edges) {
+        if (edges.isEmpty()) {
+            return;
+        }
+        String sql = "INSERT INTO edges (id, workflow_id, " + String.join(", ", EDGE_COLUMNS) + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, edges.get(i).getId());
+                ps.setString(2, workflowId);
+                bind(ps, 3, edgeValuesOf(edges.get(i)), EDGE_TYPES);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return edges.size();
+            }
+        });
+    }
+
+    private void updateEdges(String workflowId, List<Edge> edges) {
+        if (edges.isEmpty()) {
+            return;
+        }
+        String sql = "UPDATE edges SET " + String.join(" = ?, ", EDGE_COLUMNS) + " = ? WHERE id = ? AND workflow_id = ?";
+        jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                bind(ps, 1, edgeValuesOf(edges.get(i)), EDGE_TYPES);
+                ps.setString(EDGE_COLUMNS.length + 1, edges.get(i).getId());
+                ps.setString(EDGE_COLUMNS.length + 2, workflowId);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return edges.size();
+            }
+        });
+    }
+
+    private void deleteByIds(String table, String workflowId, List<String> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("DELETE FROM " + table + " WHERE id = ? AND workflow_id = ?", ids, ids.size(), (ps, rowId) -> {
+            ps.setString(1, rowId);
+            ps.setString(2, workflowId);
+        });
     }
 
     /**
@@ -141,25 +320,87 @@ public class WorkflowRepository {
      * @return The complete workflow object.
      */
     public Workflow findById(String id) {
+        return findById(id, WorkflowView.DESIGNER);
+    }
+
+    /**
+     * Retrieves a workflow by its ID, loading only the columns the view needs.
+     * The execution view skips all layout columns; the summary view skips nodes and edges entirely.
+     *
+     * @param id The ID of the workflow.
+     * @param view The parts of the workflow to load.
+     * @return The workflow object, with unloaded fields left null.
+     */
+    public Workflow findById(String id, WorkflowView view) {
         String sql = "SELECT * FROM workflows WHERE id = ?";
         Workflow workflow = jdbcTemplate.queryForObject(sql, new WorkflowRowMapper(), id);
-        if (workflow != null) {
-            workflow.setNodes(findNodesByWorkflowId(id));
-            workflow.setEdges(findEdgesByWorkflowId(id));
+        if (workflow != null && view != WorkflowView.SUMMARY) {
+            boolean layout = view == WorkflowView.DESIGNER;
+            workflow.setNodes(findNodesByWorkflowId(id, layout));
+            workflow.setEdges(findEdgesByWorkflowId(id, layout));
         }
         return workflow;
     }
 
+    /**
+     * Reads only the updated_at stamp of a workflow, to check whether a cached copy is still current.
+     * Workflows saved before updated_at was set fall back to created_at, and to the epoch if that is missing too.
+     *
+     * @param id The ID of the workflow.
+     * @return The last update time, or null if the workflow does not exist.
+     */
+    public Instant findUpdatedAt(String id) {
+        List<Timestamp> stamps = jdbcTemplate.queryForList(
+                "SELECT COALESCE(updated_at, created_at, TIMESTAMP '1970-01-01 00:00:00') FROM workflows WHERE id = ?", Timestamp.class, id);
+        return stamps.isEmpty() ? null : stamps.get(0).toInstant();
+    }
+
+    /**
+     * Reads the hash of the definition version new instances of a workflow start with.
+     *
+     * @param id The ID of the workflow.
+     * @return The current version hash, or null if no version has been published yet.
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the workflow does not exist.
+     */
+    public String findCurrentHash(String id) {
+        return jdbcTemplate.queryForObject("SELECT current_hash FROM workflows WHERE id = ?", String.class, id);
+    }
+
+    /**
+     * Locks the row of a workflow until the end of the current transaction, serializing graph
+     * saves and version publication for the workflow.
+     *
+     * @param id The ID of the workflow.
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the workflow does not exist.
+     */
+    public void lock(String id) {
+        jdbcTemplate.queryForObject("SELECT id FROM workflows WHERE id = ? FOR UPDATE", String.class, id);
+    }
+
+    /**
+     * Points a workflow at a new current definition version.
+     *
+     * @param id The ID of the workflow.
+     * @param hash The hash of the version.
+     */
+    public void updateCurrentHash(String id, String hash) {
+        jdbcTemplate.update("UPDATE workflows SET current_hash = ? WHERE id = ?", hash, id);
+    }
+
     // New helper method to find nodes for a given workflow
-    private List<Node> findNodesByWorkflowId(String workflowId) {
-        String sql = "SELECT * FROM nodes WHERE workflow_id = ?";
-        return jdbcTemplate.query(sql, new NodeRowMapper(objectMapper), workflowId);
+    private List<Node> findNodesByWorkflowId(String workflowId, boolean layout) {
+        String sql = layout
+                ? "SELECT * FROM nodes WHERE workflow_id = ?"
+                : "SELECT id, type, stage_name, environment, parameters, status, label FROM nodes WHERE workflow_id = ?";
+        return jdbcTemplate.query(sql, new NodeRowMapper(objectMapper, layout), workflowId);
     }
 
     // New helper method to find edges for a given workflow
-    private List<Edge> findEdgesByWorkflowId(String workflowId) {
-        String sql = "SELECT * FROM edges WHERE workflow_id = ?";
-        return jdbcTemplate.query(sql, new EdgeRowMapper(), workflowId);
+    private List<Edge> findEdgesByWorkflowId(String workflowId, boolean layout) {
+        String sql = layout
+                ? "SELECT * FROM edges WHERE workflow_id = ?"
+                : "SELECT id, source, target, requires_approval, approver_role, status, auto_approve, required_approvals, condition_expr FROM edges WHERE workflow_id = ?";
+        return jdbcTemplate.query(sql, new EdgeRowMapper(layout), workflowId);
     }
 
     // Find all workflows (without nodes and edges for performance)
@@ -211,25 +452,28 @@ public class WorkflowRepository {
             wf.setVersion(rs.getString("version"));
             wf.setStatus(rs.getString("status"));
             wf.setCreatedBy(rs.getString("created_by"));
-            wf.setCreatedAt(rs.getTimestamp("created_at").toInstant());
-            wf.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+            Timestamp createdAt = rs.getTimestamp("created_at");
+            Timestamp updatedAt = rs.getTimestamp("updated_at");
+            wf.setCreatedAt(createdAt == null ? null : createdAt.toInstant());
+            // Workflows saved before updated_at was set were last updated when they were created
+            wf.setUpdatedAt(updatedAt != null ? updatedAt.toInstant() : wf.getCreatedAt());
             return wf;
         }
     }
 
-    // RowMapper for the Node object
+    // RowMapper for the Node object; layout columns are only read (and present) for the designer view
     private class NodeRowMapper implements RowMapper<Node> {
         private final ObjectMapper objectMapper;
+        private final boolean layout;
 
-        public NodeRowMapper(ObjectMapper objectMapper) {
+        public NodeRowMapper(ObjectMapper objectMapper, boolean layout) {
             this.objectMapper = objectMapper;
+            this.layout = layout;
         }
 
         @Override
         public Node mapRow(ResultSet rs, int rowNum) throws SQLException {
             Node node = new Node();
-            Node.Position position = new Node.Position(rs.getDouble("position_x"), rs.getDouble("position_y"));
-            Node.Position positionAbs = new Node.Position(rs.getDouble("position_abs_x"), rs.getDouble("position_abs_y"));
             Node.Data data = new Node.Data();
             data.setStageName(rs.getString("stage_name"));
             data.setEnvironment(rs.getString("environment"));
@@ -247,20 +491,28 @@ public class WorkflowRepository {
 
             node.setId(rs.getString("id"));
             node.setType(rs.getString("type"));
-            node.setWidth(rs.getDouble("width"));
-            node.setHeight(rs.getDouble("height"));
-            node.setSelected(rs.getBoolean("selected"));
-            node.setDragging(rs.getBoolean("dragging"));
-            node.setPosition(position);
-            node.setPositionAbsolute(positionAbs);
+            if (layout) {
+                node.setWidth(rs.getDouble("width"));
+                node.setHeight(rs.getDouble("height"));
+                node.setSelected(rs.getBoolean("selected"));
+                node.setDragging(rs.getBoolean("dragging"));
+                node.setPosition(new Node.Position(rs.getDouble("position_x"), rs.getDouble("position_y")));
+                node.setPositionAbsolute(new Node.Position(rs.getDouble("position_abs_x"), rs.getDouble("position_abs_y")));
+            }
             node.setData(data);
 
             return node;
         }
     }
 
-    // RowMapper for the Edge object
+    // RowMapper for the Edge object; handles and type are only read (and present) for the designer view
     private class EdgeRowMapper implements RowMapper<Edge> {
+        private final boolean layout;
+
+        public EdgeRowMapper(boolean layout) {
+            this.layout = layout;
+        }
+
         @Override
         public Edge mapRow(ResultSet rs, int rowNum) throws SQLException {
             Edge edge = new Edge();
@@ -270,13 +522,26 @@ public class WorkflowRepository {
             data.setStatus(rs.getString("status"));
             data.setApprovalTimeout(String.valueOf(1));
             data.setAutoApprove(rs.getBoolean("auto_approve"));
+            data.setCondition(rs.getString("condition_expr"));
+            String requiredApprovalsJson = rs.getString("required_approvals");
+            if (requiredApprovalsJson != null) {
+                try {
+                    data.setRequiredApprovals(objectMapper.readValue(requiredApprovalsJson, new TypeReference<Map<String, Integer>>() {}));
+                } catch (JsonProcessingException e) {
+                    throw new SQLException("Failed to deserialize edge required approvals from JSON", e);
+                }
+            }
 
             edge.setId(rs.getString("id"));
             edge.setSource(rs.getString("source"));
-            edge.setSourceHandle(rs.getString("source_handle"));
             edge.setTarget(rs.getString("target"));
-            edge.setTargetHandle(rs.getString("target_handle"));
-            edge.setType(rs.getString("type"));
+            if (layout) {
+                edge.setSourceHandle(rs.getString("source_handle"));
+                edge.setTargetHandle(rs.getString("target_handle"));
+                edge.setType(rs.getString("type"));
+                // Selection is not stored; the designer always opens edges unselected
+                edge.setSelected(false);
+            }
             edge.setData(data);
 
             return edge;
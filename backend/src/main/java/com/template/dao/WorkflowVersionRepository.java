@@ -0,0 +1,80 @@
+package com.template.dao;
+
+import com.template.model.ExecutionStatus;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public class WorkflowVersionRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public WorkflowVersionRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Stores a definition version unless a version with the same hash already exists.
+     * Versions are immutable, so an existing row always has the same content.
+     *
+     * @param hash The content hash of the definition.
+     * @param workflowId The ID of the workflow the version belongs to.
+     * @param definition The serialized definition.
+     * @param topology The serialized topology of the definition, or null if its graph is not valid.
+     */
+    public void insertIfAbsent(String hash, String workflowId, String definition, String topology) {
+        String sql = "INSERT INTO workflow_definition_versions (hash, workflow_id, definition, topology, created_at) " +
+                "SELECT ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM workflow_definition_versions WHERE hash = ?)";
+        try {
+            jdbcTemplate.update(sql, hash, workflowId, definition, topology, Timestamp.valueOf(LocalDateTime.now()), hash);
+        } catch (DuplicateKeyException e) {
+            // Another transaction stored the same version concurrently
+        }
+    }
+
+    /**
+     * Retrieves the serialized definition of a version.
+     *
+     * @param hash The content hash of the version.
+     * @return The serialized definition, or null if the version does not exist.
+     */
+    public String findDefinition(String hash) {
+        List<String> definitions = jdbcTemplate.queryForList(
+                "SELECT definition FROM workflow_definition_versions WHERE hash = ?", String.class, hash);
+        return definitions.isEmpty() ? null : definitions.get(0);
+    }
+
+    /**
+     * Retrieves the serialized topology of a version.
+     *
+     * @param hash The content hash of the version.
+     * @return The serialized topology, or null if the version does not exist or was stored without one.
+     */
+    public String findTopology(String hash) {
+        List<String> topologies = jdbcTemplate.queryForList(
+                "SELECT topology FROM workflow_definition_versions WHERE hash = ?", String.class, hash);
+        return topologies.isEmpty() ? null : topologies.get(0);
+    }
+
+    /**
+     * Deletes versions that are neither the current version of a workflow nor pinned by an executor
+     * that is still running or waiting. Executors in a terminal state no longer need their version.
+     *
+     * @param createdBefore Only versions created before this time are deleted, so a version that was
+     *                      just published is not collected before the first executor pins it.
+     * @return The number of deleted versions.
+     */
+    public int deleteUnreferenced(LocalDateTime createdBefore) {
+        String sql = "DELETE FROM workflow_definition_versions v WHERE v.created_at < ? " +
+                "AND NOT EXISTS (SELECT 1 FROM workflows w WHERE w.current_hash = v.hash) " +
+                "AND NOT EXISTS (SELECT 1 FROM workflow_executors e WHERE e.definition_hash = v.hash " +
+                "AND e.status NOT IN (?, ?, ?))";
+        return jdbcTemplate.update(sql, Timestamp.valueOf(createdBefore),
+                ExecutionStatus.COMPLETED.name(), ExecutionStatus.FAILED.name(), ExecutionStatus.REJECTED.name());
+    }
+}
@@ -0,0 +1,103 @@
+package com.template.metrics;
+
+import com.template.dao.WorkflowExecutorRepository;
+import com.template.model.ExecutionStatus;
+import com.template.model.ExecutorType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Micrometer meters for the workflow engine.
+ * All meters are prefixed with "workflow." and exposed on /actuator/prometheus.
+ * Service execution and DB call timers come from the engine's observations instead.
+ */
+@Component
+public class WorkflowEngineMetrics {
+
+    private static final String NONE = "NONE";
+
+    private final MeterRegistry registry;
+
+    // Executors currently being processed by startWorkflowFromExecutor
+    private final AtomicInteger inFlightExecutors = new AtomicInteger();
+
+    // Start events published but not yet picked up for execution
+    private final AtomicInteger dispatchQueueDepth = new AtomicInteger();
+
+    public WorkflowEngineMetrics(MeterRegistry registry, WorkflowExecutorRepository executorRepository) {
+        this.registry = registry;
+        Gauge.builder("workflow.executors.inflight", inFlightExecutors, AtomicInteger::get)
+                .description("Executors currently being processed")
+                .register(registry);
+        Gauge.builder("workflow.dispatch.queue.depth", dispatchQueueDepth, AtomicInteger::get)
+                .description("Executor start events published but not yet started")
+                .register(registry);
+        // Counted in the database on scrape so the value survives restarts and other nodes' approvals
+        Gauge.builder("workflow.approvals.pending", executorRepository, WorkflowExecutorRepository::countPendingApprovalEdges)
+                .description("Edge executors waiting for approval")
+                .register(registry);
+    }
+
+    /**
+     * Records how long an edge executor waited in WAITING_FOR_APPROVAL.
+     *
+     * @param waited The time between entering WAITING_FOR_APPROVAL and the decision.
+     * @param decision The status the executor moved to (COMPLETED or REJECTED).
+     */
+    public void recordApprovalWait(Duration waited, ExecutionStatus decision) {
+        Timer.builder("workflow.approval.wait")
+                .description("Time edge executors spent waiting for approval")
+                .tag("decision", decision.name())
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofDays(30))
+                .register(registry)
+                .record(waited.isNegative() ? Duration.ZERO : waited);
+    }
+
+    /**
+     * Counts an executor status transition.
+     *
+     * @param type The executor type.
+     * @param from The previous status, or null for a newly created executor.
+     * @param to The new status.
+     */
+    public void recordTransition(ExecutorType type, ExecutionStatus from, ExecutionStatus to) {
+        Counter.builder("workflow.executor.transitions")
+                .description("Executor status transitions")
+                .tag("type", type == null ? NONE : type.name())
+                .tag("from", from == null ? NONE : from.name())
+                .tag("to", to.name())
+                .register(registry)
+                .increment();
+    }
+
+    public void executorStarted() {
+        inFlightExecutors.incrementAndGet();
+    }
+
+    public void executorFinished() {
+        inFlightExecutors.decrementAndGet();
+    }
+
+    public void dispatchEnqueued() {
+        dispatchQueueDepth.incrementAndGet();
+    }
+
+    public void dispatchDequeued() {
+        dispatchQueueDepth.decrementAndGet();
+    }
+
+    public void dispatchEnqueued(int count) {
+        dispatchQueueDepth.addAndGet(count);
+    }
+
+    public void dispatchDequeued(int count) {
+        dispatchQueueDepth.addAndGet(-count);
+    }
+}
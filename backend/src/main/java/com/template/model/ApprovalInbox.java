@@ -0,0 +1,54 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * One page of the approvals waiting for an approver role.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalInbox {
+    private String role;
+    /** Total number of approvals waiting for the role, across all pages. */
+    private long pending;
+    /** The approvals of this page, longest waiting first. */
+    private List<PendingApprovalDetails> items;
+    /** Cursor of the next page, or null on the last page. */
+    private String nextCursor;
+
+    /**
+     * The position after the last approval of a page: when it started waiting and its executor ID.
+     * Cursors are opaque to clients, as base64url of "waitingSince|executorId".
+     */
+    public record Cursor(LocalDateTime waitingSince, String executorId) {
+
+        /**
+         * @return The cursor as sent to clients.
+         */
+        public String encode() {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString((waitingSince + "|" + executorId).getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @param cursor A cursor as sent to clients.
+         * @return The decoded position.
+         * @throws IllegalArgumentException if the cursor is malformed.
+         */
+        public static Cursor decode(String cursor) {
+            try {
+                String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+                return new Cursor(LocalDateTime.parse(position[0]), position[1]);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.template.model;
+
+/**
+ * The result of an approval or rejection of an edge executor.
+ */
+public enum ApprovalOutcome {
+    // The edge completed and the workflow resumed
+    APPROVED,
+    // The edge was rejected, which terminates its path of the workflow
+    REJECTED,
+    // The approval was counted, but the edge still waits for the required approvals of its roles
+    VOTE_RECORDED,
+    // The approver already voted on the edge
+    DUPLICATE_VOTE,
+    // The executor does not exist, is not an edge or is not waiting for approval
+    NOT_WAITING
+}
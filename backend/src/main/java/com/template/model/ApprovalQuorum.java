@@ -0,0 +1,51 @@
+package com.template.model;
+
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Counting of the approvals an edge requires per approver role, e.g. {"QA": 2, "SECURITY": 1},
+ * as configured in Edge.Data.requiredApprovals.
+ */
+public final class ApprovalQuorum {
+
+    private ApprovalQuorum() {
+    }
+
+    /**
+     * @param requiredApprovals The approvals required per role.
+     * @param role The role given with the vote, or null.
+     * @param executorId The ID of the edge executor, for the error message.
+     * @return The role the vote counts for: the given role, or the only role of the quorum if none is given.
+     * @throws IllegalArgumentException if no role is given and the quorum has several, or the role is not part of it.
+     */
+    public static String voteRole(Map<String, Integer> requiredApprovals, String role, String executorId) {
+        if (role == null && requiredApprovals.size() == 1) {
+            return requiredApprovals.keySet().iterator().next();
+        }
+        if (role == null || !requiredApprovals.containsKey(role)) {
+            throw new IllegalArgumentException("Executor " + executorId + " requires approvals of the roles " + new TreeSet<>(requiredApprovals.keySet())
+                    + "; specify one of them as the role");
+        }
+        return role;
+    }
+
+    /**
+     * @param requiredApprovals The approvals required per role.
+     * @param approvals The approvals recorded per role.
+     * @return Whether every role has given its required approvals.
+     */
+    public static boolean isReached(Map<String, Integer> requiredApprovals, Map<String, Long> approvals) {
+        return requiredApprovals.keySet().stream().allMatch(role -> isMet(requiredApprovals, approvals, role));
+    }
+
+    /**
+     * @param requiredApprovals The approvals required per role.
+     * @param approvals The approvals recorded per role.
+     * @param role A role of the quorum.
+     * @return Whether the role has given its required approvals.
+     */
+    public static boolean isMet(Map<String, Integer> requiredApprovals, Map<String, Long> approvals, String role) {
+        return approvals.getOrDefault(role, 0L) >= requiredApprovals.getOrDefault(role, 0);
+    }
+}
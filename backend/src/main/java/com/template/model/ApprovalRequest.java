@@ -10,6 +10,8 @@ public class ApprovalRequest {
 
     private String type;
     private String approvedBy;
+    // The role the user decides for on edges requiring approvals of several roles
+    private String role;
     private String comments;
 
 }
@@ -0,0 +1,29 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The decision of one approver on an edge executor waiting for approval, as stored in the
+ * 'approval_votes' table. Each approver votes at most once per executor.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ApprovalVote {
+
+    public enum Decision {
+        APPROVE,
+        REJECT
+    }
+
+    private String executorId;
+    private String approver;
+    private String approverRole;
+    private Decision decision;
+    private String comments;
+    private LocalDateTime votedAt;
+}
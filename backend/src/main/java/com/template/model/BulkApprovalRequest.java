@@ -0,0 +1,19 @@
+package com.template.model;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Data Transfer Object for approving many waiting executors in one call.
+ */
+@Data
+public class BulkApprovalRequest {
+
+    private String type;
+    private String approvedBy;
+    private String role;
+    private String comments;
+    private List<String> executorIds;
+
+}
@@ -0,0 +1,170 @@
+package com.template.model;
+
+import java.util.*;
+
+/**
+ * An immutable, pre-indexed workflow definition version as executed by the engine.
+ * Built once per definition hash on a WorkflowGraph, with the compiled edge conditions and parameter templates
+ * held in arrays by edge and node index, and the topology stored with the version; because versions
+ * never change, it can be shared between threads and cached without invalidation.
+ */
+public final class CompiledWorkflow {
+
+    private final String hash;
+    private final String workflowId;
+    private final WorkflowGraph graph;
+    // Per edge index; null for edges without a condition
+    private final EdgeCondition[] conditions;
+    // Per node index, the parameters with ${namespace.name} references; null for nodes without any
+    private final Map<String, ParameterTemplate>[] templates;
+    private final List<Node> startNodes;
+    private final WorkflowTopology topology;
+
+    @SuppressWarnings("unchecked")
+    public CompiledWorkflow(String hash, Workflow definition, WorkflowTopology topology) {
+        this.hash = hash;
+        this.workflowId = definition.getId();
+        this.topology = topology;
+        this.graph = new WorkflowGraph(definition.getNodes(), definition.getEdges(), topology == null ? null : topology.getOrder());
+        this.templates = new Map[graph.nodeCount()];
+        for (int i = 0; i < graph.nodeCount(); i++) {
+            Node node = graph.node(i);
+            Map<String, String> parameters = node.getData() == null ? null : node.getData().getParameters();
+            if (parameters != null) {
+                Map<String, ParameterTemplate> compiledTemplates = new HashMap<>();
+                parameters.forEach((name, value) -> {
+                    ParameterTemplate template = ParameterTemplate.compile(value);
+                    if (template != null) {
+                        compiledTemplates.put(name, template);
+                    }
+                });
+                if (!compiledTemplates.isEmpty()) {
+                    templates[i] = Map.copyOf(compiledTemplates);
+                }
+            }
+        }
+        this.conditions = new EdgeCondition[graph.edgeCount()];
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            Edge edge = graph.edge(e);
+            String condition = edge.getData() == null ? null : edge.getData().getCondition();
+            if (condition != null && !condition.isBlank()) {
+                Node source = graph.source(e) < 0 ? null : graph.node(graph.source(e));
+                conditions[e] = EdgeCondition.compile(condition,
+                        source == null || source.getData() == null ? null : source.getData().getParameters());
+            }
+        }
+        // Start nodes are the nodes without incoming edges, in definition order
+        this.startNodes = definition.getNodes().stream()
+                .filter(node -> graph.inDegree(graph.nodeIndex(node.getId())) == 0)
+                .toList();
+    }
+
+    public String getHash() { return hash; }
+    public String getWorkflowId() { return workflowId; }
+    public List<Node> getStartNodes() { return startNodes; }
+
+    /**
+     * @return The topology stored with this version, or null if its graph was saved before graphs
+     *         were validated and is not valid.
+     */
+    public WorkflowTopology getTopology() { return topology; }
+
+    /**
+     * @return The int-indexed graph of this version.
+     */
+    public WorkflowGraph getGraph() { return graph; }
+
+    /**
+     * @param id The ID of the node.
+     * @return The node, or null if this version has no such node.
+     */
+    public Node getNode(String id) {
+        int index = graph.nodeIndex(id);
+        return index < 0 ? null : graph.node(index);
+    }
+
+    /**
+     * @param id The ID of the edge.
+     * @return The edge, or null if this version has no such edge.
+     */
+    public Edge getEdge(String id) {
+        int index = graph.edgeIndex(id);
+        return index < 0 ? null : graph.edge(index);
+    }
+
+    /**
+     * @param nodeId The ID of the source node.
+     * @return The edges leaving the node; empty if there are none.
+     */
+    public List<Edge> getOutgoingEdges(String nodeId) {
+        int index = graph.nodeIndex(nodeId);
+        return index < 0 ? List.of() : graph.outgoingEdges(index);
+    }
+
+    /**
+     * @param nodeId The ID of the node.
+     * @return The number of edges into the node; 0 for start nodes and nodes this version does not have.
+     */
+    public int getInDegree(String nodeId) {
+        int index = graph.nodeIndex(nodeId);
+        return index < 0 ? 0 : graph.inDegree(index);
+    }
+
+    /**
+     * @param edgeId The ID of the edge.
+     * @return The compiled condition of the edge; EdgeCondition.ALWAYS for edges without one.
+     */
+    public EdgeCondition getCondition(String edgeId) {
+        int index = graph.edgeIndex(edgeId);
+        return index < 0 || conditions[index] == null ? EdgeCondition.ALWAYS : conditions[index];
+    }
+
+    /**
+     * @param nodeId The ID of the node.
+     * @return Whether any parameter of the node references instance variables.
+     */
+    public boolean hasTemplates(String nodeId) {
+        return templatesOf(nodeId) != null;
+    }
+
+    private Map<String, ParameterTemplate> templatesOf(String nodeId) {
+        int index = graph.nodeIndex(nodeId);
+        return index < 0 ? null : templates[index];
+    }
+
+    /**
+     * Resolves the ${namespace.name} references in one parameter of a node.
+     *
+     * @param node The node.
+     * @param name The name of the parameter.
+     * @param variables The instance variables by namespace; unused if the parameter has no references.
+     * @return The parameter's value with references replaced, or null if the node has no such parameter.
+     * @throws IllegalArgumentException if a referenced variable does not exist.
+     */
+    public String resolveParameter(Node node, String name, Map<String, Map<String, Object>> variables) {
+        Map<String, ParameterTemplate> nodeTemplates = templatesOf(node.getId());
+        ParameterTemplate template = nodeTemplates == null ? null : nodeTemplates.get(name);
+        if (template != null) {
+            return template.render(variables);
+        }
+        return node.getData() == null || node.getData().getParameters() == null ? null : node.getData().getParameters().get(name);
+    }
+
+    /**
+     * Resolves the ${namespace.name} references in the parameters of a node.
+     *
+     * @param node The node.
+     * @param variables The instance variables by namespace; unused if the node has no references.
+     * @return The parameters with references replaced; the node's own map if it has no references.
+     * @throws IllegalArgumentException if a referenced variable does not exist.
+     */
+    public Map<String, String> resolveParameters(Node node, Map<String, Map<String, Object>> variables) {
+        Map<String, ParameterTemplate> nodeTemplates = templatesOf(node.getId());
+        if (nodeTemplates == null) {
+            return node.getData().getParameters();
+        }
+        Map<String, String> resolved = new HashMap<>(node.getData().getParameters());
+        nodeTemplates.forEach((name, template) -> resolved.put(name, template.render(variables)));
+        return resolved;
+    }
+}
@@ -2,6 +2,9 @@ package com.template.model;
 
 import lombok.Data;
 
+import java.util.Map;
+
+// Fields that a view did not load are left null; WorkflowViewWriter omits them from the JSON of that view
 @Data
 public class Edge {
     private String id;
@@ -11,7 +14,7 @@ public class Edge {
     private String targetHandle;
     private String type;
     private Data data;
-    private boolean selected;
+    private Boolean selected;
 
     @lombok.Data
     public static class Data {
@@ -20,6 +23,11 @@ public class Edge {
         private String status;
         private String approvalTimeout;
         private boolean autoApprove;
+        // Approvals required per approver role before the edge completes, e.g. {"QA": 2, "SECURITY": 1};
+        // without it the first approval completes the edge
+        private Map<String, Integer> requiredApprovals;
+        // Expression over the source node's parameters and outputs; the edge is only taken when it holds
+        private String condition;
         // getters/setters
     }
     // getters and setters
@@ -0,0 +1,46 @@
+package com.template.model;
+
+import java.util.Map;
+
+/**
+ * The compiled condition of an edge, evaluated against the outputs of the completed source node.
+ * Conditions are compiled once per definition version by CompiledWorkflow; evaluating one walks a
+ * tree of prebuilt operators without parsing or reflection.
+ *
+ * <p>Expressions compare references to literals or other references and combine the comparisons:
+ * <pre>
+ *   output.rowsAffected &gt; 0 &amp;&amp; params.environment == 'prod'
+ *   !(output.committed) || output.durationMillis &gt;= 60000
+ * </pre>
+ * {@code params.<name>} is a parameter of the source node, with its ${namespace.name} references
+ * resolved for the instance, and {@code output.<name>} an output of its execution. Operators are {@code == != < <= > >= && || !} and parentheses; literals are numbers,
+ * quoted strings, {@code true}, {@code false} and {@code null}. Values that are both numbers, or
+ * strings holding numbers, compare numerically, other values as strings. A reference used on its own
+ * is true unless it is missing, false, 0 or empty.
+ */
+@FunctionalInterface
+public interface EdgeCondition {
+
+    EdgeCondition ALWAYS = (parameters, outputs) -> true;
+
+    /**
+     * @param parameters The resolved parameters of the source node; only those with references are read.
+     * @param outputs The outputs of the source node's execution.
+     * @return Whether the edge is taken.
+     */
+    boolean test(Map<String, String> parameters, Map<String, ?> outputs);
+
+    /**
+     * Compiles a condition. Parameters of the source node without ${namespace.name} references never
+     * change within a definition version, so references to them are replaced by their values, and
+     * comparisons that only involve such parameters and literals are decided here.
+     *
+     * @param expression The condition expression.
+     * @param params The parameters of the source node, or null.
+     * @return The compiled condition.
+     * @throws IllegalArgumentException if the expression is not valid.
+     */
+    static EdgeCondition compile(String expression, Map<String, String> params) {
+        return new EdgeConditionCompiler(expression, params == null ? Map.of() : params).compile();
+    }
+}
@@ -0,0 +1,394 @@
+package com.template.model;
+
+import java.util.Map;
+
+/**
+ * Recursive-descent compiler of edge condition expressions into EdgeCondition trees.
+ * See EdgeCondition for the syntax. Grammar:
+ * <pre>
+ *   or         := and ('||' and)*
+ *   and        := unary ('&amp;&amp;' unary)*
+ *   unary      := '!' unary | '(' or ')' | comparison
+ *   comparison := operand (('==' | '!=' | '&lt;' | '&lt;=' | '&gt;' | '&gt;=') operand)?
+ *   operand    := number | string | 'true' | 'false' | 'null' | ('params' | 'output') '.' name
+ * </pre>
+ * Parameters without ${namespace.name} references are folded into constants; parameters with them
+ * are read from the resolved parameters when the condition is evaluated, like outputs.
+ */
+final class EdgeConditionCompiler {
+
+    private static final EdgeCondition NEVER = (parameters, outputs) -> false;
+
+    private enum Operator {
+        // Two-character symbols come first, so that "<=" is not read as "<"
+        EQ("=="), NE("!="), LE("<="), GE(">="), LT("<"), GT(">");
+
+        private final String symbol;
+
+        Operator(String symbol) {
+            this.symbol = symbol;
+        }
+
+        // The operator with its operands swapped: a < b is b > a
+        Operator mirrored() {
+            return switch (this) {
+                case LT -> GT;
+                case LE -> GE;
+                case GT -> LT;
+                case GE -> LE;
+                default -> this;
+            };
+        }
+
+        boolean test(int comparison) {
+            return switch (this) {
+                case EQ -> comparison == 0;
+                case NE -> comparison != 0;
+                case LT -> comparison < 0;
+                case LE -> comparison <= 0;
+                case GT -> comparison > 0;
+                case GE -> comparison >= 0;
+            };
+        }
+    }
+
+    // A value in an expression: a literal or a plain parameter, both known when compiling, or a reference
+    private sealed interface Operand permits Constant, Reference {
+    }
+
+    private record Constant(Object value) implements Operand {
+    }
+
+    // An output, or a parameter with ${namespace.name} references, whose value differs per instance
+    private record Reference(String name, boolean parameter) implements Operand {
+        Object get(Map<String, String> parameters, Map<String, ?> outputs) {
+            return parameter ? parameters.get(name) : outputs.get(name);
+        }
+    }
+
+    private final String expression;
+    private final Map<String, String> params;
+    private int pos;
+
+    EdgeConditionCompiler(String expression, Map<String, String> params) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Condition must not be empty");
+        }
+        this.expression = expression;
+        this.params = params;
+    }
+
+    EdgeCondition compile() {
+        EdgeCondition condition = parseOr();
+        skipWhitespace();
+        if (pos < expression.length()) {
+            throw error("unexpected '" + expression.charAt(pos) + "'");
+        }
+        return condition;
+    }
+
+    // ----- Parser -----
+
+    private EdgeCondition parseOr() {
+        EdgeCondition condition = parseAnd();
+        while (accept("||")) {
+            condition = or(condition, parseAnd());
+        }
+        return condition;
+    }
+
+    private EdgeCondition parseAnd() {
+        EdgeCondition condition = parseUnary();
+        while (accept("&&")) {
+            condition = and(condition, parseUnary());
+        }
+        return condition;
+    }
+
+    private EdgeCondition parseUnary() {
+        if (accept("!")) {
+            return not(parseUnary());
+        }
+        if (accept("(")) {
+            EdgeCondition condition = parseOr();
+            expect(")");
+            return condition;
+        }
+        Operand left = parseOperand();
+        Operator operator = parseOperator();
+        if (operator == null) {
+            return truthy(left);
+        }
+        return comparison(left, operator, parseOperand());
+    }
+
+    private Operator parseOperator() {
+        for (Operator operator : Operator.values()) {
+            if (accept(operator.symbol)) {
+                return operator;
+            }
+        }
+        return null;
+    }
+
+    private Operand parseOperand() {
+        skipWhitespace();
+        if (pos >= expression.length()) {
+            throw error("expected a value but the condition ended");
+        }
+        char c = expression.charAt(pos);
+        if (c == '\'' || c == '"') {
+            return new Constant(parseString(c));
+        }
+        if (Character.isDigit(c) || (c == '-' && pos + 1 < expression.length() && Character.isDigit(expression.charAt(pos + 1)))) {
+            return new Constant(parseNumber());
+        }
+        if (!Character.isLetter(c)) {
+            throw error("expected a value but found '" + c + "'");
+        }
+        String name = parseName();
+        switch (name) {
+            case "true":
+                return new Constant(Boolean.TRUE);
+            case "false":
+                return new Constant(Boolean.FALSE);
+            case "null":
+                return new Constant(null);
+            case "params": {
+                expect(".");
+                String param = parseName();
+                String value = params.get(param);
+                return value != null && value.contains("${") ? new Reference(param, true) : new Constant(value);
+            }
+            case "output":
+                expect(".");
+                return new Reference(parseName(), false);
+            default:
+                throw error("unknown name '" + name + "', expected params.<name> or output.<name>");
+        }
+    }
+
+    private String parseString(char quote) {
+        StringBuilder value = new StringBuilder();
+        pos++;
+        while (pos < expression.length()) {
+            char c = expression.charAt(pos++);
+            if (c == quote) {
+                return value.toString();
+            }
+            if (c == '\\' && pos < expression.length()) {
+                c = expression.charAt(pos++);
+            }
+            value.append(c);
+        }
+        throw error("unterminated string");
+    }
+
+    private Double parseNumber() {
+        int start = pos;
+        if (expression.charAt(pos) == '-') {
+            pos++;
+        }
+        while (pos < expression.length() && (Character.isDigit(expression.charAt(pos)) || expression.charAt(pos) == '.')) {
+            pos++;
+        }
+        double number = toNumber(expression.substring(start, pos));
+        if (Double.isNaN(number)) {
+            throw error("invalid number '" + expression.substring(start, pos) + "'");
+        }
+        return number;
+    }
+
+    private String parseName() {
+        skipWhitespace();
+        int start = pos;
+        while (pos < expression.length() && (Character.isLetterOrDigit(expression.charAt(pos)) || expression.charAt(pos) == '_')) {
+            pos++;
+        }
+        if (start == pos) {
+            throw error("expected a name");
+        }
+        return expression.substring(start, pos);
+    }
+
+    private boolean accept(String token) {
+        skipWhitespace();
+        if (expression.startsWith(token, pos)) {
+            pos += token.length();
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(String token) {
+        if (!accept(token)) {
+            throw error("expected '" + token + "'");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < expression.length() && Character.isWhitespace(expression.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("Invalid condition \"" + expression + "\" at position " + pos + ": " + message);
+    }
+
+    // ----- Code generation; parts known when compiling are folded away -----
+
+    private static EdgeCondition or(EdgeCondition left, EdgeCondition right) {
+        if (left == EdgeCondition.ALWAYS || right == EdgeCondition.ALWAYS) {
+            return EdgeCondition.ALWAYS;
+        }
+        if (left == NEVER) {
+            return right;
+        }
+        if (right == NEVER) {
+            return left;
+        }
+        return (parameters, outputs) -> left.test(parameters, outputs) || right.test(parameters, outputs);
+    }
+
+    private static EdgeCondition and(EdgeCondition left, EdgeCondition right) {
+        if (left == NEVER || right == NEVER) {
+            return NEVER;
+        }
+        if (left == EdgeCondition.ALWAYS) {
+            return right;
+        }
+        if (right == EdgeCondition.ALWAYS) {
+            return left;
+        }
+        return (parameters, outputs) -> left.test(parameters, outputs) && right.test(parameters, outputs);
+    }
+
+    private static EdgeCondition not(EdgeCondition condition) {
+        if (condition == EdgeCondition.ALWAYS) {
+            return NEVER;
+        }
+        if (condition == NEVER) {
+            return EdgeCondition.ALWAYS;
+        }
+        return (parameters, outputs) -> !condition.test(parameters, outputs);
+    }
+
+    private static EdgeCondition truthy(Operand operand) {
+        if (operand instanceof Constant constant) {
+            return constant(isTruthy(constant.value()));
+        }
+        Reference reference = (Reference) operand;
+        return (parameters, outputs) -> isTruthy(reference.get(parameters, outputs));
+    }
+
+    private static EdgeCondition comparison(Operand left, Operator operator, Operand right) {
+        if (left instanceof Constant l && right instanceof Constant r) {
+            return constant(compare(l.value(), operator, r.value()));
+        }
+        if (left instanceof Constant constant) {
+            return comparison((Reference) right, operator.mirrored(), constant.value());
+        }
+        if (right instanceof Constant constant) {
+            return comparison((Reference) left, operator, constant.value());
+        }
+        Reference leftReference = (Reference) left;
+        Reference rightReference = (Reference) right;
+        return (parameters, outputs) -> compare(leftReference.get(parameters, outputs), operator, rightReference.get(parameters, outputs));
+    }
+
+    // A reference compared to a constant, with the constant converted once
+    private static EdgeCondition comparison(Reference reference, Operator operator, Object constant) {
+        if (constant == null) {
+            return switch (operator) {
+                case EQ -> (parameters, outputs) -> reference.get(parameters, outputs) == null;
+                case NE -> (parameters, outputs) -> reference.get(parameters, outputs) != null;
+                default -> NEVER;
+            };
+        }
+        double number = toNumber(constant);
+        if (!Double.isNaN(number)) {
+            // Comparisons with NaN are false, so outputs that are not numbers never match, except with !=
+            return switch (operator) {
+                case EQ -> (parameters, outputs) -> toNumber(reference.get(parameters, outputs)) == number;
+                case NE -> (parameters, outputs) -> toNumber(reference.get(parameters, outputs)) != number;
+                case LT -> (parameters, outputs) -> toNumber(reference.get(parameters, outputs)) < number;
+                case LE -> (parameters, outputs) -> toNumber(reference.get(parameters, outputs)) <= number;
+                case GT -> (parameters, outputs) -> toNumber(reference.get(parameters, outputs)) > number;
+                case GE -> (parameters, outputs) -> toNumber(reference.get(parameters, outputs)) >= number;
+            };
+        }
+        String text = textOf(constant);
+        if (operator == Operator.NE) {
+            return (parameters, outputs) -> !matchesText(reference.get(parameters, outputs), Operator.EQ, text);
+        }
+        return (parameters, outputs) -> matchesText(reference.get(parameters, outputs), operator, text);
+    }
+
+    private static boolean matchesText(Object value, Operator operator, String text) {
+        return value != null && Double.isNaN(toNumber(value)) && operator.test(textOf(value).compareTo(text));
+    }
+
+    private static EdgeCondition constant(boolean value) {
+        return value ? EdgeCondition.ALWAYS : NEVER;
+    }
+
+    // ----- Value semantics, shared by folded and evaluated comparisons -----
+
+    // Numbers compare numerically and other values as strings; a number never equals or orders with a non-number
+    private static boolean compare(Object left, Operator operator, Object right) {
+        if (left == null || right == null) {
+            boolean equal = left == right;
+            return operator == Operator.EQ ? equal : operator == Operator.NE && !equal;
+        }
+        double l = toNumber(left);
+        double r = toNumber(right);
+        if (Double.isNaN(l) != Double.isNaN(r)) {
+            return operator == Operator.NE;
+        }
+        return operator.test(Double.isNaN(l) ? textOf(left).compareTo(textOf(right)) : Double.compare(l, r));
+    }
+
+    private static boolean isTruthy(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        double number = toNumber(value);
+        if (!Double.isNaN(number)) {
+            return number != 0;
+        }
+        String text = textOf(value);
+        return !text.isEmpty() && !text.equalsIgnoreCase("false");
+    }
+
+    private static String textOf(Object value) {
+        return value instanceof String text ? text : String.valueOf(value);
+    }
+
+    // The numeric value of a number or a decimal string, NaN for anything else; never throws
+    private static double toNumber(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (!(value instanceof String text) || text.isEmpty() || text.length() > 30) {
+            return Double.NaN;
+        }
+        int i = text.charAt(0) == '-' ? 1 : 0;
+        int digits = 0;
+        boolean point = false;
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            } else if (c == '.' && !point) {
+                point = true;
+            } else {
+                return Double.NaN;
+            }
+        }
+        return digits == 0 ? Double.NaN : Double.parseDouble(text);
+    }
+}
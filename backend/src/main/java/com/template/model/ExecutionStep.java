@@ -1,13 +1,27 @@
 package com.template.model;
 
-import lombok.AllArgsConstructor;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Data
-@AllArgsConstructor
 public class ExecutionStep {
     private String id;
     private String name;
     private String type;
     private String status;
+
+    // Timing from the executor's transition history; null while the step has not reached that phase
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long queueMillis;
+    private Long runMillis;
+    private Long approvalWaitMillis;
+
+    public ExecutionStep(String id, String name, String type, String status) {
+        this.id = id;
+        this.name = name;
+        this.type = type;
+        this.status = status;
+    }
 }
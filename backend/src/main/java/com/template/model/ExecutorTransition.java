@@ -0,0 +1,26 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One status change of a workflow executor, as stored in the 'executor_transitions' table.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExecutorTransition {
+    private Long id;
+    private String executorId;
+    private String workflowId;
+    private String serviceId;
+    private String childrenId;
+    private ExecutorType executorType;
+    private ExecutionStatus fromStatus;
+    private ExecutionStatus toStatus;
+    private LocalDateTime transitionedAt;
+    private String actor;
+}
@@ -2,5 +2,7 @@ package com.template.model;
 
 public enum ExecutorType {
     NODE,
-    EDGE
+    EDGE,
+    // One item of a map node; its children ID is the map node's ID
+    MAP_ITEM
 }
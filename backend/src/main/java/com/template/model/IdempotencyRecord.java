@@ -0,0 +1,30 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A claimed idempotency key, as stored in the 'idempotency_keys' table.
+ * While the original request runs the record has no response; once it completed, the
+ * response is kept until the record expires so that replays of the request return it.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyRecord {
+    private String scope;
+    private String key;
+    private String requestHash;
+    private Integer responseStatus;
+    private String responseBody;
+    private String responseLocation;
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    public boolean isCompleted() {
+        return responseStatus != null;
+    }
+}
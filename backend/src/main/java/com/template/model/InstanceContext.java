@@ -0,0 +1,24 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * The variables of a workflow instance, as stored in the 'workflow_instance_contexts' table.
+ * Variables are grouped by namespace: 'task' holds the fields of the instance's task, and every
+ * node that produced outputs has a namespace named after its ID. The version is incremented by
+ * every write, so concurrent writers of one instance detect each other.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceContext {
+    private String serviceId;
+    private Map<String, Map<String, Object>> variables;
+    private long version;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,28 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The link of a sub-workflow instance to the instance that started it, as stored in the
+ * 'workflow_instance_links' table. The service ID of a sub-workflow instance is the ID of the
+ * sub-workflow node's executor; the root is the outermost instance, e.g. the task's. The status
+ * is RUNNING until the sub-workflow instance ends, then COMPLETED or FAILED.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InstanceLink {
+    private String serviceId;
+    private String workflowId;
+    private String parentServiceId;
+    private String parentExecutorId;
+    private String rootServiceId;
+    private int depth;
+    private ExecutionStatus status;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,101 @@
+package com.template.model;
+
+import java.util.List;
+
+/**
+ * The status of every step of one workflow instance, as one byte per node and per edge of its
+ * WorkflowGraph. A step with several executors, e.g. a map node with its items or a node that ran
+ * again, reports the status that matters most for the instance: still active over failed or
+ * rejected over completed. Executors of steps the graph does not know are counted aside.
+ */
+public final class InstanceStatuses {
+
+    // Ranks stored per step; a higher rank wins when several executors belong to one step
+    private static final byte NONE = 0;
+    private static final byte COMPLETED = 1;
+    private static final byte UNSUCCESSFUL = 2;
+    private static final byte ACTIVE = 3;
+
+    private final WorkflowGraph graph;
+    private final byte[] nodes;
+    private final byte[] edges;
+    private int activeSteps;
+    private int unsuccessfulSteps;
+
+    private InstanceStatuses(WorkflowGraph graph) {
+        this.graph = graph;
+        this.nodes = new byte[graph == null ? 0 : graph.nodeCount()];
+        this.edges = new byte[graph == null ? 0 : graph.edgeCount()];
+    }
+
+    /**
+     * @param graph The graph of the version the instance is pinned to, or null if it no longer exists.
+     * @param executors The executors of the instance.
+     * @return The statuses of the instance's steps.
+     */
+    public static InstanceStatuses of(WorkflowGraph graph, List<WorkflowExecutor> executors) {
+        InstanceStatuses statuses = new InstanceStatuses(graph);
+        for (WorkflowExecutor executor : executors) {
+            statuses.add(executor);
+        }
+        return statuses;
+    }
+
+    private void add(WorkflowExecutor executor) {
+        byte rank = rank(executor.getStatus());
+        byte[] steps = executor.getType() == ExecutorType.EDGE ? edges : nodes;
+        int index = graph == null ? -1
+                : executor.getType() == ExecutorType.EDGE ? graph.edgeIndex(executor.getChildrenId()) : graph.nodeIndex(executor.getChildrenId());
+        if (index < 0) {
+            // A step of another version counts on its own
+            count(NONE, rank);
+            return;
+        }
+        if (rank > steps[index]) {
+            count(steps[index], rank);
+            steps[index] = rank;
+        }
+    }
+
+    private void count(byte previous, byte rank) {
+        if (previous == ACTIVE) {
+            activeSteps--;
+        } else if (previous == UNSUCCESSFUL) {
+            unsuccessfulSteps--;
+        }
+        if (rank == ACTIVE) {
+            activeSteps++;
+        } else if (rank == UNSUCCESSFUL) {
+            unsuccessfulSteps++;
+        }
+    }
+
+    private static byte rank(ExecutionStatus status) {
+        return switch (status) {
+            case COMPLETED -> COMPLETED;
+            case FAILED, REJECTED -> UNSUCCESSFUL;
+            default -> ACTIVE;
+        };
+    }
+
+    /**
+     * @return Whether no step of the instance is pending, running or waiting for approval.
+     */
+    public boolean isFinished() {
+        return activeSteps == 0;
+    }
+
+    /**
+     * @return The number of steps that are pending, running or waiting for approval.
+     */
+    public int getActiveSteps() {
+        return activeSteps;
+    }
+
+    /**
+     * @return The number of finished steps of which an executor failed or was rejected.
+     */
+    public int getUnsuccessfulSteps() {
+        return unsuccessfulSteps;
+    }
+}
@@ -0,0 +1,38 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * The progress of a map node execution, as stored in the 'map_executions' table and keyed by the
+ * map node's executor. Items start in order: the first maxParallelism items at once, and one more
+ * whenever an item finishes, so the counters alone tell which item starts next and when all are done.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MapExecution {
+    private String executorId;
+    private String serviceId;
+    private int totalItems;
+    private int maxParallelism;
+    private int completedItems;
+    private int failedItems;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public boolean isFinished() {
+        return completedItems + failedItems >= totalItems;
+    }
+
+    /**
+     * @return The index of the item to start after the last counted item finished, or -1 if all items have started.
+     */
+    public int nextItemIndex() {
+        int next = maxParallelism + completedItems + failedItems - 1;
+        return next < totalItems ? next : -1;
+    }
+}
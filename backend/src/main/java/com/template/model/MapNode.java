@@ -0,0 +1,171 @@
+package com.template.model;
+
+import java.util.*;
+
+/**
+ * The parameters of map nodes, which run once per item of a list:
+ * <ul>
+ *   <li>items: the items, separated by commas, e.g. "dev,staging,prod" or "${task.description}"</li>
+ *   <li>itemsFrom: instead of items, the instance variable holding them as namespace.name, e.g.
+ *       "listSchemas.names"; a list or a comma-separated string</li>
+ *   <li>maxParallelism: how many items run at the same time, 4 by default</li>
+ *   <li>itemType: the node type each item runs as, e.g. sqlNode; by default items run the service</li>
+ *   <li>tolerateFailures: "true" to complete the map node when some items fail</li>
+ * </ul>
+ * The parameters of an item can reference the item as ${item.value} and its position as ${item.index}.
+ * A map node's outputs are the counts items, completed and failed.
+ */
+public final class MapNode {
+
+    public static final String TYPE = "mapNode";
+    // The namespace of the current item in the parameters of an item
+    public static final String ITEM_NAMESPACE = "item";
+    public static final String ITEMS = "items";
+    public static final String ITEMS_FROM = "itemsFrom";
+    public static final String MAX_PARALLELISM = "maxParallelism";
+    public static final String ITEM_TYPE = "itemType";
+    public static final String TOLERATE_FAILURES = "tolerateFailures";
+    // The parameters the map node itself uses; the others are for its items
+    public static final List<String> PARAMETERS = List.of(ITEMS, ITEMS_FROM, MAX_PARALLELISM, ITEM_TYPE, TOLERATE_FAILURES);
+
+    public static final int DEFAULT_MAX_PARALLELISM = 4;
+    public static final int MAX_ITEMS = 10_000;
+
+    private MapNode() {
+    }
+
+    /**
+     * @param node A node of any type.
+     * @return Whether the node is a map node.
+     */
+    public static boolean isMapNode(Node node) {
+        return TYPE.equals(node.getType());
+    }
+
+    /**
+     * Rejects map nodes without exactly one item source, or with a parallelism that is not a positive number.
+     *
+     * @param node A node of any type; other nodes are not checked.
+     * @throws IllegalArgumentException if the map node is misconfigured.
+     */
+    public static void validate(Node node) {
+        if (!isMapNode(node)) {
+            return;
+        }
+        Map<String, String> parameters = node.getData() == null || node.getData().getParameters() == null
+                ? Map.of() : node.getData().getParameters();
+        if (parameters.containsKey(ITEMS) == parameters.containsKey(ITEMS_FROM)) {
+            throw new IllegalArgumentException("Map node " + node.getId() + " needs either the parameter " + ITEMS + " or " + ITEMS_FROM);
+        }
+        String itemsFrom = parameters.get(ITEMS_FROM);
+        if (itemsFrom != null && variableName(itemsFrom) == null) {
+            throw new IllegalArgumentException("Map node " + node.getId() + ": " + ITEMS_FROM + " must be of the form namespace.name, got " + itemsFrom);
+        }
+        String maxParallelism = parameters.get(MAX_PARALLELISM);
+        if (maxParallelism != null && ParameterTemplate.compile(maxParallelism) == null) {
+            maxParallelism(Map.of(MAX_PARALLELISM, maxParallelism));
+        }
+    }
+
+    /**
+     * @param parameters The map node's parameters, with references resolved.
+     * @param variables The instance variables by namespace, for itemsFrom.
+     * @return The items, in order.
+     * @throws IllegalArgumentException if itemsFrom names a missing variable or there are more than MAX_ITEMS items.
+     */
+    public static List<String> items(Map<String, String> parameters, Map<String, Map<String, Object>> variables) {
+        List<String> items = new ArrayList<>();
+        String itemsFrom = parameters.get(ITEMS_FROM);
+        if (itemsFrom == null) {
+            split(parameters.get(ITEMS), items);
+        } else {
+            String[] name = variableName(itemsFrom);
+            Map<String, Object> namespace = name == null ? null : variables.get(name[0]);
+            Object value = namespace == null ? null : namespace.get(name[1]);
+            if (value == null) {
+                throw new IllegalArgumentException("Unresolved items variable " + itemsFrom);
+            }
+            if (value instanceof Collection<?> collection) {
+                collection.forEach(item -> items.add(String.valueOf(item)));
+            } else {
+                split(String.valueOf(value), items);
+            }
+        }
+        if (items.size() > MAX_ITEMS) {
+            throw new IllegalArgumentException("Map node has " + items.size() + " items; at most " + MAX_ITEMS + " are allowed");
+        }
+        return items;
+    }
+
+    /**
+     * @param parameters The map node's parameters, with references resolved.
+     * @return How many items run at the same time.
+     * @throws IllegalArgumentException if maxParallelism is not a positive number.
+     */
+    public static int maxParallelism(Map<String, String> parameters) {
+        String value = parameters.get(MAX_PARALLELISM);
+        if (value == null || value.isBlank()) {
+            return DEFAULT_MAX_PARALLELISM;
+        }
+        try {
+            int maxParallelism = Integer.parseInt(value.trim());
+            if (maxParallelism > 0) {
+                return maxParallelism;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException(MAX_PARALLELISM + " must be a positive number, got " + value);
+    }
+
+    /**
+     * @param parameters The map node's parameters.
+     * @return Whether the map node completes when some of its items fail.
+     */
+    public static boolean toleratesFailures(Map<String, String> parameters) {
+        return Boolean.parseBoolean(parameters.get(TOLERATE_FAILURES));
+    }
+
+    /**
+     * The node one item runs as: the map node with the item type and the item's parameters.
+     *
+     * @param node The map node.
+     * @param parameters The parameters of the item, with references resolved.
+     * @return A node to execute the item with.
+     */
+    public static Node itemNode(Node node, Map<String, String> parameters) {
+        Node item = new Node();
+        item.setId(node.getId());
+        item.setType(parameters.get(ITEM_TYPE));
+        Node.Data data = new Node.Data();
+        if (node.getData() != null) {
+            data.setStageName(node.getData().getStageName());
+            data.setEnvironment(node.getData().getEnvironment());
+            data.setLabel(node.getData().getLabel());
+        }
+        data.setParameters(parameters);
+        item.setData(data);
+        return item;
+    }
+
+    // Splits a comma-separated list, dropping blank items
+    private static void split(String value, List<String> items) {
+        if (value == null) {
+            return;
+        }
+        for (String item : value.split(",")) {
+            if (!item.isBlank()) {
+                items.add(item.trim());
+            }
+        }
+    }
+
+    // The namespace and name of "namespace.name", or null if it is not of that form
+    private static String[] variableName(String reference) {
+        int dot = reference.indexOf('.');
+        if (dot <= 0 || dot == reference.length() - 1) {
+            return null;
+        }
+        return new String[]{reference.substring(0, dot).trim(), reference.substring(dot + 1).trim()};
+    }
+}
@@ -5,16 +5,17 @@ import lombok.RequiredArgsConstructor;
 
 import java.util.Map;
 
+// Fields that a view did not load are left null; WorkflowViewWriter omits them from the JSON of that view
 @Data
 public class Node {
     private String id;
     private String type;
     private Position position;
     private Position positionAbsolute;
-    private double width;
-    private double height;
-    private boolean selected;
-    private boolean dragging;
+    private Double width;
+    private Double height;
+    private Boolean selected;
+    private Boolean dragging;
     private Data data;
 
     @lombok.Data
@@ -0,0 +1,78 @@
+package com.template.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A node parameter value with ${namespace.name} references to instance variables, e.g.
+ * "release-${task.releaseNumber}" or "${nodeA.rowsAffected}". Compiled once per definition version
+ * into literal and reference parts, so rendering only looks up the references and concatenates.
+ */
+public final class ParameterTemplate {
+
+    private final String text;
+    // literals[i] precedes reference i; the last literal follows the last reference
+    private final String[] literals;
+    private final String[] namespaces;
+    private final String[] names;
+
+    private ParameterTemplate(String text, List<String> literals, List<String> namespaces, List<String> names) {
+        this.text = text;
+        this.literals = literals.toArray(String[]::new);
+        this.namespaces = namespaces.toArray(String[]::new);
+        this.names = names.toArray(String[]::new);
+    }
+
+    /**
+     * @param text The parameter value.
+     * @return The compiled template, or null if the value has no references.
+     * @throws IllegalArgumentException if a reference is not closed or not of the form ${namespace.name}.
+     */
+    public static ParameterTemplate compile(String text) {
+        if (text == null || !text.contains("${")) {
+            return null;
+        }
+        List<String> literals = new ArrayList<>();
+        List<String> namespaces = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        int pos = 0;
+        int start;
+        while ((start = text.indexOf("${", pos)) >= 0) {
+            int end = text.indexOf('}', start);
+            if (end < 0) {
+                throw new IllegalArgumentException("Unclosed reference in \"" + text + "\"");
+            }
+            String reference = text.substring(start + 2, end).trim();
+            int dot = reference.indexOf('.');
+            if (dot <= 0 || dot == reference.length() - 1) {
+                throw new IllegalArgumentException("Reference ${" + reference + "} in \"" + text + "\" must be of the form ${namespace.name}");
+            }
+            literals.add(text.substring(pos, start));
+            namespaces.add(reference.substring(0, dot));
+            names.add(reference.substring(dot + 1));
+            pos = end + 1;
+        }
+        literals.add(text.substring(pos));
+        return new ParameterTemplate(text, literals, namespaces, names);
+    }
+
+    /**
+     * @param variables The instance variables by namespace.
+     * @return The value with every reference replaced by its variable.
+     * @throws IllegalArgumentException if a referenced variable does not exist.
+     */
+    public String render(Map<String, Map<String, Object>> variables) {
+        StringBuilder value = new StringBuilder(text.length() + 16 * names.length);
+        for (int i = 0; i < names.length; i++) {
+            value.append(literals[i]);
+            Map<String, Object> namespace = variables.get(namespaces[i]);
+            Object variable = namespace == null ? null : namespace.get(names[i]);
+            if (variable == null) {
+                throw new IllegalArgumentException("Unresolved reference ${" + namespaces[i] + "." + names[i] + "} in \"" + text + "\"");
+            }
+            value.append(variable);
+        }
+        return value.append(literals[names.length]).toString();
+    }
+}
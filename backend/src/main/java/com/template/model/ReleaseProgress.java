@@ -0,0 +1,55 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of all tasks of a release and of their workflow instances.
+ */
+@Data
+public class ReleaseProgress {
+    private String releaseNumber;
+    private long tasks;
+    /** Number of tasks per task status. */
+    private Map<String, Long> taskStatuses = new LinkedHashMap<>();
+    /** Number of workflow instances per instance status: NOT_STARTED, RUNNING, WAITING_FOR_APPROVAL, COMPLETED or FAILED. */
+    private Map<String, Long> instanceStatuses = new LinkedHashMap<>();
+    private List<RoleApprovals> pendingApprovals = new ArrayList<>();
+    private List<StageDuration> slowestStages = new ArrayList<>();
+    private LocalDateTime computedAt;
+
+    /**
+     * Approvals waiting for one approver role.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RoleApprovals {
+        private String approverRole;
+        private long pending;
+        private long oldestWaitMillis;
+    }
+
+    /**
+     * Durations of one workflow stage across the instances of the release, from the creation of
+     * its executor to its end, or to now while it has not ended.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StageDuration {
+        private String workflowId;
+        private String stageId;
+        private String label;
+        private long executions;
+        private long avgMillis;
+        private long maxMillis;
+    }
+}
@@ -0,0 +1,24 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * A finished tracing span as kept by the in-memory exporter and written by the file exporter.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpanRecord {
+    private String traceId;
+    private String spanId;
+    private String parentSpanId;
+    private String name;
+    private long startEpochMicros;
+    private long durationMicros;
+    private String status;
+    private Map<String, String> attributes;
+}
@@ -0,0 +1,22 @@
+package com.template.model;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Save-time analysis of a task's SQL, stored with the task so reviewers see its performance risk
+ * before it runs. The risk of the task is the highest risk of its statements.
+ */
+@Data
+public class SqlPlanAnalysis {
+
+    /** Ordered from least to most severe; UNKNOWN means the statement could not be explained. */
+    public enum Risk { UNKNOWN, LOW, MEDIUM, HIGH }
+
+    private Risk risk = Risk.UNKNOWN;
+    private List<SqlStatementPlan> statements = new ArrayList<>();
+    private LocalDateTime analyzedAt;
+}
@@ -0,0 +1,21 @@
+package com.template.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Save-time analysis of one statement of a task's SQL: its plan on the target database and the
+ * performance risks found in it, such as full table scans or filters without a usable index.
+ */
+@Data
+public class SqlStatementPlan {
+    private int index;
+    private String normalizedSql;
+    private String plan;
+    private SqlPlanAnalysis.Risk risk = SqlPlanAnalysis.Risk.UNKNOWN;
+    private List<String> findings = new ArrayList<>();
+    // True if the analysis came from the plan cache rather than from the database
+    private boolean cached;
+}
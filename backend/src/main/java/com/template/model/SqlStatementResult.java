@@ -0,0 +1,27 @@
+package com.template.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of one SQL statement run by a SQL task node: the lane it ran in, affected and read
+ * row counts, the first rows of its result set, how long it took and why it failed, if it did.
+ */
+@Data
+public class SqlStatementResult {
+
+    public enum Status { SUCCEEDED, FAILED, SKIPPED }
+
+    private int index;
+    private int lane;
+    private String sql;
+    private Status status = Status.SKIPPED;
+    private String error;
+    private long rowsAffected;
+    private long rowsRead;
+    private List<String> columns = new ArrayList<>();
+    private List<List<String>> sampleRows = new ArrayList<>();
+    private long durationMillis;
+}
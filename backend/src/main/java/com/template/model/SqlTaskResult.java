@@ -0,0 +1,21 @@
+package com.template.model;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a SQL task node, written to the execution log of the instance.
+ * Statements are listed in script order, whichever lane they ran in.
+ */
+@Data
+public class SqlTaskResult {
+    private String mode;
+    private int lanes;
+    private boolean committed;
+    private List<SqlStatementResult> statements = new ArrayList<>();
+    private long rowsAffected;
+    private long rowsRead;
+    private long durationMillis;
+}
@@ -0,0 +1,21 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Duration percentiles of one phase (queue, run or approval) of one workflow step.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StepDurationStats {
+    private String childrenId;
+    private String executorType;
+    private String phase;
+    private long samples;
+    private double p50Millis;
+    private double p95Millis;
+    private double p99Millis;
+}
@@ -0,0 +1,61 @@
+package com.template.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The parameters of sub-workflow nodes, which run another workflow as a child instance and
+ * complete or fail when it ends:
+ * <ul>
+ *   <li>workflowId: the workflow to run, at its current version</li>
+ *   <li>any other parameter: an input of the child instance, referenced there as ${input.name}</li>
+ * </ul>
+ * A sub-workflow node's outputs are the child's service ID as instance and its final status.
+ */
+public final class SubWorkflowNode {
+
+    public static final String TYPE = "subWorkflowNode";
+    public static final String WORKFLOW_ID = "workflowId";
+    // The namespace of the inputs in the child instance's variables
+    public static final String INPUT_NAMESPACE = "input";
+    // Sub-workflows nest at most this deep, which also stops workflows that call themselves
+    public static final int MAX_DEPTH = 8;
+
+    private SubWorkflowNode() {
+    }
+
+    /**
+     * @param node A node of any type.
+     * @return Whether the node is a sub-workflow node.
+     */
+    public static boolean isSubWorkflowNode(Node node) {
+        return TYPE.equals(node.getType());
+    }
+
+    /**
+     * Rejects sub-workflow nodes that do not name a workflow.
+     *
+     * @param node A node of any type; other nodes are not checked.
+     * @throws IllegalArgumentException if the sub-workflow node has no workflowId.
+     */
+    public static void validate(Node node) {
+        if (!isSubWorkflowNode(node)) {
+            return;
+        }
+        String workflowId = node.getData() == null || node.getData().getParameters() == null
+                ? null : node.getData().getParameters().get(WORKFLOW_ID);
+        if (workflowId == null || workflowId.isBlank()) {
+            throw new IllegalArgumentException("Sub-workflow node " + node.getId() + " needs the parameter " + WORKFLOW_ID);
+        }
+    }
+
+    /**
+     * @param parameters The sub-workflow node's parameters, with references resolved.
+     * @return The inputs of the child instance: all parameters but workflowId.
+     */
+    public static Map<String, Object> inputs(Map<String, String> parameters) {
+        Map<String, Object> inputs = new HashMap<>(parameters);
+        inputs.remove(WORKFLOW_ID);
+        return inputs;
+    }
+}
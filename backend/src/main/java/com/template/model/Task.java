@@ -1,5 +1,8 @@
 package com.template.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
 import java.time.LocalDateTime;
 
 /**
@@ -18,6 +21,13 @@ public class Task {
     private String createdBy;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Set from the save-time SQL analysis, never from requests
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String sqlRisk;
+    // SqlPlanAnalysis as stored JSON, returned as a nested object
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @JsonRawValue
+    private String sqlAnalysis;
 
     // Default constructor for BeanPropertyRowMapper
     public Task() {
@@ -103,4 +113,20 @@ public class Task {
     public void setUpdatedAt(LocalDateTime updatedAt) {
         this.updatedAt = updatedAt;
     }
+
+    public String getSqlRisk() {
+        return sqlRisk;
+    }
+
+    public void setSqlRisk(String sqlRisk) {
+        this.sqlRisk = sqlRisk;
+    }
+
+    public String getSqlAnalysis() {
+        return sqlAnalysis;
+    }
+
+    public void setSqlAnalysis(String sqlAnalysis) {
+        this.sqlAnalysis = sqlAnalysis;
+    }
 }
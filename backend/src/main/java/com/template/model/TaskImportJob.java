@@ -0,0 +1,45 @@
+package com.template.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of a bulk task import. Rows are ingested while the request streams in; workflows of
+ * saved batches are initiated in the background, so the job can be polled until it is finished.
+ * Counters are updated concurrently by the ingesting and the initiating threads.
+ */
+@Data
+public class TaskImportJob {
+
+    public enum Status { INGESTING, INITIATING, COMPLETED, FAILED }
+
+    /** A rejected input row; rows are numbered from 1, not counting a CSV header. */
+    public record RowError(long row, String message) {
+    }
+
+    private String id;
+    private String format;
+    private volatile Status status = Status.INGESTING;
+    private final AtomicLong rowsRead = new AtomicLong();
+    private final AtomicLong rowsRejected = new AtomicLong();
+    private final AtomicLong tasksCreated = new AtomicLong();
+    private final AtomicLong workflowsInitiated = new AtomicLong();
+    private final AtomicLong initiationFailures = new AtomicLong();
+    // The first rejected rows only, up to task.import.max-errors
+    private final List<RowError> errors = new CopyOnWriteArrayList<>();
+    private volatile String failure;
+    private LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+
+    // Saved batches whose workflows are not initiated yet
+    @JsonIgnore
+    private final AtomicInteger pendingBatches = new AtomicInteger();
+    @JsonIgnore
+    private volatile boolean ingestionFinished;
+}
@@ -1,6 +1,10 @@
 package com.template.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 public class WorkflowExecutor {
@@ -20,6 +24,15 @@ public class WorkflowExecutor {
     private LocalDateTime approvalDeadline;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    // Hash of the workflow definition version this executor's instance is pinned to
+    private String definitionHash;
+    // For map items: the executor of the map node, and the position and value of the item
+    private String parentId;
+    private Integer itemIndex;
+    private String item;
+
+    // Transitions made since the executor was loaded or last saved; written with the next save
+    private final List<ExecutorTransition> pendingTransitions = new ArrayList<>();
 
     public WorkflowExecutor() {
         this.id = UUID.randomUUID().toString();
@@ -70,6 +83,31 @@ public class WorkflowExecutor {
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public String getDefinitionHash() { return definitionHash; }
+    public void setDefinitionHash(String definitionHash) { this.definitionHash = definitionHash; }
+    public String getParentId() { return parentId; }
+    public void setParentId(String parentId) { this.parentId = parentId; }
+    public Integer getItemIndex() { return itemIndex; }
+    public void setItemIndex(Integer itemIndex) { this.itemIndex = itemIndex; }
+    public String getItem() { return item; }
+    public void setItem(String item) { this.item = item; }
+
+    /**
+     * Changes the status and records the change so it is appended to the transition history on the next save.
+     * setStatus is left untouched for row mapping, which must not produce history.
+     *
+     * @param newStatus The new status.
+     * @param actor Who caused the change, e.g. the approver or "system".
+     */
+    public void transitionTo(ExecutionStatus newStatus, String actor) {
+        ExecutionStatus previous = this.status;
+        setStatus(newStatus);
+        pendingTransitions.add(new ExecutorTransition(null, id, workflowId, serviceId, childrenId, type,
+                previous, newStatus, updatedAt, actor));
+    }
+
+    @JsonIgnore
+    public List<ExecutorTransition> getPendingTransitions() { return pendingTransitions; }
 
     @Override
     public String toString() {
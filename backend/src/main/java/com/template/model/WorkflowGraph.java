@@ -0,0 +1,168 @@
+package com.template.model;
+
+import java.util.*;
+
+/**
+ * The compact, immutable graph of a definition version. Node and edge IDs are interned to int indices
+ * once, and the outgoing edges of every node are held as compressed sparse rows: the edges leaving
+ * node i are outEdges[outOffsets[i]] to outEdges[outOffsets[i + 1] - 1]. In-degrees are kept as
+ * offsets the same way, since the engine only needs to know how many edges lead into a node. A graph with
+ * n nodes and m edges costs a handful of int arrays of length n + 1 and m instead of a list and map
+ * entry per node and edge, and walking it compares ints rather than IDs.
+ * Nodes are indexed in topological order when the topology is known, so every edge leads to a higher index.
+ */
+public final class WorkflowGraph {
+
+    private final Node[] nodes;
+    private final Edge[] edges;
+    // IDs as saved, with lower-cased IDs as a fallback: the engine has always matched IDs case-insensitively
+    private final Map<String, Integer> nodeIndex;
+    private final Map<String, Integer> nodeIndexIgnoreCase;
+    private final Map<String, Integer> edgeIndex;
+    private final Map<String, Integer> edgeIndexIgnoreCase;
+    // Per edge, the index of its source and target node; -1 for an unknown node
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final int[] outOffsets;
+    private final int[] outEdges;
+    private final int[] inOffsets;
+
+    /**
+     * @param nodes The nodes of the version.
+     * @param edges The edges of the version. An edge referring to an unknown node, which only graphs saved before
+     *              graphs were validated can have, is only listed at the node it does know.
+     * @param order The node IDs in topological order, or null to index nodes in the given order.
+     */
+    public WorkflowGraph(List<Node> nodes, List<Edge> edges, List<String> order) {
+        List<Node> ordered = nodes;
+        if (order != null && order.size() == nodes.size()) {
+            Map<String, Integer> position = new HashMap<>(order.size() * 2);
+            for (int i = 0; i < order.size(); i++) {
+                position.put(order.get(i), i);
+            }
+            if (nodes.stream().allMatch(node -> position.containsKey(node.getId()))) {
+                ordered = nodes.stream().sorted(Comparator.comparingInt(node -> position.get(node.getId()))).toList();
+            }
+        }
+        int n = ordered.size();
+        int m = edges.size();
+        this.nodes = ordered.toArray(Node[]::new);
+        this.edges = edges.toArray(Edge[]::new);
+        this.nodeIndex = new HashMap<>(n * 2);
+        this.nodeIndexIgnoreCase = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            nodeIndex.put(this.nodes[i].getId(), i);
+            nodeIndexIgnoreCase.put(key(this.nodes[i].getId()), i);
+        }
+        this.edgeIndex = new HashMap<>(m * 2);
+        this.edgeIndexIgnoreCase = new HashMap<>(m * 2);
+        this.edgeSource = new int[m];
+        this.edgeTarget = new int[m];
+        this.outOffsets = new int[n + 1];
+        this.inOffsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            edgeIndex.put(this.edges[e].getId(), e);
+            edgeIndexIgnoreCase.put(key(this.edges[e].getId()), e);
+            edgeSource[e] = nodeIndex(this.edges[e].getSource());
+            edgeTarget[e] = nodeIndex(this.edges[e].getTarget());
+            if (edgeSource[e] >= 0) {
+                outOffsets[edgeSource[e] + 1]++;
+            }
+            if (edgeTarget[e] >= 0) {
+                inOffsets[edgeTarget[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            outOffsets[i + 1] += outOffsets[i];
+            inOffsets[i + 1] += inOffsets[i];
+        }
+        this.outEdges = new int[outOffsets[n]];
+        int[] outFill = Arrays.copyOf(outOffsets, n);
+        // Edges are filled in in the given order, so each node's edges keep their definition order
+        for (int e = 0; e < m; e++) {
+            if (edgeSource[e] >= 0) {
+                outEdges[outFill[edgeSource[e]]++] = e;
+            }
+        }
+    }
+
+    private static String key(String id) {
+        return id == null ? null : id.toLowerCase(Locale.ROOT);
+    }
+
+    public int nodeCount() { return nodes.length; }
+    public int edgeCount() { return edges.length; }
+    public Node node(int index) { return nodes[index]; }
+    public Edge edge(int index) { return edges[index]; }
+    public int source(int edge) { return edgeSource[edge]; }
+    public int target(int edge) { return edgeTarget[edge]; }
+
+    /**
+     * @param id The ID of a node, in any case.
+     * @return The index of the node, or -1 if the graph has no such node.
+     */
+    public int nodeIndex(String id) {
+        return indexOf(id, nodeIndex, nodeIndexIgnoreCase);
+    }
+
+    /**
+     * @param id The ID of an edge, in any case.
+     * @return The index of the edge, or -1 if the graph has no such edge.
+     */
+    public int edgeIndex(String id) {
+        return indexOf(id, edgeIndex, edgeIndexIgnoreCase);
+    }
+
+    private static int indexOf(String id, Map<String, Integer> exact, Map<String, Integer> ignoreCase) {
+        if (id == null) {
+            return -1;
+        }
+        Integer index = exact.get(id);
+        if (index == null) {
+            index = ignoreCase.get(key(id));
+        }
+        return index == null ? -1 : index;
+    }
+
+    public int outDegree(int node) { return outOffsets[node + 1] - outOffsets[node]; }
+    public int inDegree(int node) { return inOffsets[node + 1] - inOffsets[node]; }
+
+    /**
+     * @param node The index of a node.
+     * @param k The position among the node's outgoing edges, from 0 to outDegree(node) - 1.
+     * @return The index of the edge.
+     */
+    public int outgoingEdge(int node, int k) { return outEdges[outOffsets[node] + k]; }
+
+    /**
+     * @param node The index of a node.
+     * @return The edges leaving the node, as a view over the adjacency arrays.
+     */
+    public List<Edge> outgoingEdges(int node) {
+        return new EdgeList(outEdges, outOffsets[node], outOffsets[node + 1]);
+    }
+
+    // An unmodifiable list of the edges in a slice of outEdges
+    private final class EdgeList extends AbstractList<Edge> implements RandomAccess {
+        private final int[] adjacency;
+        private final int from;
+        private final int to;
+
+        private EdgeList(int[] adjacency, int from, int to) {
+            this.adjacency = adjacency;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public Edge get(int index) {
+            Objects.checkIndex(index, to - from);
+            return edges[adjacency[from + index]];
+        }
+
+        @Override
+        public int size() {
+            return to - from;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Number of nodes and edges that an incremental graph update inserted, updated and deleted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowGraphDiff {
+    private int nodesInserted;
+    private int nodesUpdated;
+    private int nodesDeleted;
+    private int edgesInserted;
+    private int edgesUpdated;
+    private int edgesDeleted;
+}
@@ -0,0 +1,33 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A request to initiate the workflow of a task in the background, as stored in the
+ * 'workflow_initiation_requests' table. The task ID is also the service ID of the instance.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowInitiationRequest {
+
+    public enum Status {
+        PENDING,
+        RUNNING,
+        INITIATED,
+        FAILED
+    }
+
+    private String taskId;
+    private String workflowId;
+    private String name;
+    private Status status;
+    private int attempts;
+    private String error;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,213 @@
+package com.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.*;
+
+/**
+ * The topology of a valid workflow graph, computed when the graph is saved and stored with each
+ * definition version in workflow_definition_versions.topology. Conditions are ignored: an edge counts
+ * whether or not it is taken at runtime.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class WorkflowTopology {
+
+    // The number of node IDs listed in a validation message before the rest are only counted
+    private static final int MAX_LISTED_IDS = 20;
+
+    // Node IDs such that every edge leads from an earlier node to a later one
+    private List<String> order;
+    // Per node ID, the number of edges on the longest path from a start node to it; start nodes are at level 0
+    private Map<String, Integer> levels;
+    // The node IDs of a longest path through the graph
+    private List<String> criticalPath;
+    // The number of nodes on the critical path
+    private int criticalPathLength;
+
+    /**
+     * Validates a graph and computes its topology.
+     * IDs are compared case-insensitively, as the engine matches them.
+     *
+     * @param nodes The nodes of the graph.
+     * @param edges The edges of the graph.
+     * @return The topology.
+     * @throws IllegalArgumentException listing every problem found: missing or duplicate IDs, edges referring to
+     *         unknown nodes, cycles and nodes that cannot be reached from a start node.
+     */
+    public static WorkflowTopology analyze(List<Node> nodes, List<Edge> edges) {
+        List<String> problems = new ArrayList<>();
+        Map<String, Integer> index = new HashMap<>();
+        List<String> ids = new ArrayList<>();
+        for (Node node : nodes) {
+            if (node.getId() == null || node.getId().isBlank()) {
+                problems.add("A node has no id");
+            } else if (index.putIfAbsent(key(node.getId()), ids.size()) != null) {
+                problems.add("Duplicate node id " + node.getId());
+            } else {
+                ids.add(node.getId());
+            }
+        }
+        int n = ids.size();
+        List<List<Integer>> successors = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            successors.add(new ArrayList<>());
+        }
+        int[] inDegree = new int[n];
+        Set<String> edgeIds = new HashSet<>();
+        for (Edge edge : edges) {
+            if (edge.getId() == null || edge.getId().isBlank()) {
+                problems.add("An edge has no id");
+                continue;
+            }
+            if (!edgeIds.add(key(edge.getId()))) {
+                problems.add("Duplicate edge id " + edge.getId());
+                continue;
+            }
+            Integer source = edge.getSource() == null ? null : index.get(key(edge.getSource()));
+            Integer target = edge.getTarget() == null ? null : index.get(key(edge.getTarget()));
+            if (source == null) {
+                problems.add("Edge " + edge.getId() + " refers to an unknown source node " + edge.getSource());
+            }
+            if (target == null) {
+                problems.add("Edge " + edge.getId() + " refers to an unknown target node " + edge.getTarget());
+            }
+            if (source != null && target != null) {
+                successors.get(source).add(target);
+                inDegree[target]++;
+            }
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException(String.join("; ", problems));
+        }
+
+        // Kahn's algorithm; a node's level is final once all its predecessors are ordered
+        int[] remaining = inDegree.clone();
+        int[] level = new int[n];
+        int[] previous = new int[n];
+        Arrays.fill(previous, -1);
+        boolean[] reachable = new boolean[n];
+        ArrayDeque<Integer> ready = new ArrayDeque<>();
+        for (int i = 0; i < n; i++) {
+            if (inDegree[i] == 0) {
+                ready.add(i);
+            }
+        }
+        markReachable(new ArrayList<>(ready), successors, reachable);
+        List<String> order = new ArrayList<>(n);
+        Map<String, Integer> levels = new LinkedHashMap<>();
+        int last = -1;
+        while (!ready.isEmpty()) {
+            int node = ready.poll();
+            order.add(ids.get(node));
+            levels.put(ids.get(node), level[node]);
+            if (last < 0 || level[node] > level[last]) {
+                last = node;
+            }
+            for (int successor : successors.get(node)) {
+                if (level[node] + 1 > level[successor]) {
+                    level[successor] = level[node] + 1;
+                    previous[successor] = node;
+                }
+                if (--remaining[successor] == 0) {
+                    ready.add(successor);
+                }
+            }
+        }
+
+        if (order.size() < n) {
+            // Nodes left unordered are on a cycle or behind one; peel off those that lead to no other unordered node
+            boolean[] onCycle = new boolean[n];
+            int[] unorderedSuccessors = new int[n];
+            List<List<Integer>> predecessors = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                onCycle[i] = remaining[i] > 0;
+                predecessors.add(new ArrayList<>());
+            }
+            ArrayDeque<Integer> dead = new ArrayDeque<>();
+            for (int i = 0; i < n; i++) {
+                for (int successor : successors.get(i)) {
+                    predecessors.get(successor).add(i);
+                    if (onCycle[successor]) {
+                        unorderedSuccessors[i]++;
+                    }
+                }
+                if (onCycle[i] && unorderedSuccessors[i] == 0) {
+                    dead.add(i);
+                }
+            }
+            while (!dead.isEmpty()) {
+                int node = dead.poll();
+                onCycle[node] = false;
+                for (int predecessor : predecessors.get(node)) {
+                    if (onCycle[predecessor] && --unorderedSuccessors[predecessor] == 0) {
+                        dead.add(predecessor);
+                    }
+                }
+            }
+            List<String> cycleIds = new ArrayList<>();
+            List<String> unreachableIds = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                if (onCycle[i]) {
+                    cycleIds.add(ids.get(i));
+                } else if (!reachable[i]) {
+                    unreachableIds.add(ids.get(i));
+                }
+            }
+            problems.add("Cycle through nodes " + describe(cycleIds));
+            if (!unreachableIds.isEmpty()) {
+                problems.add("Nodes not reachable from a start node: " + describe(unreachableIds));
+            }
+            throw new IllegalArgumentException(String.join("; ", problems));
+        }
+
+        LinkedList<String> criticalPath = new LinkedList<>();
+        for (int node = last; node >= 0; node = previous[node]) {
+            criticalPath.addFirst(ids.get(node));
+        }
+        return new WorkflowTopology(List.copyOf(order), Collections.unmodifiableMap(levels),
+                List.copyOf(criticalPath), criticalPath.size());
+    }
+
+    /**
+     * Computes the topology of a graph saved before graphs were validated.
+     *
+     * @param nodes The nodes of the graph.
+     * @param edges The edges of the graph.
+     * @return The topology, or null if the graph is not valid.
+     */
+    public static WorkflowTopology analyzeIfValid(List<Node> nodes, List<Edge> edges) {
+        try {
+            return analyze(nodes, edges);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void markReachable(List<Integer> starts, List<List<Integer>> successors, boolean[] reachable) {
+        ArrayDeque<Integer> pending = new ArrayDeque<>(starts);
+        starts.forEach(start -> reachable[start] = true);
+        while (!pending.isEmpty()) {
+            for (int successor : successors.get(pending.poll())) {
+                if (!reachable[successor]) {
+                    reachable[successor] = true;
+                    pending.add(successor);
+                }
+            }
+        }
+    }
+
+    private static String describe(List<String> ids) {
+        if (ids.size() <= MAX_LISTED_IDS) {
+            return String.join(", ", ids);
+        }
+        return String.join(", ", ids.subList(0, MAX_LISTED_IDS)) + " and " + (ids.size() - MAX_LISTED_IDS) + " more";
+    }
+
+    private static String key(String id) {
+        return id.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,32 @@
+package com.template.model;
+
+/**
+ * Which parts of a workflow definition are loaded and returned.
+ */
+public enum WorkflowView {
+    /** Everything, including the React Flow layout of nodes and edges. */
+    DESIGNER,
+    /** What the engine and execution pages need: ids, types, stage names, parameters and edges. */
+    EXECUTION,
+    /** Only the workflow header, without nodes and edges. */
+    SUMMARY;
+
+    /**
+     * Parses a view request parameter.
+     *
+     * @param value The parameter value, case-insensitive; null selects the default.
+     * @param defaultView The view to use when no value is given.
+     * @return The requested view.
+     * @throws IllegalArgumentException if the value is not a known view.
+     */
+    public static WorkflowView fromParam(String value, WorkflowView defaultView) {
+        if (value == null || value.isBlank()) {
+            return defaultView;
+        }
+        try {
+            return WorkflowView.valueOf(value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown view '" + value + "'; expected designer, execution or summary");
+        }
+    }
+}
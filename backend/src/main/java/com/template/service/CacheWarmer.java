@@ -0,0 +1,57 @@
+package com.template.service;
+
+import com.template.config.CacheConfig;
+import com.template.dao.FunctionalityRepository;
+import com.template.dao.WorkflowMappingRepository;
+import com.template.model.Functionality;
+import com.template.model.WorkflowMapping;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Loads all functionalities and workflow mappings into their caches once the application is ready,
+ * so the first pending-approval renders do not go to the database.
+ * Enabled with workflow.cache.warm-on-startup=true.
+ */
+@Component
+@ConditionalOnProperty(name = "workflow.cache.warm-on-startup", havingValue = "true")
+public class CacheWarmer {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final CacheManager cacheManager;
+    private final FunctionalityRepository functionalityRepository;
+    private final WorkflowMappingRepository workflowMappingRepository;
+
+    public CacheWarmer(CacheManager cacheManager, FunctionalityRepository functionalityRepository,
+                       WorkflowMappingRepository workflowMappingRepository) {
+        this.cacheManager = cacheManager;
+        this.functionalityRepository = functionalityRepository;
+        this.workflowMappingRepository = workflowMappingRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        // Values are stored the way @Cacheable stores an Optional result: unwrapped
+        Cache functionalities = cacheManager.getCache(CacheConfig.FUNCTIONALITIES);
+        List<Functionality> allFunctionalities = functionalityRepository.findAll();
+        if (functionalities != null) {
+            allFunctionalities.forEach(f -> functionalities.put(f.getId(), f));
+        }
+
+        Cache mappings = cacheManager.getCache(CacheConfig.WORKFLOW_MAPPINGS);
+        List<WorkflowMapping> allMappings = workflowMappingRepository.findAll();
+        if (mappings != null) {
+            allMappings.forEach(m -> mappings.putIfAbsent(m.getWorkflowId(), m));
+        }
+        log.info("Warmed caches with {} functionalities and {} workflow mappings", allFunctionalities.size(), allMappings.size());
+    }
+}
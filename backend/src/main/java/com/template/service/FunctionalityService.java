@@ -1,8 +1,10 @@
 package com.template.service;
 
+import com.template.config.CacheConfig;
 import com.template.dao.FunctionalityRepository;
 import com.template.model.Functionality;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -27,6 +29,7 @@ public class FunctionalityService {
      * @param functionality The Functionality object to save.
      * @return The saved Functionality object.
      */
+    @CacheEvict(cacheNames = CacheConfig.FUNCTIONALITIES, key = "#functionality.id", condition = "#functionality.id != null")
     public Functionality save(Functionality functionality) {
         functionalityRepository.save(functionality);
         return functionality;
@@ -54,6 +57,7 @@ public class FunctionalityService {
      * @param functionality The Functionality object with updated data.
      * @return The updated Functionality object.
      */
+    @CacheEvict(cacheNames = CacheConfig.FUNCTIONALITIES, key = "#functionality.id", condition = "#functionality.id != null")
     public Optional<Functionality> update(Functionality functionality) {
         int rowsAffected = functionalityRepository.update(functionality);
         if (rowsAffected > 0) {
@@ -68,6 +72,7 @@ public class FunctionalityService {
      * @param id The ID of the functionality to delete.
      * @return true if the functionality was deleted, false otherwise.
      */
+    @CacheEvict(cacheNames = CacheConfig.FUNCTIONALITIES, key = "#id")
     public boolean deleteById(Long id) {
         int rowsAffected = functionalityRepository.deleteById(id);
         return rowsAffected > 0;
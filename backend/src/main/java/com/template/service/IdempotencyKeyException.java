@@ -0,0 +1,24 @@
+package com.template.service;
+
+/**
+ * Rejection of a request whose idempotency key cannot be honoured: the original request with
+ * the key is still running, or the key was used before for a different request.
+ */
+public class IdempotencyKeyException extends RuntimeException {
+
+    public enum Reason {
+        IN_PROGRESS,
+        REQUEST_MISMATCH
+    }
+
+    private final Reason reason;
+
+    public IdempotencyKeyException(Reason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
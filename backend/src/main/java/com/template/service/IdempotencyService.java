@@ -0,0 +1,210 @@
+package com.template.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.template.dao.IdempotencyKeyRepository;
+import com.template.model.IdempotencyRecord;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Runs client requests at most once per Idempotency-Key.
+ * The first request with a key claims it with an insert into the 'idempotency_keys' table, runs,
+ * and stores its response; replays within task.idempotency.ttl get the stored response without
+ * running again. Completed keys are also held in a Caffeine cache, so replays under load are
+ * answered from memory. A request that fails releases its key and may be retried with it.
+ * A claim carries a token, and its lease is renewed while the request runs, so a long request keeps its
+ * key. Only the request holding the claim can complete or release it.
+ */
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    private final IdempotencyKeyRepository repository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration lease;
+    private final Cache<String, IdempotencyRecord> completed;
+    // Renews the leases of running requests
+    private final ScheduledExecutorService leaseRenewer;
+
+    /**
+     * The response of an idempotent request.
+     *
+     * @param status The HTTP status of the original response.
+     * @param body The JSON body of the original response.
+     * @param location The Location of the original response, or null.
+     * @param replayed Whether the response is a replay of an earlier request.
+     */
+    public record Response(int status, String body, String location, boolean replayed) {
+    }
+
+    public IdempotencyService(IdempotencyKeyRepository repository, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                              @Value("${task.idempotency.ttl:PT24H}") Duration ttl,
+                              @Value("${task.idempotency.lease:PT5M}") Duration lease,
+                              @Value("${task.idempotency.cache-size:10000}") long cacheSize) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.lease = lease;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, completed, "idempotencyKeys");
+        this.leaseRenewer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs an action once per key, or replays the response of the run that claimed the key.
+     *
+     * @param scope The operation, e.g. "POST /api/tasks"; keys of different scopes are independent.
+     * @param key The Idempotency-Key of the request.
+     * @param request The request payload, whose fingerprint must match on replays.
+     * @param status The HTTP status of a successful response.
+     * @param action Runs the request and returns the response body.
+     * @param locationOf Derives the Location of the response from the body, or null for responses without one.
+     * @return The response.
+     * @throws IllegalArgumentException if the key is blank or too long, or thrown by the action.
+     * @throws IdempotencyKeyException if the key is in use by a running request or was used for a different request.
+     */
+    public Response execute(String scope, String key, Object request, int status, Supplier<?> action,
+                            Function<Object, String> locationOf) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = fingerprint(request);
+        String cacheKey = scope + '\n' + key;
+
+        IdempotencyRecord cached = completed.getIfPresent(cacheKey);
+        if (cached != null) {
+            return replay(cached, requestHash);
+        }
+        String claimToken = claim(scope, key, requestHash);
+        if (claimToken == null) {
+            IdempotencyRecord existing = repository.find(scope, key)
+                    .orElseThrow(() -> new IdempotencyKeyException(IdempotencyKeyException.Reason.IN_PROGRESS,
+                            "A request with this Idempotency-Key is in progress"));
+            if (!existing.isCompleted()) {
+                throw new IdempotencyKeyException(IdempotencyKeyException.Reason.IN_PROGRESS,
+                        "A request with this Idempotency-Key is in progress");
+            }
+            completed.put(cacheKey, existing);
+            return replay(existing, requestHash);
+        }
+
+        String body;
+        String location;
+        long renewalMillis = Math.max(1, lease.toMillis() / 3);
+        ScheduledFuture<?> renewal = leaseRenewer.scheduleAtFixedRate(() -> renew(scope, key, claimToken),
+                renewalMillis, renewalMillis, TimeUnit.MILLISECONDS);
+        try {
+            Object result = action.get();
+            body = objectMapper.writeValueAsString(result);
+            location = locationOf == null ? null : locationOf.apply(result);
+        } catch (JsonProcessingException | RuntimeException e) {
+            // Only successful responses are kept; the client may retry a failed request with the same key
+            renewal.cancel(false);
+            repository.release(scope, key, claimToken);
+            if (e instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("Failed to serialize response", e);
+        }
+        renewal.cancel(false);
+        LocalDateTime expiresAt = LocalDateTime.now().plus(ttl);
+        if (repository.complete(scope, key, claimToken, status, body, location, expiresAt) == 0) {
+            // The lease ran out, e.g. while the database was unreachable, and another request took the key over
+            log.warn("Idempotency-Key {} of {} was taken over while its request ran; the response is not stored", key, scope);
+            return new Response(status, body, location, false);
+        }
+        completed.put(cacheKey, new IdempotencyRecord(scope, key, requestHash, status, body, location, LocalDateTime.now(), expiresAt));
+        return new Response(status, body, location, false);
+    }
+
+    /**
+     * Deletes expired keys.
+     */
+    @Scheduled(fixedDelayString = "${task.idempotency.purge-interval:PT10M}", initialDelayString = "${task.idempotency.purge-interval:PT10M}")
+    public void purgeExpired() {
+        int deleted = repository.deleteExpired(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        leaseRenewer.shutdown();
+    }
+
+    // Claims a key and returns the claim's token, or null if the key is taken; a key whose TTL, or whose lease
+    // of a crashed request, has run out is claimed anew
+    private String claim(String scope, String key, String requestHash) {
+        String claimToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        if (repository.claim(scope, key, requestHash, claimToken, now.plus(lease))) {
+            return claimToken;
+        }
+        boolean claimed = repository.deleteIfExpired(scope, key, now) > 0
+                && repository.claim(scope, key, requestHash, claimToken, now.plus(lease));
+        return claimed ? claimToken : null;
+    }
+
+    private void renew(String scope, String key, String claimToken) {
+        try {
+            if (repository.renew(scope, key, claimToken, LocalDateTime.now().plus(lease)) == 0) {
+                log.warn("Lease of Idempotency-Key {} of {} could not be renewed; the claim is gone", key, scope);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Failed to renew the lease of Idempotency-Key {} of {}: {}", key, scope, e.getMessage());
+        }
+    }
+
+    private static Response replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            throw new IdempotencyKeyException(IdempotencyKeyException.Reason.REQUEST_MISMATCH,
+                    "Idempotency-Key was already used for a different request");
+        }
+        return new Response(record.getResponseStatus(), record.getResponseBody(), record.getResponseLocation(), true);
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Failed to fingerprint request", e);
+        }
+    }
+}
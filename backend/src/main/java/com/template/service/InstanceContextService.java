@@ -0,0 +1,246 @@
+package com.template.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.template.dao.InstanceContextRepository;
+import com.template.model.InstanceContext;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * The variable contexts of running workflow instances.
+ * Contexts are held in memory while their instance is active, so nodes read and write variables
+ * without a database round trip. Writes mark a context dirty; dirty contexts are written every
+ * workflow.context.flush-interval with one batch statement for all of them, outside the engine's
+ * transactions, and finished instances leave memory once written. Each context is a single JSON
+ * document with a version, and a write only succeeds on the version it was based on; a context
+ * written by someone else meanwhile is reloaded, and the namespaces changed here are applied on top.
+ */
+@Service
+public class InstanceContextService {
+
+    private static final Logger log = LoggerFactory.getLogger(InstanceContextService.class);
+
+    private final InstanceContextRepository repository;
+    private final Cache<String, ActiveContext> active;
+    // Contexts with writes that are not stored yet; they stay here, whatever the cache evicts
+    private final Map<String, ActiveContext> dirty = new ConcurrentHashMap<>();
+    // Finished instances whose contexts leave memory with the next flush
+    private final Set<String> released = ConcurrentHashMap.newKeySet();
+    private final Object flushLock = new Object();
+
+    // The context of an active instance. Fields are guarded by the object's monitor; the namespace
+    // maps are never modified, only replaced, so copies of 'variables' can be read without the lock.
+    private static final class ActiveContext {
+        private final String serviceId;
+        private Map<String, Map<String, Object>> variables;
+        // The stored version, 0 if the context has not been stored yet
+        private long version;
+        // The namespaces written since the last flush
+        private final Set<String> changed = new HashSet<>();
+
+        private ActiveContext(String serviceId, Map<String, Map<String, Object>> variables, long version) {
+            this.serviceId = serviceId;
+            this.variables = new HashMap<>();
+            variables.forEach((namespace, values) -> this.variables.put(namespace, Collections.unmodifiableMap(new HashMap<>(values))));
+            this.version = version;
+        }
+    }
+
+    public InstanceContextService(InstanceContextRepository repository, MeterRegistry meterRegistry,
+                                  @Value("${workflow.context.cache-size:10000}") long cacheSize,
+                                  @Value("${workflow.context.idle-expiry:PT10M}") Duration idleExpiry) {
+        this.repository = repository;
+        this.active = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterAccess(idleExpiry)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, active, "instanceContexts");
+    }
+
+    /**
+     * Reads the variables of an instance.
+     *
+     * @param serviceId The service ID of the instance.
+     * @param initial The variables of an instance that has no context yet.
+     * @return An unmodifiable copy of the variables by namespace.
+     */
+    public Map<String, Map<String, Object>> getVariables(String serviceId, Supplier<Map<String, Map<String, Object>>> initial) {
+        ActiveContext context = context(serviceId, initial);
+        synchronized (context) {
+            return Collections.unmodifiableMap(new HashMap<>(context.variables));
+        }
+    }
+
+    /**
+     * Sets variables of an instance. The write is stored with the next flush.
+     *
+     * @param serviceId The service ID of the instance.
+     * @param namespace The namespace of the variables, e.g. the ID of the node that produced them.
+     * @param values The variables; existing variables of the namespace with other names are kept.
+     * @param initial The variables of an instance that has no context yet.
+     */
+    public void write(String serviceId, String namespace, Map<String, ?> values, Supplier<Map<String, Map<String, Object>>> initial) {
+        ActiveContext context = context(serviceId, initial);
+        synchronized (context) {
+            Map<String, Object> merged = new HashMap<>(context.variables.getOrDefault(namespace, Map.of()));
+            merged.putAll(values);
+            context.variables.put(namespace, Collections.unmodifiableMap(merged));
+            context.changed.add(namespace);
+            dirty.put(serviceId, context);
+        }
+    }
+
+    /**
+     * Reads the context of an instance, including writes that are not stored yet.
+     *
+     * @param serviceId The service ID of the instance.
+     * @return The context, or empty if the instance has none.
+     */
+    public Optional<InstanceContext> getContext(String serviceId) {
+        ActiveContext context = dirty.get(serviceId);
+        if (context == null) {
+            context = active.getIfPresent(serviceId);
+        }
+        if (context == null) {
+            return repository.findByServiceId(serviceId);
+        }
+        synchronized (context) {
+            return Optional.of(new InstanceContext(serviceId, new HashMap<>(context.variables), context.version, LocalDateTime.now()));
+        }
+    }
+
+    /**
+     * Drops the context of a finished instance from memory once its pending writes are stored.
+     *
+     * @param serviceId The service ID of the instance.
+     */
+    public void release(String serviceId) {
+        released.add(serviceId);
+    }
+
+    /**
+     * Stores the pending writes of all instances, then drops the contexts of finished instances.
+     */
+    @Scheduled(fixedDelayString = "${workflow.context.flush-interval:PT0.5S}")
+    @PreDestroy
+    public void flush() {
+        if (!dirty.isEmpty()) {
+            flush(new ArrayList<>(dirty.keySet()));
+        }
+        for (String serviceId : released) {
+            if (!dirty.containsKey(serviceId)) {
+                active.invalidate(serviceId);
+                released.remove(serviceId);
+            }
+        }
+    }
+
+    private ActiveContext context(String serviceId, Supplier<Map<String, Map<String, Object>>> initial) {
+        ActiveContext context = dirty.get(serviceId);
+        if (context != null) {
+            active.asMap().putIfAbsent(serviceId, context);
+            return context;
+        }
+        return active.get(serviceId, id -> load(id, initial));
+    }
+
+    private ActiveContext load(String serviceId, Supplier<Map<String, Map<String, Object>>> initial) {
+        Optional<InstanceContext> stored = repository.findByServiceId(serviceId);
+        if (stored.isPresent()) {
+            return new ActiveContext(serviceId, stored.get().getVariables(), stored.get().getVersion());
+        }
+        ActiveContext context = new ActiveContext(serviceId, initial.get(), 0);
+        context.changed.addAll(context.variables.keySet());
+        dirty.put(serviceId, context);
+        return context;
+    }
+
+    // Writes the dirty contexts among the given instances, new ones with one batch insert and the others with one batch update
+    private void flush(Collection<String> serviceIds) {
+        synchronized (flushLock) {
+            List<ActiveContext> inserted = new ArrayList<>();
+            List<ActiveContext> updated = new ArrayList<>();
+            List<InstanceContext> insertRows = new ArrayList<>();
+            List<InstanceContext> updateRows = new ArrayList<>();
+            Map<ActiveContext, Set<String>> flushedChanges = new HashMap<>();
+            LocalDateTime now = LocalDateTime.now();
+            for (String serviceId : serviceIds) {
+                ActiveContext context = dirty.remove(serviceId);
+                if (context == null) {
+                    continue;
+                }
+                synchronized (context) {
+                    InstanceContext row = new InstanceContext(serviceId, new HashMap<>(context.variables), context.version + 1, now);
+                    flushedChanges.put(context, new HashSet<>(context.changed));
+                    context.changed.clear();
+                    (context.version == 0 ? inserted : updated).add(context);
+                    (context.version == 0 ? insertRows : updateRows).add(row);
+                }
+            }
+            if (flushedChanges.isEmpty()) {
+                return;
+            }
+            try {
+                applyResults(inserted, insertRows, insertRows.isEmpty() ? new int[0] : repository.insertAllIfAbsent(insertRows), flushedChanges);
+                applyResults(updated, updateRows, updateRows.isEmpty() ? new int[0] : repository.updateAll(updateRows), flushedChanges);
+                log.debug("Flushed {} new and {} changed instance contexts", insertRows.size(), updateRows.size());
+            } catch (RuntimeException e) {
+                log.error("Failed to flush {} instance contexts, retrying with the next flush: {}", flushedChanges.size(), e.getMessage(), e);
+                flushedChanges.forEach(this::markDirty);
+            }
+        }
+    }
+
+    private void applyResults(List<ActiveContext> contexts, List<InstanceContext> rows, int[] counts,
+                              Map<ActiveContext, Set<String>> flushedChanges) {
+        for (int i = 0; i < contexts.size(); i++) {
+            ActiveContext context = contexts.get(i);
+            if (counts[i] == 1) {
+                synchronized (context) {
+                    context.version = rows.get(i).getVersion();
+                }
+            } else {
+                rebase(context, flushedChanges.get(context));
+            }
+        }
+    }
+
+    // Another writer stored the context first: reload it, reapply the namespaces written here and write again with the next flush
+    private void rebase(ActiveContext context, Set<String> changes) {
+        Optional<InstanceContext> stored = repository.findByServiceId(context.serviceId);
+        log.warn("Instance context {} was written concurrently; reapplying {} on version {}", context.serviceId, changes,
+                stored.map(InstanceContext::getVersion).orElse(0L));
+        synchronized (context) {
+            Map<String, Map<String, Object>> merged = new HashMap<>();
+            stored.ifPresent(s -> s.getVariables().forEach((namespace, values) -> merged.put(namespace, Collections.unmodifiableMap(new HashMap<>(values)))));
+            context.changed.addAll(changes);
+            for (String namespace : context.changed) {
+                merged.put(namespace, context.variables.get(namespace));
+            }
+            context.variables = merged;
+            context.version = stored.map(InstanceContext::getVersion).orElse(0L);
+        }
+        dirty.put(context.serviceId, context);
+    }
+
+    private void markDirty(ActiveContext context, Set<String> changes) {
+        synchronized (context) {
+            context.changed.addAll(changes);
+        }
+        dirty.put(context.serviceId, context);
+    }
+}
@@ -0,0 +1,57 @@
+package com.template.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the items of map nodes on a pool of workflow.map.threads threads, shared by all map nodes.
+ * Each map node keeps at most its maxParallelism items in flight, so the pool bounds the items
+ * running across all map nodes, and the engine's other executors keep running on their own threads.
+ */
+@Component
+public class MapItemDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(MapItemDispatcher.class);
+
+    private final ExecutorService itemExecutor;
+
+    public MapItemDispatcher(@Value("${workflow.map.threads:8}") int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("workflow.map.threads must be at least 1");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.itemExecutor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "map-item-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs a map item on the pool.
+     *
+     * @param executorId The ID of the item's executor, for logging.
+     * @param item Runs the item in its own transaction.
+     */
+    public void dispatch(String executorId, Runnable item) {
+        itemExecutor.execute(() -> {
+            try {
+                item.run();
+            } catch (RuntimeException e) {
+                log.error("Map item executor {} failed: {}", executorId, e.getMessage(), e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        itemExecutor.shutdown();
+    }
+}
@@ -0,0 +1,49 @@
+package com.template.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.template.dao.ReleaseProgressRepository;
+import com.template.model.ReleaseProgress;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Release-level progress of tasks and their workflow instances.
+ * The progress is aggregated by a single query and cached for release.progress.cache-ttl, so
+ * dashboards polling a release cost one query per release and TTL, however many tasks it has.
+ */
+@Service
+public class ReleaseProgressService {
+
+    private final ReleaseProgressRepository repository;
+    private final int slowestStages;
+    private final Cache<String, ReleaseProgress> progressByRelease;
+
+    public ReleaseProgressService(ReleaseProgressRepository repository, MeterRegistry meterRegistry,
+                                  @Value("${release.progress.slowest-stages:10}") int slowestStages,
+                                  @Value("${release.progress.cache-ttl:PT15S}") Duration cacheTtl,
+                                  @Value("${release.progress.cache-size:1000}") long cacheSize) {
+        this.repository = repository;
+        this.slowestStages = slowestStages;
+        this.progressByRelease = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, progressByRelease, "releaseProgress");
+    }
+
+    /**
+     * @param releaseNumber The release number of the tasks.
+     * @return The progress of the release, at most release.progress.cache-ttl old, or empty if it has no tasks.
+     */
+    public Optional<ReleaseProgress> getProgress(String releaseNumber) {
+        ReleaseProgress progress = progressByRelease.get(releaseNumber, key -> repository.findProgress(key, slowestStages));
+        return progress.getTasks() == 0 ? Optional.empty() : Optional.of(progress);
+    }
+}
@@ -0,0 +1,233 @@
+package com.template.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.template.model.SqlPlanAnalysis;
+import com.template.model.SqlStatementPlan;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.*;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Validates and explains the SQL of tasks on the target database of SQL task nodes when a task
+ * is saved. Every statement is parsed (and explained, if the database can explain it), and its
+ * plan is checked for full table scans and for filters no index can serve.
+ * Analyses are cached by normalized statement, so re-submitted or edited tasks, and statements
+ * that only differ in their constants, skip the round trip to the database. Entries expire after
+ * task.sql.plan.cache-ttl so plans follow schema changes such as new indexes.
+ */
+@Component
+public class SqlPlanAnalyzer {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlPlanAnalyzer.class);
+
+    private static final int MAX_PLAN_LENGTH = 4000;
+    private static final int MAX_NORMALIZED_SQL_LENGTH = 1000;
+
+    private static final Set<String> EXPLAINABLE_COMMANDS = Set.of("SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "MERGE");
+    private static final Set<String> WRITE_COMMANDS = Set.of("UPDATE", "DELETE", "MERGE");
+
+    // Full scans in EXPLAIN output; group 1 names the scanned table or index.
+    // H2 prints every scan as a comment, with ": condition" only when an index condition is used.
+    private static final List<Pattern> FULL_SCANS = List.of(
+            Pattern.compile("/\\*\\s*([\\w$.]+?)(?:\\.tableScan)?\\s*\\*/"),
+            Pattern.compile("Seq Scan on (\\S+)"));
+    private static final Pattern FILTER = Pattern.compile("\\b(?:WHERE|JOIN)\\b");
+
+    // SQLStates of references to missing tables, columns or other objects besides the ISO 42S class:
+    // PostgreSQL's undefined table, column and object, and H2's table, view and column not found
+    private static final Set<String> UNKNOWN_OBJECT_STATES = Set.of("42P01", "42703", "42704", "42102", "42103", "42104", "42122");
+    // Vendor error codes for the same, from drivers that report a generic SQLState:
+    // Oracle ORA-00942 and ORA-00904, SQL Server 208 and 207
+    private static final Set<Integer> UNKNOWN_OBJECT_ERROR_CODES = Set.of(942, 904, 208, 207);
+
+    private final SqlTaskRunner sqlTaskRunner;
+    private final Cache<String, SqlStatementPlan> plans;
+
+    public SqlPlanAnalyzer(SqlTaskRunner sqlTaskRunner, MeterRegistry meterRegistry,
+                           @Value("${task.sql.plan.cache-size:10000}") long cacheSize,
+                           @Value("${task.sql.plan.cache-ttl:PT15M}") Duration cacheTtl) {
+        this.sqlTaskRunner = sqlTaskRunner;
+        this.plans = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, plans, "sqlPlans");
+    }
+
+    /**
+     * Analyzes every statement of a task's SQL.
+     * Statements that reference tables not created yet (e.g. by an earlier statement of the same
+     * script) are reported with risk UNKNOWN. If the target database is unreachable, the analysis
+     * stops there rather than blocking the save.
+     *
+     * @param sql The SQL of the task (may be null).
+     * @return The plans and risks of the statements.
+     * @throws IllegalArgumentException if a statement is not valid SQL.
+     */
+    public SqlPlanAnalysis analyze(String sql) {
+        SqlPlanAnalysis analysis = new SqlPlanAnalysis();
+        analysis.setAnalyzedAt(LocalDateTime.now());
+        if (sql == null || sql.isBlank()) {
+            return analysis;
+        }
+        List<String> statements = SqlScriptAnalyzer.split(sql);
+        // Opened on the first cache miss only, so fully cached scripts never touch the target database
+        Connection connection = null;
+        try {
+            for (int i = 0; i < statements.size(); i++) {
+                String normalized = SqlScriptAnalyzer.normalize(statements.get(i));
+                SqlStatementPlan cached = plans.getIfPresent(normalized);
+                SqlStatementPlan plan;
+                if (cached != null) {
+                    plan = copy(cached);
+                    plan.setCached(true);
+                } else {
+                    if (connection == null) {
+                        connection = sqlTaskRunner.getDataSource().getConnection();
+                    }
+                    plan = explain(connection, i, statements.get(i), normalized);
+                    // Unresolved statements depend on the rest of the script, so only conclusive analyses are cached
+                    if (plan.getRisk() != SqlPlanAnalysis.Risk.UNKNOWN) {
+                        plans.put(normalized, copy(plan));
+                    }
+                }
+                plan.setIndex(i);
+                analysis.getStatements().add(plan);
+                if (plan.getRisk().compareTo(analysis.getRisk()) > 0) {
+                    analysis.setRisk(plan.getRisk());
+                }
+            }
+        } catch (SQLException e) {
+            log.warn("SQL analysis stopped, target database unavailable: {}", e.getMessage());
+        } finally {
+            close(connection);
+        }
+        return analysis;
+    }
+
+    private SqlStatementPlan explain(Connection connection, int index, String statement, String normalized) throws SQLException {
+        SqlStatementPlan plan = new SqlStatementPlan();
+        plan.setNormalizedSql(truncate(normalized, MAX_NORMALIZED_SQL_LENGTH));
+        String command = SqlScriptAnalyzer.command(statement);
+        try {
+            if (EXPLAINABLE_COMMANDS.contains(command)) {
+                StringBuilder text = new StringBuilder();
+                try (Statement explain = connection.createStatement();
+                     ResultSet rs = explain.executeQuery("EXPLAIN " + statement)) {
+                    while (rs.next()) {
+                        text.append(rs.getString(1)).append('\n');
+                    }
+                }
+                plan.setPlan(truncate(text.toString().trim(), MAX_PLAN_LENGTH));
+                assessPlan(plan, command, normalized, text.toString());
+            } else {
+                // Other statements cannot be explained, but preparing them checks them without running them
+                connection.prepareStatement(statement).close();
+                assessStatement(plan, command);
+            }
+        } catch (SQLException e) {
+            String state = e.getSQLState();
+            if (isUnknownObject(e)) {
+                plan.getFindings().add("References an object that does not exist yet: " + firstLine(e.getMessage()));
+                return plan;
+            }
+            if (state != null && state.startsWith("42")) {
+                throw new IllegalArgumentException("Statement " + (index + 1) + " is not valid SQL: " + firstLine(e.getMessage()));
+            }
+            throw e;
+        }
+        return plan;
+    }
+
+    private static boolean isUnknownObject(SQLException e) {
+        String state = e.getSQLState();
+        if (state != null && (state.startsWith("42S") || UNKNOWN_OBJECT_STATES.contains(state))) {
+            return true;
+        }
+        boolean generic = state == null || state.equals("42000") || state.startsWith("S0");
+        return generic && UNKNOWN_OBJECT_ERROR_CODES.contains(e.getErrorCode());
+    }
+
+    private static void assessPlan(SqlStatementPlan plan, String command, String normalized, String planText) {
+        boolean write = WRITE_COMMANDS.contains(command);
+        boolean filtered = FILTER.matcher(normalized).find();
+        SqlPlanAnalysis.Risk risk = SqlPlanAnalysis.Risk.LOW;
+        for (Pattern pattern : FULL_SCANS) {
+            Matcher matcher = pattern.matcher(planText);
+            while (matcher.find()) {
+                if (filtered) {
+                    plan.getFindings().add("Full scan of " + matcher.group(1) + ": no index serves the filter");
+                    risk = max(risk, write ? SqlPlanAnalysis.Risk.HIGH : SqlPlanAnalysis.Risk.MEDIUM);
+                } else {
+                    plan.getFindings().add("Full scan of " + matcher.group(1));
+                    risk = max(risk, write ? SqlPlanAnalysis.Risk.MEDIUM : SqlPlanAnalysis.Risk.LOW);
+                }
+            }
+        }
+        plan.setRisk(risk);
+    }
+
+    private static void assessStatement(SqlStatementPlan plan, String command) {
+        switch (command) {
+            case "DROP", "TRUNCATE" -> {
+                plan.getFindings().add(command + " permanently removes data");
+                plan.setRisk(SqlPlanAnalysis.Risk.MEDIUM);
+            }
+            case "ALTER" -> {
+                plan.getFindings().add("ALTER may rewrite or lock the table while it runs");
+                plan.setRisk(SqlPlanAnalysis.Risk.LOW);
+            }
+            default -> plan.setRisk(SqlPlanAnalysis.Risk.LOW);
+        }
+    }
+
+    private static SqlPlanAnalysis.Risk max(SqlPlanAnalysis.Risk a, SqlPlanAnalysis.Risk b) {
+        return a.compareTo(b) >= 0 ? a : b;
+    }
+
+    // Cached plans are never handed out directly, since callers set the index on what they get
+    private static SqlStatementPlan copy(SqlStatementPlan source) {
+        SqlStatementPlan plan = new SqlStatementPlan();
+        plan.setNormalizedSql(source.getNormalizedSql());
+        plan.setPlan(source.getPlan());
+        plan.setRisk(source.getRisk());
+        plan.setFindings(new ArrayList<>(source.getFindings()));
+        return plan;
+    }
+
+    private static String firstLine(String message) {
+        int newline = message == null ? -1 : message.indexOf('\n');
+        return newline < 0 ? message : message.substring(0, newline);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() > maxLength ? value.substring(0, maxLength) : value;
+    }
+
+    private static void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            // EXPLAIN does not write, but the pool is not auto-commit, so end the transaction explicitly
+            connection.rollback();
+            connection.close();
+        } catch (SQLException e) {
+            log.warn("Failed to release SQL analysis connection: {}", e.getMessage());
+        }
+    }
+}
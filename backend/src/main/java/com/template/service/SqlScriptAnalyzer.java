@@ -0,0 +1,307 @@
+package com.template.service;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Splits SQL scripts into statements and plans them into lanes that can run in parallel.
+ * Two statements are dependent when they reference a common table; dependent statements are
+ * grouped with a union-find and always end up in the same lane in script order. Statements whose
+ * tables cannot be determined (e.g. CALL or SET) depend on every other statement, which makes
+ * the whole script run serially. The analysis is lexical, so it errs on the side of grouping.
+ * Callers can pass tables that are linked outside the script, such as by foreign keys, to group them too.
+ */
+public final class SqlScriptAnalyzer {
+
+    // Identifiers that directly follow these keywords name a table (or view/sequence)
+    private static final Pattern TABLE_REFERENCE = Pattern.compile(
+            "\\b(?:INTO|UPDATE|TABLE|VIEW|SEQUENCE|REFERENCES)\\s+(?:IF\\s+(?:NOT\\s+)?EXISTS\\s+)?([A-Z_][\\w$]*(?:\\.[A-Z_][\\w$]*)*)",
+            Pattern.CASE_INSENSITIVE);
+    // Same for row sources, except table functions such as SYSTEM_RANGE(1, 10)
+    private static final Pattern SOURCE_REFERENCE = Pattern.compile(
+            "\\b(?:FROM|JOIN|USING)\\s+([A-Z_][\\w$]*(?:\\.[A-Z_][\\w$]*)*)(?!\\s*\\()",
+            Pattern.CASE_INSENSITIVE);
+    private static final Pattern INDEX_TABLE = Pattern.compile("\\bINDEX\\b.*?\\bON\\s+([A-Z_][\\w$]*(?:\\.[A-Z_][\\w$]*)*)",
+            Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private static final Pattern NUMBER = Pattern.compile("\\b\\d+(?:\\.\\d+)?(?:E[+-]?\\d+)?\\b", Pattern.CASE_INSENSITIVE);
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Z_][\\w$]*(?:\\.[A-Z_][\\w$]*)*", Pattern.CASE_INSENSITIVE);
+
+    // Statements starting with anything else may have effects the lexical analysis cannot see
+    private static final Set<String> ANALYZABLE_COMMANDS = Set.of(
+            "SELECT", "WITH", "INSERT", "UPDATE", "DELETE", "MERGE", "CREATE", "ALTER", "DROP", "TRUNCATE", "COMMENT");
+
+    private SqlScriptAnalyzer() {
+    }
+
+    /**
+     * Splits a script at top-level semicolons, ignoring semicolons inside string literals,
+     * quoted identifiers and comments. Empty statements are dropped.
+     *
+     * @param script The SQL script.
+     * @return The statements, trimmed and without their terminating semicolon.
+     */
+    public static List<String> split(String script) {
+        List<String> statements = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        int i = 0;
+        int n = script.length();
+        while (i < n) {
+            char c = script.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                int end = skipQuoted(script, i, c);
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '-' && i + 1 < n && script.charAt(i + 1) == '-') {
+                int end = script.indexOf('\n', i);
+                end = end < 0 ? n : end;
+                current.append(script, i, end);
+                i = end;
+            } else if (c == '/' && i + 1 < n && script.charAt(i + 1) == '*') {
+                int end = script.indexOf("*/", i + 2);
+                end = end < 0 ? n : end + 2;
+                current.append(script, i, end);
+                i = end;
+            } else if (c == ';') {
+                addStatement(statements, current);
+                i++;
+            } else {
+                current.append(c);
+                i++;
+            }
+        }
+        addStatement(statements, current);
+        return statements;
+    }
+
+    /**
+     * Finds the tables a statement references.
+     *
+     * @param statement A single SQL statement.
+     * @return The upper-cased table names, or null if the statement cannot be analyzed.
+     */
+    public static Set<String> referencedTables(String statement) {
+        String code = stripLiteralsAndComments(statement);
+        if (!ANALYZABLE_COMMANDS.contains(command(statement))) {
+            return null;
+        }
+        Set<String> tables = new HashSet<>();
+        Matcher matcher = TABLE_REFERENCE.matcher(code);
+        while (matcher.find()) {
+            tables.add(tableKey(matcher.group(1)));
+        }
+        matcher = SOURCE_REFERENCE.matcher(code);
+        while (matcher.find()) {
+            tables.add(tableKey(matcher.group(1)));
+        }
+        matcher = INDEX_TABLE.matcher(code);
+        if (matcher.find()) {
+            tables.add(tableKey(matcher.group(1)));
+        }
+        return tables.isEmpty() ? null : tables;
+    }
+
+    /**
+     * @param statement A single SQL statement.
+     * @return The upper-cased leading keyword of the statement, e.g. SELECT, or an empty string.
+     */
+    public static String command(String statement) {
+        Matcher matcher = IDENTIFIER.matcher(stripLiteralsAndComments(statement));
+        return matcher.find() ? matcher.group().toUpperCase(Locale.ROOT) : "";
+    }
+
+    /**
+     * Normalizes a statement for use as a cache key: comments are dropped, string and numeric
+     * literals become ?, whitespace is collapsed and everything is upper-cased. Statements that
+     * only differ in their constants normalize to the same text.
+     *
+     * @param statement A single SQL statement.
+     * @return The normalized statement.
+     */
+    public static String normalize(String statement) {
+        String code = stripLiteralsAndComments(statement).replace("''", "?");
+        return NUMBER.matcher(code).replaceAll("?").replaceAll("\\s+", " ").trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Plans statements into at most maxLanes lanes. Statements touching a common table, directly or
+     * through other statements, share a lane. Whole groups are assigned to the least loaded lane,
+     * largest first, and every lane lists its statements in script order.
+     *
+     * @param statements The statements of the script.
+     * @param maxLanes The maximum number of lanes.
+     * @return The statement indexes of each lane.
+     */
+    public static List<List<Integer>> planLanes(List<String> statements, int maxLanes) {
+        return planLanes(statements, maxLanes, Map.of());
+    }
+
+    /**
+     * Plans statements like {@link #planLanes(List, int)}, but also puts statements on linked tables,
+     * such as the two ends of a foreign key, into one lane. Lanes commit separately, so a child row
+     * must not commit in one lane while the parent row it references is rolled back in another.
+     *
+     * @param statements The statements of the script.
+     * @param maxLanes The maximum number of lanes.
+     * @param linkedTables The tables linked to each table, as keys of {@link #tableKey}.
+     * @return The statement indexes of each lane.
+     */
+    public static List<List<Integer>> planLanes(List<String> statements, int maxLanes, Map<String, Set<String>> linkedTables) {
+        int n = statements.size();
+        List<Set<String>> direct = new ArrayList<>(n);
+        Set<String> knownTables = new HashSet<>();
+        for (String statement : statements) {
+            Set<String> tables = referencedTables(statement);
+            direct.add(tables);
+            if (tables != null) {
+                knownTables.addAll(tables);
+            }
+        }
+
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        Map<String, Integer> firstByTable = new HashMap<>();
+        int firstBarrier = -1;
+        for (int i = 0; i < n; i++) {
+            if (direct.get(i) == null) {
+                // A statement that cannot be analyzed depends on everything
+                if (firstBarrier < 0) {
+                    firstBarrier = i;
+                    for (int j = 0; j < n; j++) {
+                        union(parent, i, j);
+                    }
+                }
+                continue;
+            }
+            // Any identifier naming a table of the script counts, which also catches comma joins and subqueries
+            for (String table : mentionedTables(statements.get(i), knownTables)) {
+                Integer first = firstByTable.putIfAbsent(table, i);
+                if (first != null) {
+                    union(parent, first, i);
+                }
+            }
+        }
+
+        for (Map.Entry<String, Integer> entry : firstByTable.entrySet()) {
+            for (String linked : linkedTables.getOrDefault(entry.getKey(), Set.of())) {
+                Integer first = firstByTable.get(linked);
+                if (first != null) {
+                    union(parent, entry.getValue(), first);
+                }
+            }
+        }
+
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            groups.computeIfAbsent(find(parent, i), k -> new ArrayList<>()).add(i);
+        }
+        List<List<Integer>> sortedGroups = new ArrayList<>(groups.values());
+        sortedGroups.sort(Comparator.comparingInt((List<Integer> g) -> g.size()).reversed());
+
+        int laneCount = Math.max(1, Math.min(maxLanes, sortedGroups.size()));
+        List<List<Integer>> lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (List<Integer> group : sortedGroups) {
+            lanes.stream().min(Comparator.comparingInt(List::size)).orElseThrow().addAll(group);
+        }
+        lanes.forEach(Collections::sort);
+        return lanes;
+    }
+
+    private static Set<String> mentionedTables(String statement, Set<String> knownTables) {
+        Set<String> mentioned = new HashSet<>();
+        Matcher matcher = IDENTIFIER.matcher(stripLiteralsAndComments(statement));
+        while (matcher.find()) {
+            String identifier = tableKey(matcher.group());
+            if (knownTables.contains(identifier)) {
+                mentioned.add(identifier);
+            }
+        }
+        return mentioned;
+    }
+
+    /**
+     * @param name A table name, optionally schema-qualified.
+     * @return The key of the table in {@link #referencedTables} and lane planning.
+     */
+    public static String tableKey(String name) {
+        String upper = name.toUpperCase(Locale.ROOT);
+        // Schema-qualified and unqualified references to the same table must collide
+        int dot = upper.lastIndexOf('.');
+        return dot >= 0 ? upper.substring(dot + 1) : upper;
+    }
+
+    // Replaces string literals with '' and quoted identifiers with their unquoted name, and drops comments
+    private static String stripLiteralsAndComments(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                i = skipQuoted(sql, i, c);
+                out.append("''");
+            } else if (c == '"' || c == '`') {
+                int end = skipQuoted(sql, i, c);
+                out.append(sql, i + 1, Math.max(i + 1, end - 1));
+                i = end;
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? n : end;
+                out.append(' ');
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                out.append(' ');
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString();
+    }
+
+    // Returns the index just past the closing quote; a doubled quote is an escaped quote
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        while (i < sql.length()) {
+            if (sql.charAt(i) == quote) {
+                if (i + 1 < sql.length() && sql.charAt(i + 1) == quote) {
+                    i += 2;
+                    continue;
+                }
+                return i + 1;
+            }
+            i++;
+        }
+        return sql.length();
+    }
+
+    private static void addStatement(List<String> statements, StringBuilder current) {
+        String statement = current.toString().trim();
+        if (!statement.isEmpty() && !stripLiteralsAndComments(statement).isBlank()) {
+            statements.add(statement);
+        }
+        current.setLength(0);
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
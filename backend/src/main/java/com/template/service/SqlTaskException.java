@@ -0,0 +1,23 @@
+package com.template.service;
+
+import com.template.model.SqlTaskResult;
+
+import java.sql.SQLException;
+
+/**
+ * Failure of a SQL task script that carries the outcome of every statement, so the
+ * timings and errors of a failed run can still be written to the execution log.
+ */
+public class SqlTaskException extends SQLException {
+
+    private final transient SqlTaskResult result;
+
+    public SqlTaskException(String message, SqlTaskResult result, Throwable cause) {
+        super(message, cause);
+        this.result = result;
+    }
+
+    public SqlTaskResult getResult() {
+        return result;
+    }
+}
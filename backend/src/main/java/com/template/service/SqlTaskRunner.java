@@ -0,0 +1,559 @@
+package com.template.service;
+
+import com.template.model.SqlStatementResult;
+import com.template.model.SqlTaskResult;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the SQL of a task against the target database of SQL task nodes.
+ * The target database has its own connection pool (task.datasource.*), and scripts run on their own
+ * threads outside the engine's transactions (see {@link #dispatch}), so long release scripts cannot
+ * starve the pool the engine uses for its own tables. A script is split into statements
+ * and planned into lanes by {@link SqlScriptAnalyzer}: with a parallelism above 1, statements on
+ * disjoint tables that are not linked by foreign keys run in parallel lanes, each on its own connection
+ * and transaction, while dependent statements keep their script order within a lane. Statements get a query timeout, results are streamed with a bounded fetch size
+ * and only the first rows of each result set are kept as a sample. A running execution can be
+ * cancelled by its executor ID.
+ */
+@Component
+public class SqlTaskRunner {
+
+    /** Node type of SQL task nodes. */
+    public static final String NODE_TYPE = "sqlNode";
+
+    /**
+     * Lanes commit only if every statement succeeds, but each lane commits on its own. The script is
+     * atomic only when it runs in one lane, as it does with the default parallelism of 1. The default mode.
+     */
+    public static final String MODE_TRANSACTIONAL = "transactional";
+    /** Every statement commits on its own; failed statements are recorded and the script goes on. */
+    public static final String MODE_BEST_EFFORT = "best-effort";
+
+    private static final Logger log = LoggerFactory.getLogger(SqlTaskRunner.class);
+
+    // Sampled values are cut to this length so wide columns do not bloat the execution log
+    private static final int MAX_SAMPLE_VALUE_LENGTH = 256;
+    // Statement text is cut to this length in results, for the same reason
+    private static final int MAX_SQL_LENGTH = 1000;
+
+    private final HikariDataSource dataSource;
+    private final int maximumPoolSize;
+    private final int defaultParallelism;
+    private final int defaultQueryTimeoutSeconds;
+    private final int defaultFetchSize;
+    private final int defaultSampleRows;
+    private final ExecutorService laneExecutor;
+    // Runs scripts, one thread per pooled connection, since a script needs at least one of them
+    private final ExecutorService scriptExecutor;
+    // One permit per pooled connection. A script takes the permits of all its lanes at once, so the
+    // lanes of two transactional scripts can never hold connections while waiting for each other.
+    private final Semaphore lanePermits;
+
+    // Executions in progress by executor ID, for cancellation
+    private final Map<String, Execution> running = new ConcurrentHashMap<>();
+
+    private static final class Execution {
+        private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+        private volatile boolean cancelled;
+        // Set when a statement fails in transactional mode, to stop the other lanes
+        private volatile boolean aborted;
+
+        private boolean stopped() {
+            return cancelled || aborted;
+        }
+
+        private void cancelStatements(String executionId) {
+            for (Statement statement : statements) {
+                try {
+                    statement.cancel();
+                } catch (SQLException e) {
+                    log.warn("Failed to cancel statement of SQL task {}: {}", executionId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static final class Lane {
+        private final int index;
+        private final List<Integer> statementIndexes;
+        private Connection connection;
+        private Exception failure;
+
+        private Lane(int index, List<Integer> statementIndexes) {
+            this.index = index;
+            this.statementIndexes = statementIndexes;
+        }
+    }
+
+    public SqlTaskRunner(MeterRegistry meterRegistry,
+                         @Value("${task.datasource.url:jdbc:h2:mem:task_target;DB_CLOSE_DELAY=-1}") String url,
+                         @Value("${task.datasource.username:sa}") String username,
+                         @Value("${task.datasource.password:}") String password,
+                         @Value("${task.datasource.maximum-pool-size:4}") int maximumPoolSize,
+                         @Value("${task.sql.parallelism:1}") int defaultParallelism,
+                         @Value("${task.sql.query-timeout-seconds:300}") int defaultQueryTimeoutSeconds,
+                         @Value("${task.sql.fetch-size:500}") int defaultFetchSize,
+                         @Value("${task.sql.sample-rows:20}") int defaultSampleRows) {
+        // Not a DataSource bean, so Spring Boot keeps auto-configuring the engine's own DataSource.
+        // The pool starts lazily on the first task, so an unreachable target does not block startup.
+        this.dataSource = new HikariDataSource();
+        dataSource.setPoolName("task-sql");
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setAutoCommit(false);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        this.maximumPoolSize = maximumPoolSize;
+        this.defaultParallelism = defaultParallelism;
+        this.defaultQueryTimeoutSeconds = defaultQueryTimeoutSeconds;
+        this.defaultFetchSize = defaultFetchSize;
+        this.defaultSampleRows = defaultSampleRows;
+        this.lanePermits = new Semaphore(maximumPoolSize, true);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.laneExecutor = Executors.newFixedThreadPool(maximumPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "task-sql-lane-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger scriptThreadCount = new AtomicInteger();
+        this.scriptExecutor = Executors.newFixedThreadPool(maximumPoolSize, runnable -> {
+            Thread thread = new Thread(runnable, "task-sql-script-" + scriptThreadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Runs the execution of a SQL task node on the script pool, where it calls {@link #run} without
+     * holding a connection of the engine's pool.
+     *
+     * @param executionId The ID of the executor running the SQL, for logging.
+     * @param execution Runs the script and records its result.
+     */
+    public void dispatch(String executionId, Runnable execution) {
+        scriptExecutor.execute(() -> {
+            try {
+                execution.run();
+            } catch (RuntimeException e) {
+                log.error("SQL task {} failed: {}", executionId, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Runs a SQL script on the task pool. Independent statements run in parallel lanes, up to the
+     * node parameter parallelism (task.sql.parallelism by default, at most the pool size). Tables linked
+     * by foreign keys in the target database count as dependent, so their statements share a lane.
+     * The node parameter mode selects how the script commits:
+     * <ul>
+     *     <li>transactional (default): every lane runs in its own transaction; the first failure
+     *     cancels the other lanes and rolls all of them back. If everything succeeds, the lanes
+     *     commit one after another; a failing commit rolls back the lanes not committed yet, but not
+     *     those committed before it. Only a script running in one lane is atomic.</li>
+     *     <li>best-effort: every statement commits on its own, and a failed statement is recorded
+     *     while the rest of the script still runs.</li>
+     * </ul>
+     * Node parameters queryTimeoutSeconds, fetchSize and sampleRows override the configured defaults.
+     *
+     * @param executionId The ID of the executor running the SQL, used to cancel it.
+     * @param sql The SQL script to run.
+     * @param params The parameters of the SQL task node (may be null).
+     * @return The row counts, timings and sampled output of every statement.
+     * @throws SqlTaskException if any statement fails; it carries the outcome of every statement.
+     * @throws CancellationException if the execution was cancelled; uncommitted work is rolled back.
+     */
+    public SqlTaskResult run(String executionId, String sql, Map<String, String> params) throws SQLException {
+        if (sql == null || sql.isBlank()) {
+            throw new IllegalArgumentException("Task has no SQL to run");
+        }
+        int queryTimeout = intParam(params, "queryTimeoutSeconds", defaultQueryTimeoutSeconds);
+        int fetchSize = intParam(params, "fetchSize", defaultFetchSize);
+        int sampleRows = intParam(params, "sampleRows", defaultSampleRows);
+        int parallelism = Math.min(intParam(params, "parallelism", defaultParallelism), maximumPoolSize);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parameter parallelism must be at least 1");
+        }
+        boolean transactional = transactional(params);
+
+        List<String> statements = SqlScriptAnalyzer.split(sql);
+        if (statements.isEmpty()) {
+            throw new IllegalArgumentException("Task has no SQL to run");
+        }
+        Map<String, Set<String>> linkedTables = Map.of();
+        if (parallelism > 1 && statements.size() > 1) {
+            linkedTables = foreignKeyLinks(executionId, statements);
+            if (linkedTables == null) {
+                parallelism = 1;
+                linkedTables = Map.of();
+            }
+        }
+        List<Lane> lanes = new ArrayList<>();
+        for (List<Integer> statementIndexes : SqlScriptAnalyzer.planLanes(statements, parallelism, linkedTables)) {
+            lanes.add(new Lane(lanes.size(), statementIndexes));
+        }
+        SqlTaskResult result = new SqlTaskResult();
+        result.setMode(transactional ? MODE_TRANSACTIONAL : MODE_BEST_EFFORT);
+        result.setLanes(lanes.size());
+        for (int i = 0; i < statements.size(); i++) {
+            SqlStatementResult statement = new SqlStatementResult();
+            statement.setIndex(i);
+            String text = statements.get(i);
+            statement.setSql(text.length() > MAX_SQL_LENGTH ? text.substring(0, MAX_SQL_LENGTH) : text);
+            result.getStatements().add(statement);
+        }
+        for (Lane lane : lanes) {
+            lane.statementIndexes.forEach(i -> result.getStatements().get(i).setLane(lane.index));
+        }
+
+        Execution execution = new Execution();
+        if (running.putIfAbsent(executionId, execution) != null) {
+            throw new IllegalStateException("SQL task " + executionId + " is already running");
+        }
+        long start = System.nanoTime();
+        try {
+            try {
+                lanePermits.acquire(lanes.size());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("SQL task " + executionId + " was interrupted while waiting for connections");
+            }
+            try {
+                runLanes(executionId, execution, lanes, statements, result, transactional, queryTimeout, fetchSize, sampleRows);
+            } finally {
+                lanePermits.release(lanes.size());
+            }
+        } finally {
+            running.remove(executionId);
+        }
+
+        for (SqlStatementResult statement : result.getStatements()) {
+            result.setRowsAffected(result.getRowsAffected() + statement.getRowsAffected());
+            result.setRowsRead(result.getRowsRead() + statement.getRowsRead());
+        }
+        result.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        checkCancelled(execution, executionId);
+        Exception failure = lanes.stream().map(lane -> lane.failure).filter(f -> f != null).findFirst().orElse(null);
+        if (failure != null) {
+            long failed = result.getStatements().stream().filter(s -> s.getStatus() == SqlStatementResult.Status.FAILED).count();
+            String message = failed + " of " + statements.size() + " statements failed"
+                    + (result.isCommitted() ? "" : ", the script was rolled back") + ": " + failure.getMessage();
+            throw new SqlTaskException(message, result, failure);
+        }
+        return result;
+    }
+
+    /**
+     * @return The pool of the target database, for work on it other than running tasks, such as SQL analysis.
+     */
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    /**
+     * Requests cancellation of a running execution. The running statements of all lanes are
+     * cancelled through the driver, and the result streaming loops stop at the next row.
+     *
+     * @param executionId The ID of the executor running the SQL.
+     * @return true if the execution was running.
+     */
+    public boolean cancel(String executionId) {
+        Execution execution = running.get(executionId);
+        if (execution == null) {
+            return false;
+        }
+        execution.cancelled = true;
+        execution.cancelStatements(executionId);
+        log.info("Cancellation requested for SQL task {}", executionId);
+        return true;
+    }
+
+    // Tables linked by foreign keys to the tables of the script, in both directions, or null if they cannot be read
+    private Map<String, Set<String>> foreignKeyLinks(String executionId, List<String> statements) {
+        Set<String> tables = new HashSet<>();
+        for (String statement : statements) {
+            Set<String> referenced = SqlScriptAnalyzer.referencedTables(statement);
+            if (referenced != null) {
+                tables.addAll(referenced);
+            }
+        }
+        try {
+            lanePermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("SQL task " + executionId + " was interrupted while waiting for connections");
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Set<String>> links = new HashMap<>();
+            for (String table : tables) {
+                String name = metaData.storesLowerCaseIdentifiers() ? table.toLowerCase(Locale.ROOT) : table;
+                try (ResultSet imported = metaData.getImportedKeys(null, null, name)) {
+                    while (imported.next()) {
+                        link(links, table, SqlScriptAnalyzer.tableKey(imported.getString("PKTABLE_NAME")));
+                    }
+                }
+                try (ResultSet exported = metaData.getExportedKeys(null, null, name)) {
+                    while (exported.next()) {
+                        link(links, table, SqlScriptAnalyzer.tableKey(exported.getString("FKTABLE_NAME")));
+                    }
+                }
+            }
+            connection.rollback();
+            return links;
+        } catch (SQLException e) {
+            log.warn("Failed to read foreign keys for SQL task {}, running it in one lane: {}", executionId, e.getMessage());
+            return null;
+        } finally {
+            lanePermits.release();
+        }
+    }
+
+    private static void link(Map<String, Set<String>> links, String a, String b) {
+        links.computeIfAbsent(a, k -> new HashSet<>()).add(b);
+        links.computeIfAbsent(b, k -> new HashSet<>()).add(a);
+    }
+
+    // Runs the first lane on the calling thread and the others on the lane executor, then commits or rolls back
+    private void runLanes(String executionId, Execution execution, List<Lane> lanes, List<String> statements,
+                          SqlTaskResult result, boolean transactional, int queryTimeout, int fetchSize, int sampleRows) {
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Lane lane : lanes.subList(1, lanes.size())) {
+                futures.add(laneExecutor.submit(() ->
+                        runLane(executionId, execution, lane, statements, result, transactional, queryTimeout, fetchSize, sampleRows)));
+            }
+            runLane(executionId, execution, lanes.get(0), statements, result, transactional, queryTimeout, fetchSize, sampleRows);
+            awaitLanes(executionId, execution, futures);
+
+            boolean failed = lanes.stream().anyMatch(lane -> lane.failure != null);
+            if (!transactional) {
+                result.setCommitted(true);
+            } else if (!failed && !execution.cancelled) {
+                result.setCommitted(commitLanes(lanes));
+            } else {
+                lanes.forEach(lane -> rollback(lane, lane.failure));
+            }
+        } finally {
+            for (Lane lane : lanes) {
+                if (lane.connection != null) {
+                    try {
+                        lane.connection.close();
+                    } catch (SQLException e) {
+                        log.warn("Failed to close connection of SQL task {}: {}", executionId, e.getMessage());
+                    }
+                }
+            }
+        }
+    }
+
+    private void runLane(String executionId, Execution execution, Lane lane, List<String> statements,
+                         SqlTaskResult result, boolean transactional, int queryTimeout, int fetchSize, int sampleRows) {
+        for (int index : lane.statementIndexes) {
+            SqlStatementResult statement = result.getStatements().get(index);
+            if (execution.stopped()) {
+                // Statements left behind by a cancel or by a failure in another lane stay SKIPPED
+                return;
+            }
+            try {
+                if (lane.connection == null) {
+                    lane.connection = dataSource.getConnection();
+                }
+                execute(lane.connection, execution, statements.get(index), statement, queryTimeout, fetchSize, sampleRows);
+                if (!transactional) {
+                    lane.connection.commit();
+                }
+                statement.setStatus(SqlStatementResult.Status.SUCCEEDED);
+            } catch (SQLException | RuntimeException e) {
+                if (execution.stopped()) {
+                    // A cancelled statement fails with a driver-specific SQLException; it was not at fault
+                    statement.setError("Cancelled");
+                    return;
+                }
+                statement.setStatus(SqlStatementResult.Status.FAILED);
+                statement.setError(e.getMessage());
+                if (lane.failure == null) {
+                    lane.failure = e;
+                }
+                log.warn("Statement {} of SQL task {} failed: {}", index, executionId, e.getMessage());
+                if (transactional) {
+                    execution.aborted = true;
+                    execution.cancelStatements(executionId);
+                    return;
+                }
+                if (lane.connection == null) {
+                    return;
+                }
+                rollback(lane, e);
+            }
+        }
+    }
+
+    // Waits for every lane, so no connection is left in use; an interrupt cancels the execution instead
+    private static void awaitLanes(String executionId, Execution execution, List<Future<?>> futures) {
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    execution.cancelled = true;
+                    execution.cancelStatements(executionId);
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Lane of SQL task " + executionId + " failed", e.getCause());
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Commits lane after lane; without a distributed transaction a failing commit can only roll back the rest
+    private static boolean commitLanes(List<Lane> lanes) {
+        for (int i = 0; i < lanes.size(); i++) {
+            Lane lane = lanes.get(i);
+            if (lane.connection == null) {
+                continue;
+            }
+            try {
+                lane.connection.commit();
+            } catch (SQLException e) {
+                lane.failure = e;
+                lanes.subList(i, lanes.size()).forEach(rest -> rollback(rest, e));
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void execute(Connection connection, Execution execution, String sql, SqlStatementResult result,
+                                int queryTimeout, int fetchSize, int sampleRows) throws SQLException {
+        long start = System.nanoTime();
+        Statement statement = connection.createStatement();
+        try (statement) {
+            statement.setQueryTimeout(queryTimeout);
+            statement.setFetchSize(fetchSize);
+            execution.statements.add(statement);
+            // A cancel that ran before the statement was registered would otherwise be missed
+            if (execution.stopped()) {
+                throw new CancellationException("SQL task was cancelled");
+            }
+            boolean isResultSet = statement.execute(sql);
+            while (true) {
+                if (isResultSet) {
+                    try (ResultSet rs = statement.getResultSet()) {
+                        readResultSet(rs, result, execution, sampleRows);
+                    }
+                } else {
+                    int updateCount = statement.getUpdateCount();
+                    if (updateCount == -1) {
+                        break;
+                    }
+                    result.setRowsAffected(result.getRowsAffected() + updateCount);
+                }
+                isResultSet = statement.getMoreResults();
+            }
+        } finally {
+            execution.statements.remove(statement);
+            result.setDurationMillis((System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Streams a result set, counting every row but keeping only the first sampleRows of the first result set
+    private static void readResultSet(ResultSet rs, SqlStatementResult result, Execution execution, int sampleRows) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        boolean sampling = result.getColumns().isEmpty();
+        if (sampling) {
+            for (int i = 1; i <= columnCount; i++) {
+                result.getColumns().add(metaData.getColumnLabel(i));
+            }
+        }
+        while (rs.next()) {
+            if (execution.stopped()) {
+                throw new CancellationException("SQL task was cancelled");
+            }
+            if (sampling && result.getSampleRows().size() < sampleRows) {
+                List<String> row = new ArrayList<>(columnCount);
+                for (int i = 1; i <= columnCount; i++) {
+                    String value = rs.getString(i);
+                    row.add(value != null && value.length() > MAX_SAMPLE_VALUE_LENGTH ? value.substring(0, MAX_SAMPLE_VALUE_LENGTH) : value);
+                }
+                result.getSampleRows().add(row);
+            }
+            result.setRowsRead(result.getRowsRead() + 1);
+        }
+    }
+
+    // Rolls back without masking the original failure; the pool discards connections broken by a timeout or cancel
+    private static void rollback(Lane lane, Exception failure) {
+        if (lane.connection == null) {
+            return;
+        }
+        try {
+            lane.connection.rollback();
+        } catch (SQLException e) {
+            if (failure != null) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    private static void checkCancelled(Execution execution, String executionId) {
+        if (execution.cancelled) {
+            throw new CancellationException("SQL task " + executionId + " was cancelled");
+        }
+    }
+
+    private static boolean transactional(Map<String, String> params) {
+        String mode = params == null ? null : params.get("mode");
+        if (mode == null || mode.isBlank() || MODE_TRANSACTIONAL.equalsIgnoreCase(mode.trim())) {
+            return true;
+        }
+        if (MODE_BEST_EFFORT.equalsIgnoreCase(mode.trim())) {
+            return false;
+        }
+        throw new IllegalArgumentException("Parameter mode must be " + MODE_TRANSACTIONAL + " or " + MODE_BEST_EFFORT + ": " + mode);
+    }
+
+    private static int intParam(Map<String, String> params, String name, int defaultValue) {
+        String value = params == null ? null : params.get(name);
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer: " + value);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        scriptExecutor.shutdownNow();
+        laneExecutor.shutdownNow();
+        dataSource.close();
+    }
+}
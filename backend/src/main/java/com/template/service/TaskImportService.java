@@ -0,0 +1,304 @@
+package com.template.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.template.model.Task;
+import com.template.model.TaskImportJob;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Imports tasks in bulk from CSV or NDJSON.
+ * The input is read one row at a time while the request streams in. Valid rows are saved in
+ * batches of task.import.batch-size, each batch with one JDBC batch insert, and the workflows of
+ * a saved batch are initiated on a background pool with one batch insert of start executors and
+ * one bulk dispatch. Invalid rows are rejected individually and reported on the job.
+ */
+@Service
+public class TaskImportService {
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final Logger log = LoggerFactory.getLogger(TaskImportService.class);
+
+    private final TaskService taskService;
+    private final TaskWorkflowService taskWorkflowService;
+    private final WorkflowVersionService versionService;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxErrors;
+    private final ExecutorService initiationExecutor;
+    private final Cache<String, TaskImportJob> jobs;
+
+    // Reads the next task of the input: null at the end, IllegalArgumentException for an invalid row
+    private interface TaskReader {
+        Task next() throws IOException;
+    }
+
+    public TaskImportService(TaskService taskService, TaskWorkflowService taskWorkflowService,
+                             WorkflowVersionService versionService, ObjectMapper objectMapper,
+                             @Value("${task.import.batch-size:500}") int batchSize,
+                             @Value("${task.import.max-errors:100}") int maxErrors,
+                             @Value("${task.import.initiation-threads:2}") int initiationThreads,
+                             @Value("${task.import.job-retention:PT24H}") Duration jobRetention) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("task.import.batch-size must be at least 1");
+        }
+        this.taskService = taskService;
+        this.taskWorkflowService = taskWorkflowService;
+        this.versionService = versionService;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxErrors = maxErrors;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.initiationExecutor = Executors.newFixedThreadPool(initiationThreads, runnable -> {
+            Thread thread = new Thread(runnable, "task-import-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(jobRetention)
+                .maximumSize(10_000)
+                .build();
+    }
+
+    /**
+     * Imports tasks from a stream, returning once the whole input is read and saved.
+     * Workflow initiation may still be running; poll the job for its progress.
+     *
+     * @param input The CSV (with a header row) or NDJSON input, in UTF-8.
+     * @param format FORMAT_CSV or FORMAT_NDJSON.
+     * @return The import job.
+     */
+    public TaskImportJob importTasks(InputStream input, String format) {
+        TaskImportJob job = new TaskImportJob();
+        job.setId(UUID.randomUUID().toString());
+        job.setFormat(format);
+        job.setStartedAt(LocalDateTime.now());
+        jobs.put(job.getId(), job);
+        log.info("Task import {} started ({})", job.getId(), format);
+
+        Map<String, Boolean> workflowExists = new HashMap<>();
+        List<Task> batch = new ArrayList<>(batchSize);
+        try {
+            Reader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+            TaskReader tasks = FORMAT_CSV.equals(format) ? csvReader(reader) : ndjsonReader(reader);
+            long row = 0;
+            while (true) {
+                Task task;
+                try {
+                    task = tasks.next();
+                } catch (IllegalArgumentException e) {
+                    // A row that does not parse still counts as read
+                    job.getRowsRead().incrementAndGet();
+                    reject(job, ++row, e.getMessage());
+                    continue;
+                }
+                if (task == null) {
+                    break;
+                }
+                row++;
+                job.getRowsRead().incrementAndGet();
+                try {
+                    validate(task, workflowExists);
+                    taskService.analyzeSql(task);
+                } catch (IllegalArgumentException e) {
+                    reject(job, row, e.getMessage());
+                    continue;
+                }
+                batch.add(task);
+                if (batch.size() >= batchSize) {
+                    flush(job, batch);
+                }
+            }
+            flush(job, batch);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Task import {} failed after {} rows: {}", job.getId(), job.getRowsRead().get(), e.getMessage());
+            job.setFailure(e.getMessage());
+        } finally {
+            // INITIATING is set first: once ingestion is marked finished, the last batch may finish the job at any time
+            job.setStatus(TaskImportJob.Status.INITIATING);
+            job.setIngestionFinished(true);
+            if (job.getPendingBatches().get() == 0) {
+                finish(job);
+            }
+        }
+        return job;
+    }
+
+    /**
+     * @param jobId The ID of the import job.
+     * @return The job, or empty if it does not exist or has expired.
+     */
+    public Optional<TaskImportJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId));
+    }
+
+    /**
+     * Maps a request content type to an import format.
+     *
+     * @param contentType The Content-Type of the request.
+     * @return FORMAT_CSV or FORMAT_NDJSON.
+     * @throws IllegalArgumentException for any other content type.
+     */
+    public static String formatOf(String contentType) {
+        String type = contentType == null ? "" : contentType.toLowerCase(Locale.ROOT);
+        if (type.startsWith("text/csv")) {
+            return FORMAT_CSV;
+        }
+        if (type.startsWith("application/x-ndjson") || type.startsWith("application/ndjson")) {
+            return FORMAT_NDJSON;
+        }
+        throw new IllegalArgumentException("Unsupported import format " + contentType + ", expected text/csv or application/x-ndjson");
+    }
+
+    private TaskReader csvReader(Reader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return () -> null;
+        }
+        // Header names match the task properties, case- and separator-insensitively (sqlQuery, sql_query, ...)
+        List<String> columns = header.stream().map(name -> name.replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT)).toList();
+        return () -> {
+            List<String> record = csv.readRecord();
+            if (record == null) {
+                return null;
+            }
+            if (record.size() != columns.size()) {
+                throw new IllegalArgumentException("Expected " + columns.size() + " fields but found " + record.size());
+            }
+            Task task = new Task();
+            for (int i = 0; i < columns.size(); i++) {
+                String value = record.get(i);
+                switch (columns.get(i)) {
+                    case "releasenumber" -> task.setReleaseNumber(value);
+                    case "title" -> task.setTitle(value);
+                    case "description" -> task.setDescription(value);
+                    case "sqlquery" -> task.setSqlQuery(value);
+                    case "assignedworkflow" -> task.setAssignedWorkflow(value);
+                    case "status" -> task.setStatus(value);
+                    case "createdby" -> task.setCreatedBy(value);
+                    default -> {
+                        // Unknown columns are ignored
+                    }
+                }
+            }
+            return task;
+        };
+    }
+
+    private TaskReader ndjsonReader(Reader reader) {
+        BufferedReader lines = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+        return () -> {
+            String line;
+            do {
+                line = lines.readLine();
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return objectMapper.readValue(line, Task.class);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("Invalid JSON: " + e.getOriginalMessage());
+            }
+        };
+    }
+
+    private void validate(Task task, Map<String, Boolean> workflowExists) {
+        requireText(task.getReleaseNumber(), "releaseNumber");
+        requireText(task.getTitle(), "title");
+        requireText(task.getSqlQuery(), "sqlQuery");
+        requireText(task.getStatus(), "status");
+        requireText(task.getCreatedBy(), "createdBy");
+        String workflowId = task.getAssignedWorkflow();
+        if (workflowId != null && !workflowId.isBlank()
+                && !workflowExists.computeIfAbsent(workflowId, id -> versionService.getCurrent(id) != null)) {
+            throw new IllegalArgumentException("Workflow not found: " + workflowId);
+        }
+    }
+
+    private static void requireText(String value, String name) {
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing " + name);
+        }
+    }
+
+    private void reject(TaskImportJob job, long row, String message) {
+        job.getRowsRejected().incrementAndGet();
+        if (job.getErrors().size() < maxErrors) {
+            job.getErrors().add(new TaskImportJob.RowError(row, message));
+        }
+    }
+
+    // Saves a batch and hands its workflows to the initiation pool, so reading continues meanwhile
+    private void flush(TaskImportJob job, List<Task> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Task> saved = List.copyOf(batch);
+        batch.clear();
+        taskService.saveAll(saved);
+        job.getTasksCreated().addAndGet(saved.size());
+
+        // The service ID of a task's workflow instance is the task ID
+        List<WorkflowExecutionService.InstanceStart> instances = saved.stream()
+                .filter(task -> task.getAssignedWorkflow() != null && !task.getAssignedWorkflow().isBlank())
+                .map(task -> new WorkflowExecutionService.InstanceStart(task.getId(), task.getAssignedWorkflow(), task.getTitle()))
+                .toList();
+        if (instances.isEmpty()) {
+            return;
+        }
+        job.getPendingBatches().incrementAndGet();
+        initiationExecutor.execute(() -> initiate(job, instances));
+    }
+
+    private void initiate(TaskImportJob job, List<WorkflowExecutionService.InstanceStart> instances) {
+        try {
+            int started = taskWorkflowService.initiateWorkflows(instances);
+            job.getWorkflowsInitiated().addAndGet(started);
+            job.getInitiationFailures().addAndGet(instances.size() - started);
+        } catch (RuntimeException e) {
+            // The tasks stay saved, as with single task creation when initiation fails
+            log.error("Task import {} failed to initiate {} workflows: {}", job.getId(), instances.size(), e.getMessage(), e);
+            job.getInitiationFailures().addAndGet(instances.size());
+        } finally {
+            if (job.getPendingBatches().decrementAndGet() == 0 && job.isIngestionFinished()) {
+                finish(job);
+            }
+        }
+    }
+
+    // Called by whichever of the ingesting and the initiating threads finishes last, possibly both
+    private static synchronized void finish(TaskImportJob job) {
+        if (job.getFinishedAt() != null) {
+            return;
+        }
+        job.setFinishedAt(LocalDateTime.now());
+        job.setStatus(job.getFailure() != null ? TaskImportJob.Status.FAILED : TaskImportJob.Status.COMPLETED);
+        log.info("Task import {} {}: {} rows read, {} rejected, {} tasks created, {} workflows initiated, {} initiation failures",
+                job.getId(), job.getStatus(), job.getRowsRead().get(), job.getRowsRejected().get(), job.getTasksCreated().get(),
+                job.getWorkflowsInitiated().get(), job.getInitiationFailures().get());
+    }
+
+    @PreDestroy
+    public void close() {
+        initiationExecutor.shutdown();
+    }
+}
@@ -1,9 +1,17 @@
 package com.template.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.model.SqlPlanAnalysis;
 import com.template.model.Task;
+import com.template.model.WorkflowInitiationRequest;
 import com.template.dao.TaskRepository;
+import com.template.dao.WorkflowInitiationRequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -15,44 +23,143 @@ import java.util.Optional;
 @Service
 public class TaskService {
 
+    private static final Logger log = LoggerFactory.getLogger(TaskService.class);
+
     private final TaskRepository taskRepository;
+    private final WorkflowInitiationRequestRepository initiationRequestRepository;
     private final TaskWorkflowService taskWorkflowService;
+    private final SqlPlanAnalyzer sqlPlanAnalyzer;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public TaskService(TaskRepository taskRepository, TaskWorkflowService taskWorkflowService) {
+    public TaskService(TaskRepository taskRepository, WorkflowInitiationRequestRepository initiationRequestRepository,
+                       TaskWorkflowService taskWorkflowService, SqlPlanAnalyzer sqlPlanAnalyzer, ObjectMapper objectMapper) {
         this.taskRepository = taskRepository;
+        this.initiationRequestRepository = initiationRequestRepository;
         this.taskWorkflowService = taskWorkflowService;
+        this.sqlPlanAnalyzer = sqlPlanAnalyzer;
+        this.objectMapper = objectMapper;
     }
 
     /**
      * Creates and saves a new Task, then initiates the assigned workflow if one exists.
+     * The task's SQL is analyzed first, and the analysis is saved with the task.
      * @param task The Task object to save.
      * @return The saved Task.
+     * @throws IllegalArgumentException if the task's SQL is not valid.
      */
     public Task saveAndInitiateWorkflow(Task task) {
-        // 1. Set timestamps and save the task to the database
+        // 1. Analyze the SQL, set timestamps and save the task to the database
+        analyzeSql(task);
         LocalDateTime now = LocalDateTime.now();
         task.setCreatedAt(now);
         task.setUpdatedAt(now);
         taskRepository.save(task);
 
         // 2. Check if a workflow is assigned and initiate it
-        if (task.getAssignedWorkflow() != null && !task.getAssignedWorkflow().isEmpty()) {
+        if (hasAssignedWorkflow(task)) {
             try {
                 // The WorkflowExecutionService requires a long serviceId.
                 // We'll use the hash code of the task's string ID for this example.
                 String serviceId = task.getId();
                 taskWorkflowService.initiateWorkflow(serviceId, task.getAssignedWorkflow(), task.getTitle());
             } catch (Exception e) {
-                // Handle the exception, e.g., log the error and decide how to proceed.
-                // For this example, we'll log it and let the task be saved regardless.
-                // In a production environment, you might want to mark the task with a special status.
-                System.err.println("Failed to initiate workflow for task " + task.getId() + ": " + e.getMessage());
+                // The task is saved regardless; the failure is logged with the instance that could not be started
+                log.error("Failed to initiate workflow {} for task {}: {}", task.getAssignedWorkflow(), task.getId(), e.getMessage(), e);
             }
         }
         return task;
     }
 
+    /**
+     * Creates and saves a new Task and initiates the assigned workflow, if one exists, in one transaction.
+     * Unlike saveAndInitiateWorkflow, a workflow that cannot be initiated fails the request and the task is
+     * not saved, so a request with an Idempotency-Key stores no response for it and can be retried.
+     * @param task The Task object to save.
+     * @return The saved Task.
+     * @throws IllegalArgumentException if the task's SQL is not valid or the workflow does not exist.
+     */
+    @Transactional
+    public Task saveAndInitiateWorkflowAtomically(Task task) {
+        analyzeSql(task);
+        LocalDateTime now = LocalDateTime.now();
+        task.setCreatedAt(now);
+        task.setUpdatedAt(now);
+        taskRepository.save(task);
+
+        if (hasAssignedWorkflow(task)) {
+            taskWorkflowService.initiateWorkflow(task.getId(), task.getAssignedWorkflow(), task.getTitle());
+        }
+        return task;
+    }
+
+    /**
+     * Creates and saves a new Task and, if a workflow is assigned, a request to initiate it, in one transaction.
+     * The workflow is initiated later by the WorkflowInitiationService, so the caller does not wait for it.
+     * @param task The Task object to save.
+     * @return The saved Task.
+     * @throws IllegalArgumentException if the task's SQL is not valid.
+     */
+    @Transactional
+    public Task saveAndRequestInitiation(Task task) {
+        analyzeSql(task);
+        LocalDateTime now = LocalDateTime.now();
+        task.setCreatedAt(now);
+        task.setUpdatedAt(now);
+        taskRepository.save(task);
+
+        if (hasAssignedWorkflow(task)) {
+            initiationRequestRepository.save(new WorkflowInitiationRequest(task.getId(), task.getAssignedWorkflow(), task.getTitle(),
+                    WorkflowInitiationRequest.Status.PENDING, 0, null, now, now));
+        }
+        return task;
+    }
+
+    /**
+     * Initiates the workflows of claimed requests and marks them INITIATED in the same transaction,
+     * so a request is initiated exactly when its start executors are committed.
+     * @param requests The requests, whose workflows must have a current version.
+     */
+    @Transactional
+    public void initiateRequested(List<WorkflowInitiationRequest> requests) {
+        taskWorkflowService.initiateWorkflows(requests.stream()
+                .map(request -> new WorkflowExecutionService.InstanceStart(request.getTaskId(), request.getWorkflowId(), request.getName()))
+                .toList());
+        initiationRequestRepository.updateStatus(requests.stream().map(WorkflowInitiationRequest::getTaskId).toList(),
+                WorkflowInitiationRequest.Status.INITIATED, null);
+    }
+
+    /**
+     * Finds the initiation request of a task created with asynchronous initiation.
+     * @param taskId The ID of the task.
+     * @return The request, or empty if the task has none.
+     */
+    public Optional<WorkflowInitiationRequest> findInitiationRequest(String taskId) {
+        return initiationRequestRepository.findByTaskId(taskId);
+    }
+
+    /**
+     * @return Whether the task has a workflow to initiate.
+     */
+    public static boolean hasAssignedWorkflow(Task task) {
+        return task.getAssignedWorkflow() != null && !task.getAssignedWorkflow().isEmpty();
+    }
+
+    /**
+     * Saves tasks with one batch insert in a single transaction, without initiating their workflows.
+     * Bulk imports analyze the SQL of each task beforehand and initiate the workflows in batches afterwards.
+     * @param tasks The Task objects to save.
+     */
+    @Transactional
+    public void saveAll(List<Task> tasks) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Task task : tasks) {
+            task.setCreatedAt(now);
+            task.setUpdatedAt(now);
+        }
+        taskRepository.saveAll(tasks);
+    }
+
     // --- Existing CRUD methods remain the same ---
 
     public Optional<Task> findById(String id) {
@@ -63,9 +170,14 @@ public class TaskService {
         return taskRepository.findAll();
     }
 
+    /**
+     * Updates a Task. The SQL is re-analyzed; unchanged statements are answered from the plan cache.
+     * @throws IllegalArgumentException if the task's SQL is not valid.
+     */
     public Optional<Task> update(String id, Task updatedTask) {
         return taskRepository.findById(id)
                 .map(existingTask -> {
+                    analyzeSql(updatedTask);
                     updatedTask.setId(existingTask.getId());
                     updatedTask.setCreatedAt(existingTask.getCreatedAt());
                     updatedTask.setUpdatedAt(LocalDateTime.now());
@@ -78,4 +190,18 @@ public class TaskService {
         int deletedRows = taskRepository.deleteById(id);
         return deletedRows > 0;
     }
+
+    /**
+     * Analyzes the task's SQL and stores the result on the task.
+     * @throws IllegalArgumentException if the task's SQL is not valid.
+     */
+    void analyzeSql(Task task) {
+        SqlPlanAnalysis analysis = sqlPlanAnalyzer.analyze(task.getSqlQuery());
+        task.setSqlRisk(analysis.getRisk().name());
+        try {
+            task.setSqlAnalysis(objectMapper.writeValueAsString(analysis));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize SQL analysis", e);
+        }
+    }
 }
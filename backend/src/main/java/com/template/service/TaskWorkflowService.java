@@ -1,13 +1,102 @@
 package com.template.service;
 
+import com.template.dao.TaskRepository;
+import com.template.model.Node;
+import com.template.model.SqlTaskResult;
+import com.template.model.Task;
+import com.template.model.WorkflowExecutor;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
 
 @Service
 public class TaskWorkflowService extends WorkflowExecutionService {
+
+    @Autowired
+    private TaskRepository taskRepository;
+    @Autowired
+    private SqlTaskRunner sqlTaskRunner;
+    @Autowired
+    private WorkflowExecutionLogService executionLogService;
+
     @Override
     public boolean executeService(String serviceId, Map<String, String> params) {
         return true;
     }
+
+    /**
+     * Runs the task's SQL for SQL task nodes and writes the per-statement row counts, timings and
+     * sampled output to the instance's execution log, also when the script fails. The totals are
+     * the node's outputs: rowsAffected, rowsRead, durationMillis, statements and committed.
+     * Other nodes go through executeService.
+     */
+    @Override
+    protected boolean executeNode(Node node, WorkflowExecutor executor, Map<String, String> parameters, Map<String, Object> outputs) throws Exception {
+        if (!SqlTaskRunner.NODE_TYPE.equals(node.getType())) {
+            return super.executeNode(node, executor, parameters, outputs);
+        }
+        // The service ID of a task's workflow instance is the task ID; sub-workflow instances run for the task of their root instance
+        String taskId = rootServiceId(executor.getServiceId());
+        Task task = taskRepository.findById(taskId)
+                .orElseThrow(() -> new IllegalStateException("Task not found: " + taskId));
+        SqlTaskResult result;
+        try {
+            result = sqlTaskRunner.run(executor.getId(), task.getSqlQuery(), parameters);
+        } catch (SqlTaskException e) {
+            executionLogService.logSqlTaskResult(executor, e.getResult());
+            throw e;
+        }
+        executionLogService.logSqlTaskResult(executor, result);
+        outputs.put("rowsAffected", result.getRowsAffected());
+        outputs.put("rowsRead", result.getRowsRead());
+        outputs.put("durationMillis", result.getDurationMillis());
+        outputs.put("statements", result.getStatements().size());
+        outputs.put("committed", result.isCommitted());
+        return true;
+    }
+
+    /**
+     * SQL task nodes run detached, so a script never holds a connection of the engine's pool,
+     * and run on the script pool of the SqlTaskRunner.
+     */
+    @Override
+    protected boolean isDetached(Node node) {
+        return SqlTaskRunner.NODE_TYPE.equals(node.getType());
+    }
+
+    @Override
+    protected void dispatchDetached(String executorId, Runnable execution) {
+        sqlTaskRunner.dispatch(executorId, execution);
+    }
+
+    /**
+     * Instances of task workflows, and their sub-workflow instances, start with the fields of their
+     * task in the 'task' namespace, e.g. ${task.releaseNumber}.
+     */
+    @Override
+    protected Map<String, Map<String, Object>> initialVariables(String serviceId) {
+        Map<String, Map<String, Object>> variables = new HashMap<>();
+        // The service ID of a task's workflow instance is the task ID; sub-workflow instances see the task of their root instance
+        taskRepository.findById(rootServiceId(serviceId)).ifPresent(task -> {
+            Map<String, Object> fields = new HashMap<>();
+            fields.put("id", task.getId());
+            fields.put("title", task.getTitle());
+            fields.put("description", task.getDescription());
+            fields.put("releaseNumber", task.getReleaseNumber());
+            fields.put("status", task.getStatus());
+            fields.put("createdBy", task.getCreatedBy());
+            fields.put("assignedWorkflow", task.getAssignedWorkflow());
+            fields.values().removeIf(Objects::isNull);
+            variables.put("task", fields);
+        });
+        return variables;
+    }
+
+    @Override
+    public boolean cancelExecution(String executorId) {
+        return sqlTaskRunner.cancel(executorId);
+    }
 }
@@ -1,12 +1,20 @@
 package com.template.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.template.dao.ExecutionLogRepository;
 import com.template.model.ExecutionLog;
+import com.template.model.SqlStatementResult;
+import com.template.model.SqlTaskResult;
 import com.template.model.WorkflowExecutor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class WorkflowExecutionLogService {
@@ -14,6 +22,9 @@ public class WorkflowExecutionLogService {
     @Autowired
     private ExecutionLogRepository logRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Helper method to create and persist an ExecutionLog entry.
      * This centralizes the logging logic to avoid code duplication.
@@ -29,6 +40,10 @@ public class WorkflowExecutionLogService {
      * @param performedBy The user or system component that performed the action.
      */
     private void log(ExecutionLog.Level level, String message, String details, String workflowId, String serviceId, String executorId, String stepId, String stepName, String performedBy) {
+        logRepository.create(entry(level, message, details, serviceId, executorId, stepId, stepName, performedBy));
+    }
+
+    private static ExecutionLog entry(ExecutionLog.Level level, String message, String details, String serviceId, String executorId, String stepId, String stepName, String performedBy) {
         ExecutionLog log = new ExecutionLog();
         log.setTimestamp(new Timestamp(System.currentTimeMillis()));
         log.setServiceId(serviceId);
@@ -39,8 +54,7 @@ public class WorkflowExecutionLogService {
         log.setMessage(message);
         log.setDetails(details);
         log.setPerformedBy(performedBy);
-
-        logRepository.create(log);
+        return log;
     }
 
     // --- Specific Logging Methods ---
@@ -50,6 +64,24 @@ public class WorkflowExecutionLogService {
         log(ExecutionLog.Level.INFO, "Workflow initiated", "Starting new workflow instance.", workflowId, serviceId, null, "system", "Workflow", "system");
     }
 
+    /**
+     * Writes the initiation and start-node entries of many new instances in one batch.
+     *
+     * @param startExecutors The start executors of the instances, grouped by instance.
+     */
+    public void logWorkflowsInitiated(List<WorkflowExecutor> startExecutors) {
+        Map<String, Integer> startNodesByService = new LinkedHashMap<>();
+        for (WorkflowExecutor executor : startExecutors) {
+            startNodesByService.merge(executor.getServiceId(), 1, Integer::sum);
+        }
+        List<ExecutionLog> logs = new ArrayList<>(startNodesByService.size() * 2);
+        startNodesByService.forEach((serviceId, count) -> {
+            logs.add(entry(ExecutionLog.Level.INFO, "Workflow initiated", "Starting new workflow instance.", serviceId, null, "system", "Workflow", "system"));
+            logs.add(entry(ExecutionLog.Level.INFO, "Start nodes saved", "Initiated workflow with " + count + " start nodes. Executors saved to DB.", serviceId, null, "system", "Workflow", "system"));
+        });
+        logRepository.createAll(logs);
+    }
+
     public void logStartNodesSaved(String workflowId, String serviceId, int count) {
         log(ExecutionLog.Level.INFO, "Start nodes saved", "Initiated workflow with " + count + " start nodes. Executors saved to DB.", workflowId, serviceId, null, "system", "Workflow", "system");
     }
@@ -74,6 +106,20 @@ public class WorkflowExecutionLogService {
         log(level, message, details, executor.getWorkflowId(), executor.getServiceId(), executor.getId(), executor.getChildrenId(), executor.getName(), "system");
     }
 
+    public void logSqlTaskResult(WorkflowExecutor executor, SqlTaskResult result) {
+        String details;
+        try {
+            details = objectMapper.writeValueAsString(result);
+        } catch (JsonProcessingException e) {
+            details = result.getRowsAffected() + " rows affected, " + result.getRowsRead() + " rows read.";
+        }
+        long failed = result.getStatements().stream().filter(s -> s.getStatus() == SqlStatementResult.Status.FAILED).count();
+        String message = failed == 0
+                ? "SQL task executed " + result.getStatements().size() + " statements in " + result.getLanes() + " lanes in " + result.getDurationMillis() + " ms"
+                : "SQL task failed " + failed + " of " + result.getStatements().size() + " statements in " + result.getDurationMillis() + " ms";
+        log(failed == 0 ? ExecutionLog.Level.INFO : ExecutionLog.Level.ERROR, message, details, executor.getWorkflowId(), executor.getServiceId(), executor.getId(), executor.getChildrenId(), executor.getName(), "system");
+    }
+
     public void logOutgoingEdgesTriggered(WorkflowExecutor parentExecutor, String sourceNodeId, int count) {
         log(ExecutionLog.Level.INFO, "Outgoing edges triggered", "Created " + count + " edge executors for outgoing edges from node " + sourceNodeId, parentExecutor.getWorkflowId(), parentExecutor.getServiceId(), parentExecutor.getId(), sourceNodeId, "Workflow", "system");
     }
@@ -1,6 +1,9 @@
 package com.template.service;
 
+import com.template.metrics.WorkflowEngineMetrics;
 import com.template.model.*;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
@@ -10,7 +13,11 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.ClassUtils;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -37,6 +44,16 @@ public abstract class WorkflowExecutionService {
     private ApplicationContext applicationContext;
     @Autowired
     private WorkflowExecutionLogService executionLogService; // Injected logging service
+    @Autowired
+    private WorkflowEngineMetrics metrics;
+    @Autowired
+    private ObservationRegistry observationRegistry;
+    @Autowired
+    private WorkflowVersionService versionService;
+    @Autowired
+    private InstanceContextService instanceContextService;
+    @Autowired
+    private MapItemDispatcher mapItemDispatcher;
 
     // Prevent multiple completion events from firing for same workflow
     private final Set<String> completedWorkflows = ConcurrentHashMap.newKeySet();
@@ -46,6 +63,9 @@ public abstract class WorkflowExecutionService {
     private static final String MDC_SERVICE_ID = "serviceId";
     private static final String MDC_WORKFLOW_ID = "workflowId";
 
+    // Actor recorded for transitions the engine makes on its own
+    private static final String SYSTEM_ACTOR = "system";
+
     /**
      * Initiates a workflow instance from start nodes.
      * Publishes async triggers only after the transaction commits.
@@ -59,21 +79,21 @@ public abstract class WorkflowExecutionService {
         setupMdc(workflowId, serviceId);
         executionLogService.logWorkflowInitiation(workflowId, serviceId); // Log workflow start
 
-        try {
-            Workflow workflow = workflowService.getWorkflowById(workflowId);
+        // Root span of the instance; the executor spans of the start nodes hang off it
+        Observation observation = Observation.createNotStarted("workflow.instance", observationRegistry)
+                .lowCardinalityKeyValue("workflow.id", workflowId)
+                .highCardinalityKeyValue("service.id", String.valueOf(serviceId))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            // The instance is pinned to the current version and keeps executing it even if the workflow is edited
+            CompiledWorkflow workflow = versionService.getCurrent(workflowId);
             if (workflow == null) {
                 log.error("Workflow not found: {}", workflowId);
                 throw new IllegalArgumentException("Workflow not found: " + workflowId);
             }
 
-            // Identify start nodes (nodes with no incoming edges)
-            Set<String> targetNodeIds = workflow.getEdges().stream()
-                    .map(Edge::getTarget)
-                    .collect(Collectors.toSet());
-
-            List<Node> startNodes = workflow.getNodes().stream()
-                    .filter(node -> !targetNodeIds.contains(node.getId()))
-                    .collect(Collectors.toList());
+            // Start nodes are the nodes with no incoming edges
+            List<Node> startNodes = workflow.getStartNodes();
 
             if (startNodes.isEmpty()) {
                 log.warn("No start nodes found for workflow {}; workflow may be misconfigured.", workflowId);
@@ -82,7 +102,7 @@ public abstract class WorkflowExecutionService {
 
             List<WorkflowExecutor> executorsToSave = new ArrayList<>();
             for (Node node : startNodes) {
-                WorkflowExecutor executor = createNodeExecutor(workflowId, serviceId, node.getId(), name);
+                WorkflowExecutor executor = createNodeExecutor(workflowId, serviceId, node.getId(), name, workflow.getHash());
                 executorsToSave.add(executor);
             }
 
@@ -95,13 +115,96 @@ public abstract class WorkflowExecutionService {
                 eventBusPublish(new ExecutorStartEvent(executor.getId(),
                         workflowId,
                         serviceId,
-                        captureMdcContext()));
+                        captureMdcContext(),
+                        observationRegistry.getCurrentObservation()));
             }
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
         } finally {
+            observation.stop();
             MDC.clear();
         }
     }
 
+    /**
+     * Initiates many workflow instances in one transaction, as bulk task imports do.
+     * The start executors of all instances are saved with one batch insert, the initiation log
+     * entries with another, and all start events are published as one batch that is dispatched
+     * after the transaction commits. Instances whose workflow does not exist or has no start
+     * nodes are skipped.
+     *
+     * @param instances The instances to start.
+     * @return The number of instances started.
+     */
+    @Transactional
+    public int initiateWorkflows(List<InstanceStart> instances) {
+        Map<String, CompiledWorkflow> workflows = new HashMap<>();
+        List<WorkflowExecutor> executorsToSave = new ArrayList<>();
+        List<ExecutorStartEvent> events = new ArrayList<>();
+        int started = 0;
+        try {
+            for (InstanceStart instance : instances) {
+                CompiledWorkflow workflow = workflows.computeIfAbsent(instance.workflowId(), versionService::getCurrent);
+                if (workflow == null || workflow.getStartNodes().isEmpty()) {
+                    log.warn("Skipping instance {}: workflow {} not found or without start nodes", instance.serviceId(), instance.workflowId());
+                    continue;
+                }
+                setupMdc(instance.workflowId(), instance.serviceId());
+                Observation observation = Observation.createNotStarted("workflow.instance", observationRegistry)
+                        .lowCardinalityKeyValue("workflow.id", instance.workflowId())
+                        .highCardinalityKeyValue("service.id", String.valueOf(instance.serviceId()))
+                        .start();
+                try {
+                    for (Node node : workflow.getStartNodes()) {
+                        WorkflowExecutor executor = createNodeExecutor(instance.workflowId(), instance.serviceId(), node.getId(), instance.name(), workflow.getHash());
+                        executorsToSave.add(executor);
+                        events.add(new ExecutorStartEvent(executor.getId(), instance.workflowId(), instance.serviceId(), captureMdcContext(), observation));
+                    }
+                } finally {
+                    observation.stop();
+                }
+                started++;
+            }
+        } finally {
+            MDC.clear();
+        }
+
+        workflowService.insertWorkflowExecutors(executorsToSave);
+        executionLogService.logWorkflowsInitiated(executorsToSave);
+        log.info("Initiated {} of {} workflow instances with {} start executors", started, instances.size(), executorsToSave.size());
+        metrics.dispatchEnqueued(events.size());
+        applicationContext.publishEvent(new ExecutorStartBatchEvent(events));
+        return started;
+    }
+
+    /**
+     * Dispatches the start events of a bulk initiation AFTER the transaction commits.
+     * A failing executor does not keep the others of the batch from starting.
+     *
+     * @param batch The start events of all initiated instances.
+     */
+    @TransactionalEventListener
+    public void onExecutorStartBatchEvent(ExecutorStartBatchEvent batch) {
+        for (ExecutorStartEvent evt : batch.events) {
+            try {
+                onExecutorStartEvent(evt);
+            } catch (RuntimeException e) {
+                log.error("Failed to start executor {} of a bulk initiation: {}", evt.executorId, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Start events of a rolled-back bulk initiation are never dispatched.
+     *
+     * @param batch The discarded events.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onExecutorStartBatchEventRolledBack(ExecutorStartBatchEvent batch) {
+        metrics.dispatchDequeued(batch.events.size());
+    }
+
     /**
      * Starts a workflow executor asynchronously AFTER the transaction commits.
      * This fixes the issue where an async call might see an incomplete DB state.
@@ -111,25 +214,74 @@ public abstract class WorkflowExecutionService {
     @TransactionalEventListener
     public void onExecutorStartEvent(ExecutorStartEvent evt) {
         MDC.clear(); // Ensure MDC is cleared to prevent leakage from the publishing thread
-        getSelfProxy().startWorkflowFromExecutorAsync(evt.executorId, evt.mdcContext);
+        getSelfProxy().startWorkflowFromExecutorAsync(evt.executorId, evt.mdcContext, evt.parentObservation);
+    }
+
+    /**
+     * Start events of a rolled-back transaction are never dispatched,
+     * so they are taken off the dispatch queue gauge here.
+     *
+     * @param evt The discarded event.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onExecutorStartEventRolledBack(ExecutorStartEvent evt) {
+        metrics.dispatchDequeued();
+    }
+
+    /**
+     * Runs a map item on the map item pool AFTER the transaction that started it commits,
+     * so the items of a map node run in parallel, in their own transactions.
+     *
+     * @param evt The event containing the item executor's ID and MDC context.
+     */
+    @TransactionalEventListener
+    public void onMapItemStartEvent(MapItemStartEvent evt) {
+        ExecutorStartEvent start = evt.start;
+        mapItemDispatcher.dispatch(start.executorId,
+                () -> getSelfProxy().startWorkflowFromExecutorAsync(start.executorId, start.mdcContext, start.parentObservation));
+    }
+
+    /**
+     * Item starts of a rolled-back transaction are never dispatched.
+     *
+     * @param evt The discarded event.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_ROLLBACK)
+    public void onMapItemStartEventRolledBack(MapItemStartEvent evt) {
+        metrics.dispatchDequeued();
     }
 
     /**
      * An asynchronous method that executes a given executor by ID.
-     * MDC is propagated explicitly for logging correlation across threads.
+     * MDC and the parent span are propagated explicitly for correlation across threads.
      *
      * @param executorId The ID of the executor to run.
      * @param mdcContext The MDC context from the calling thread.
+     * @param parentObservation The observation that scheduled this executor, or null.
      */
     @Async
     @Transactional(propagation = Propagation.REQUIRES_NEW)
-    public void startWorkflowFromExecutorAsync(String executorId, Map<String, String> mdcContext) {
+    public void startWorkflowFromExecutorAsync(String executorId, Map<String, String> mdcContext, Observation parentObservation) {
+        metrics.dispatchDequeued();
         restoreMdcContext(mdcContext);
         log.info("Starting async execution for executorId: {}", executorId);
         executionLogService.logAsyncExecutorStart(executorId, mdcContext.get(MDC_WORKFLOW_ID), mdcContext.get(MDC_SERVICE_ID)); // Log async execution start
-        try {
+        // The dispatching span must be current, otherwise the tracer parents the executor span to
+        // whatever span the committing thread happens to have open (e.g. the HTTP request)
+        Observation.Scope parentScope = parentObservation != null ? parentObservation.openScope() : Observation.Scope.NOOP;
+        Observation observation = Observation.createNotStarted("workflow.executor", observationRegistry)
+                .parentObservation(parentObservation)
+                .highCardinalityKeyValue("executor.id", executorId)
+                .highCardinalityKeyValue("service.id", String.valueOf(mdcContext.get(MDC_SERVICE_ID)))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
             startWorkflowFromExecutor(executorId);
+        } catch (RuntimeException e) {
+            observation.error(e);
+            throw e;
         } finally {
+            observation.stop();
+            parentScope.close();
             MDC.clear(); // Clear MDC after async execution
         }
     }
@@ -148,9 +300,14 @@ public abstract class WorkflowExecutionService {
         }
 
         setupMdc(executor.getWorkflowId(), executor.getServiceId());
+        Observation observation = observationRegistry.getCurrentObservation();
+        if (observation != null) {
+            observation.lowCardinalityKeyValue("executor.type", String.valueOf(executor.getType()))
+                    .highCardinalityKeyValue("children.id", executor.getChildrenId());
+        }
         executionLogService.logSyncExecutorStart(executorId, executor.getWorkflowId(), executor.getServiceId()); // Log sync execution start
 
-        Workflow workflow = workflowService.getWorkflowById(executor.getWorkflowId());
+        CompiledWorkflow workflow = versionService.getPinned(executor);
         if (workflow == null) {
             persistError(executor, "WORKFLOW_DEFINITION_NOT_FOUND", "Workflow definition missing", null, true);
             log.error("Workflow definition not found for executor {}", executorId);
@@ -162,6 +319,7 @@ public abstract class WorkflowExecutionService {
             return;
         }
 
+        metrics.executorStarted();
         try {
             if (ExecutorType.NODE.equals(executor.getType())) {
                 log.debug("Handling node execution for executor {}", executorId);
@@ -169,6 +327,12 @@ public abstract class WorkflowExecutionService {
             } else if (ExecutorType.EDGE.equals(executor.getType())) {
                 log.debug("Handling edge execution for executor {}", executorId);
                 handleEdgeExecution(executor, workflow);
+            } else if (ExecutorType.MAP_ITEM.equals(executor.getType())) {
+                log.debug("Handling map item execution for executor {}", executorId);
+                // Items are counted on their map execution, and the item that finishes the map node
+                // checks the instance's completion, so items do not scan the instance's executors
+                handleMapItemExecution(executor, workflow);
+                return;
             } else {
                 persistError(executor, "INVALID_EXECUTOR_TYPE", "Unknown executor type: " + executor.getType(), null, true);
                 log.error("Invalid executor type {} for executor {}", executor.getType(), executorId);
@@ -183,62 +347,144 @@ public abstract class WorkflowExecutionService {
             log.error("Unhandled exception during workflow execution for executor {}: {}", executorId, e.getMessage(), e);
             persistError(executor, "UNHANDLED_ERROR", "Internal execution error: " + e.getMessage(), e, true);
         } finally {
+            metrics.executorFinished();
             MDC.clear(); // Clear MDC after synchronous execution
         }
     }
 
     /**
-     * Approves a waiting executor and resumes the workflow.
+     * Approves a waiting executor and resumes the workflow. On an edge with required approvals per
+     * role, the approval is a vote, and the edge completes with the vote that reaches the quorum.
      *
      * @param executorId The ID of the executor to approve.
      * @param approvedBy The user who approved the executor.
+     * @param role The role the user approves for, or null for the role assigned to the edge.
      * @param comments Any comments from the approver.
+     * @return The outcome of the approval.
+     * @throws IllegalArgumentException if the edge requires approvals of several roles and the role is missing or not one of them.
      */
     @Transactional
-    public void approve(String executorId, String approvedBy, String comments) {
-        updateApprovalStatus(executorId, ExecutionStatus.COMPLETED, approvedBy, comments, true);
+    public ApprovalOutcome approve(String executorId, String approvedBy, String role, String comments) {
+        return updateApprovalStatus(executorId, ExecutionStatus.COMPLETED, approvedBy, role, comments, true);
     }
 
     /**
      * Rejects a waiting executor, which terminates that path of the workflow.
+     * On an edge with required approvals per role, a single rejection rejects the edge.
      *
      * @param executorId The ID of the executor to reject.
      * @param rejectedBy The user who rejected the executor.
+     * @param role The role the user rejects for, or null for the role assigned to the edge.
      * @param comments Any comments from the approver.
+     * @return The outcome of the rejection.
+     * @throws IllegalArgumentException if the edge requires approvals of several roles and the role is missing or not one of them.
      */
     @Transactional
-    public void reject(String executorId, String rejectedBy, String comments) {
-        updateApprovalStatus(executorId, ExecutionStatus.REJECTED, rejectedBy, comments, false);
+    public ApprovalOutcome reject(String executorId, String rejectedBy, String role, String comments) {
+        return updateApprovalStatus(executorId, ExecutionStatus.REJECTED, rejectedBy, role, comments, false);
+    }
+
+    /**
+     * Approves a batch of waiting executors in a single transaction.
+     * Resumed nodes are dispatched after the transaction commits, like single approvals.
+     *
+     * @param executorIds The IDs of the executors to approve.
+     * @param approvedBy The user who approved the executors.
+     * @param comments Any comments from the approver.
+     * @return The number of executors that were actually approved.
+     */
+    @Transactional
+    public int approveAll(List<String> executorIds, String approvedBy, String comments) {
+        return approveAll(executorIds, approvedBy, null, comments);
+    }
+
+    /**
+     * Approves a batch of waiting executors in a single transaction.
+     * Approvals of edges that still wait for other approvers afterwards are recorded as votes but not counted.
+     * Edges that need approvals of several roles are skipped when no role is given, as the role a vote counts for is unknown.
+     *
+     * @param executorIds The IDs of the executors to approve.
+     * @param approvedBy The user who approved the executors.
+     * @param role The role the user approves for, or null for the role assigned to each edge.
+     * @param comments Any comments from the approver.
+     * @return The number of executors that were actually approved.
+     */
+    @Transactional
+    public int approveAll(List<String> executorIds, String approvedBy, String role, String comments) {
+        int approved = 0;
+        for (String executorId : executorIds) {
+            try {
+                if (updateApprovalStatus(executorId, ExecutionStatus.COMPLETED, approvedBy, role, comments, true) == ApprovalOutcome.APPROVED) {
+                    approved++;
+                }
+            } catch (IllegalArgumentException e) {
+                // Thrown by ApprovalQuorum.voteRole before the vote is recorded, so the rest of the batch is unaffected
+                log.warn("Bulk approval by {} skipped executor {}: {}", approvedBy, executorId, e.getMessage());
+            }
+        }
+        log.info("Bulk approval by {}: {} of {} executors approved", approvedBy, approved, executorIds.size());
+        return approved;
     }
 
     /**
      * Updates the approval status of an edge executor.
+     * The executor row is locked first, so concurrent decisions on one executor run one after the
+     * other: each records its vote and counts the committed votes, and only the decision that
+     * reaches the quorum, or rejects, finds the executor still waiting and completes it.
      *
      * @param executorId The ID of the executor to update.
      * @param newStatus The new status to set (COMPLETED or REJECTED).
      * @param user The user performing the action.
+     * @param role The role the user acts for, or null for the role assigned to the edge.
      * @param comments The comments from the user.
      * @param resumeWorkflow If true, the workflow proceeds to the next node.
+     * @return The outcome of the decision.
      */
-    private void updateApprovalStatus(String executorId, ExecutionStatus newStatus, String user, String comments, boolean resumeWorkflow) {
+    private ApprovalOutcome updateApprovalStatus(String executorId, ExecutionStatus newStatus, String user, String role, String comments,
+                                                 boolean resumeWorkflow) {
+        boolean waiting = workflowService.lockWaitingForApproval(executorId);
         WorkflowExecutor executor = workflowService.getWorkflowExecutor(executorId);
         if (executor == null) {
             log.warn("Executor not found: {}", executorId);
-            return;
+            return ApprovalOutcome.NOT_WAITING;
         }
 
         setupMdc(executor.getWorkflowId(), executor.getServiceId());
         try {
             if (!ExecutorType.EDGE.equals(executor.getType())) {
                 log.warn("Cannot {} non-edge executor {}. Type: {}", newStatus.name().toLowerCase(), executorId, executor.getType());
-                return;
+                return ApprovalOutcome.NOT_WAITING;
             }
-            if (!ExecutionStatus.WAITING_FOR_APPROVAL.equals(executor.getStatus())) {
+            if (!waiting) {
                 log.warn("Executor {} not in WAITING_FOR_APPROVAL state. Current status: {}", executorId, executor.getStatus());
-                return;
+                return ApprovalOutcome.NOT_WAITING;
             }
 
-            executor.setStatus(newStatus);
+            CompiledWorkflow workflow = versionService.getPinned(executor);
+            Edge edge = workflow == null ? null : workflow.getEdge(executor.getChildrenId());
+            Map<String, Integer> requiredApprovals = edge == null || edge.getData() == null ? null : edge.getData().getRequiredApprovals();
+            boolean quorum = requiredApprovals != null && !requiredApprovals.isEmpty();
+            ApprovalVote.Decision decision = newStatus == ExecutionStatus.COMPLETED ? ApprovalVote.Decision.APPROVE : ApprovalVote.Decision.REJECT;
+            String voteRole = quorum ? ApprovalQuorum.voteRole(requiredApprovals, role, executorId) : (role != null ? role : executor.getAssignedApprover());
+            if (!workflowService.recordApprovalVote(new ApprovalVote(executorId, user, voteRole, decision, comments, LocalDateTime.now()))) {
+                log.warn("{} already voted on executor {}", user, executorId);
+                return ApprovalOutcome.DUPLICATE_VOTE;
+            }
+            if (quorum && decision == ApprovalVote.Decision.APPROVE) {
+                Map<String, Long> approvals = workflowService.countApprovalVotes(executorId);
+                if (!ApprovalQuorum.isReached(requiredApprovals, approvals)) {
+                    log.info("Executor {} approved by {} for {}: {} of {} required approvals", executorId, user, voteRole, approvals, requiredApprovals);
+                    if (ApprovalQuorum.isMet(requiredApprovals, approvals, voteRole)) {
+                        // The role owes no more approvals; the edge stays in the inboxes of the other roles
+                        workflowService.settleApprovalRole(executorId, voteRole);
+                    }
+                    executionLogService.logApprovalUpdate(executorId, "VOTE_RECORDED", user, executor.getName());
+                    return ApprovalOutcome.VOTE_RECORDED;
+                }
+            }
+
+            metrics.recordApprovalWait(Duration.between(executor.getUpdatedAt(), LocalDateTime.now()), newStatus);
+            transition(executor, newStatus, user);
             executor.setApprovedBy(user);
             executor.setApprovalComments(comments);
             workflowService.saveWorkflowExecutor(executor);
@@ -249,6 +495,7 @@ public abstract class WorkflowExecutionService {
                 resumeFromApprovedEdge(executor);
             }
             checkWorkflowCompletion(executor.getWorkflowId(), executor.getServiceId());
+            return newStatus == ExecutionStatus.COMPLETED ? ApprovalOutcome.APPROVED : ApprovalOutcome.REJECTED;
         } finally {
             MDC.clear();
         }
@@ -262,8 +509,8 @@ public abstract class WorkflowExecutionService {
      * @param executor The executor for the node.
      * @param workflow The parent workflow.
      */
-    private void handleNodeExecution(WorkflowExecutor executor, Workflow workflow) {
-        Node node = getNode(workflow, executor.getChildrenId());
+    private void handleNodeExecution(WorkflowExecutor executor, CompiledWorkflow workflow) {
+        Node node = workflow.getNode(executor.getChildrenId());
         if (node == null) {
             persistError(executor, "NODE_NOT_FOUND", "Missing node: " + executor.getChildrenId(), null, true);
             log.error("Node definition not found for executor {}", executor.getId());
@@ -273,7 +520,7 @@ public abstract class WorkflowExecutionService {
         // Only persist RUNNING status if not already in a terminal state
         if (!executor.getStatus().isTerminal()) {
             beforeNodeExecution(node, executor);
-            executor.setStatus(ExecutionStatus.RUNNING);
+            transition(executor, ExecutionStatus.RUNNING);
             workflowService.saveWorkflowExecutor(executor);
             log.info("Node executor {} (Node ID: {}) started execution.", executor.getId(), node.getId());
             executionLogService.logNodeExecutionStarted(executor); // Log node execution start
@@ -282,26 +529,504 @@ public abstract class WorkflowExecutionService {
             return;
         }
 
-        boolean success = false;
-        try {
-            // Execute the business logic for the service associated with the node
-            success = executeService(executor.getServiceId(), node.getData().getParameters());
+        if (MapNode.isMapNode(node)) {
+            startMapItems(workflow, node, executor);
+            return;
+        }
+        if (SubWorkflowNode.isSubWorkflowNode(node)) {
+            startSubWorkflow(workflow, node, executor);
+            return;
+        }
+
+        // Parameters referencing instance variables are resolved against the instance's context
+        Map<String, String> parameters = workflow.hasTemplates(node.getId())
+                ? workflow.resolveParameters(node, instanceContextService.getVariables(executor.getServiceId(), () -> initialVariables(executor.getServiceId())))
+                : node.getData().getParameters();
+        if (isDetached(node)) {
+            // The node runs once RUNNING has committed, see onDetachedNodeEvent
+            publishDetachedNode(executor, parameters);
+            return;
+        }
+
+        finishNodeRun(workflow, node, executor, runNode(node, executor, parameters));
+    }
+
+    /**
+     * Executes the business logic of a node, timed per service and node type and traced as a child of the executor span.
+     *
+     * @param node The node to execute.
+     * @param executor The running executor for the node.
+     * @param parameters The resolved parameters of the node.
+     * @return The result of the execution.
+     */
+    private NodeResult runNode(Node node, WorkflowExecutor executor, Map<String, String> parameters) {
+        String outcome = "error";
+        // Outputs of the execution that the conditions of the outgoing edges are evaluated against
+        Map<String, Object> outputs = new HashMap<>();
+        boolean mapItem = ExecutorType.MAP_ITEM.equals(executor.getType());
+        Observation observation = Observation.createNotStarted("workflow.service.execution", observationRegistry)
+                .lowCardinalityKeyValue("service", getServiceType())
+                .lowCardinalityKeyValue("node.type", mapItem ? MapNode.TYPE : String.valueOf(node.getType()))
+                .start();
+        try (Observation.Scope scope = observation.openScope()) {
+            boolean success = executeNode(node, executor, parameters, outputs);
+            outcome = success ? "success" : "failure";
             log.info("Service execution for node {} (Executor ID: {}) completed with success: {}", node.getId(), executor.getId(), success);
+            return new NodeResult(success, outputs, null);
         } catch (Exception e) {
+            observation.error(e);
             log.error("Service execution for node {} (Executor ID: {}) failed: {}", node.getId(), executor.getId(), e.getMessage(), e);
-            persistError(executor, "SERVICE_EXECUTION_ERROR", "Business task failed: " + e.getMessage(), e, false);
+            return new NodeResult(false, outputs, e);
+        } finally {
+            observation.lowCardinalityKeyValue("outcome", outcome).stop();
+        }
+    }
+
+    /**
+     * Records the result of a node execution on its executor and moves the instance on.
+     *
+     * @param workflow The parent workflow.
+     * @param node The executed node.
+     * @param executor The running executor for the node.
+     * @param result The result of the execution.
+     */
+    private void finishNodeRun(CompiledWorkflow workflow, Node node, WorkflowExecutor executor, NodeResult result) {
+        if (result.failure() != null) {
+            persistError(executor, "SERVICE_EXECUTION_ERROR", "Business task failed: " + result.failure().getMessage(), result.failure(), false);
+        }
+        finishNodeExecution(workflow, node, executor, result.success(), result.outputs());
+    }
+
+    // Schedules a detached node or map item to run once the current transaction commits
+    private void publishDetachedNode(WorkflowExecutor executor, Map<String, String> parameters) {
+        applicationContext.publishEvent(new DetachedNodeEvent(new ExecutorStartEvent(executor.getId(),
+                executor.getWorkflowId(),
+                executor.getServiceId(),
+                captureMdcContext(),
+                observationRegistry.getCurrentObservation()), parameters));
+    }
+
+    /**
+     * Runs a detached node AFTER the transaction that set its executor to RUNNING commits, on the thread
+     * dispatchDetached hands it to. The node executes outside any transaction, so it holds no engine
+     * connection while it runs; its result is recorded by finishDetachedNode in a new transaction.
+     *
+     * @param evt The event containing the executor's ID, MDC context and resolved parameters.
+     */
+    @TransactionalEventListener
+    public void onDetachedNodeEvent(DetachedNodeEvent evt) {
+        ExecutorStartEvent start = evt.start;
+        dispatchDetached(start.executorId, () -> runDetachedNode(start, evt.parameters));
+    }
+
+    private void runDetachedNode(ExecutorStartEvent start, Map<String, String> parameters) {
+        restoreMdcContext(start.mdcContext);
+        Observation.Scope parentScope = start.parentObservation != null ? start.parentObservation.openScope() : Observation.Scope.NOOP;
+        try {
+            WorkflowExecutor executor = workflowService.getWorkflowExecutor(start.executorId);
+            CompiledWorkflow workflow = executor == null ? null : versionService.getPinned(executor);
+            Node node = workflow == null ? null : workflow.getNode(executor.getChildrenId());
+            if (node == null) {
+                log.warn("Detached node executor {} or its node no longer exists", start.executorId);
+                return;
+            }
+            if (ExecutorType.MAP_ITEM.equals(executor.getType())) {
+                node = MapNode.itemNode(node, parameters);
+            }
+            getSelfProxy().finishDetachedNode(start.executorId, runNode(node, executor, parameters));
+        } catch (RuntimeException e) {
+            log.error("Failed to record the result of detached node executor {}: {}", start.executorId, e.getMessage(), e);
+        } finally {
+            parentScope.close();
+            MDC.clear();
+        }
+    }
+
+    /**
+     * Records the result of a detached node in a new transaction: sets the final status of its executor,
+     * then triggers the outgoing edges and checks the instance's completion, or for a map item counts it
+     * on its map node. This is public for proxy access.
+     *
+     * @param executorId The ID of the node's executor.
+     * @param result The result of the execution.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void finishDetachedNode(String executorId, NodeResult result) {
+        WorkflowExecutor executor = workflowService.getWorkflowExecutor(executorId);
+        if (executor == null || !ExecutionStatus.RUNNING.equals(executor.getStatus())) {
+            log.warn("Detached node executor {} is no longer running; its result is dropped", executorId);
+            return;
+        }
+        setupMdc(executor.getWorkflowId(), executor.getServiceId());
+        try {
+            CompiledWorkflow workflow = versionService.getPinned(executor);
+            Node node = workflow == null ? null : workflow.getNode(executor.getChildrenId());
+            boolean mapItem = ExecutorType.MAP_ITEM.equals(executor.getType());
+            if (node == null) {
+                // The version the node ran with was deleted meanwhile; a map item still counts as finished
+                persistError(executor, "NODE_NOT_FOUND", "Missing node: " + executor.getChildrenId(), null, !mapItem);
+                if (mapItem) {
+                    countFinishedMapItem(workflow, null, executor, false);
+                }
+                return;
+            }
+            if (mapItem) {
+                finishMapItemRun(workflow, node, executor, result);
+                return;
+            }
+            finishNodeRun(workflow, node, executor, result);
+            if (ExecutionStatus.COMPLETED.equals(executor.getStatus())) {
+                checkWorkflowCompletion(executor.getWorkflowId(), executor.getServiceId());
+            }
+        } finally {
+            MDC.clear();
         }
+    }
 
+    /**
+     * Sets the final status of a node executor and, if it completed, stores its outputs and triggers its outgoing edges.
+     *
+     * @param workflow The parent workflow.
+     * @param node The executed node.
+     * @param executor The executor for the node.
+     * @param success The result of the execution.
+     * @param outputs The outputs of the execution.
+     */
+    private void finishNodeExecution(CompiledWorkflow workflow, Node node, WorkflowExecutor executor, boolean success, Map<String, Object> outputs) {
         // Final status update for the node executor
-        executor.setStatus(success ? ExecutionStatus.COMPLETED : ExecutionStatus.FAILED);
+        transition(executor, success ? ExecutionStatus.COMPLETED : ExecutionStatus.FAILED);
         workflowService.saveWorkflowExecutor(executor);
         log.info("Node executor {} (Node ID: {}) status updated to {}.", executor.getId(), node.getId(), executor.getStatus());
         executionLogService.logNodeExecutionResult(executor, success); // Log node execution result
 
         afterNodeExecution(node, executor, success);
 
+        if (!success) {
+            // A failed node ends a sub-workflow instance; its sub-workflow node fails right away.
+            // Failures of nested sub-workflows keep the message of the innermost failed node.
+            finishSubWorkflowInstance(executor.getServiceId(), false, "SUB_WORKFLOW_FAILED".equals(executor.getErrorCode())
+                    ? executor.getErrorMessage()
+                    : "Node " + node.getId() + " of workflow " + executor.getWorkflowId() + " failed: " + executor.getErrorMessage());
+        }
+        if (success) {
+            if (!outputs.isEmpty()) {
+                // Later nodes reference the outputs as ${<node ID>.<name>}
+                instanceContextService.write(executor.getServiceId(), node.getId(), outputs, () -> initialVariables(executor.getServiceId()));
+            }
+            triggerOutgoingEdges(workflow, node.getId(), executor, outputs);
+        }
+    }
+
+    /**
+     * Starts the items of a map node. All item executors are created with one batch insert, and the
+     * first maxParallelism of them are dispatched; the map node's executor keeps running until its
+     * last item finishes. A map node without items completes right away.
+     *
+     * @param workflow The parent workflow.
+     * @param node The map node.
+     * @param executor The running executor for the map node.
+     */
+    private void startMapItems(CompiledWorkflow workflow, Node node, WorkflowExecutor executor) {
+        List<String> items;
+        int maxParallelism;
+        try {
+            Map<String, Map<String, Object>> variables = instanceContextService.getVariables(executor.getServiceId(),
+                    () -> initialVariables(executor.getServiceId()));
+            Map<String, String> parameters = new HashMap<>();
+            for (String name : MapNode.PARAMETERS) {
+                String value = workflow.resolveParameter(node, name, variables);
+                if (value != null) {
+                    parameters.put(name, value);
+                }
+            }
+            items = MapNode.items(parameters, variables);
+            maxParallelism = MapNode.maxParallelism(parameters);
+        } catch (IllegalArgumentException e) {
+            persistError(executor, "MAP_ITEMS_INVALID", "Map node items could not be resolved: " + e.getMessage(), e, false);
+            finishNodeExecution(workflow, node, executor, false, new HashMap<>());
+            return;
+        }
+        if (items.isEmpty()) {
+            log.info("Map node {} (Executor ID: {}) has no items.", node.getId(), executor.getId());
+            finishNodeExecution(workflow, node, executor, true, mapOutputs(0, 0, 0));
+            return;
+        }
+
+        List<WorkflowExecutor> itemExecutors = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            WorkflowExecutor itemExec = new WorkflowExecutor();
+            itemExec.setId(mapItemId(executor.getId(), i));
+            itemExec.setWorkflowId(executor.getWorkflowId());
+            itemExec.setServiceId(executor.getServiceId());
+            itemExec.setType(ExecutorType.MAP_ITEM);
+            itemExec.setName(executor.getName());
+            itemExec.setChildrenId(node.getId());
+            itemExec.setDefinitionHash(executor.getDefinitionHash());
+            itemExec.setParentId(executor.getId());
+            itemExec.setItemIndex(i);
+            itemExec.setItem(items.get(i));
+            transition(itemExec, ExecutionStatus.PENDING);
+            itemExecutors.add(itemExec);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        workflowService.insertWorkflowExecutors(itemExecutors);
+        workflowService.startMapExecution(new MapExecution(executor.getId(), executor.getServiceId(), items.size(), maxParallelism, 0, 0, now, now));
+        log.info("Map node {} (Executor ID: {}) started {} items, at most {} at a time.", node.getId(), executor.getId(), items.size(), maxParallelism);
+
+        for (WorkflowExecutor itemExec : itemExecutors.subList(0, Math.min(maxParallelism, itemExecutors.size()))) {
+            publishMapItemStart(itemExec.getId(), itemExec);
+        }
+    }
+
+    /**
+     * Runs one item of a map node as the node's item type, with ${item.value} and ${item.index}
+     * resolved to the item. The item is then counted on its map execution: it starts the next
+     * item that has not started yet, and the last item to finish completes the map node.
+     *
+     * @param executor The executor for the item.
+     * @param workflow The parent workflow.
+     */
+    private void handleMapItemExecution(WorkflowExecutor executor, CompiledWorkflow workflow) {
+        if (executor.getStatus().isTerminal()) {
+            log.debug("Map item executor {} already in terminal state ({}). Skipping execution.", executor.getId(), executor.getStatus());
+            return;
+        }
+        Node node = workflow.getNode(executor.getChildrenId());
+        if (node == null) {
+            // The item still counts as finished, so the map node fails once its last item is in rather than waiting forever
+            persistError(executor, "NODE_NOT_FOUND", "Missing node: " + executor.getChildrenId(), null, false);
+            countFinishedMapItem(workflow, null, executor, false);
+            return;
+        }
+        transition(executor, ExecutionStatus.RUNNING);
+        workflowService.saveWorkflowExecutor(executor);
+
+        Map<String, String> parameters;
+        try {
+            Map<String, Map<String, Object>> variables = new HashMap<>(instanceContextService.getVariables(executor.getServiceId(),
+                    () -> initialVariables(executor.getServiceId())));
+            variables.put(MapNode.ITEM_NAMESPACE, Map.of("value", executor.getItem(), "index", executor.getItemIndex()));
+            parameters = workflow.resolveParameters(node, variables);
+            parameters = parameters == null ? new HashMap<>() : parameters;
+        } catch (RuntimeException e) {
+            log.error("Map item {} of node {} (Executor ID: {}) failed: {}", executor.getItemIndex(), node.getId(), executor.getId(), e.getMessage(), e);
+            finishMapItemRun(workflow, node, executor, new NodeResult(false, Map.of(), e));
+            return;
+        }
+        Node itemNode = MapNode.itemNode(node, parameters);
+        if (isDetached(itemNode)) {
+            // The item runs once RUNNING has committed, see onDetachedNodeEvent
+            publishDetachedNode(executor, parameters);
+            return;
+        }
+        finishMapItemRun(workflow, node, executor, runNode(itemNode, executor, parameters));
+    }
+
+    /**
+     * Records the result of a map item on its executor and counts it on the map execution.
+     * Item outputs are not kept; the map node's outputs are the counts of its items.
+     *
+     * @param workflow The parent workflow.
+     * @param node The map node.
+     * @param executor The running executor of the item.
+     * @param result The result of the item's execution.
+     */
+    private void finishMapItemRun(CompiledWorkflow workflow, Node node, WorkflowExecutor executor, NodeResult result) {
+        if (result.failure() != null) {
+            persistError(executor, "SERVICE_EXECUTION_ERROR", "Business task failed: " + result.failure().getMessage(), result.failure(), false);
+        }
+        transition(executor, result.success() ? ExecutionStatus.COMPLETED : ExecutionStatus.FAILED);
+        workflowService.saveWorkflowExecutor(executor);
+        log.info("Map item {} of node {} (Executor ID: {}) status updated to {}.", executor.getItemIndex(), node.getId(), executor.getId(), executor.getStatus());
+        countFinishedMapItem(workflow, node, executor, result.success());
+    }
+
+    /**
+     * Counts a finished item on its map execution, starts the next item that has not started yet,
+     * and finishes the map node once all its items are in.
+     *
+     * @param workflow The parent workflow.
+     * @param node The map node, or null if the version the instance is pinned to has no such node.
+     * @param executor The executor of the finished item.
+     * @param success Whether the item completed.
+     */
+    private void countFinishedMapItem(CompiledWorkflow workflow, Node node, WorkflowExecutor executor, boolean success) {
+        MapExecution progress = workflowService.countFinishedMapItem(executor.getParentId(), success).orElse(null);
+        if (progress == null) {
+            log.error("Map execution {} not found for item executor {}", executor.getParentId(), executor.getId());
+            return;
+        }
+        int next = progress.nextItemIndex();
+        if (next >= 0) {
+            publishMapItemStart(mapItemId(executor.getParentId(), next), executor);
+        }
+        if (progress.isFinished()) {
+            finishMapNode(workflow, node, progress);
+        }
+    }
+
+    /**
+     * Completes a map node once all its items have finished, or fails it if items failed and the node does not tolerate that.
+     *
+     * @param workflow The parent workflow.
+     * @param node The map node, or null if the version the instance is pinned to has no such node.
+     * @param progress The map execution with all items counted.
+     */
+    private void finishMapNode(CompiledWorkflow workflow, Node node, MapExecution progress) {
+        WorkflowExecutor executor = workflowService.getWorkflowExecutor(progress.getExecutorId());
+        if (executor == null) {
+            log.error("Map node executor {} not found; its items finished without it", progress.getExecutorId());
+            return;
+        }
+        if (executor.getStatus().isTerminal()) {
+            log.debug("Map node executor {} already in terminal state ({}).", executor.getId(), executor.getStatus());
+            return;
+        }
+        if (node == null) {
+            persistError(executor, "NODE_NOT_FOUND", "Missing node: " + executor.getChildrenId(), null, true);
+            return;
+        }
+        boolean success = progress.getFailedItems() == 0 || toleratesFailures(workflow, node, executor);
+        if (!success) {
+            persistError(executor, "MAP_ITEMS_FAILED", progress.getFailedItems() + " of " + progress.getTotalItems() + " items failed", null, false);
+        }
+        log.info("Map node {} (Executor ID: {}) finished: {} of {} items completed.", node.getId(), executor.getId(),
+                progress.getCompletedItems(), progress.getTotalItems());
+        finishNodeExecution(workflow, node, executor, success, mapOutputs(progress.getTotalItems(), progress.getCompletedItems(), progress.getFailedItems()));
+        if (success) {
+            checkWorkflowCompletion(executor.getWorkflowId(), executor.getServiceId());
+        }
+    }
+
+    // Reads tolerateFailures with its references resolved, like startMapItems reads the other map node parameters
+    private boolean toleratesFailures(CompiledWorkflow workflow, Node node, WorkflowExecutor executor) {
+        try {
+            String value = workflow.resolveParameter(node, MapNode.TOLERATE_FAILURES, instanceContextService.getVariables(executor.getServiceId(),
+                    () -> initialVariables(executor.getServiceId())));
+            return MapNode.toleratesFailures(value == null ? Map.of() : Map.of(MapNode.TOLERATE_FAILURES, value));
+        } catch (IllegalArgumentException e) {
+            log.warn("Map node {} (Executor ID: {}) does not tolerate failures, {} could not be resolved: {}",
+                    node.getId(), executor.getId(), MapNode.TOLERATE_FAILURES, e.getMessage());
+            return false;
+        }
+    }
+
+    // Schedules an item to run on the map item pool once the current transaction commits
+    private void publishMapItemStart(String itemExecutorId, WorkflowExecutor sibling) {
+        metrics.dispatchEnqueued();
+        applicationContext.publishEvent(new MapItemStartEvent(new ExecutorStartEvent(itemExecutorId,
+                sibling.getWorkflowId(),
+                sibling.getServiceId(),
+                captureMdcContext(),
+                observationRegistry.getCurrentObservation())));
+    }
+
+    private static Map<String, Object> mapOutputs(int items, int completed, int failed) {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("items", items);
+        outputs.put("completed", completed);
+        outputs.put("failed", failed);
+        return outputs;
+    }
+
+    // Item executor IDs follow from the map node's executor and the item index, so the next item to start is found without a query
+    private static String mapItemId(String mapExecutorId, int itemIndex) {
+        return UUID.nameUUIDFromBytes((mapExecutorId + "/" + itemIndex).getBytes(StandardCharsets.UTF_8)).toString();
+    }
+
+    /**
+     * Starts a child instance of the workflow a sub-workflow node names, at the workflow's current
+     * version. The child instance's service ID is the ID of the node's executor, and the node's other
+     * parameters are its inputs. The node's executor keeps running until the child instance ends,
+     * which resumes it through finishSubWorkflowInstance instead of the node polling for it.
+     *
+     * @param workflow The parent workflow.
+     * @param node The sub-workflow node.
+     * @param executor The running executor for the sub-workflow node.
+     */
+    private void startSubWorkflow(CompiledWorkflow workflow, Node node, WorkflowExecutor executor) {
+        String childServiceId = executor.getId();
+        CompiledWorkflow child;
+        Map<String, String> parameters;
+        InstanceLink parentLink;
+        try {
+            parameters = workflow.hasTemplates(node.getId())
+                    ? workflow.resolveParameters(node, instanceContextService.getVariables(executor.getServiceId(), () -> initialVariables(executor.getServiceId())))
+                    : node.getData().getParameters();
+            String childWorkflowId = parameters.get(SubWorkflowNode.WORKFLOW_ID);
+            // Cached by hash like the parent's version, so the child's steps load no definitions
+            child = versionService.getCurrent(childWorkflowId);
+            if (child == null || child.getStartNodes().isEmpty()) {
+                throw new IllegalArgumentException("Workflow " + childWorkflowId + " not found or without start nodes");
+            }
+            parentLink = workflowService.getInstanceLink(executor.getServiceId()).orElse(null);
+            if (parentLink != null && parentLink.getDepth() >= SubWorkflowNode.MAX_DEPTH) {
+                throw new IllegalArgumentException("Sub-workflows nest deeper than " + SubWorkflowNode.MAX_DEPTH + " levels");
+            }
+        } catch (IllegalArgumentException e) {
+            persistError(executor, "SUB_WORKFLOW_INVALID", "Sub-workflow could not be started: " + e.getMessage(), e, false);
+            finishNodeExecution(workflow, node, executor, false, new HashMap<>());
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        workflowService.linkSubWorkflowInstance(new InstanceLink(childServiceId, child.getWorkflowId(), executor.getServiceId(), executor.getId(),
+                parentLink != null ? parentLink.getRootServiceId() : executor.getServiceId(),
+                parentLink != null ? parentLink.getDepth() + 1 : 1,
+                ExecutionStatus.RUNNING, now, now));
+        Map<String, Object> inputs = SubWorkflowNode.inputs(parameters);
+        if (!inputs.isEmpty()) {
+            instanceContextService.write(childServiceId, SubWorkflowNode.INPUT_NAMESPACE, inputs, () -> initialVariables(childServiceId));
+        }
+
+        executionLogService.logWorkflowInitiation(child.getWorkflowId(), childServiceId);
+        List<WorkflowExecutor> executorsToSave = new ArrayList<>();
+        for (Node startNode : child.getStartNodes()) {
+            executorsToSave.add(createNodeExecutor(child.getWorkflowId(), childServiceId, startNode.getId(), executor.getName(), child.getHash()));
+        }
+        workflowService.insertWorkflowExecutors(executorsToSave);
+        log.info("Sub-workflow node {} (Executor ID: {}) started instance {} of workflow {} with {} start nodes.",
+                node.getId(), executor.getId(), childServiceId, child.getWorkflowId(), executorsToSave.size());
+        for (WorkflowExecutor startExec : executorsToSave) {
+            eventBusPublish(new ExecutorStartEvent(startExec.getId(),
+                    startExec.getWorkflowId(),
+                    startExec.getServiceId(),
+                    captureMdcContext(),
+                    observationRegistry.getCurrentObservation()));
+        }
+    }
+
+    /**
+     * Ends a sub-workflow instance and resumes the sub-workflow node that started it: the node
+     * completes and triggers its outgoing edges, or fails. Does nothing for instances that are not
+     * sub-workflow instances or have already ended.
+     *
+     * @param serviceId The service ID of the instance that ended.
+     * @param success Whether the instance completed.
+     * @param error Why the instance failed; unused if it completed.
+     */
+    private void finishSubWorkflowInstance(String serviceId, boolean success, String error) {
+        Optional<InstanceLink> link = workflowService.getInstanceLink(serviceId);
+        if (link.isEmpty() || !workflowService.finishSubWorkflowInstance(serviceId, success ? ExecutionStatus.COMPLETED : ExecutionStatus.FAILED)) {
+            return;
+        }
+        WorkflowExecutor parent = workflowService.getWorkflowExecutor(link.get().getParentExecutorId());
+        CompiledWorkflow workflow = versionService.getPinned(parent);
+        Node node = workflow == null ? null : workflow.getNode(parent.getChildrenId());
+        if (node == null || parent.getStatus().isTerminal()) {
+            log.warn("Sub-workflow node executor {} of instance {} cannot be resumed", parent.getId(), serviceId);
+            return;
+        }
+        log.info("Sub-workflow instance {} ended; resuming node {} (Executor ID: {}) with success: {}", serviceId, node.getId(), parent.getId(), success);
+        if (!success) {
+            persistError(parent, "SUB_WORKFLOW_FAILED", error, null, false);
+        }
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("instance", serviceId);
+        outputs.put("status", success ? ExecutionStatus.COMPLETED.name() : ExecutionStatus.FAILED.name());
+        finishNodeExecution(workflow, node, parent, success, outputs);
         if (success) {
-            triggerOutgoingEdges(node.getId(), executor);
+            checkWorkflowCompletion(parent.getWorkflowId(), parent.getServiceId());
         }
     }
 
@@ -311,8 +1036,8 @@ public abstract class WorkflowExecutionService {
      * @param executor The executor for the edge.
      * @param workflow The parent workflow.
      */
-    private void handleEdgeExecution(WorkflowExecutor executor, Workflow workflow) {
-        Edge edge = getEdge(workflow, executor.getChildrenId());
+    private void handleEdgeExecution(WorkflowExecutor executor, CompiledWorkflow workflow) {
+        Edge edge = workflow.getEdge(executor.getChildrenId());
         if (edge == null) {
             persistError(executor, "EDGE_NOT_FOUND", "Missing edge: " + executor.getChildrenId(), null, true);
             log.error("Edge definition not found for executor {}", executor.getId());
@@ -320,15 +1045,15 @@ public abstract class WorkflowExecutionService {
         }
 
         if (edge.getData() != null && edge.getData().isAutoApprove()) {
-            executor.setStatus(ExecutionStatus.COMPLETED);
+            transition(executor, ExecutionStatus.COMPLETED);
             workflowService.saveWorkflowExecutor(executor);
             log.info("Edge executor {} (Edge ID: {}) auto-approved.", executor.getId(), edge.getId());
             executionLogService.logEdgeExecutionStatus(executor, "auto-approved"); // Log auto-approval
-            triggerNodeExecution(edge.getTarget(), executor);
+            triggerNodeExecution(workflow, edge.getTarget(), executor);
         } else {
-            executor.setStatus(ExecutionStatus.WAITING_FOR_APPROVAL);
+            transition(executor, ExecutionStatus.WAITING_FOR_APPROVAL);
             if (edge.getData() != null) {
-                executor.setAssignedApprover(edge.getData().getApproverRole());
+                executor.setAssignedApprover(assignedApprover(edge.getData()));
                 if (edge.getData().getApprovalTimeout() != null) {
                     // executor.setApprovalDeadline(LocalDateTime.now().plusHours(edge.getData().getApprovalTimeout()));
                 }
@@ -340,38 +1065,51 @@ public abstract class WorkflowExecutionService {
         }
     }
 
+    // The inbox an edge waits in: the roles of its quorum, or else its approver role. Edges saved before
+    // validation rejected both keep waiting for the roles that can actually complete them.
+    private static String assignedApprover(Edge.Data data) {
+        if (data.getRequiredApprovals() == null || data.getRequiredApprovals().isEmpty()) {
+            return data.getApproverRole();
+        }
+        return String.join(",", new TreeSet<>(data.getRequiredApprovals().keySet()));
+    }
+
     // ----- Trigger logic -----
 
     /**
      * Triggers the creation of executors for all outgoing edges from a completed node.
      *
+     * @param workflow The definition version the instance is pinned to.
      * @param sourceNodeId The ID of the node that just completed.
      * @param parent The parent executor of the completed node.
+     * @param outputs The outputs of the completed node; edges whose condition does not hold for them are skipped.
      */
-    private void triggerOutgoingEdges(String sourceNodeId, WorkflowExecutor parent) {
-        Workflow workflow = workflowService.getWorkflowById(parent.getWorkflowId());
-        if (workflow == null) {
-            log.error("Workflow definition not found when triggering outgoing edges from node {}", sourceNodeId);
-            return;
-        }
-
-        List<Edge> edges = workflow.getEdges().stream()
-                .filter(e -> e.getSource().equalsIgnoreCase(sourceNodeId))
-                .collect(Collectors.toList());
+    private void triggerOutgoingEdges(CompiledWorkflow workflow, String sourceNodeId, WorkflowExecutor parent, Map<String, Object> outputs) {
+        List<Edge> edges = workflow.getOutgoingEdges(sourceNodeId);
 
         if (edges.isEmpty()) {
             log.info("No outgoing edges found from node {} for workflow {}", sourceNodeId, parent.getWorkflowId());
         }
 
         List<WorkflowExecutor> edgeExecutorsToSave = new ArrayList<>();
+        Map<String, String> parameters = null;
         for (Edge edge : edges) {
+            EdgeCondition condition = workflow.getCondition(edge.getId());
+            if (condition != EdgeCondition.ALWAYS && parameters == null) {
+                parameters = conditionParameters(workflow, sourceNodeId, parent);
+            }
+            if (condition != EdgeCondition.ALWAYS && !condition.test(parameters, outputs)) {
+                log.info("Condition of edge {} does not hold for the outputs of node {}; edge skipped", edge.getId(), sourceNodeId);
+                continue;
+            }
             WorkflowExecutor edgeExec = new WorkflowExecutor();
             edgeExec.setWorkflowId(parent.getWorkflowId());
             edgeExec.setServiceId(parent.getServiceId());
             edgeExec.setType(ExecutorType.EDGE);
             edgeExec.setName(parent.getName());
             edgeExec.setChildrenId(edge.getId());
-            edgeExec.setStatus(ExecutionStatus.PENDING);
+            edgeExec.setDefinitionHash(parent.getDefinitionHash());
+            transition(edgeExec, ExecutionStatus.PENDING);
             edgeExecutorsToSave.add(edgeExec);
         }
         workflowService.saveWorkflowExecutors(edgeExecutorsToSave);
@@ -382,38 +1120,59 @@ public abstract class WorkflowExecutionService {
             eventBusPublish(new ExecutorStartEvent(edgeExec.getId(),
                     edgeExec.getWorkflowId(),
                     edgeExec.getServiceId(),
-                    captureMdcContext()));
+                    captureMdcContext(),
+                    observationRegistry.getCurrentObservation()));
+        }
+    }
+
+    // The parameters of a source node as its edge conditions read them, with references resolved for the instance
+    private Map<String, String> conditionParameters(CompiledWorkflow workflow, String nodeId, WorkflowExecutor parent) {
+        Node node = workflow.getNode(nodeId);
+        if (node == null || node.getData() == null || node.getData().getParameters() == null) {
+            return Map.of();
+        }
+        if (!workflow.hasTemplates(nodeId)) {
+            return node.getData().getParameters();
+        }
+        try {
+            return workflow.resolveParameters(node, instanceContextService.getVariables(parent.getServiceId(), () -> initialVariables(parent.getServiceId())));
+        } catch (IllegalArgumentException e) {
+            // Unresolvable parameters read as null, like parameters the node does not have
+            log.warn("Failed to resolve the parameters of node {} for its edge conditions: {}", nodeId, e.getMessage());
+            return Map.of();
         }
     }
 
     /**
      * Triggers the execution of a new node.
      *
+     * @param workflow The definition version the instance is pinned to.
      * @param nodeId The ID of the node to trigger.
      * @param parent The parent executor (an edge).
      */
-    private void triggerNodeExecution(String nodeId, WorkflowExecutor parent) {
-        // Check if there's already an active executor for this node in this workflow
-        List<WorkflowExecutor> existingExecutors = workflowService.getWorkflowExecutorByWorkflowIdAndChildrenId(
-                parent.getWorkflowId(), nodeId);
-
-        boolean active = existingExecutors.stream()
-                .anyMatch(e -> !e.getStatus().isTerminal());
-
-        if (active) {
-            log.debug("Node {} for workflow {} already has an active executor. Skipping trigger.", nodeId, parent.getWorkflowId());
-            return; // Prevent duplicate executors
+    private void triggerNodeExecution(CompiledWorkflow workflow, String nodeId, WorkflowExecutor parent) {
+        // Only a join can be triggered while another of its incoming edges already started it; a node with one
+        // incoming edge is triggered once, when that edge completes, so it skips the lookup of its executors
+        if (workflow.getInDegree(nodeId) > 1) {
+            boolean active = workflowService.getWorkflowExecutorByServiceIdAndChildrenId(parent.getServiceId(), nodeId).stream()
+                    .anyMatch(e -> !e.getStatus().isTerminal());
+            if (active) {
+                log.debug("Node {} for workflow {} already has an active executor. Skipping trigger.", nodeId, parent.getWorkflowId());
+                return; // Prevent duplicate executors
+            }
         }
 
         // If no active executor, create and save a new one
-        WorkflowExecutor nodeExec = createNodeExecutor(parent.getWorkflowId(), parent.getServiceId(), nodeId, parent.getName());
+        WorkflowExecutor nodeExec = createNodeExecutor(parent.getWorkflowId(), parent.getServiceId(), nodeId, parent.getName(),
+                parent.getDefinitionHash());
         workflowService.saveWorkflowExecutor(nodeExec);
         log.info("Created new node executor {} for node {} in workflow {}", nodeExec.getId(), nodeId, parent.getWorkflowId());
 
         eventBusPublish(new ExecutorStartEvent(nodeExec.getId(),
                 nodeExec.getWorkflowId(),
                 nodeExec.getServiceId(),
-                captureMdcContext()));
+                captureMdcContext(),
+                observationRegistry.getCurrentObservation()));
     }
 
     /**
@@ -422,18 +1181,18 @@ public abstract class WorkflowExecutionService {
      * @param approvedEdgeExecutor The executor for the approved edge.
      */
     private void resumeFromApprovedEdge(WorkflowExecutor approvedEdgeExecutor) {
-        Workflow workflow = workflowService.getWorkflowById(approvedEdgeExecutor.getWorkflowId());
+        CompiledWorkflow workflow = versionService.getPinned(approvedEdgeExecutor);
         if (workflow == null) {
             log.error("Workflow definition not found for approved edge executor {}", approvedEdgeExecutor.getId());
             return;
         }
-        Edge edge = getEdge(workflow, approvedEdgeExecutor.getChildrenId());
+        Edge edge = workflow.getEdge(approvedEdgeExecutor.getChildrenId());
         if (edge == null) {
             log.error("Edge not found for approved edge executor {}", approvedEdgeExecutor.getId());
             return;
         }
         log.info("Resuming workflow from approved edge {} (Executor ID: {}). Triggering target node {}.", edge.getId(), approvedEdgeExecutor.getId(), edge.getTarget());
-        triggerNodeExecution(edge.getTarget(), approvedEdgeExecutor);
+        triggerNodeExecution(workflow, edge.getTarget(), approvedEdgeExecutor);
     }
 
     // ----- Completion & Error -----
@@ -453,18 +1212,25 @@ public abstract class WorkflowExecutionService {
             return;
         }
 
-        List<WorkflowExecutor> allExecutors = workflowService.getWorkflowExecutorByWorkflowId(workflowId);
-        boolean allFinished = allExecutors.stream()
-                .allMatch(e -> e.getStatus().isTerminal());
+        // Only the executors of this instance count; other instances of the same workflow may still be running
+        List<WorkflowExecutor> allExecutors = workflowService.getWorkflowExecutorByServiceId(serviceId);
+        // One byte per step of the pinned version; the version is in the cache while the instance runs
+        CompiledWorkflow workflow = allExecutors.isEmpty() ? null : versionService.getPinned(allExecutors.get(0));
+        InstanceStatuses statuses = InstanceStatuses.of(workflow == null ? null : workflow.getGraph(), allExecutors);
 
-        if (allFinished) {
+        if (statuses.isFinished()) {
             completedWorkflows.add(key); // Mark as handled
             log.info("Workflow {} for service {} completed. All executors are in terminal state.", workflowId, serviceId);
             executionLogService.logWorkflowCompletionCheck(workflowId, serviceId, true); // Log workflow completion
+            instanceContextService.release(serviceId);
             onWorkflowCompleted(workflowId, serviceId);
+            // A sub-workflow instance only succeeds if none of its steps failed or was rejected
+            int unsuccessful = statuses.getUnsuccessfulSteps();
+            finishSubWorkflowInstance(serviceId, unsuccessful == 0,
+                    "Workflow " + workflowId + " ended with " + unsuccessful + " failed or rejected steps");
         } else {
-            log.debug("Workflow {} for service {} is not yet completed. {} active executors found.",
-                    workflowId, serviceId, allExecutors.stream().filter(e -> !e.getStatus().isTerminal()).count());
+            log.debug("Workflow {} for service {} is not yet completed. {} active steps found.",
+                    workflowId, serviceId, statuses.getActiveSteps());
             executionLogService.logWorkflowCompletionCheck(workflowId, serviceId, false); // Log incomplete workflow
         }
     }
@@ -487,7 +1253,7 @@ public abstract class WorkflowExecutionService {
                     .map(Objects::toString)
                     .collect(Collectors.joining("\n")));
         }
-        executor.setStatus(ExecutionStatus.FAILED);
+        transition(executor, ExecutionStatus.FAILED);
         workflowService.saveWorkflowExecutor(executor);
 
         log.error("Error [{}]: {} for executor {} (Workflow: {}, Service: {})",
@@ -495,12 +1261,53 @@ public abstract class WorkflowExecutionService {
 
         if (failWorkflow) {
             log.info("Triggering workflow failure for workflow {} due to error in executor {}", executor.getWorkflowId(), executor.getId());
+            instanceContextService.release(executor.getServiceId());
             onWorkflowFailed(executor.getWorkflowId(), executor.getServiceId(), msg);
+            finishSubWorkflowInstance(executor.getServiceId(), false, msg);
         }
     }
 
     // ----- Utility -----
 
+    /**
+     * Sets the status of an executor on behalf of the engine.
+     *
+     * @param executor The executor to update.
+     * @param newStatus The new status.
+     */
+    private void transition(WorkflowExecutor executor, ExecutionStatus newStatus) {
+        transition(executor, newStatus, SYSTEM_ACTOR);
+    }
+
+    /**
+     * Sets the status of an executor, counts the transition and records it in the executor's history.
+     * Setting the status an executor already has is a no-op, so a failure recorded by persistError and
+     * then again by the regular completion path is counted and recorded once.
+     *
+     * @param executor The executor to update.
+     * @param newStatus The new status.
+     * @param actor Who caused the change.
+     */
+    private void transition(WorkflowExecutor executor, ExecutionStatus newStatus, String actor) {
+        if (executor.getStatus() == newStatus) {
+            return;
+        }
+        metrics.recordTransition(executor.getType(), executor.getStatus(), newStatus);
+        executor.transitionTo(newStatus, actor);
+    }
+
+    /**
+     * Derives the service type from the bean class, e.g. "task" for TaskWorkflowService.
+     * This is the type WorkflowServiceFactory resolves the bean by.
+     *
+     * @return The service type used to tag metrics.
+     */
+    private String getServiceType() {
+        String name = ClassUtils.getUserClass(this).getSimpleName();
+        String type = name.endsWith("WorkflowService") ? name.substring(0, name.length() - "WorkflowService".length()) : name;
+        return type.isEmpty() ? name : Character.toLowerCase(type.charAt(0)) + type.substring(1);
+    }
+
     /**
      * Sets up the MDC (Mapped Diagnostic Context) for logging correlation.
      *
@@ -539,46 +1346,22 @@ public abstract class WorkflowExecutionService {
      * @param serviceId The ID of the service.
      * @param nodeId The ID of the node.
      * @param name The name of the executor.
+     * @param definitionHash The definition version the instance is pinned to.
      * @return A new WorkflowExecutor object.
      */
-    private WorkflowExecutor createNodeExecutor(String workflowId, String serviceId, String nodeId, String name) {
+    private WorkflowExecutor createNodeExecutor(String workflowId, String serviceId, String nodeId, String name, String definitionHash) {
         WorkflowExecutor exec = new WorkflowExecutor();
         exec.setWorkflowId(workflowId);
+        exec.setDefinitionHash(definitionHash);
         exec.setServiceId(serviceId);
         exec.setType(ExecutorType.NODE);
         exec.setName(name);
         exec.setChildrenId(nodeId);
-        exec.setStatus(ExecutionStatus.PENDING);
+        transition(exec, ExecutionStatus.PENDING);
         exec.setCreatedAt(LocalDateTime.now());
         return exec;
     }
 
-    /**
-     * Finds a node in a workflow by its ID.
-     *
-     * @param workflow The workflow to search.
-     * @param id The ID of the node.
-     * @return The Node object or null if not found.
-     */
-    private Node getNode(Workflow workflow, String id) {
-        return workflow.getNodes().stream()
-                .filter(n -> n.getId().equalsIgnoreCase(id))
-                .findFirst().orElse(null);
-    }
-
-    /**
-     * Finds an edge in a workflow by its ID.
-     *
-     * @param workflow The workflow to search.
-     * @param id The ID of the edge.
-     * @return The Edge object or null if not found.
-     */
-    private Edge getEdge(Workflow workflow, String id) {
-        return workflow.getEdges().stream()
-                .filter(e -> e.getId().equalsIgnoreCase(id))
-                .findFirst().orElse(null);
-    }
-
     /**
      * Gets a self-proxy of the bean to enable @Async and @Transactional annotations to work.
      *
@@ -594,6 +1377,7 @@ public abstract class WorkflowExecutionService {
      * @param evt The event to publish.
      */
     private void eventBusPublish(ExecutorStartEvent evt) {
+        metrics.dispatchEnqueued();
         applicationContext.publishEvent(evt);
     }
 
@@ -651,6 +1435,76 @@ public abstract class WorkflowExecutionService {
         log.error("Hook: onWorkflowFailed for workflow {} (Service ID: {}). Error: {}", workflowId, serviceId, error);
     }
 
+    /**
+     * Executes the business logic of a node. Delegates to executeService by default; subclasses
+     * override it for node types that need the executor itself, e.g. to make them cancellable.
+     *
+     * @param node The node being executed.
+     * @param executor The executor for the node.
+     * @param parameters The parameters of the node, with references to instance variables resolved.
+     * @param outputs Receives the outputs of the execution, referenced as output.&lt;name&gt; by edge conditions
+     *                and stored as instance variables in the namespace of the node.
+     * @return true if the execution was successful, false otherwise.
+     * @throws Exception if the execution failed; the executor is marked as failed with the message.
+     */
+    protected boolean executeNode(Node node, WorkflowExecutor executor, Map<String, String> parameters, Map<String, Object> outputs) throws Exception {
+        return executeService(executor.getServiceId(), parameters);
+    }
+
+    /**
+     * The variables an instance starts with, created when a node first needs the instance's context.
+     *
+     * @param serviceId The service ID of the instance.
+     * @return The variables by namespace; none by default.
+     */
+    protected Map<String, Map<String, Object>> initialVariables(String serviceId) {
+        return new HashMap<>();
+    }
+
+    /**
+     * The outermost instance of an instance: the instance itself, or for a sub-workflow instance
+     * the instance that started the first sub-workflow, e.g. the instance of a task.
+     *
+     * @param serviceId The service ID of an instance.
+     * @return The service ID of the outermost instance.
+     */
+    protected String rootServiceId(String serviceId) {
+        return workflowService.getInstanceLink(serviceId).map(InstanceLink::getRootServiceId).orElse(serviceId);
+    }
+
+    /**
+     * Whether a node runs detached from the engine's transaction: its executor commits as RUNNING first,
+     * executeNode then runs outside any transaction on the thread dispatchDetached hands it to, and the
+     * result is recorded in a new transaction. Meant for long-running work, such as SQL scripts, that
+     * would otherwise hold an engine connection for its whole duration. No node is detached by default.
+     *
+     * @param node The node about to execute.
+     * @return true if the node runs detached.
+     */
+    protected boolean isDetached(Node node) {
+        return false;
+    }
+
+    /**
+     * Hands the execution of a detached node to the thread it runs on. Runs it on the calling thread by default.
+     *
+     * @param executorId The ID of the node's executor.
+     * @param execution Runs the node and records its result.
+     */
+    protected void dispatchDetached(String executorId, Runnable execution) {
+        execution.run();
+    }
+
+    /**
+     * Requests cancellation of a running node execution. Not supported by default.
+     *
+     * @param executorId The ID of the node executor.
+     * @return true if a running execution was found and asked to stop.
+     */
+    public boolean cancelExecution(String executorId) {
+        return false;
+    }
+
     /**
      * Abstract method to be implemented by a concrete service,
      * which executes the business logic for a given serviceId and parameters.
@@ -662,17 +1516,66 @@ public abstract class WorkflowExecutionService {
     public abstract boolean executeService(String serviceId, Map<String, String> params);
 
     // ----- Inner Classes -----
+
+    /**
+     * A workflow instance to start with initiateWorkflows.
+     *
+     * @param serviceId The service ID of the instance.
+     * @param workflowId The ID of the workflow definition.
+     * @param name A human-readable name for the instance.
+     */
+    public record InstanceStart(String serviceId, String workflowId, String name) {
+    }
+
+    /**
+     * The result of a node execution.
+     *
+     * @param success Whether the node succeeded.
+     * @param outputs The outputs of the execution.
+     * @param failure The exception the execution failed with, or null.
+     */
+    public record NodeResult(boolean success, Map<String, Object> outputs, Exception failure) {
+    }
+
+    public static class DetachedNodeEvent {
+        public final ExecutorStartEvent start;
+        public final Map<String, String> parameters;
+
+        public DetachedNodeEvent(ExecutorStartEvent start, Map<String, String> parameters) {
+            this.start = start;
+            this.parameters = parameters;
+        }
+    }
+
+    public static class ExecutorStartBatchEvent {
+        public final List<ExecutorStartEvent> events;
+
+        public ExecutorStartBatchEvent(List<ExecutorStartEvent> events) {
+            this.events = events;
+        }
+    }
+
+    public static class MapItemStartEvent {
+        public final ExecutorStartEvent start;
+
+        public MapItemStartEvent(ExecutorStartEvent start) {
+            this.start = start;
+        }
+    }
+
     public static class ExecutorStartEvent {
         public final String executorId;
         public final String workflowId;
         public final String serviceId;
         public final Map<String, String> mdcContext;
+        public final Observation parentObservation;
 
-        public ExecutorStartEvent(String id, String wf, String sid, Map<String, String> ctx) {
+        public ExecutorStartEvent(String id, String wf, String sid, Map<String, String> ctx, Observation parent) {
             this.executorId = id;
             this.workflowId = wf;
             this.serviceId = sid;
             this.mdcContext = ctx;
+            this.parentObservation = parent;
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package com.template.service;
+
+import com.template.dao.WorkflowInitiationRequestRepository;
+import com.template.model.CompiledWorkflow;
+import com.template.model.WorkflowInitiationRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Background initiator of workflows requested with POST /api/tasks?async=true.
+ * Pending requests are claimed in batches of task.initiation.batch-size, and the workflows of a
+ * batch are initiated with one batch insert of start executors in the transaction that marks the
+ * requests INITIATED. Failed batches are retried up to task.initiation.max-attempts times; requests
+ * that stay claimed longer than task.initiation.lease, e.g. after a crash, are claimed again.
+ */
+@Service
+public class WorkflowInitiationService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowInitiationService.class);
+
+    private final WorkflowInitiationRequestRepository repository;
+    private final TaskService taskService;
+    private final WorkflowVersionService versionService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+
+    public WorkflowInitiationService(WorkflowInitiationRequestRepository repository, TaskService taskService,
+                                     WorkflowVersionService versionService,
+                                     @Value("${task.initiation.batch-size:100}") int batchSize,
+                                     @Value("${task.initiation.max-attempts:3}") int maxAttempts,
+                                     @Value("${task.initiation.lease:PT5M}") Duration lease) {
+        this.repository = repository;
+        this.taskService = taskService;
+        this.versionService = versionService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+    }
+
+    /**
+     * Initiates pending requests batch by batch until none are left.
+     */
+    @Scheduled(fixedDelayString = "${task.initiation.poll-interval:PT1S}")
+    public void drain() {
+        int released = repository.releaseStale(LocalDateTime.now().minus(lease));
+        if (released > 0) {
+            log.warn("Released {} workflow initiation requests whose claim expired", released);
+        }
+        List<WorkflowInitiationRequest> batch;
+        do {
+            batch = repository.claimPending(batchSize);
+            if (!batch.isEmpty()) {
+                initiate(batch);
+            }
+        } while (batch.size() == batchSize);
+    }
+
+    private void initiate(List<WorkflowInitiationRequest> batch) {
+        Map<String, Boolean> startable = new HashMap<>();
+        List<WorkflowInitiationRequest> valid = new ArrayList<>(batch.size());
+        List<String> invalid = new ArrayList<>();
+        for (WorkflowInitiationRequest request : batch) {
+            boolean ok = startable.computeIfAbsent(request.getWorkflowId(), id -> {
+                CompiledWorkflow workflow = versionService.getCurrent(id);
+                return workflow != null && !workflow.getStartNodes().isEmpty();
+            });
+            if (ok) {
+                valid.add(request);
+            } else {
+                invalid.add(request.getTaskId());
+            }
+        }
+        // A missing workflow will not appear by retrying
+        repository.updateStatus(invalid, WorkflowInitiationRequest.Status.FAILED, "Workflow not found or without start nodes");
+        if (valid.isEmpty()) {
+            return;
+        }
+
+        try {
+            taskService.initiateRequested(valid);
+            log.info("Initiated {} requested workflows ({} failed)", valid.size(), invalid.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to initiate {} requested workflows: {}", valid.size(), e.getMessage(), e);
+            List<String> retry = new ArrayList<>();
+            List<String> failed = new ArrayList<>();
+            for (WorkflowInitiationRequest request : valid) {
+                (request.getAttempts() < maxAttempts ? retry : failed).add(request.getTaskId());
+            }
+            repository.updateStatus(retry, WorkflowInitiationRequest.Status.PENDING, e.getMessage());
+            repository.updateStatus(failed, WorkflowInitiationRequest.Status.FAILED, e.getMessage());
+        }
+    }
+}
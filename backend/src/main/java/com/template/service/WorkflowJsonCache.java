@@ -0,0 +1,132 @@
+package com.template.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.template.dao.WorkflowRepository;
+import com.template.model.Workflow;
+import com.template.model.WorkflowView;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of fully serialized workflow definitions for GET /api/workflows/{id}.
+ * Every view of a workflow is cached separately. Each entry holds the JSON bytes (and optionally a gzipped copy) together with the workflow's
+ * updated_at stamp it was built from. A request only reads that stamp from the database; the
+ * three definition queries and the serialization run again only when the stamp has moved.
+ * Entries are also evicted explicitly when a workflow is updated or deleted.
+ */
+@Component
+public class WorkflowJsonCache {
+
+    /**
+     * A serialized workflow definition.
+     *
+     * @param updatedAt The updated_at stamp of the workflow the bytes were built from.
+     * @param json The JSON representation.
+     * @param gzip The gzipped JSON, or null when gzip is disabled.
+     * @param etag A strong entity tag for the JSON representation (quoted).
+     */
+    public record Entry(Instant updatedAt, byte[] json, byte[] gzip, String etag) {
+
+        /**
+         * @return The entity tag of the gzipped representation, which must differ from the identity one.
+         */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowViewWriter viewWriter;
+    private final boolean gzipEnabled;
+    private final Cache<Key, Entry> cache;
+
+    private record Key(String id, WorkflowView view) {
+    }
+
+    public WorkflowJsonCache(WorkflowRepository workflowRepository, WorkflowViewWriter viewWriter, MeterRegistry meterRegistry,
+                             @Value("${workflow.json-cache.max-bytes:67108864}") long maxBytes,
+                             @Value("${workflow.json-cache.gzip:true}") boolean gzipEnabled) {
+        this.workflowRepository = workflowRepository;
+        this.viewWriter = viewWriter;
+        this.gzipEnabled = gzipEnabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((Key key, Entry entry) -> entry.json().length + (entry.gzip() == null ? 0 : entry.gzip().length))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "workflowJson");
+    }
+
+    /**
+     * Returns the serialized definition of a workflow, rebuilding it if the workflow changed since it was cached.
+     *
+     * @param id The ID of the workflow.
+     * @param view The parts of the workflow to serialize.
+     * @return The cached entry, or empty if the workflow does not exist.
+     */
+    public Optional<Entry> get(String id, WorkflowView view) {
+        Instant updatedAt = workflowRepository.findUpdatedAt(id);
+        if (updatedAt == null) {
+            evict(id);
+            return Optional.empty();
+        }
+        Key key = new Key(id, view);
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.updatedAt().equals(updatedAt)) {
+            return Optional.of(entry);
+        }
+        Workflow workflow;
+        try {
+            workflow = workflowRepository.findById(id, view);
+        } catch (EmptyResultDataAccessException e) {
+            return Optional.empty(); // Deleted after the stamp was read
+        }
+        entry = serialize(workflow, view, updatedAt);
+        cache.put(key, entry);
+        return Optional.of(entry);
+    }
+
+    /**
+     * Drops every cached view of a workflow.
+     *
+     * @param id The ID of the workflow.
+     */
+    public void evict(String id) {
+        for (WorkflowView view : WorkflowView.values()) {
+            cache.invalidate(new Key(id, view));
+        }
+    }
+
+    private Entry serialize(Workflow workflow, WorkflowView view, Instant updatedAt) {
+        try {
+            byte[] json = viewWriter.write(workflow, view);
+            String etag = "\"" + DigestUtils.md5DigestAsHex(json) + "\"";
+            return new Entry(updatedAt, json, gzipEnabled ? gzip(json) : null, etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize workflow " + workflow.getId(), e);
+        }
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
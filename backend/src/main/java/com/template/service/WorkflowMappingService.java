@@ -1,8 +1,10 @@
 package com.template.service;
 
+import com.template.config.CacheConfig;
 import com.template.dao.WorkflowMappingRepository;
 import com.template.model.WorkflowMapping;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -22,6 +24,7 @@ public class WorkflowMappingService {
         this.workflowMappingRepository = workflowMappingRepository;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.WORKFLOW_MAPPINGS, key = "#workflowMapping.workflowId", condition = "#workflowMapping.workflowId != null")
     public WorkflowMapping save(WorkflowMapping workflowMapping) {
         return workflowMappingRepository.save(workflowMapping);
     }
@@ -34,6 +37,8 @@ public class WorkflowMappingService {
         return workflowMappingRepository.findById(id);
     }
 
+    // Mappings are cached by workflow ID, which is not known here
+    @CacheEvict(cacheNames = CacheConfig.WORKFLOW_MAPPINGS, allEntries = true)
     public boolean deleteById(Long id) {
         int deletedRows = workflowMappingRepository.deleteById(id);
         return deletedRows > 0;
@@ -4,9 +4,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.template.dao.*;
 import com.template.model.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.*;
@@ -39,6 +43,38 @@ public class WorkflowService {
     @Autowired
     private WorkflowMappingRepository workflowMappingRepository;
 
+    // Automatically injects the repository for the executor status history
+    @Autowired
+    private ExecutorTransitionRepository transitionRepository;
+
+    // Pre-serialized workflow definitions served by the workflow API
+    @Autowired
+    private WorkflowJsonCache workflowJsonCache;
+
+    // Immutable definition versions that running instances are pinned to
+    @Autowired
+    private WorkflowVersionService versionService;
+
+    // Pending approval counts per approver role, adjusted with every transition
+    @Autowired
+    private ApprovalCounterRepository approvalCounterRepository;
+
+    // One inbox entry per role that still owes approvals on a waiting edge
+    @Autowired
+    private ApprovalInboxRepository approvalInboxRepository;
+
+    // One vote per approver on edges that need approvals of several approvers
+    @Autowired
+    private ApprovalVoteRepository approvalVoteRepository;
+
+    // Progress counters of map node executions
+    @Autowired
+    private MapExecutionRepository mapExecutionRepository;
+
+    // Links of sub-workflow instances to the instances that started them
+    @Autowired
+    private InstanceLinkRepository instanceLinkRepository;
+
     // Defines a URL pattern for previewing a specific item
     private final String PREVIEW_URL = "/%s/view/%s";
 
@@ -65,13 +101,44 @@ public class WorkflowService {
     }
 
     /**
-     * Creates a new workflow definition by saving it to the repository.
+     * Retrieves the parts of a workflow definition selected by a view.
+     * @param id The ID of the workflow to retrieve.
+     * @param view The parts of the workflow to load.
+     * @return The Workflow object with the specified ID, with unloaded fields left null.
+     */
+    public Workflow getWorkflowById(String id, WorkflowView view) {
+        return workflowRepository.findById(id, view);
+    }
+
+    /**
+     * Retrieves the serialized JSON of a workflow definition from the cache, rebuilding it if the workflow changed.
+     * @param id The ID of the workflow to retrieve.
+     * @param view The parts of the workflow to return.
+     * @return The serialized workflow, or empty if not found.
+     */
+    public Optional<WorkflowJsonCache.Entry> getWorkflowJson(String id, WorkflowView view) {
+        return workflowJsonCache.get(id, view);
+    }
+
+    /**
+     * Creates a new workflow definition by saving it to the repository and publishing its first version, in one transaction.
      * @param workflow The Workflow object to be saved.
+     * @throws IllegalArgumentException if node or edge data is invalid or the graph is not a valid DAG, see WorkflowTopology.analyze.
      */
+    @Transactional
     public void createWorkflow(Workflow workflow) {
+        if (workflow.getNodes() != null) {
+            workflow.getNodes().forEach(WorkflowService::validateNodeData);
+        }
+        if (workflow.getEdges() != null) {
+            workflow.getEdges().forEach(WorkflowService::validateEdgeData);
+        }
+        WorkflowTopology.analyze(workflow.getNodes() != null ? workflow.getNodes() : List.of(),
+                workflow.getEdges() != null ? workflow.getEdges() : List.of());
         try {
             // Saves the new workflow to the repository
             workflowRepository.save(workflow);
+            versionService.publish(workflow.getId());
         } catch (JsonProcessingException e) {
             // Prints the stack trace for debugging purposes
             e.printStackTrace();
@@ -80,6 +147,16 @@ public class WorkflowService {
         }
     }
 
+    /**
+     * Retrieves the topology stored with the current version of a workflow.
+     * @param id The ID of the workflow.
+     * @return The topology, or empty if the workflow does not exist or its graph, saved before graphs were validated, is not valid.
+     */
+    public Optional<WorkflowTopology> getWorkflowTopology(String id) {
+        CompiledWorkflow workflow = versionService.getCurrent(id);
+        return Optional.ofNullable(workflow == null ? null : workflow.getTopology());
+    }
+
     /**
      * Updates an existing workflow definition.
      * @param id The ID of the workflow to update.
@@ -88,6 +165,84 @@ public class WorkflowService {
     public void updateWorkflow(String id, Workflow workflow) {
         // Calls the repository to update the workflow with the given ID
         workflowRepository.update(id, workflow);
+        workflowJsonCache.evict(id);
+    }
+
+    /**
+     * Replaces the nodes and edges of a workflow, writing only the nodes and edges that changed, and publishes
+     * the new graph as the current version. Both happen in one transaction holding the lock on the workflow row,
+     * so concurrent saves cannot leave the current version behind the graph.
+     * @param id The ID of the workflow to update.
+     * @param graph A workflow carrying the complete new set of nodes and edges; other fields are ignored.
+     * @return The number of inserted, updated and deleted nodes and edges.
+     * @throws IllegalArgumentException if the graph is incomplete or not a valid DAG, see WorkflowTopology.analyze.
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the workflow does not exist.
+     */
+    @Transactional
+    public WorkflowGraphDiff updateWorkflowGraph(String id, Workflow graph) {
+        validateGraph(graph);
+        try {
+            WorkflowGraphDiff diff = workflowRepository.updateGraph(id, graph.getNodes(), graph.getEdges());
+            versionService.publish(id);
+            workflowJsonCache.evict(id);
+            return diff;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to save workflow graph", e);
+        }
+    }
+
+    private void validateGraph(Workflow graph) {
+        if (graph.getNodes() == null || graph.getEdges() == null) {
+            throw new IllegalArgumentException("Both nodes and edges must be given");
+        }
+        graph.getNodes().forEach(WorkflowService::validateNodeData);
+        graph.getEdges().forEach(WorkflowService::validateEdgeData);
+        WorkflowTopology.analyze(graph.getNodes(), graph.getEdges());
+    }
+
+    // Rejects parameters with malformed ${namespace.name} references, and misconfigured map and sub-workflow nodes
+    private static void validateNodeData(Node node) {
+        MapNode.validate(node);
+        SubWorkflowNode.validate(node);
+        if (node.getData() == null || node.getData().getParameters() == null) {
+            return;
+        }
+        node.getData().getParameters().forEach((name, value) -> {
+            try {
+                ParameterTemplate.compile(value);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Node " + node.getId() + ", parameter " + name + ": " + e.getMessage(), e);
+            }
+        });
+    }
+
+    // Rejects quorums without a positive count per named role, role names with commas, quorums next to an
+    // approver role, and conditions that do not compile
+    private static void validateEdgeData(Edge edge) {
+        Edge.Data data = edge.getData();
+        if (data == null) {
+            return;
+        }
+        if (data.getRequiredApprovals() != null) {
+            if (data.getApproverRole() != null && !data.getRequiredApprovals().isEmpty()) {
+                throw new IllegalArgumentException("Edge " + edge.getId() + " has both approverRole and requiredApprovals; name the roles in requiredApprovals only");
+            }
+            data.getRequiredApprovals().forEach((role, count) -> {
+                if (role == null || role.isBlank() || count == null || count < 1) {
+                    throw new IllegalArgumentException("Edge " + edge.getId() + " requires at least one approval of a named role, got " + role + "=" + count);
+                }
+                if (role.contains(",")) {
+                    throw new IllegalArgumentException("Edge " + edge.getId() + " requires approvals of role " + role + "; role names cannot contain commas");
+                }
+            });
+        }
+        if (data.getCondition() != null && !data.getCondition().isBlank()) {
+            try {
+                EdgeCondition.compile(data.getCondition(), null);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Edge " + edge.getId() + ": " + e.getMessage(), e);
+            }
+        }
     }
 
     /**
@@ -98,6 +253,7 @@ public class WorkflowService {
     public void deleteWorkflow(String id) {
         // Deletes the workflow and its associated components by ID
         workflowRepository.deleteById(id);
+        workflowJsonCache.evict(id);
     }
 
     /**
@@ -109,6 +265,18 @@ public class WorkflowService {
     public void saveWorkflowExecutors(List<WorkflowExecutor> workflowExecutors) {
         // Saves all workflow executors in a single batch operation
         executorRepository.saveAll(workflowExecutors);
+        saveTransitions(workflowExecutors);
+    }
+
+    /**
+     * Inserts newly created workflow executors with one batch insert, skipping the per-row
+     * existence check of saveWorkflowExecutors.
+     * @param workflowExecutors The new executors.
+     */
+    @Transactional
+    public void insertWorkflowExecutors(List<WorkflowExecutor> workflowExecutors) {
+        executorRepository.insertAll(workflowExecutors);
+        saveTransitions(workflowExecutors);
     }
 
     /**
@@ -120,6 +288,75 @@ public class WorkflowService {
     public void saveWorkflowExecutor(WorkflowExecutor workflowExecutor) {
         // Saves or updates a single workflow executor
         executorRepository.save(workflowExecutor);
+        saveTransitions(List.of(workflowExecutor));
+    }
+
+    /**
+     * Appends the pending status transitions of the given executors to the history in one batch.
+     * @param workflowExecutors The executors that were just saved.
+     */
+    private void saveTransitions(List<WorkflowExecutor> workflowExecutors) {
+        List<ExecutorTransition> transitions = new ArrayList<>();
+        Map<String, Long> approvalDeltas = new HashMap<>();
+        for (WorkflowExecutor executor : workflowExecutors) {
+            for (ExecutorTransition transition : executor.getPendingTransitions()) {
+                // Edges entering or leaving WAITING_FOR_APPROVAL change the inboxes and counts of their approver roles
+                if (transition.getExecutorType() == ExecutorType.EDGE && executor.getAssignedApprover() != null) {
+                    if (transition.getFromStatus() == ExecutionStatus.WAITING_FOR_APPROVAL) {
+                        // Roles whose approvals were all in have left their inbox already
+                        approvalInboxRepository.findRoles(executor.getId()).forEach(role -> approvalDeltas.merge(role, -1L, Long::sum));
+                        approvalInboxRepository.deleteAll(executor.getId());
+                    }
+                    if (transition.getToStatus() == ExecutionStatus.WAITING_FOR_APPROVAL) {
+                        List<String> roles = ApprovalInboxRepository.roles(executor.getAssignedApprover());
+                        approvalInboxRepository.insertAll(executor.getId(), roles, executor.getUpdatedAt());
+                        roles.forEach(role -> approvalDeltas.merge(role, 1L, Long::sum));
+                    }
+                }
+            }
+            transitions.addAll(executor.getPendingTransitions());
+            executor.getPendingTransitions().clear();
+        }
+        transitionRepository.saveAll(transitions);
+        approvalCounterRepository.adjust(approvalDeltas);
+    }
+
+    /**
+     * Removes a waiting edge from the inbox of a role whose required approvals are all in, while other roles still owe theirs.
+     * @param workflowExecutorId The ID of the edge executor.
+     * @param role The approver role.
+     */
+    public void settleApprovalRole(String workflowExecutorId, String role) {
+        if (approvalInboxRepository.delete(workflowExecutorId, role)) {
+            approvalCounterRepository.adjust(Map.of(role, -1L));
+        }
+    }
+
+    /**
+     * Recomputes the inboxes and pending approval counts per role from the executors once the application has started.
+     * Waiting edges without inbox entries, e.g. those that started waiting before entries were kept, are listed for
+     * each of their roles.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void rebuildApprovalCounters() {
+        approvalInboxRepository.deleteStale();
+        approvalInboxRepository.insertUnlisted();
+        approvalCounterRepository.rebuild();
+    }
+
+    /**
+     * Retrieves p50/p95/p99 queue, run and approval durations per step of a workflow.
+     * @param workflowId The ID of the workflow definition.
+     * @param from Inclusive start of the time range.
+     * @param to Exclusive end of the time range.
+     * @return One entry per step and phase.
+     */
+    public List<StepDurationStats> getStepDurations(String workflowId, LocalDateTime from, LocalDateTime to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        return transitionRepository.findStepDurations(workflowId, from, to);
     }
 
     /**
@@ -132,6 +369,105 @@ public class WorkflowService {
         return executorRepository.findById(workflowExecutorId);
     }
 
+    /**
+     * Locks an edge executor waiting for approval for the rest of the current transaction.
+     * @param workflowExecutorId The ID of the executor.
+     * @return True if the executor is an edge waiting for approval.
+     */
+    public boolean lockWaitingForApproval(String workflowExecutorId) {
+        return executorRepository.lockWaitingForApproval(workflowExecutorId);
+    }
+
+    /**
+     * Records the vote of an approver on an edge executor.
+     * @param vote The vote.
+     * @return True if recorded, false if the approver already voted on the executor.
+     */
+    public boolean recordApprovalVote(ApprovalVote vote) {
+        return approvalVoteRepository.insert(vote);
+    }
+
+    /**
+     * Counts the approvals of an edge executor per approver role.
+     * @param workflowExecutorId The ID of the executor.
+     * @return The number of approvals keyed by role.
+     */
+    public Map<String, Long> countApprovalVotes(String workflowExecutorId) {
+        return approvalVoteRepository.countApprovalsByRole(workflowExecutorId);
+    }
+
+    /**
+     * Records the start of a map node execution.
+     * @param mapExecution The progress of the map node's items, none finished yet.
+     */
+    public void startMapExecution(MapExecution mapExecution) {
+        mapExecutionRepository.insert(mapExecution);
+    }
+
+    /**
+     * Counts a finished item of a map node execution; concurrent items are counted one after the other.
+     * @param workflowExecutorId The ID of the map node's executor.
+     * @param success Whether the item completed.
+     * @return The progress including the item, or empty if the map execution does not exist.
+     */
+    public Optional<MapExecution> countFinishedMapItem(String workflowExecutorId, boolean success) {
+        return mapExecutionRepository.countFinishedItem(workflowExecutorId, success);
+    }
+
+    /**
+     * Retrieves the progress of a map node execution.
+     * @param workflowExecutorId The ID of the map node's executor.
+     * @return The progress, or empty if the executor is not a started map node.
+     */
+    public Optional<MapExecution> getMapExecution(String workflowExecutorId) {
+        return mapExecutionRepository.findByExecutorId(workflowExecutorId);
+    }
+
+    /**
+     * Links a sub-workflow instance that is just starting to the instance that started it.
+     * @param link The link, with status RUNNING.
+     */
+    public void linkSubWorkflowInstance(InstanceLink link) {
+        instanceLinkRepository.insert(link);
+    }
+
+    /**
+     * Ends a running sub-workflow instance; only the first call for an instance has an effect.
+     * @param serviceId The service ID of the sub-workflow instance.
+     * @param status COMPLETED or FAILED.
+     * @return True if the instance was running and is now ended.
+     */
+    public boolean finishSubWorkflowInstance(String serviceId, ExecutionStatus status) {
+        return instanceLinkRepository.finish(serviceId, status);
+    }
+
+    /**
+     * Retrieves the link of an instance to the instance that started it.
+     * @param serviceId The service ID of the instance.
+     * @return The link, or empty if the instance is not a sub-workflow instance.
+     */
+    public Optional<InstanceLink> getInstanceLink(String serviceId) {
+        return instanceLinkRepository.findByServiceId(serviceId);
+    }
+
+    /**
+     * Retrieves the sub-workflow instances an instance started.
+     * @param serviceId The service ID of the instance.
+     * @return The links of the sub-workflow instances, oldest first.
+     */
+    public List<InstanceLink> getSubWorkflowInstances(String serviceId) {
+        return instanceLinkRepository.findByParentServiceId(serviceId);
+    }
+
+    /**
+     * Retrieves the votes on an edge executor in the order they were cast.
+     * @param workflowExecutorId The ID of the executor.
+     * @return The votes, empty if nobody voted.
+     */
+    public List<ApprovalVote> getApprovalVotes(String workflowExecutorId) {
+        return approvalVoteRepository.findByExecutorId(workflowExecutorId);
+    }
+
     /**
      * Retrieves all executor instances for a given workflow definition.
      * This is used to track the progress and status of a complete workflow run.
@@ -156,6 +492,19 @@ public class WorkflowService {
         return executorRepository.findByWorkflowIdAndChildrenId(workflowId, childrenId);
     }
 
+    /**
+     * Retrieves all executor instances for a specific node or edge within one workflow instance.
+     * Unlike {@link #getWorkflowExecutorByWorkflowIdAndChildrenId}, executors of other instances
+     * of the same workflow definition are not returned.
+     * @param serviceId The ID of the service instance.
+     * @param childrenId The ID of the node or edge.
+     * @return A list of WorkflowExecutor objects for the specified node/edge in the instance.
+     */
+    public List<WorkflowExecutor> getWorkflowExecutorByServiceIdAndChildrenId(String serviceId, String childrenId) {
+        // Finds executors for a specific node or edge within a single instance
+        return executorRepository.findByServiceIdAndChildrenId(serviceId, childrenId);
+    }
+
     /**
      * Retrieves all workflow executor instances associated with a given service ID.
      * @param serviceId The ID of the service instance.
@@ -167,6 +516,18 @@ public class WorkflowService {
     }
 
     public Optional<WorkflowInstanceDetails> getWorkflowInstanceDetails(String serviceId) {
+        return getWorkflowInstanceDetails(serviceId, WorkflowView.DESIGNER);
+    }
+
+    /**
+     * Retrieves a workflow instance with its execution steps and logs.
+     * The execution steps always need the nodes and edges, so the summary view loads them without
+     * layout and leaves them out of the returned workflow.
+     * @param serviceId The ID of the service instance.
+     * @param view The parts of the workflow definition to return.
+     * @return The instance details, or empty if the instance or its workflow is not found.
+     */
+    public Optional<WorkflowInstanceDetails> getWorkflowInstanceDetails(String serviceId, WorkflowView view) {
         List<WorkflowExecutor> workflowExecutors = executorRepository.findByServiceId(serviceId);
 
         // Return an empty Optional if no executors are found for the serviceId.
@@ -176,7 +537,8 @@ public class WorkflowService {
 
         // Get the workflow ID from the first executor and fetch the workflow definition.
         String workflowId = workflowExecutors.get(0).getWorkflowId();
-        Workflow workflow = workflowRepository.findById(workflowId);
+        Workflow workflow = workflowRepository.findById(workflowId,
+                view == WorkflowView.DESIGNER ? WorkflowView.DESIGNER : WorkflowView.EXECUTION);
 
         // Return an empty Optional if the workflow definition is not found.
         if (workflow == null) {
@@ -187,6 +549,11 @@ public class WorkflowService {
 
         // Generate the execution steps using a separate helper method for clarity.
         List<ExecutionStep> steps = createExecutionSteps(workflow, workflowExecutors);
+        addStepTimings(steps, workflowExecutors, transitionRepository.findByServiceId(serviceId));
+        if (view == WorkflowView.SUMMARY) {
+            workflow.setNodes(null);
+            workflow.setEdges(null);
+        }
 
         WorkflowInstanceDetails workflowInstanceDetails = new WorkflowInstanceDetails();
         workflowInstanceDetails.setWorkflow(workflow);
@@ -200,7 +567,9 @@ public class WorkflowService {
      * Helper method to create a list of execution steps from a workflow and its executors.
      */
     private List<ExecutionStep> createExecutionSteps(Workflow workflow, List<WorkflowExecutor> workflowExecutors) {
+        // Map items share the map node's children ID; the step shows the map node's own executor
         Map<String, WorkflowExecutor> executorMap = workflowExecutors.stream()
+                .filter(e -> e.getType() != ExecutorType.MAP_ITEM)
                 .collect(Collectors.toMap(WorkflowExecutor::getChildrenId, Function.identity()));
 
         Map<String, Node> nodeMap = workflow.getNodes().stream()
@@ -228,6 +597,43 @@ public class WorkflowService {
         return steps;
     }
 
+    /**
+     * Helper method to fill in when each step started and finished and how long it spent queued,
+     * running and waiting for approval, based on the transition history of its executor.
+     */
+    private void addStepTimings(List<ExecutionStep> steps, List<WorkflowExecutor> workflowExecutors, List<ExecutorTransition> transitions) {
+        Map<String, String> executorIdByChild = workflowExecutors.stream()
+                .filter(e -> e.getType() != ExecutorType.MAP_ITEM)
+                .collect(Collectors.toMap(WorkflowExecutor::getChildrenId, WorkflowExecutor::getId, (a, b) -> b));
+        Map<String, List<ExecutorTransition>> transitionsByExecutor = transitions.stream()
+                .collect(Collectors.groupingBy(ExecutorTransition::getExecutorId));
+
+        for (ExecutionStep step : steps) {
+            List<ExecutorTransition> history = transitionsByExecutor.get(executorIdByChild.get(step.getId()));
+            if (history == null || history.isEmpty()) {
+                continue;
+            }
+            step.setStartedAt(history.get(0).getTransitionedAt());
+            ExecutorTransition last = history.get(history.size() - 1);
+            if (last.getToStatus().isTerminal()) {
+                step.setFinishedAt(last.getTransitionedAt());
+            }
+            for (int i = 0; i + 1 < history.size(); i++) {
+                long millis = Duration.between(history.get(i).getTransitionedAt(), history.get(i + 1).getTransitionedAt()).toMillis();
+                switch (history.get(i).getToStatus()) {
+                    case PENDING -> step.setQueueMillis(sum(step.getQueueMillis(), millis));
+                    case RUNNING -> step.setRunMillis(sum(step.getRunMillis(), millis));
+                    case WAITING_FOR_APPROVAL -> step.setApprovalWaitMillis(sum(step.getApprovalWaitMillis(), millis));
+                    default -> { }
+                }
+            }
+        }
+    }
+
+    private static Long sum(Long total, long millis) {
+        return total == null ? millis : total + millis;
+    }
+
     /**
      * Helper method to add an ExecutionStep, handling cases where the executor is null.
      */
@@ -302,7 +708,7 @@ public class WorkflowService {
             String workflowId = entry.getKey();
             List<WorkflowExecutor> executors = entry.getValue();
 
-            Workflow workflow = workflowRepository.findById(workflowId);
+            Workflow workflow = workflowRepository.findById(workflowId, WorkflowView.EXECUTION);
             if (workflow == null) {
                 continue; // Skip if the workflow definition is not found.
             }
@@ -354,6 +760,86 @@ public class WorkflowService {
         return pendingApprovalDetailsList;
     }
 
+    /**
+     * Retrieves one page of the approvals waiting for an approver role, longest waiting first.
+     * Pages are addressed by a keyset cursor, so every page costs the same however deep it is,
+     * and the pending count is read from the per-role counter instead of being counted.
+     * @param role The approver role.
+     * @param cursor The nextCursor of the previous page, or null for the first page.
+     * @param limit The maximum number of approvals on the page.
+     * @return The page.
+     * @throws IllegalArgumentException if the cursor is malformed.
+     */
+    public ApprovalInbox getApprovalInbox(String role, String cursor, int limit) {
+        ApprovalInbox.Cursor after = cursor == null || cursor.isBlank() ? null : ApprovalInbox.Cursor.decode(cursor);
+        // One row more than requested tells whether there is a next page
+        List<WorkflowExecutor> executors = executorRepository.findPendingApprovalEdges(role,
+                after == null ? null : after.waitingSince(), after == null ? null : after.executorId(), limit + 1);
+        boolean hasMore = executors.size() > limit;
+        if (hasMore) {
+            executors = executors.subList(0, limit);
+        }
+
+        Map<String, Workflow> workflows = new HashMap<>();
+        List<PendingApprovalDetails> items = new ArrayList<>(executors.size());
+        for (WorkflowExecutor executor : executors) {
+            // Headers are loaded once per workflow on the page; the graph comes from the cached pinned version
+            Workflow workflow = workflows.computeIfAbsent(executor.getWorkflowId(), this::findWorkflowSummary);
+            CompiledWorkflow version = versionService.getPinned(executor);
+            Edge edge = version == null ? null : version.getEdge(executor.getChildrenId());
+            Node targetNode = edge == null ? null : version.getNode(edge.getTarget());
+
+            PendingApprovalDetails details = new PendingApprovalDetails();
+            details.setId(executor.getId());
+            details.setServiceName(executor.getName());
+            details.setWorkflowId(executor.getWorkflowId());
+            details.setActivityId(executor.getChildrenId());
+            details.setActivityName(executor.getAssignedApprover());
+            details.setRequiredRole(role);
+            details.setRequestedAt(executor.getUpdatedAt());
+            details.setStatus(executor.getStatus());
+            if (targetNode != null) {
+                details.setStageId(targetNode.getId());
+                details.setStageName(targetNode.getData().getStageName());
+            }
+            if (workflow != null) {
+                details.setWorkflowName(workflow.getName());
+                details.setRequestedBy(workflow.getCreatedBy());
+                String functionality = workflowMappingRepository.findByWorkflowId(workflow.getId())
+                        .map(WorkflowMapping::getFunctionalityName).orElse(null);
+                if (functionality != null) {
+                    details.setViewURL(this.getPreviewURL(functionality, executor.getServiceId()));
+                    details.setViewWorkflowURL(this.getWorkflowURL(executor.getServiceId()));
+                }
+            }
+            items.add(details);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            WorkflowExecutor last = executors.get(executors.size() - 1);
+            nextCursor = new ApprovalInbox.Cursor(last.getUpdatedAt(), last.getId()).encode();
+        }
+        return new ApprovalInbox(role, approvalCounterRepository.findPending(role), items, nextCursor);
+    }
+
+    private Workflow findWorkflowSummary(String workflowId) {
+        try {
+            return workflowRepository.findById(workflowId, WorkflowView.SUMMARY);
+        } catch (EmptyResultDataAccessException e) {
+            // The workflow was deleted; its pending approvals are still listed
+            return null;
+        }
+    }
+
+    /**
+     * @param role The approver role.
+     * @return The number of approvals waiting for the role, read from its counter.
+     */
+    public long getPendingApprovalCount(String role) {
+        return approvalCounterRepository.findPending(role);
+    }
+
     /**
      * Generates a URL for viewing a workflow instance.
      * @param serviceId The ID of the service instance.
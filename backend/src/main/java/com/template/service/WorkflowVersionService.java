@@ -0,0 +1,181 @@
+package com.template.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.template.dao.WorkflowRepository;
+import com.template.dao.WorkflowVersionRepository;
+import com.template.model.*;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HexFormat;
+
+/**
+ * Immutable, content-hashed versions of workflow definitions.
+ * Every graph save publishes the execution view of the workflow as a version keyed by the SHA-256
+ * of its canonical JSON, stores the topology of its graph with it and makes it the workflow's current
+ * version. New instances pin the current version on their executors and keep executing it, whatever
+ * happens to the live definition.
+ * Compiled versions are cached by hash without any invalidation; versions no longer referenced
+ * by a workflow or an unfinished executor are deleted periodically.
+ */
+@Service
+public class WorkflowVersionService {
+
+    private static final Logger log = LoggerFactory.getLogger(WorkflowVersionService.class);
+
+    private final WorkflowRepository workflowRepository;
+    private final WorkflowVersionRepository versionRepository;
+    private final ObjectMapper objectMapper;
+    // Sorted map keys make the JSON, and so the hash, independent of parameter order
+    private final ObjectMapper canonicalMapper;
+    private final Duration gcMinAge;
+    private final Cache<String, CompiledWorkflow> compiled;
+
+    public WorkflowVersionService(WorkflowRepository workflowRepository, WorkflowVersionRepository versionRepository,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                  @Value("${workflow.versions.cache-size:1000}") long cacheSize,
+                                  @Value("${workflow.versions.gc-min-age:PT1H}") Duration gcMinAge) {
+        this.workflowRepository = workflowRepository;
+        this.versionRepository = versionRepository;
+        this.objectMapper = objectMapper;
+        this.canonicalMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.gcMinAge = gcMinAge;
+        this.compiled = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, compiled, "workflowVersions");
+    }
+
+    /**
+     * Snapshots the stored graph of a workflow as a version and makes it the current version.
+     * Saving an unchanged graph yields the same hash and stores nothing new. The workflow row is
+     * locked first, so the version always snapshots the graph the last committed save left behind;
+     * called from a graph save, it joins that transaction and its lock.
+     *
+     * @param workflowId The ID of the workflow.
+     * @return The hash of the current version.
+     * @throws org.springframework.dao.EmptyResultDataAccessException if the workflow does not exist.
+     */
+    @Transactional
+    public String publish(String workflowId) {
+        workflowRepository.lock(workflowId);
+        Workflow workflow = workflowRepository.findById(workflowId, WorkflowView.EXECUTION);
+        Workflow snapshot = new Workflow();
+        snapshot.setId(workflow.getId());
+        snapshot.setNodes(workflow.getNodes().stream().sorted(Comparator.comparing(Node::getId)).toList());
+        snapshot.setEdges(workflow.getEdges().stream().sorted(Comparator.comparing(Edge::getId)).toList());
+        // Saves validate the graph, so only workflows saved before validation existed have no topology
+        WorkflowTopology topology = WorkflowTopology.analyzeIfValid(snapshot.getNodes(), snapshot.getEdges());
+        if (topology == null) {
+            log.warn("Workflow {} has an invalid graph; its version is published without a topology", workflowId);
+        }
+        String definition;
+        String serializedTopology;
+        try {
+            definition = canonicalMapper.writeValueAsString(snapshot);
+            serializedTopology = topology == null ? null : objectMapper.writeValueAsString(topology);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize workflow " + workflowId, e);
+        }
+        String hash = sha256(definition);
+        versionRepository.insertIfAbsent(hash, workflowId, definition, serializedTopology);
+        workflowRepository.updateCurrentHash(workflowId, hash);
+        log.debug("Workflow {} is at version {}", workflowId, hash);
+        return hash;
+    }
+
+    /**
+     * Returns the version new instances of a workflow start with, publishing one first for
+     * workflows saved before versioning existed.
+     *
+     * @param workflowId The ID of the workflow.
+     * @return The compiled current version, or null if the workflow does not exist.
+     */
+    public CompiledWorkflow getCurrent(String workflowId) {
+        String hash;
+        try {
+            hash = workflowRepository.findCurrentHash(workflowId);
+        } catch (EmptyResultDataAccessException e) {
+            return null;
+        }
+        return get(hash != null ? hash : publish(workflowId));
+    }
+
+    /**
+     * Returns the version an executor is pinned to.
+     * Executors created before versioning existed follow the current version.
+     *
+     * @param executor The executor.
+     * @return The compiled version, or null if it no longer exists.
+     */
+    public CompiledWorkflow getPinned(WorkflowExecutor executor) {
+        return executor.getDefinitionHash() == null
+                ? getCurrent(executor.getWorkflowId())
+                : get(executor.getDefinitionHash());
+    }
+
+    /**
+     * Returns a compiled version by hash, loading and compiling it on first use.
+     *
+     * @param hash The hash of the version.
+     * @return The compiled version, or null if it does not exist.
+     */
+    public CompiledWorkflow get(String hash) {
+        return compiled.get(hash, this::load);
+    }
+
+    /**
+     * Deletes versions that no workflow and no unfinished executor refers to any more.
+     */
+    @Scheduled(fixedDelayString = "${workflow.versions.gc-interval:PT1H}", initialDelayString = "${workflow.versions.gc-interval:PT1H}")
+    public void collectGarbage() {
+        int deleted = versionRepository.deleteUnreferenced(LocalDateTime.now().minus(gcMinAge));
+        if (deleted > 0) {
+            log.info("Deleted {} unreferenced workflow definition versions", deleted);
+        }
+    }
+
+    private CompiledWorkflow load(String hash) {
+        String definition = versionRepository.findDefinition(hash);
+        if (definition == null) {
+            return null;
+        }
+        try {
+            Workflow workflow = objectMapper.readValue(definition, Workflow.class);
+            String topology = versionRepository.findTopology(hash);
+            // Versions published before topologies were stored get theirs computed once here
+            return new CompiledWorkflow(hash, workflow, topology != null
+                    ? objectMapper.readValue(topology, WorkflowTopology.class)
+                    : WorkflowTopology.analyzeIfValid(workflow.getNodes(), workflow.getEdges()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt workflow definition version " + hash, e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
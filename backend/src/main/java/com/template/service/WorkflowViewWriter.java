@@ -0,0 +1,47 @@
+package com.template.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.template.model.Edge;
+import com.template.model.Node;
+import com.template.model.Workflow;
+import com.template.model.WorkflowView;
+import org.springframework.stereotype.Component;
+
+/**
+ * Serializes workflow definitions and the responses embedding them for a view.
+ * The designer view is written as any other response. The execution and summary views leave the
+ * fields they do not load null, and those are omitted from the workflow, its nodes and its edges rather than sent as null.
+ */
+@Component
+public class WorkflowViewWriter {
+
+    // Applied to the workflow, its nodes and edges, and their data, in the views that do not load every field
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private interface OmitUnloaded {
+    }
+
+    private final ObjectMapper designerMapper;
+    private final ObjectMapper restrictedMapper;
+
+    public WorkflowViewWriter(ObjectMapper objectMapper) {
+        this.designerMapper = objectMapper;
+        this.restrictedMapper = objectMapper.copy()
+                .addMixIn(Workflow.class, OmitUnloaded.class)
+                .addMixIn(Node.class, OmitUnloaded.class)
+                .addMixIn(Node.Data.class, OmitUnloaded.class)
+                .addMixIn(Edge.class, OmitUnloaded.class)
+                .addMixIn(Edge.Data.class, OmitUnloaded.class);
+    }
+
+    /**
+     * @param value A workflow, or a response embedding one.
+     * @param view The view the workflow was loaded with.
+     * @return The JSON representation.
+     * @throws JsonProcessingException if the value cannot be serialized.
+     */
+    public byte[] write(Object value, WorkflowView view) throws JsonProcessingException {
+        return (view == WorkflowView.DESIGNER ? designerMapper : restrictedMapper).writeValueAsBytes(value);
+    }
+}
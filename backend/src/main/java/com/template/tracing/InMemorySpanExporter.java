@@ -0,0 +1,98 @@
+package com.template.tracing;
+
+import com.template.model.SpanRecord;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Keeps the most recent finished spans in memory for local analysis.
+ * The buffer is bounded; the oldest spans are dropped once it is full.
+ */
+public class InMemorySpanExporter implements SpanExporter {
+
+    private final int capacity;
+    private final Deque<SpanRecord> spans;
+
+    /**
+     * @param capacity The number of spans kept.
+     * @throws IllegalArgumentException if the capacity is less than 1.
+     */
+    public InMemorySpanExporter(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("workflow.tracing.memory.capacity must be at least 1, got " + capacity);
+        }
+        this.capacity = capacity;
+        this.spans = new ArrayDeque<>(capacity);
+    }
+
+    @Override
+    public synchronized CompletableResultCode export(Collection<SpanData> batch) {
+        for (SpanData span : batch) {
+            if (spans.size() == capacity) {
+                spans.removeFirst();
+            }
+            spans.addLast(SpanRecords.from(span));
+        }
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public synchronized CompletableResultCode shutdown() {
+        spans.clear();
+        return CompletableResultCode.ofSuccess();
+    }
+
+    /**
+     * Returns all buffered spans of one trace, in the order they finished.
+     *
+     * @param traceId The trace ID.
+     * @return The spans of the trace.
+     */
+    public List<SpanRecord> findByTraceId(String traceId) {
+        return find(span -> span.getTraceId().equals(traceId));
+    }
+
+    /**
+     * Returns all buffered spans of the traces that touched a service instance.
+     * Spans are tagged with "service.id" where it is known; the rest of each trace is included too.
+     *
+     * @param serviceId The service ID of the workflow instance.
+     * @return The spans of the matching traces.
+     */
+    public synchronized List<SpanRecord> findByServiceId(String serviceId) {
+        List<String> traceIds = spans.stream()
+                .filter(span -> serviceId.equals(span.getAttributes().get("service.id")))
+                .map(SpanRecord::getTraceId)
+                .distinct()
+                .toList();
+        return find(span -> traceIds.contains(span.getTraceId()));
+    }
+
+    /**
+     * Returns the most recent spans.
+     *
+     * @param limit The maximum number of spans to return.
+     * @return The spans, oldest first.
+     */
+    public synchronized List<SpanRecord> findRecent(int limit) {
+        List<SpanRecord> all = new ArrayList<>(spans);
+        return all.subList(Math.max(0, all.size() - limit), all.size());
+    }
+
+    private synchronized List<SpanRecord> find(Predicate<SpanRecord> filter) {
+        return spans.stream().filter(filter).toList();
+    }
+}
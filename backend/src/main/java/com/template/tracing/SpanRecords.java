@@ -0,0 +1,33 @@
+package com.template.tracing;
+
+import com.template.model.SpanRecord;
+import io.opentelemetry.api.trace.SpanId;
+import io.opentelemetry.sdk.trace.data.SpanData;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converts OpenTelemetry span data into {@link SpanRecord}s.
+ */
+final class SpanRecords {
+
+    private SpanRecords() {
+    }
+
+    static SpanRecord from(SpanData span) {
+        Map<String, String> attributes = new LinkedHashMap<>();
+        span.getAttributes().forEach((key, value) -> attributes.put(key.getKey(), String.valueOf(value)));
+        String parentSpanId = SpanId.isValid(span.getParentSpanId()) ? span.getParentSpanId() : null;
+        return new SpanRecord(
+                span.getTraceId(),
+                span.getSpanId(),
+                parentSpanId,
+                span.getName(),
+                TimeUnit.NANOSECONDS.toMicros(span.getStartEpochNanos()),
+                TimeUnit.NANOSECONDS.toMicros(span.getEndEpochNanos() - span.getStartEpochNanos()),
+                span.getStatus().getStatusCode().name(),
+                attributes);
+    }
+}
@@ -78,6 +78,13 @@ CREATE TABLE IF NOT EXISTS tasks (
     updated_at TIMESTAMP NOT NULL
 );
 
+-- Save-time SQL analysis: the highest risk found, and the per-statement plans as JSON
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS sql_risk VARCHAR(20);
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS sql_analysis TEXT;
+
+-- Release progress reads all tasks of a release
+CREATE INDEX IF NOT EXISTS idx_tasks_release ON tasks (release_number, status);
+
 CREATE TABLE IF NOT EXISTS workflow_executors (
     id VARCHAR(255) PRIMARY KEY,
     workflow_id VARCHAR(255),
@@ -97,6 +104,9 @@ CREATE TABLE IF NOT EXISTS workflow_executors (
     updated_at TIMESTAMP
 );
 
+-- The engine looks up executors per instance (service_id) on every step
+CREATE INDEX IF NOT EXISTS idx_workflow_executors_service ON workflow_executors (service_id, children_id);
+
 CREATE TABLE IF NOT EXISTS execution_log (
     id VARCHAR(255) PRIMARY KEY,
     timestamp TIMESTAMP,
@@ -110,3 +120,143 @@ CREATE TABLE IF NOT EXISTS execution_log (
     service_id VARCHAR(255)
 );
 
+
+-- Append-only history of executor status changes, used for per-step duration analytics
+CREATE TABLE IF NOT EXISTS executor_transitions (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    executor_id VARCHAR(255) NOT NULL,
+    workflow_id VARCHAR(255),
+    service_id VARCHAR(255),
+    children_id VARCHAR(255),
+    executor_type VARCHAR(50),
+    from_status VARCHAR(50),
+    to_status VARCHAR(50) NOT NULL,
+    transitioned_at TIMESTAMP NOT NULL,
+    actor VARCHAR(255)
+);
+
+CREATE INDEX IF NOT EXISTS idx_executor_transitions_workflow ON executor_transitions (workflow_id, transitioned_at);
+CREATE INDEX IF NOT EXISTS idx_executor_transitions_service ON executor_transitions (service_id);
+
+-- Immutable, content-addressed snapshots of workflow graphs; running executors are pinned to one
+CREATE TABLE IF NOT EXISTS workflow_definition_versions (
+    hash VARCHAR(64) PRIMARY KEY,
+    workflow_id VARCHAR(50) NOT NULL,
+    definition CLOB NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_workflow_definition_versions_workflow ON workflow_definition_versions (workflow_id);
+
+-- The topology computed from the definition when it was published; null for graphs saved before validation
+ALTER TABLE workflow_definition_versions ADD COLUMN IF NOT EXISTS topology CLOB;
+ALTER TABLE workflows ADD COLUMN IF NOT EXISTS current_hash VARCHAR(64);
+ALTER TABLE workflow_executors ADD COLUMN IF NOT EXISTS definition_hash VARCHAR(64);
+
+CREATE INDEX IF NOT EXISTS idx_workflow_executors_definition ON workflow_executors (definition_hash, status);
+
+-- Idempotency keys of client requests with the response to replay; expired rows are purged periodically
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    scope VARCHAR(100) NOT NULL,
+    idem_key VARCHAR(255) NOT NULL,
+    request_hash VARCHAR(64) NOT NULL,
+    response_status INT,
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (scope, idem_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires ON idempotency_keys (expires_at);
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS response_location VARCHAR(500);
+-- Identifies the request holding a claim; only it may renew, complete or release the key
+ALTER TABLE idempotency_keys ADD COLUMN IF NOT EXISTS claim_token VARCHAR(36);
+
+-- Workflow initiations requested with a task and drained in batches by a background initiator
+CREATE TABLE IF NOT EXISTS workflow_initiation_requests (
+    task_id VARCHAR(255) PRIMARY KEY,
+    workflow_id VARCHAR(255) NOT NULL,
+    name VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    attempts INT DEFAULT 0 NOT NULL,
+    error TEXT,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_workflow_initiation_requests_status ON workflow_initiation_requests (status, created_at);
+
+-- Approver inboxes: pending edges of one role in waiting order, and their count per role.
+-- Inboxes are read from approval_inbox_entries, so the executors need no index of their own for them.
+DROP INDEX IF EXISTS idx_workflow_executors_inbox;
+
+CREATE TABLE IF NOT EXISTS approval_role_counters (
+    approver_role VARCHAR(255) PRIMARY KEY,
+    pending BIGINT NOT NULL
+);
+
+-- Inbox entries: one row per role that still owes approvals on a waiting edge, in waiting order per role
+CREATE TABLE IF NOT EXISTS approval_inbox_entries (
+    executor_id VARCHAR(50) NOT NULL,
+    approver_role VARCHAR(255) NOT NULL,
+    waiting_since TIMESTAMP NOT NULL,
+    PRIMARY KEY (executor_id, approver_role)
+);
+
+CREATE INDEX IF NOT EXISTS idx_approval_inbox_entries_role ON approval_inbox_entries (approver_role, waiting_since, executor_id);
+
+-- Quorum approvals: the votes required per role on an edge, and one vote per approver and edge executor
+ALTER TABLE edges ADD COLUMN IF NOT EXISTS required_approvals VARCHAR(1000);
+
+CREATE TABLE IF NOT EXISTS approval_votes (
+    executor_id VARCHAR(50) NOT NULL,
+    approver VARCHAR(255) NOT NULL,
+    approver_role VARCHAR(255),
+    decision VARCHAR(20) NOT NULL,
+    comments TEXT,
+    voted_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (executor_id, approver)
+);
+
+-- Conditional edges: only taken when the expression holds for the source node's parameters and outputs
+ALTER TABLE edges ADD COLUMN IF NOT EXISTS condition_expr VARCHAR(2000);
+
+-- Instance variables: one JSON document per workflow instance, versioned for optimistic writes
+CREATE TABLE IF NOT EXISTS workflow_instance_contexts (
+    service_id VARCHAR(255) PRIMARY KEY,
+    variables TEXT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Map nodes: item executors point to the map node's executor and carry their item
+ALTER TABLE workflow_executors ADD COLUMN IF NOT EXISTS parent_id VARCHAR(255);
+ALTER TABLE workflow_executors ADD COLUMN IF NOT EXISTS item_index INT;
+ALTER TABLE workflow_executors ADD COLUMN IF NOT EXISTS item_value TEXT;
+
+-- Progress of map node executions; finished items are counted here instead of scanning the item executors
+CREATE TABLE IF NOT EXISTS map_executions (
+    executor_id VARCHAR(255) PRIMARY KEY,
+    service_id VARCHAR(255) NOT NULL,
+    total_items INT NOT NULL,
+    max_parallelism INT NOT NULL,
+    completed_items INT NOT NULL DEFAULT 0,
+    failed_items INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+-- Sub-workflow instances: the instance and node executor that started them, and the outermost instance
+CREATE TABLE IF NOT EXISTS workflow_instance_links (
+    service_id VARCHAR(255) PRIMARY KEY,
+    workflow_id VARCHAR(255) NOT NULL,
+    parent_service_id VARCHAR(255) NOT NULL,
+    parent_executor_id VARCHAR(255) NOT NULL,
+    root_service_id VARCHAR(255) NOT NULL,
+    depth INT NOT NULL,
+    status VARCHAR(50) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_workflow_instance_links_parent ON workflow_instance_links (parent_service_id);
@@ -0,0 +1,18 @@
+package com.template.dao;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApprovalInboxRepositoryTest {
+
+    @Test
+    void listsEachRoleOfAnApproverOnce() {
+        assertEquals(List.of("QA"), ApprovalInboxRepository.roles("QA"));
+        assertEquals(List.of("QA", "SECURITY"), ApprovalInboxRepository.roles("QA,SECURITY"));
+        assertEquals(List.of("QA", "SECURITY"), ApprovalInboxRepository.roles(" QA , SECURITY,QA,, "));
+        assertEquals(List.of(), ApprovalInboxRepository.roles(""));
+    }
+}
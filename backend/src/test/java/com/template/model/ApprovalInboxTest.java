@@ -0,0 +1,47 @@
+package com.template.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApprovalInboxTest {
+
+    private static void assertRoundTrip(ApprovalInbox.Cursor cursor) {
+        String encoded = cursor.encode();
+        assertTrue(encoded.matches("[A-Za-z0-9_-]+"), encoded);
+        assertEquals(cursor, ApprovalInbox.Cursor.decode(encoded));
+    }
+
+    @Test
+    void roundTripsCursors() {
+        assertRoundTrip(new ApprovalInbox.Cursor(LocalDateTime.of(2024, 5, 17, 9, 30, 12, 345_000_000), "exec-1"));
+        assertRoundTrip(new ApprovalInbox.Cursor(LocalDateTime.of(2024, 5, 17, 9, 30, 12, 123_456_789), "exec-1"));
+        // LocalDateTime prints whole minutes without seconds
+        assertRoundTrip(new ApprovalInbox.Cursor(LocalDateTime.of(2024, 5, 17, 9, 30), "exec-1"));
+    }
+
+    @Test
+    void keepsSeparatorsInTheExecutorId() {
+        assertRoundTrip(new ApprovalInbox.Cursor(LocalDateTime.of(2024, 1, 1, 0, 0, 1), "a|b|c"));
+        assertRoundTrip(new ApprovalInbox.Cursor(LocalDateTime.of(2024, 1, 1, 0, 0, 1), ""));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertInvalid("not base64!");
+        // Valid base64url, but "garbage" is neither a timestamp nor followed by a separator
+        assertInvalid("Z2FyYmFnZQ");
+        // "2024-01-01T00:00" without an executor ID
+        assertInvalid("MjAyNC0wMS0wMVQwMDowMA");
+        // "yesterday|exec-1"
+        assertInvalid("eWVzdGVyZGF5fGV4ZWMtMQ");
+        assertInvalid("");
+    }
+
+    private static void assertInvalid(String cursor) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ApprovalInbox.Cursor.decode(cursor));
+        assertEquals("Invalid cursor", e.getMessage());
+    }
+}
@@ -0,0 +1,46 @@
+package com.template.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApprovalQuorumTest {
+
+    private static final Map<String, Integer> QA_AND_SECURITY = Map.of("QA", 2, "SECURITY", 1);
+
+    @Test
+    void countsAVoteWithoutRoleForTheOnlyRole() {
+        assertEquals("QA", ApprovalQuorum.voteRole(Map.of("QA", 2), null, "e1"));
+        assertEquals("QA", ApprovalQuorum.voteRole(Map.of("QA", 2), "QA", "e1"));
+    }
+
+    @Test
+    void requiresARoleOfTheQuorum() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ApprovalQuorum.voteRole(QA_AND_SECURITY, null, "e1"));
+        assertEquals("Executor e1 requires approvals of the roles [QA, SECURITY]; specify one of them as the role", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> ApprovalQuorum.voteRole(QA_AND_SECURITY, "OPS", "e1"));
+        assertThrows(IllegalArgumentException.class, () -> ApprovalQuorum.voteRole(Map.of("QA", 1), "qa", "e1"));
+        assertEquals("SECURITY", ApprovalQuorum.voteRole(QA_AND_SECURITY, "SECURITY", "e1"));
+    }
+
+    @Test
+    void isReachedOnceEveryRoleIsMet() {
+        assertFalse(ApprovalQuorum.isReached(QA_AND_SECURITY, Map.of()));
+        assertFalse(ApprovalQuorum.isReached(QA_AND_SECURITY, Map.of("QA", 2L)));
+        assertFalse(ApprovalQuorum.isReached(QA_AND_SECURITY, Map.of("QA", 1L, "SECURITY", 1L)));
+        assertTrue(ApprovalQuorum.isReached(QA_AND_SECURITY, Map.of("QA", 2L, "SECURITY", 1L)));
+        assertTrue(ApprovalQuorum.isReached(QA_AND_SECURITY, Map.of("QA", 3L, "SECURITY", 1L)));
+        // Votes of roles outside the quorum do not count
+        assertFalse(ApprovalQuorum.isReached(QA_AND_SECURITY, Map.of("QA", 2L, "OPS", 5L)));
+    }
+
+    @Test
+    void isMetPerRole() {
+        Map<String, Long> approvals = Map.of("QA", 2L);
+        assertTrue(ApprovalQuorum.isMet(QA_AND_SECURITY, approvals, "QA"));
+        assertFalse(ApprovalQuorum.isMet(QA_AND_SECURITY, approvals, "SECURITY"));
+        assertFalse(ApprovalQuorum.isMet(QA_AND_SECURITY, Map.of("QA", 1L), "QA"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.template.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EdgeConditionTest {
+
+    private static boolean test(String expression, Map<String, String> params, Map<String, ?> outputs) {
+        return EdgeCondition.compile(expression, params).test(params == null ? Map.of() : params, outputs);
+    }
+
+    private static boolean test(String expression, Map<String, ?> outputs) {
+        return test(expression, null, outputs);
+    }
+
+    @Test
+    void comparesNumbersNumerically() {
+        assertTrue(test("output.rows > 0", Map.of("rows", 3)));
+        assertFalse(test("output.rows > 0", Map.of("rows", 0)));
+        assertTrue(test("output.rows >= 10", Map.of("rows", "10")));
+        assertTrue(test("output.rows == 2", Map.of("rows", 2.0)));
+        assertTrue(test("output.delta < -1.5", Map.of("delta", -2)));
+        assertTrue(test("output.rows != 1", Map.of("rows", 2)));
+        // "10" < "9" as strings, but not as numbers
+        assertFalse(test("output.rows < 9", Map.of("rows", "10")));
+    }
+
+    @Test
+    void comparesOtherValuesAsStrings() {
+        assertTrue(test("output.env == 'prod'", Map.of("env", "prod")));
+        assertTrue(test("output.env == \"prod\"", Map.of("env", "prod")));
+        assertFalse(test("output.env == 'prod'", Map.of("env", "dev")));
+        assertTrue(test("output.env != 'prod'", Map.of("env", "dev")));
+        assertTrue(test("output.name < 'b'", Map.of("name", "abc")));
+        assertTrue(test("output.quote == 'it\\'s'", Map.of("quote", "it's")));
+    }
+
+    @Test
+    void numbersNeverEqualNonNumbers() {
+        assertFalse(test("output.rows == 'x'", Map.of("rows", 1)));
+        assertTrue(test("output.rows != 'x'", Map.of("rows", 1)));
+        assertFalse(test("output.rows > 0", Map.of("rows", "many")));
+        assertTrue(test("output.rows != 0", Map.of("rows", "many")));
+    }
+
+    @Test
+    void comparesTwoOutputs() {
+        assertTrue(test("output.done == output.total", Map.of("done", 5, "total", "5")));
+        assertFalse(test("output.done >= output.total", Map.of("done", 4, "total", 5)));
+    }
+
+    @Test
+    void handlesNullAndMissingOutputs() {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("error", null);
+        assertTrue(test("output.error == null", outputs));
+        assertFalse(test("output.error != null", outputs));
+        assertTrue(test("output.missing == null", Map.of()));
+        assertFalse(test("output.missing > 0", Map.of()));
+        assertFalse(test("output.error < null", outputs));
+    }
+
+    @Test
+    void referencesOnTheirOwnAreTruthy() {
+        assertTrue(test("output.committed", Map.of("committed", true)));
+        assertFalse(test("output.committed", Map.of("committed", false)));
+        assertFalse(test("output.committed", Map.of("committed", "false")));
+        assertFalse(test("output.count", Map.of("count", 0)));
+        assertTrue(test("output.count", Map.of("count", "2")));
+        assertFalse(test("output.name", Map.of("name", "")));
+        assertFalse(test("output.missing", Map.of()));
+    }
+
+    @Test
+    void combinesWithPrecedence() {
+        Map<String, Object> outputs = Map.of("a", 1, "b", 0, "c", 1);
+        // && binds tighter than ||
+        assertTrue(test("output.a || output.b && output.b", outputs));
+        assertFalse(test("(output.a || output.b) && output.b", outputs));
+        assertTrue(test("!output.b && output.c", outputs));
+        assertFalse(test("!(output.a && output.c)", outputs));
+        assertTrue(test("!!output.a", outputs));
+    }
+
+    @Test
+    void foldsParametersWhenCompiling() {
+        Map<String, String> params = Map.of("environment", "prod", "threshold", "10");
+        assertSame(EdgeCondition.ALWAYS, EdgeCondition.compile("params.environment == 'prod'", params));
+        assertFalse(EdgeCondition.compile("params.environment == 'dev'", params).test(params, Map.of()));
+        assertSame(EdgeCondition.ALWAYS, EdgeCondition.compile("params.environment == 'dev' || true", params));
+        assertTrue(test("output.rows > params.threshold", params, Map.of("rows", 11)));
+        assertFalse(test("params.threshold < output.rows", params, Map.of("rows", 9)));
+        // A parameter the node does not have is null
+        assertTrue(test("params.missing == null", params, Map.of()));
+    }
+
+    @Test
+    void readsParametersWithReferencesWhenEvaluating() {
+        EdgeCondition condition = EdgeCondition.compile("params.environment == 'prod' && output.rows > params.threshold",
+                Map.of("environment", "${task.environment}", "threshold", "10"));
+        assertNotSame(EdgeCondition.ALWAYS, condition);
+        assertTrue(condition.test(Map.of("environment", "prod", "threshold", "10"), Map.of("rows", 11)));
+        assertFalse(condition.test(Map.of("environment", "dev", "threshold", "10"), Map.of("rows", 11)));
+        assertFalse(condition.test(Map.of("environment", "prod", "threshold", "10"), Map.of("rows", 9)));
+    }
+
+    @Test
+    void rejectsEmptyConditions() {
+        assertThrows(IllegalArgumentException.class, () -> EdgeCondition.compile(null, null));
+        assertThrows(IllegalArgumentException.class, () -> EdgeCondition.compile("  ", null));
+    }
+
+    @Test
+    void rejectsInvalidSyntax() {
+        assertInvalid("output.rows >", "expected a value but the condition ended");
+        assertInvalid("output.rows > 0 )", "unexpected ')'");
+        assertInvalid("(output.rows > 0", "expected ')'");
+        assertInvalid("output.env == 'prod", "unterminated string");
+        assertInvalid("rows > 0", "unknown name 'rows'");
+        assertInvalid("output.", "expected a name");
+        assertInvalid("output rows", "expected '.'");
+        assertInvalid("output.rows > 1.2.3", "invalid number '1.2.3'");
+        assertInvalid("output.rows = 1", "unexpected '='");
+        assertInvalid("output.rows > #", "expected a value but found '#'");
+        assertInvalid("output.a && ", "expected a value but the condition ended");
+    }
+
+    @Test
+    void reportsThePositionOfAnError() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> EdgeCondition.compile("output.a > 0 )", null));
+        assertEquals("Invalid condition \"output.a > 0 )\" at position 13: unexpected ')'", e.getMessage());
+    }
+
+    private static void assertInvalid(String expression, String message) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> EdgeCondition.compile(expression, null));
+        assertTrue(e.getMessage().contains(message), () -> "\"" + e.getMessage() + "\" does not contain \"" + message + "\"");
+    }
+}
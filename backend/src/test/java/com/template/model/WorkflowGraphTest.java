@@ -0,0 +1,165 @@
+package com.template.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.template.model.WorkflowTopologyTest.edges;
+import static com.template.model.WorkflowTopologyTest.nodes;
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkflowGraphTest {
+
+    // a -> b, a -> c, b -> d, c -> d, with the nodes listed out of order
+    private static final List<Node> NODES = nodes("d", "b", "a", "c");
+    private static final List<Edge> EDGES = edges("a>b", "a>c", "b>d", "c>d");
+
+    private static WorkflowGraph diamond() {
+        return new WorkflowGraph(NODES, EDGES, WorkflowTopology.analyze(NODES, EDGES).getOrder());
+    }
+
+    private static List<String> successors(WorkflowGraph graph, String id) {
+        int node = graph.nodeIndex(id);
+        List<String> successors = new ArrayList<>();
+        for (int k = 0; k < graph.outDegree(node); k++) {
+            successors.add(graph.node(graph.target(graph.outgoingEdge(node, k))).getId());
+        }
+        return successors;
+    }
+
+    @Test
+    void indexesNodesInTopologicalOrder() {
+        WorkflowGraph graph = diamond();
+        assertEquals(4, graph.nodeCount());
+        assertEquals(4, graph.edgeCount());
+        assertEquals(0, graph.nodeIndex("a"));
+        assertEquals(3, graph.nodeIndex("d"));
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            assertTrue(graph.source(e) < graph.target(e), "edge " + graph.edge(e).getId() + " leads backwards");
+        }
+    }
+
+    @Test
+    void keepsNodesInTheGivenOrderWithoutATopology() {
+        WorkflowGraph graph = new WorkflowGraph(NODES, EDGES, null);
+        assertEquals(0, graph.nodeIndex("d"));
+        assertEquals(2, graph.nodeIndex("a"));
+        assertEquals(List.of("b", "c"), successors(graph, "a"));
+    }
+
+    @Test
+    void listsOutgoingEdgesInDefinitionOrder() {
+        WorkflowGraph graph = diamond();
+        assertEquals(List.of("b", "c"), successors(graph, "a"));
+        assertEquals(List.of("d"), successors(graph, "b"));
+        assertEquals(List.of(), successors(graph, "d"));
+        assertEquals(2, graph.inDegree(graph.nodeIndex("d")));
+        assertEquals(0, graph.inDegree(graph.nodeIndex("a")));
+        assertEquals(List.of("a-b", "a-c"), graph.outgoingEdges(graph.nodeIndex("a")).stream().map(Edge::getId).toList());
+        assertTrue(graph.outgoingEdges(graph.nodeIndex("d")).isEmpty());
+    }
+
+    @Test
+    void addressesEdgesThroughContiguousOffsets() {
+        WorkflowGraph graph = diamond();
+        // Every edge appears exactly once among the outgoing edges, and once in the in-degree of its target
+        int[] outgoing = new int[graph.edgeCount()];
+        int[] incoming = new int[graph.nodeCount()];
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            for (int k = 0; k < graph.outDegree(node); k++) {
+                int edge = graph.outgoingEdge(node, k);
+                assertEquals(node, graph.source(edge));
+                outgoing[edge]++;
+                incoming[graph.target(edge)]++;
+            }
+        }
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            assertEquals(1, outgoing[e]);
+        }
+        for (int node = 0; node < graph.nodeCount(); node++) {
+            assertEquals(incoming[node], graph.inDegree(node));
+        }
+    }
+
+    @Test
+    void looksUpIdsExactlyThenIgnoringCase() {
+        List<Node> nodes = nodes("step", "STEP2");
+        List<Edge> edges = edges("step>step2");
+        WorkflowGraph graph = new WorkflowGraph(nodes, edges, null);
+        assertEquals(0, graph.nodeIndex("step"));
+        assertEquals(0, graph.nodeIndex("Step"));
+        assertEquals(1, graph.nodeIndex("step2"));
+        assertEquals(0, graph.edgeIndex("STEP-STEP2"));
+        assertEquals(-1, graph.nodeIndex("other"));
+        assertEquals(-1, graph.nodeIndex(null));
+        assertEquals(List.of("STEP2"), successors(graph, "step"));
+    }
+
+    @Test
+    void listsEdgesToUnknownNodesOnlyAtTheKnownEnd() {
+        List<Node> nodes = nodes("a", "b");
+        List<Edge> edges = edges("a>b", "a>gone", "gone>b");
+        WorkflowGraph graph = new WorkflowGraph(nodes, edges, null);
+        assertEquals(-1, graph.target(graph.edgeIndex("a-gone")));
+        assertEquals(-1, graph.source(graph.edgeIndex("gone-b")));
+        assertEquals(2, graph.outDegree(graph.nodeIndex("a")));
+        assertEquals(2, graph.inDegree(graph.nodeIndex("b")));
+    }
+
+    @Test
+    void countsEachStepOnceWhateverItsExecutors() {
+        WorkflowGraph graph = diamond();
+        List<WorkflowExecutor> executors = List.of(
+                executor("a", ExecutorType.NODE, ExecutionStatus.COMPLETED),
+                executor("a-b", ExecutorType.EDGE, ExecutionStatus.COMPLETED),
+                executor("a-c", ExecutorType.EDGE, ExecutionStatus.COMPLETED),
+                // b ran twice: the first run failed, the second is still running
+                executor("b", ExecutorType.NODE, ExecutionStatus.FAILED),
+                executor("b", ExecutorType.NODE, ExecutionStatus.RUNNING),
+                executor("c", ExecutorType.NODE, ExecutionStatus.REJECTED),
+                executor("C", ExecutorType.NODE, ExecutionStatus.COMPLETED));
+        InstanceStatuses statuses = InstanceStatuses.of(graph, executors);
+        assertFalse(statuses.isFinished());
+        assertEquals(1, statuses.getActiveSteps());
+        assertEquals(1, statuses.getUnsuccessfulSteps());
+    }
+
+    @Test
+    void finishesOnceNoStepIsActive() {
+        WorkflowGraph graph = diamond();
+        List<WorkflowExecutor> executors = List.of(
+                executor("a", ExecutorType.NODE, ExecutionStatus.COMPLETED),
+                executor("a-b", ExecutorType.EDGE, ExecutionStatus.REJECTED),
+                executor("a-c", ExecutorType.EDGE, ExecutionStatus.COMPLETED),
+                executor("c", ExecutorType.NODE, ExecutionStatus.COMPLETED));
+        InstanceStatuses statuses = InstanceStatuses.of(graph, executors);
+        assertTrue(statuses.isFinished());
+        assertEquals(1, statuses.getUnsuccessfulSteps());
+
+        InstanceStatuses waiting = InstanceStatuses.of(graph, List.of(executor("c-d", ExecutorType.EDGE, ExecutionStatus.WAITING_FOR_APPROVAL)));
+        assertFalse(waiting.isFinished());
+    }
+
+    @Test
+    void countsStepsUnknownToTheGraphOnTheirOwn() {
+        List<WorkflowExecutor> executors = List.of(
+                executor("removed", ExecutorType.NODE, ExecutionStatus.PENDING),
+                executor("removed", ExecutorType.NODE, ExecutionStatus.FAILED));
+        InstanceStatuses statuses = InstanceStatuses.of(diamond(), executors);
+        assertEquals(1, statuses.getActiveSteps());
+        assertEquals(1, statuses.getUnsuccessfulSteps());
+
+        InstanceStatuses withoutGraph = InstanceStatuses.of(null, executors);
+        assertFalse(withoutGraph.isFinished());
+        assertEquals(1, withoutGraph.getUnsuccessfulSteps());
+    }
+
+    private static WorkflowExecutor executor(String childrenId, ExecutorType type, ExecutionStatus status) {
+        WorkflowExecutor executor = new WorkflowExecutor();
+        executor.setChildrenId(childrenId);
+        executor.setType(type);
+        executor.setStatus(status);
+        return executor;
+    }
+}
@@ -0,0 +1,120 @@
+package com.template.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkflowTopologyTest {
+
+    static List<Node> nodes(String... ids) {
+        return Arrays.stream(ids).map(id -> {
+            Node node = new Node();
+            node.setId(id);
+            node.setType("stage");
+            return node;
+        }).toList();
+    }
+
+    // Each edge is given as "source>target" and gets the ID "source-target"
+    static List<Edge> edges(String... links) {
+        return Arrays.stream(links).map(link -> {
+            String[] ends = link.split(">");
+            Edge edge = new Edge();
+            edge.setId(ends[0] + "-" + ends[1]);
+            edge.setSource(ends[0]);
+            edge.setTarget(ends[1]);
+            return edge;
+        }).toList();
+    }
+
+    @Test
+    void ordersADiamond() {
+        WorkflowTopology topology = WorkflowTopology.analyze(nodes("d", "c", "b", "a"), edges("a>b", "a>c", "b>d", "c>d"));
+        List<String> order = topology.getOrder();
+        assertEquals(4, order.size());
+        assertEquals("a", order.get(0));
+        assertEquals("d", order.get(3));
+        assertEquals(Map.of("a", 0, "b", 1, "c", 1, "d", 2), topology.getLevels());
+        assertEquals(3, topology.getCriticalPathLength());
+        assertEquals("a", topology.getCriticalPath().get(0));
+        assertEquals("d", topology.getCriticalPath().get(2));
+    }
+
+    @Test
+    void followsTheLongestPath() {
+        WorkflowTopology topology = WorkflowTopology.analyze(nodes("a", "b", "c", "d"), edges("a>d", "a>b", "b>c", "c>d"));
+        assertEquals(List.of("a", "b", "c", "d"), topology.getCriticalPath());
+        assertEquals(3, topology.getLevels().get("d"));
+    }
+
+    @Test
+    void acceptsSeveralStartNodes() {
+        WorkflowTopology topology = WorkflowTopology.analyze(nodes("a", "b", "c"), edges("a>c", "b>c"));
+        assertEquals(0, topology.getLevels().get("a"));
+        assertEquals(0, topology.getLevels().get("b"));
+        assertEquals(1, topology.getLevels().get("c"));
+    }
+
+    @Test
+    void matchesIdsCaseInsensitively() {
+        WorkflowTopology topology = WorkflowTopology.analyze(nodes("Start", "End"), edges("start>END"));
+        assertEquals(List.of("Start", "End"), topology.getOrder());
+    }
+
+    @Test
+    void rejectsCycles() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WorkflowTopology.analyze(nodes("a", "b", "c", "d"), edges("a>b", "b>c", "c>b", "c>d")));
+        assertTrue(e.getMessage().contains("Cycle through nodes b, c"), e.getMessage());
+        // d only follows the cycle, it is not part of it
+        assertFalse(e.getMessage().contains("b, c, d"), e.getMessage());
+    }
+
+    @Test
+    void rejectsSelfLoops() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WorkflowTopology.analyze(nodes("a", "b"), edges("a>b", "b>b")));
+        assertTrue(e.getMessage().contains("Cycle through nodes b"), e.getMessage());
+    }
+
+    @Test
+    void rejectsNodesOnlyReachableThroughACycle() {
+        // Without a start node before it, the cycle b <-> c and the node d after it cannot be reached
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WorkflowTopology.analyze(nodes("a", "b", "c", "d"), edges("b>c", "c>b", "c>d")));
+        assertTrue(e.getMessage().contains("Cycle through nodes b, c"), e.getMessage());
+        assertTrue(e.getMessage().contains("Nodes not reachable from a start node: d"), e.getMessage());
+    }
+
+    @Test
+    void rejectsDanglingReferences() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> WorkflowTopology.analyze(nodes("a", "b"), edges("a>b", "a>x", "y>b")));
+        assertTrue(e.getMessage().contains("Edge a-x refers to an unknown target node x"), e.getMessage());
+        assertTrue(e.getMessage().contains("Edge y-b refers to an unknown source node y"), e.getMessage());
+    }
+
+    @Test
+    void rejectsMissingAndDuplicateIds() {
+        List<Node> nodes = new ArrayList<>(nodes("a", "A", "b"));
+        nodes.add(new Node());
+        List<Edge> edges = new ArrayList<>(edges("a>b", "a>b"));
+        edges.add(new Edge());
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> WorkflowTopology.analyze(nodes, edges));
+        assertTrue(e.getMessage().contains("Duplicate node id A"), e.getMessage());
+        assertTrue(e.getMessage().contains("A node has no id"), e.getMessage());
+        assertTrue(e.getMessage().contains("Duplicate edge id a-b"), e.getMessage());
+        assertTrue(e.getMessage().contains("An edge has no id"), e.getMessage());
+    }
+
+    @Test
+    void returnsNullForInvalidGraphsWhenAsked() {
+        assertNull(WorkflowTopology.analyzeIfValid(nodes("a", "b"), edges("a>b", "b>a")));
+        assertNotNull(WorkflowTopology.analyzeIfValid(nodes("a", "b"), edges("a>b")));
+    }
+}
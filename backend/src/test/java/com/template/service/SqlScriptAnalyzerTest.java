@@ -0,0 +1,131 @@
+package com.template.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlScriptAnalyzerTest {
+
+    @Test
+    void splitsAtTopLevelSemicolons() {
+        assertEquals(List.of("SELECT 1", "SELECT 2", "SELECT 3"), SqlScriptAnalyzer.split("SELECT 1; SELECT 2;\n\nSELECT 3"));
+    }
+
+    @Test
+    void dropsEmptyStatements() {
+        assertEquals(List.of("SELECT 1"), SqlScriptAnalyzer.split(";; SELECT 1 ;;\n ; "));
+        assertEquals(List.of(), SqlScriptAnalyzer.split(""));
+    }
+
+    @Test
+    void keepsSemicolonsInsideStringLiterals() {
+        assertEquals(List.of("INSERT INTO t VALUES ('a;b')", "SELECT 2"),
+                SqlScriptAnalyzer.split("INSERT INTO t VALUES ('a;b'); SELECT 2"));
+        // A doubled quote is an escaped quote, not the end of the literal
+        assertEquals(List.of("INSERT INTO t VALUES ('it''s; fine')", "SELECT 2"),
+                SqlScriptAnalyzer.split("INSERT INTO t VALUES ('it''s; fine'); SELECT 2"));
+    }
+
+    @Test
+    void keepsSemicolonsInsideQuotedIdentifiers() {
+        assertEquals(List.of("SELECT \"a;b\" FROM t", "SELECT `c;d` FROM u"),
+                SqlScriptAnalyzer.split("SELECT \"a;b\" FROM t; SELECT `c;d` FROM u;"));
+    }
+
+    @Test
+    void keepsSemicolonsInsideComments() {
+        assertEquals(List.of("SELECT 1 -- first; still a comment\nFROM t", "SELECT 2 /* a; b */ FROM u"),
+                SqlScriptAnalyzer.split("SELECT 1 -- first; still a comment\nFROM t; SELECT 2 /* a; b */ FROM u"));
+    }
+
+    @Test
+    void dropsStatementsThatAreOnlyComments() {
+        assertEquals(List.of("SELECT 1"), SqlScriptAnalyzer.split("-- setup;\n/* nothing; here */; SELECT 1;\n-- done"));
+    }
+
+    @Test
+    void keepsUnterminatedLiteralsAndCommentsInTheLastStatement() {
+        assertEquals(List.of("SELECT 1", "SELECT 'open; literal"), SqlScriptAnalyzer.split("SELECT 1; SELECT 'open; literal"));
+        assertEquals(List.of("SELECT 1 /* open; comment"), SqlScriptAnalyzer.split("SELECT 1 /* open; comment"));
+    }
+
+    @Test
+    void findsReferencedTables() {
+        assertEquals(Set.of("ORDERS", "CUSTOMERS"),
+                SqlScriptAnalyzer.referencedTables("SELECT * FROM orders o JOIN public.customers c ON c.id = o.customer_id"));
+        assertEquals(Set.of("AUDIT", "ORDERS"), SqlScriptAnalyzer.referencedTables("INSERT INTO audit SELECT * FROM orders"));
+        assertEquals(Set.of("ORDERS"), SqlScriptAnalyzer.referencedTables("CREATE INDEX IF NOT EXISTS idx_o ON orders (id)"));
+        // Table names inside literals and comments do not count
+        assertEquals(Set.of("T"), SqlScriptAnalyzer.referencedTables("UPDATE t SET note = 'FROM other' -- JOIN third"));
+    }
+
+    @Test
+    void cannotAnalyzeStatementsWithHiddenEffects() {
+        assertNull(SqlScriptAnalyzer.referencedTables("CALL refresh_all()"));
+        assertNull(SqlScriptAnalyzer.referencedTables("SET MODE MySQL"));
+        assertNull(SqlScriptAnalyzer.referencedTables("SELECT 1"));
+    }
+
+    @Test
+    void normalizesConstantsAway() {
+        assertEquals(SqlScriptAnalyzer.normalize("select * from t where id = 1 and name = 'a'"),
+                SqlScriptAnalyzer.normalize("SELECT *  FROM t\nWHERE id = 42 AND name = 'b' -- comment"));
+    }
+
+    @Test
+    void plansIndependentStatementsIntoSeparateLanes() {
+        List<String> statements = List.of(
+                "INSERT INTO a VALUES (1)",
+                "INSERT INTO b VALUES (1)",
+                "UPDATE a SET x = 2",
+                "DELETE FROM c");
+        List<List<Integer>> lanes = SqlScriptAnalyzer.planLanes(statements, 4);
+        assertEquals(3, lanes.size());
+        assertTrue(lanes.contains(List.of(0, 2)));
+        assertTrue(lanes.contains(List.of(1)));
+        assertTrue(lanes.contains(List.of(3)));
+    }
+
+    @Test
+    void plansStatementsSharingTablesTransitivelyIntoOneLane() {
+        List<String> statements = List.of(
+                "INSERT INTO a VALUES (1)",
+                "INSERT INTO b SELECT * FROM a",
+                "UPDATE b SET x = 2",
+                "DELETE FROM c");
+        List<List<Integer>> lanes = SqlScriptAnalyzer.planLanes(statements, 4);
+        assertEquals(List.of(List.of(0, 1, 2), List.of(3)), lanes);
+    }
+
+    @Test
+    void runsScriptsWithUnanalyzableStatementsSerially() {
+        List<String> statements = List.of("INSERT INTO a VALUES (1)", "CALL something()", "DELETE FROM c");
+        assertEquals(List.of(List.of(0, 1, 2)), SqlScriptAnalyzer.planLanes(statements, 4));
+    }
+
+    @Test
+    void plansStatementsOnLinkedTablesIntoOneLane() {
+        List<String> statements = List.of(
+                "INSERT INTO customers VALUES (1)",
+                "INSERT INTO orders VALUES (1, 1)",
+                "DELETE FROM audit");
+        List<List<Integer>> lanes = SqlScriptAnalyzer.planLanes(statements, 4,
+                Map.of("ORDERS", Set.of("CUSTOMERS"), "CUSTOMERS", Set.of("ORDERS")));
+        assertEquals(2, lanes.size());
+        assertTrue(lanes.contains(List.of(0, 1)));
+        assertTrue(lanes.contains(List.of(2)));
+    }
+
+    @Test
+    void capsTheNumberOfLanes() {
+        List<String> statements = List.of("DELETE FROM a", "DELETE FROM b", "DELETE FROM c", "DELETE FROM d");
+        List<List<Integer>> lanes = SqlScriptAnalyzer.planLanes(statements, 2);
+        assertEquals(2, lanes.size());
+        assertEquals(2, lanes.get(0).size());
+        assertEquals(2, lanes.get(1).size());
+    }
+}